@@ -0,0 +1,88 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2017-2026 Daniel Alievsky, AlgART Laboratory (http://algart.net)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package net.algart.maps.benchmarks;
+
+import net.algart.executors.modules.maps.frames.buffers.FrameObjectStitcher;
+import net.algart.executors.modules.maps.frames.buffers.MapBuffer;
+import net.algart.multimatrix.MultiMatrix;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link FrameObjectStitcher}: adding label frames to a stitching {@link MapBuffer},
+ * resolving joined objects and reading reindexed labels.
+ *
+ * <p>Parameters: <code>frameSize</code> and <code>gridSize</code> as in {@link MapBufferBenchmark},
+ * <code>objectStep</code> is the step of the grid of objects: less step means more objects
+ * crossing every frame boundary.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class FrameObjectStitcherBenchmark {
+    @Param({"256", "1024"})
+    int frameSize;
+
+    @Param({"8"})
+    int gridSize;
+
+    @Param({"10", "40"})
+    int objectStep;
+
+    SyntheticLabels labels;
+    MapBuffer stitched;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        labels = new SyntheticLabels(frameSize, gridSize, objectStep);
+        stitched = stitch();
+    }
+
+    @Benchmark
+    public MapBuffer addFramesWithStitching() {
+        return stitch();
+    }
+
+    @Benchmark
+    public MultiMatrix readReindexed() {
+        stitched.objectPairs().resolveAllBases();
+        return stitched.readMatrixReindexedByObjectPairs(stitched.containingRectangle(), true);
+    }
+
+    private MapBuffer stitch() {
+        final MapBuffer mapBuffer = MapBuffer.newInstance()
+                .setMaximalNumberOfStoredFrames(labels.numberOfFrames())
+                .setAutoReindexLabels(true)
+                .setStitchingLabels(true);
+        for (int k = 0; k < labels.numberOfFrames(); k++) {
+            mapBuffer.addFrame(labels.frames.get(k), labels.positions.get(k), null, false);
+        }
+        return mapBuffer;
+    }
+}
@@ -0,0 +1,92 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2017-2026 Daniel Alievsky, AlgART Laboratory (http://algart.net)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package net.algart.maps.benchmarks;
+
+import net.algart.executors.modules.maps.frames.buffers.FrameObjectStitcher;
+import net.algart.executors.modules.maps.frames.buffers.MapBuffer;
+import net.algart.math.IPoint;
+import net.algart.multimatrix.MultiMatrix;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link FrameObjectStitcher#jointCompletedObjectsOfLastFrame(IPoint)}: the main work of
+ * <code>ReadLastFrameFromMapBuffer</code> with jointing completed objects. The last frame of the stitched map
+ * (the right bottom one) is expanded by <code>frameSize</code> in all directions, so the large area
+ * intersects it and 3 its neighbours.
+ *
+ * <p>Parameters: <code>frameSize</code>, <code>gridSize</code> and <code>objectStep</code>
+ * as in {@link FrameObjectStitcherBenchmark}; <code>elementType</code> is the type of labels in the frames
+ * (<code>byte</code> and <code>short</code> frames are added without automatic reindexing,
+ * so the jointing reads them via type conversion).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class JointLastFrameBenchmark {
+    @Param({"256", "1024"})
+    int frameSize;
+
+    @Param({"8"})
+    int gridSize;
+
+    @Param({"10"})
+    int objectStep;
+
+    @Param({"int", "short", "byte"})
+    String elementType;
+
+    MapBuffer stitched;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        final SyntheticLabels labels = new SyntheticLabels(frameSize, gridSize, objectStep);
+        final boolean intLabels = elementType.equals("int");
+        final List<MultiMatrix> frames = labels.framesOfType(switch (elementType) {
+            case "int" -> int.class;
+            case "short" -> short.class;
+            case "byte" -> byte.class;
+            default -> throw new IllegalArgumentException("Unknown element type " + elementType);
+        });
+        stitched = MapBuffer.newInstance()
+                .setMaximalNumberOfStoredFrames(labels.numberOfFrames())
+                .setAutoReindexLabels(intLabels)
+                .setStitchingLabels(true);
+        for (int k = 0; k < labels.numberOfFrames(); k++) {
+            stitched.addFrame(frames.get(k), labels.positions.get(k), null, false);
+        }
+    }
+
+    @Benchmark
+    public MapBuffer.Frame jointLastFrame() {
+        final FrameObjectStitcher stitcher = stitched.getFrameObjectStitcher();
+        return stitcher.jointCompletedObjectsOfLastFrame(IPoint.of(frameSize, frameSize));
+    }
+}
@@ -0,0 +1,90 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2017-2026 Daniel Alievsky, AlgART Laboratory (http://algart.net)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package net.algart.maps.benchmarks;
+
+import net.algart.executors.modules.maps.frames.buffers.MapBuffer;
+import net.algart.math.IRectangularArea;
+import net.algart.multimatrix.MultiMatrix;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Filling {@link MapBuffer} by a <code>gridSize</code>x<code>gridSize</code> grid of label frames
+ * and reading back the whole covered rectangle. Stitching is disabled here:
+ * see {@link FrameObjectStitcherBenchmark}.
+ *
+ * <p>Parameters: <code>frameSize</code> is the width/height of every frame in pixels,
+ * <code>gridSize</code> is the number of frames along every axis.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class MapBufferBenchmark {
+    @Param({"256", "1024"})
+    int frameSize;
+
+    @Param({"8"})
+    int gridSize;
+
+    SyntheticLabels labels;
+    MapBuffer filled;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        labels = new SyntheticLabels(frameSize, gridSize, 40);
+        filled = fill();
+    }
+
+    @Benchmark
+    public MapBuffer addFrames() {
+        return fill();
+    }
+
+    @Benchmark
+    public MultiMatrix readMatrix() {
+        return filled.readMatrix(filled.containingRectangle());
+    }
+
+    @Benchmark
+    public MultiMatrix readCentralFrame() {
+        final long shift = frameSize / 2;
+        return filled.readMatrix(IRectangularArea.of(
+                shift, shift, shift + frameSize - 1, shift + frameSize - 1));
+    }
+
+    private MapBuffer fill() {
+        final MapBuffer mapBuffer = MapBuffer.newInstance()
+                .setMaximalNumberOfStoredFrames(labels.numberOfFrames())
+                .setAutoReindexLabels(true);
+        for (int k = 0; k < labels.numberOfFrames(); k++) {
+            mapBuffer.addFrame(labels.frames.get(k), labels.positions.get(k), null, false);
+        }
+        return mapBuffer;
+    }
+}
@@ -0,0 +1,90 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2017-2026 Daniel Alievsky, AlgART Laboratory (http://algart.net)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package net.algart.maps.benchmarks;
+
+import net.algart.executors.modules.maps.frames.buffers.MapBuffer;
+import net.algart.math.IRectangularArea;
+import net.algart.multimatrix.MultiMatrix;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link MapBuffer#readMatrixReindexedByObjectPairs(IRectangularArea, boolean)} for an area, covering
+ * many small stitched frames: the main work of <code>ReadFromMapBuffer</code> with reindexing.
+ *
+ * <p>Parameters: <code>frameSize</code>, <code>gridSize</code> and <code>objectStep</code>
+ * as in {@link FrameObjectStitcherBenchmark}; <code>quick</code> is the
+ * <code>quickCallAfterResolveAllBases</code> argument (<code>false</code> means that the bases are resolved
+ * by the reading method itself), <code>runLengthEncoded</code> enables run-length storage of the frames.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class ReadReindexedBenchmark {
+    @Param({"64", "256"})
+    int frameSize;
+
+    @Param({"16"})
+    int gridSize;
+
+    @Param({"10"})
+    int objectStep;
+
+    @Param({"true", "false"})
+    boolean quick;
+
+    @Param({"false", "true"})
+    boolean runLengthEncoded;
+
+    MapBuffer stitched;
+    IRectangularArea area;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        final SyntheticLabels labels = new SyntheticLabels(frameSize, gridSize, objectStep);
+        stitched = MapBuffer.newInstance()
+                .setMaximalNumberOfStoredFrames(labels.numberOfFrames())
+                .setAutoReindexLabels(true)
+                .setStitchingLabels(true)
+                .setRunLengthEncodedLabels(runLengthEncoded);
+        for (int k = 0; k < labels.numberOfFrames(); k++) {
+            stitched.addFrame(labels.frames.get(k), labels.positions.get(k), null, false);
+        }
+        area = stitched.containingRectangle().dilate(-frameSize / 2);
+        // - intersects all frames, but only partially intersects the frames at the boundary
+    }
+
+    @Benchmark
+    public MultiMatrix readReindexed() {
+        if (quick) {
+            stitched.objectPairs().resolveAllBases();
+        }
+        return stitched.readMatrixReindexedByObjectPairs(area, quick);
+    }
+}
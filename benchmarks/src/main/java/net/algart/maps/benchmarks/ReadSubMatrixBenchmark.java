@@ -0,0 +1,104 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2017-2026 Daniel Alievsky, AlgART Laboratory (http://algart.net)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package net.algart.maps.benchmarks;
+
+import net.algart.arrays.Matrix;
+import net.algart.arrays.PArray;
+import net.algart.maps.pyramids.io.api.AbstractPlanePyramidSource;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link AbstractPlanePyramidSource#readSubMatrix} over a synthetic 3-band pyramid.
+ * Every thread scans the zero level by areas of <code>areaSize</code>, row by row, like a slide viewer
+ * or a frame-by-frame analysis; neighbouring areas share tiles, so the tile cache is important.
+ *
+ * <p>Parameters: <code>tileSize</code> is the reading tile (see <code>readingTileDim()</code>),
+ * <code>cacheMemory</code> is the tile cache size in bytes (0 disables caching).
+ * Use JMH option <code>-t</code> to set the number of threads, sharing the same source.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ReadSubMatrixBenchmark {
+    private static final long MAP_DIM = 65536;
+
+    @State(Scope.Benchmark)
+    public static class Source {
+        @Param({"256", "1024"})
+        int tileSize;
+
+        @Param({"0", "67108864"})
+        long cacheMemory;
+
+        SyntheticPlanePyramidSource source;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            source = new SyntheticPlanePyramidSource(MAP_DIM, MAP_DIM, 3, 3, tileSize);
+            if (cacheMemory > 0) {
+                source.setTileCachingMemory(cacheMemory);
+                source.enableTileCaching(AbstractPlanePyramidSource.TileDirection.RIGHT_DOWN);
+            }
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Scanner {
+        @Param({"1000"})
+        int areaSize;
+
+        long x;
+        long y;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            x = 0;
+            y = 0;
+        }
+
+        void next() {
+            x += areaSize;
+            if (x + areaSize > MAP_DIM) {
+                x = 0;
+                y += areaSize;
+                if (y + areaSize > MAP_DIM) {
+                    y = 0;
+                }
+            }
+        }
+    }
+
+    @Benchmark
+    public Matrix<? extends PArray> readSubMatrix(Source source, Scanner scanner) {
+        final Matrix<? extends PArray> result = source.source.readSubMatrix(0,
+                scanner.x, scanner.y, scanner.x + scanner.areaSize, scanner.y + scanner.areaSize);
+        scanner.next();
+        return result;
+    }
+}
@@ -0,0 +1,85 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2017-2026 Daniel Alievsky, AlgART Laboratory (http://algart.net)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package net.algart.maps.benchmarks;
+
+import net.algart.executors.modules.maps.frames.graph.ShortestPathFinder;
+import net.algart.executors.modules.maps.frames.graph.SimpleWeightedDirectedGraph;
+import net.algart.executors.modules.maps.frames.graph.WeightedDirectedGraph;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link ShortestPathFinder} on a random sorted acyclic graph (every edge goes to a greater vertex),
+ * like graphs, built while linking object boundaries.
+ *
+ * <p>Parameters: <code>algorithm</code>, <code>numberOfVertices</code>, <code>edgesPerVertex</code>.
+ * Note: SIMPLE_DIJKSTRA requires O(N<sup>2</sup>) and is not included by default;
+ * you may add it by JMH option <code>-p algorithm=SIMPLE_DIJKSTRA</code>.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class ShortestPathFinderBenchmark {
+    private static final long SEED = 157;
+
+    @Param({"FOR_SORTED_ACYCLIC", "HEAP_DIJKSTRA"})
+    String algorithm;
+
+    @Param({"100000", "1000000"})
+    int numberOfVertices;
+
+    @Param({"4"})
+    int edgesPerVertex;
+
+    WeightedDirectedGraph graph;
+    ShortestPathFinder finder;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        final Random rnd = new Random(SEED);
+        final List<SimpleWeightedDirectedGraph.Edge> edges = new ArrayList<>();
+        for (int v = 0; v < numberOfVertices - 1; v++) {
+            for (int k = 0; k < edgesPerVertex; k++) {
+                final int to = Math.min(numberOfVertices - 1, v + 1 + rnd.nextInt(100));
+                edges.add(new SimpleWeightedDirectedGraph.Edge(v, to, rnd.nextInt(1000)));
+            }
+        }
+        graph = new SimpleWeightedDirectedGraph(numberOfVertices, edges);
+        finder = ShortestPathFinder.newInstance(ShortestPathFinder.Algorithm.valueOf(algorithm), graph);
+    }
+
+    @Benchmark
+    public double findShortestPaths() {
+        finder.findShortestPaths(0);
+        return finder.getDistance(numberOfVertices - 1);
+    }
+}
@@ -0,0 +1,117 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2017-2026 Daniel Alievsky, AlgART Laboratory (http://algart.net)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package net.algart.maps.benchmarks;
+
+import net.algart.arrays.Matrices;
+import net.algart.arrays.Matrix;
+import net.algart.arrays.SimpleMemoryModel;
+import net.algart.arrays.UpdatablePArray;
+import net.algart.math.IPoint;
+import net.algart.multimatrix.MultiMatrix;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Label frames, cut from a virtual map of rectangular objects on a regular grid.
+ * Many objects cross frame boundaries, so stitching has real work to do.
+ * All data are generated from the fixed seed and are identical in all runs.
+ */
+final class SyntheticLabels {
+    private static final long SEED = 1157;
+
+    final int frameSize;
+    final int gridSize;
+    final List<MultiMatrix> frames = new ArrayList<>();
+    final List<IPoint> positions = new ArrayList<>();
+
+    SyntheticLabels(int frameSize, int gridSize, int objectStep) {
+        this.frameSize = frameSize;
+        this.gridSize = gridSize;
+        final Random rnd = new Random(SEED);
+        final int objectsPerRow = (frameSize * gridSize + objectStep - 1) / objectStep;
+        final int[] objectSizes = new int[objectsPerRow * objectsPerRow];
+        for (int k = 0; k < objectSizes.length; k++) {
+            objectSizes[k] = 1 + rnd.nextInt(objectStep - 1);
+        }
+        for (int frameY = 0; frameY < gridSize; frameY++) {
+            for (int frameX = 0; frameX < gridSize; frameX++) {
+                final int[] labels = new int[frameSize * frameSize];
+                for (int y = 0, disp = 0; y < frameSize; y++) {
+                    final int globalY = frameY * frameSize + y;
+                    for (int x = 0; x < frameSize; x++, disp++) {
+                        final int globalX = frameX * frameSize + x;
+                        final int objectIndex = (globalY / objectStep) * objectsPerRow + globalX / objectStep;
+                        final int size = objectSizes[objectIndex];
+                        final boolean inside = globalX % objectStep < size && globalY % objectStep < size;
+                        labels[disp] = inside ? 1 + objectIndex % 65536 : 0;
+                        // - labels are repeated: like in real segmentation, they are unique only inside a frame
+                    }
+                }
+                frames.add(MultiMatrix.of2DMono(Matrices.matrix(
+                        SimpleMemoryModel.asUpdatableIntArray(labels), frameSize, frameSize)));
+                positions.add(IPoint.of((long) frameX * frameSize, (long) frameY * frameSize));
+            }
+        }
+    }
+
+    int numberOfFrames() {
+        return frames.size();
+    }
+
+    /**
+     * Returns the same frames with labels, stored in <code>byte</code>, <code>short</code> or <code>int</code>
+     * elements. For narrower types, non-zero labels are replaced with
+     * <code>1 + (label - 1) % maxLabel</code>, so they stay non-zero.
+     */
+    List<MultiMatrix> framesOfType(Class<?> elementType) {
+        if (elementType == int.class) {
+            return frames;
+        }
+        final List<MultiMatrix> result = new ArrayList<>();
+        for (MultiMatrix frame : frames) {
+            final int[] labels = frame.channel(0).toInt();
+            final Matrix<? extends UpdatablePArray> converted;
+            if (elementType == short.class) {
+                final short[] shorts = new short[labels.length];
+                for (int k = 0; k < labels.length; k++) {
+                    shorts[k] = (short) (labels[k] == 0 ? 0 : 1 + (labels[k] - 1) % 65535);
+                }
+                converted = Matrices.matrix(SimpleMemoryModel.asUpdatableShortArray(shorts), frameSize, frameSize);
+            } else if (elementType == byte.class) {
+                final byte[] bytes = new byte[labels.length];
+                for (int k = 0; k < labels.length; k++) {
+                    bytes[k] = (byte) (labels[k] == 0 ? 0 : 1 + (labels[k] - 1) % 255);
+                }
+                converted = Matrices.matrix(SimpleMemoryModel.asUpdatableByteArray(bytes), frameSize, frameSize);
+            } else {
+                throw new IllegalArgumentException("Unsupported element type " + elementType);
+            }
+            result.add(MultiMatrix.of2DMono(converted));
+        }
+        return result;
+    }
+}
@@ -0,0 +1,134 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2017-2026 Daniel Alievsky, AlgART Laboratory (http://algart.net)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package net.algart.maps.benchmarks;
+
+import net.algart.arrays.Matrices;
+import net.algart.arrays.Matrix;
+import net.algart.arrays.PArray;
+import net.algart.arrays.SimpleMemoryModel;
+import net.algart.maps.pyramids.io.api.AbstractPlanePyramidSource;
+
+import java.util.NoSuchElementException;
+
+/**
+ * Pyramid source without any file: every tile is generated by a simple deterministic formula.
+ * Generation of the pixels plays the role of decoding, so {@link #readSubMatrix} is measured
+ * together with tile splitting and tile cache, but without disk I/O.
+ */
+public final class SyntheticPlanePyramidSource extends AbstractPlanePyramidSource {
+    private static final int COMPRESSION = 4;
+
+    private final long dimX;
+    private final long dimY;
+    private final int numberOfResolutions;
+    private final int bandCount;
+    private final int readingTileDim;
+
+    public SyntheticPlanePyramidSource(
+            long dimX,
+            long dimY,
+            int numberOfResolutions,
+            int bandCount,
+            int readingTileDim) {
+        if (dimX <= 0 || dimY <= 0) {
+            throw new IllegalArgumentException("Zero or negative dimensions " + dimX + "x" + dimY);
+        }
+        if (numberOfResolutions <= 0 || bandCount <= 0 || readingTileDim <= 0) {
+            throw new IllegalArgumentException("Zero or negative numberOfResolutions, bandCount or readingTileDim");
+        }
+        this.dimX = dimX;
+        this.dimY = dimY;
+        this.numberOfResolutions = numberOfResolutions;
+        this.bandCount = bandCount;
+        this.readingTileDim = readingTileDim;
+    }
+
+    @Override
+    public int numberOfResolutions() {
+        return numberOfResolutions;
+    }
+
+    @Override
+    public int compression() {
+        return COMPRESSION;
+    }
+
+    @Override
+    public int bandCount() {
+        return bandCount;
+    }
+
+    @Override
+    public long[] dimensions(int resolutionLevel) throws NoSuchElementException {
+        if (resolutionLevel < 0 || resolutionLevel >= numberOfResolutions) {
+            throw new NoSuchElementException("Resolution level #" + resolutionLevel + " is absent");
+        }
+        long divider = 1;
+        for (int k = 0; k < resolutionLevel; k++) {
+            divider *= COMPRESSION;
+        }
+        return new long[]{bandCount, Math.max(1, dimX / divider), Math.max(1, dimY / divider)};
+    }
+
+    @Override
+    public long dim(int resolutionLevel, int index) {
+        return dimensions(resolutionLevel)[index];
+    }
+
+    @Override
+    public boolean isElementTypeSupported() {
+        return true;
+    }
+
+    @Override
+    public Class<?> elementType() {
+        return byte.class;
+    }
+
+    @Override
+    protected int readingTileDim() {
+        return readingTileDim;
+    }
+
+    @Override
+    protected Matrix<? extends PArray> readLittleSubMatrix(
+            int resolutionLevel, long fromX, long fromY, long toX, long toY) {
+        checkSubMatrixRanges(resolutionLevel, fromX, fromY, toX, toY, true);
+        final int sizeX = (int) (toX - fromX);
+        final int sizeY = (int) (toY - fromY);
+        final byte[] data = new byte[bandCount * sizeX * sizeY];
+        for (int y = 0, disp = 0; y < sizeY; y++) {
+            final long globalY = fromY + y;
+            for (int x = 0; x < sizeX; x++) {
+                final long globalX = fromX + x;
+                final long hash = (globalX * 0x9E3779B1L) ^ (globalY * 0x85EBCA77L) ^ resolutionLevel;
+                for (int b = 0; b < bandCount; b++, disp++) {
+                    data[disp] = (byte) (hash >>> (8 * b));
+                }
+            }
+        }
+        return Matrices.matrix(SimpleMemoryModel.asUpdatableByteArray(data), bandCount, sizeX, sizeY);
+    }
+}
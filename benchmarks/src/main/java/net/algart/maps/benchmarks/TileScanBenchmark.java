@@ -0,0 +1,121 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2017-2026 Daniel Alievsky, AlgART Laboratory (http://algart.net)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package net.algart.maps.benchmarks;
+
+import net.algart.maps.pyramids.io.api.AbstractPlanePyramidSource;
+import net.algart.maps.pyramids.io.api.PlanePyramidSource;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Full scan of the zero level of a synthetic 3-band pyramid by frames of <code>frameSize</code>
+ * via {@link AbstractPlanePyramidSource#readSubMatrix}, in different orders: row by row, "snake"
+ * (every odd row is scanned in reverse order), column by column and column "snake".
+ * One benchmark invocation is the full scan, so the results directly show the cost of repeated tile decoding
+ * when the tile cache (<code>cacheMemory</code>) is less than the whole map.
+ *
+ * <p><code>readahead</code> enables {@link AbstractPlanePyramidSource#setTileReadahead(boolean)};
+ * <code>processingTokens</code> simulates analysis of every frame (see {@link Blackhole#consumeCPU(long)}),
+ * during which the tiles of the next frame can be decoded in background.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TileScanBenchmark {
+    private static final long MAP_DIM_X = 20480;
+    private static final long MAP_DIM_Y = 12288;
+    private static final int TILE_SIZE = 1024;
+
+    public enum Scanning {
+        ROWS(false, false),
+        SNAKE(false, true),
+        COLUMNS(true, false),
+        COLUMNS_SNAKE(true, true);
+
+        final boolean columns;
+        final boolean snake;
+
+        Scanning(boolean columns, boolean snake) {
+            this.columns = columns;
+            this.snake = snake;
+        }
+    }
+
+    @Param({"ROWS", "SNAKE", "COLUMNS_SNAKE"})
+    Scanning scanning;
+
+    @Param({"false", "true"})
+    boolean readahead;
+
+    @Param({"75497472"})
+    // - 24 tiles 1024x1024x3: less than 2 rows of tiles
+    long cacheMemory;
+
+    @Param({"1000"})
+    int frameSize;
+
+    @Param({"0", "1000000"})
+    long processingTokens;
+
+    private SyntheticPlanePyramidSource source;
+
+    @Setup(Level.Invocation)
+    public void setUp() {
+        source = new SyntheticPlanePyramidSource(MAP_DIM_X, MAP_DIM_Y, 1, 3, TILE_SIZE);
+        source.setTileCachingMemory(cacheMemory);
+        source.enableTileCaching(AbstractPlanePyramidSource.TileDirection.RIGHT_DOWN);
+        source.setTileReadahead(readahead);
+    }
+
+    @TearDown(Level.Invocation)
+    public void tearDown() {
+        source.freeResources(PlanePyramidSource.FlushMode.STANDARD);
+    }
+
+    @Benchmark
+    public void scan(Blackhole blackhole) {
+        final long nx = (MAP_DIM_X + frameSize - 1) / frameSize;
+        final long ny = (MAP_DIM_Y + frameSize - 1) / frameSize;
+        final long highCount = scanning.columns ? nx : ny;
+        final long lowCount = scanning.columns ? ny : nx;
+        for (long high = 0; high < highCount; high++) {
+            for (long k = 0; k < lowCount; k++) {
+                final long low = scanning.snake && high % 2 == 1 ? lowCount - 1 - k : k;
+                final long fromX = (scanning.columns ? high : low) * frameSize;
+                final long fromY = (scanning.columns ? low : high) * frameSize;
+                blackhole.consume(source.readSubMatrix(0, fromX, fromY,
+                        Math.min(fromX + frameSize, MAP_DIM_X), Math.min(fromY + frameSize, MAP_DIM_Y)));
+                if (processingTokens > 0) {
+                    Blackhole.consumeCPU(processingTokens);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,98 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2017-2026 Daniel Alievsky, AlgART Laboratory (http://algart.net)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package net.algart.maps.benchmarks;
+
+import net.algart.arrays.Matrices;
+import net.algart.arrays.Matrix;
+import net.algart.arrays.PArray;
+import net.algart.executors.modules.maps.tiff.WriteTiff;
+import net.algart.matrices.tiff.tags.TagCompression;
+import net.algart.multimatrix.MultiMatrix;
+import net.algart.multimatrix.MultiMatrix2D;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link WriteTiff}: writing a synthetic 3-band image into a new tiled TIFF file
+ * (in the temporary folder, which is removed after the trial).
+ *
+ * <p>Parameters: <code>imageSize</code> is the width/height of the image,
+ * <code>tileSize</code> is the TIFF tile width/height, <code>compression</code> is a name
+ * of {@link TagCompression} constant.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class WriteTiffBenchmark {
+    @Param({"4096"})
+    int imageSize;
+
+    @Param({"256", "1024"})
+    int tileSize;
+
+    @Param({"NONE", "DEFLATE"})
+    String compression;
+
+    Path folder;
+    Path file;
+    MultiMatrix2D image;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        folder = Files.createTempDirectory("scichains-maps-benchmark");
+        file = folder.resolve("result.tiff");
+        final Matrix<? extends PArray> packed = new SyntheticPlanePyramidSource(
+                imageSize, imageSize, 1, 3, imageSize).readSubMatrix(0, 0, 0, imageSize, imageSize);
+        image = MultiMatrix.of2DRGBA(Matrices.separate(packed));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(file);
+        Files.deleteIfExists(folder);
+    }
+
+    @Benchmark
+    public Path writeTiff() {
+        final WriteTiff writer = new WriteTiff();
+        try {
+            writer.setTiled(true)
+                    .setTileSizeX(tileSize)
+                    .setTileSizeY(tileSize)
+                    .setCompression(TagCompression.valueOf(compression));
+            writer.writeTiff(file, image);
+        } finally {
+            writer.close();
+        }
+        return file;
+    }
+}
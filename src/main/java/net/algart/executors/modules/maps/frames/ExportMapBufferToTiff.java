@@ -0,0 +1,278 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2017-2026 Daniel Alievsky, AlgART Laboratory (http://algart.net)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package net.algart.executors.modules.maps.frames;
+
+import net.algart.arrays.Matrix;
+import net.algart.arrays.PArray;
+import net.algart.executors.api.ReadOnlyExecutionInput;
+import net.algart.executors.modules.maps.frames.buffers.MapBuffer;
+import net.algart.executors.modules.maps.frames.buffers.MapBufferKey;
+import net.algart.executors.modules.maps.tiff.AbstractTiffOperation;
+import net.algart.executors.modules.maps.tiff.WriteTiff;
+import net.algart.math.IRectangularArea;
+import net.algart.matrices.tiff.TiffIFD;
+import net.algart.matrices.tiff.TiffWriter;
+import net.algart.matrices.tiff.tags.TagCompression;
+import net.algart.matrices.tiff.tiles.TiffTile;
+import net.algart.matrices.tiff.tiles.TiffWriteMap;
+import net.algart.multimatrix.MultiMatrix;
+
+import java.io.IOError;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+
+public final class ExportMapBufferToTiff extends AbstractTiffOperation implements ReadOnlyExecutionInput {
+    public static final String OUTPUT_NUMBER_OF_WRITTEN_TILES = "number_of_written_tiles";
+
+    private boolean appendIFDToExistingTiff = false;
+    private boolean deleteFileOnError = true;
+    private boolean bigTiff = false;
+    private WriteTiff.ByteOrder byteOrder = WriteTiff.ByteOrder.NATIVE;
+    private TagCompression compression = TagCompression.NONE;
+    private Double losslessCompressionLevel = null;
+    private boolean signedIntegers = false;
+    private int tileSizeX = 512;
+    private int tileSizeY = 512;
+    private boolean reindexStitched = true;
+
+    public ExportMapBufferToTiff() {
+        defaultOutputPortName(OUTPUT_ABSOLUTE_PATH);
+        addInputScalar(InitializeMapBuffer.MAP_BUFFER_ID);
+        addInputNumbers(ChangeRectangleInsideMapBuffer.RECTANGLE);
+        addOutputScalar(OUTPUT_IFD_INDEX);
+        addOutputScalar(OUTPUT_NUMBER_OF_IMAGES);
+        addOutputScalar(OUTPUT_IMAGE_DIM_X);
+        addOutputScalar(OUTPUT_IMAGE_DIM_Y);
+        addOutputScalar(OUTPUT_IFD);
+        addOutputScalar(OUTPUT_PRETTY_IFD);
+        addOutputScalar(OUTPUT_FILE_SIZE);
+        addOutputScalar(OUTPUT_NUMBER_OF_WRITTEN_TILES);
+        addOutputNumbers(ChangeRectangleInsideMapBuffer.RECTANGLE);
+    }
+
+    @Override
+    public ExportMapBufferToTiff setFile(String file) {
+        super.setFile(file);
+        return this;
+    }
+
+    public boolean isAppendIFDToExistingTiff() {
+        return appendIFDToExistingTiff;
+    }
+
+    public ExportMapBufferToTiff setAppendIFDToExistingTiff(boolean appendIFDToExistingTiff) {
+        this.appendIFDToExistingTiff = appendIFDToExistingTiff;
+        return this;
+    }
+
+    public boolean isDeleteFileOnError() {
+        return deleteFileOnError;
+    }
+
+    public ExportMapBufferToTiff setDeleteFileOnError(boolean deleteFileOnError) {
+        this.deleteFileOnError = deleteFileOnError;
+        return this;
+    }
+
+    public boolean isBigTiff() {
+        return bigTiff;
+    }
+
+    public ExportMapBufferToTiff setBigTiff(boolean bigTiff) {
+        this.bigTiff = bigTiff;
+        return this;
+    }
+
+    public WriteTiff.ByteOrder getByteOrder() {
+        return byteOrder;
+    }
+
+    public ExportMapBufferToTiff setByteOrder(WriteTiff.ByteOrder byteOrder) {
+        this.byteOrder = nonNull(byteOrder);
+        return this;
+    }
+
+    public TagCompression getCompression() {
+        return compression;
+    }
+
+    public ExportMapBufferToTiff setCompression(TagCompression compression) {
+        this.compression = nonNull(compression);
+        return this;
+    }
+
+    public Double getLosslessCompressionLevel() {
+        return losslessCompressionLevel;
+    }
+
+    public ExportMapBufferToTiff setLosslessCompressionLevel(Double losslessCompressionLevel) {
+        this.losslessCompressionLevel = losslessCompressionLevel;
+        return this;
+    }
+
+    public boolean isSignedIntegers() {
+        return signedIntegers;
+    }
+
+    public ExportMapBufferToTiff setSignedIntegers(boolean signedIntegers) {
+        this.signedIntegers = signedIntegers;
+        return this;
+    }
+
+    public int getTileSizeX() {
+        return tileSizeX;
+    }
+
+    public ExportMapBufferToTiff setTileSizeX(int tileSizeX) {
+        this.tileSizeX = positive(tileSizeX);
+        return this;
+    }
+
+    public int getTileSizeY() {
+        return tileSizeY;
+    }
+
+    public ExportMapBufferToTiff setTileSizeY(int tileSizeY) {
+        this.tileSizeY = positive(tileSizeY);
+        return this;
+    }
+
+    public boolean isReindexStitched() {
+        return reindexStitched;
+    }
+
+    public ExportMapBufferToTiff setReindexStitched(boolean reindexStitched) {
+        this.reindexStitched = reindexStitched;
+        return this;
+    }
+
+    @Override
+    public void process() {
+        final long mapBufferId = getInputScalar(InitializeMapBuffer.MAP_BUFFER_ID).toLong();
+        final IRectangularArea area = getInputNumbers(ChangeRectangleInsideMapBuffer.RECTANGLE, true)
+                .toIRectangularArea();
+        exportMapBuffer(completeFilePath(), mapBufferId, area);
+    }
+
+    /**
+     * Writes the given area of the map buffer (or all its frames, if <code>area</code> is <code>null</code>)
+     * as a new tiled TIFF image. The area is read by horizontal bands with the height of a tile:
+     * every band is written into the TIFF and freed before reading the next one, so the used memory
+     * does not depend on the height of the map. All bands are read from a {@link MapBuffer#snapshot snapshot}
+     * of the map buffer, so other threads can add frames to it while exporting.
+     *
+     * @param path        path to the TIFF file.
+     * @param mapBufferId ID of the map buffer.
+     * @param area        exported area; may be <code>null</code>.
+     */
+    public void exportMapBuffer(Path path, long mapBufferId, IRectangularArea area) {
+        Objects.requireNonNull(path, "Null path");
+        final MapBufferKey mapBufferKey = MapBufferKey.getInstance(mapBufferId);
+        final MapBuffer mapBuffer = mapBufferKey.reqMapBuffer();
+        final boolean reindex = mapBuffer.isStitchingLabels() && reindexStitched;
+        long t1 = System.nanoTime();
+        final MapBuffer.Snapshot snapshot = mapBuffer.snapshot(reindex);
+        // - all bands must be read from the same state of the map buffer; the lock is held only while copying
+        try {
+            if (area == null) {
+                area = snapshot.containingRectangle();
+                if (area == null) {
+                    throw new IllegalStateException("Cannot export empty " + mapBuffer);
+                }
+            }
+            if (area.coordCount() != 2) {
+                throw new IllegalArgumentException("Only 2-dimensional area can be exported to TIFF: " + area);
+            }
+            if (area.sizeX() > Integer.MAX_VALUE || area.sizeY() > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException("Too large area for TIFF: " + area);
+            }
+            logDebug(() -> "Exporting " + mapBufferKey + " to " + path);
+            final int count;
+            try (TiffWriter writer = new TiffWriter(path)) {
+                writer.setBigTiff(bigTiff);
+                writer.setLittleEndian(byteOrder.isLittleEndian());
+                writer.setLosslessCompressionLevel(losslessCompressionLevel);
+                writer.create(appendIFDToExistingTiff);
+                getScalar(OUTPUT_IFD_INDEX).setTo(writer.numberOfExistingImages());
+                count = writeBands(writer, snapshot, area);
+            } catch (IOException | RuntimeException e) {
+                if (deleteFileOnError && !appendIFDToExistingTiff) {
+                    try {
+                        Files.deleteIfExists(path);
+                    } catch (IOException suppressed) {
+                        e.addSuppressed(suppressed);
+                    }
+                }
+                throw e;
+            }
+            getScalar(OUTPUT_NUMBER_OF_WRITTEN_TILES).setTo(count);
+            getNumbers(ChangeRectangleInsideMapBuffer.RECTANGLE).setTo(area);
+        } catch (IOException e) {
+            throw new IOError(e);
+        }
+        fillOutputFileInformation(path);
+        final IRectangularArea exported = area;
+        long t2 = System.nanoTime();
+        logDebug(() -> String.format(Locale.US, "Exporting %s from %s (%s): %.3f ms",
+                exported, mapBufferKey, mapBuffer, (t2 - t1) * 1e-6));
+    }
+
+    private int writeBands(TiffWriter writer, MapBuffer.Snapshot snapshot, IRectangularArea area)
+            throws IOException {
+        TiffWriteMap writeMap = null;
+        int count = 0;
+        for (long minY = area.minY(); minY <= area.maxY(); minY += tileSizeY) {
+            final IRectangularArea band = IRectangularArea.of(
+                    area.minX(), minY, area.maxX(), Math.min(minY + tileSizeY - 1, area.maxY()));
+            final MultiMatrix multiMatrix = snapshot.readMatrix(band);
+            final Matrix<? extends PArray> matrix = multiMatrix.asMultiMatrix2D().mergeChannels();
+            if (writeMap == null) {
+                writeMap = writer.newMap(configure(writer, matrix, area), false);
+                writer.writeForward(writeMap);
+            }
+            final List<TiffTile> updated = writeMap.updateMatrix(matrix, 0, (int) (minY - area.minY()));
+            count += writeMap.writeCompletedTiles(updated);
+            // - the band contains a whole row of tiles: all of them are completed and freed
+        }
+        assert writeMap != null : "area cannot be empty";
+        count += writeMap.completeWriting();
+        fillWritingOutputInformation(this, writeMap);
+        return count;
+    }
+
+    private TiffIFD configure(TiffWriter writer, Matrix<? extends PArray> firstBand, IRectangularArea area) {
+        final TiffIFD ifd = writer.newIFD(true);
+        ifd.putTileSizes(tileSizeX, tileSizeY);
+        ifd.putCompression(compression);
+        ifd.putMatrixInformation(firstBand, signedIntegers);
+        ifd.putImageDimensions((int) area.sizeX(), (int) area.sizeY());
+        // - overrides the sizes of the first band
+        return ifd;
+    }
+}
@@ -39,6 +39,7 @@ public final class InitializeMapBuffer extends Executor {
     private boolean stitchingLabels = false;
     private boolean autoReindexLabels = false;
     private boolean zerosLabelReservedForBackground = true;
+    private boolean runLengthEncodedLabels = false;
     private boolean resetIndexing = true;
 
     public InitializeMapBuffer() {
@@ -92,6 +93,15 @@ public final class InitializeMapBuffer extends Executor {
         return this;
     }
 
+    public boolean isRunLengthEncodedLabels() {
+        return runLengthEncodedLabels;
+    }
+
+    public InitializeMapBuffer setRunLengthEncodedLabels(boolean runLengthEncodedLabels) {
+        this.runLengthEncodedLabels = runLengthEncodedLabels;
+        return this;
+    }
+
     public boolean isResetIndexing() {
         return resetIndexing;
     }
@@ -120,6 +130,7 @@ public final class InitializeMapBuffer extends Executor {
         mapBuffer.setStitchingLabels(stitchingLabels);
         mapBuffer.setAutoReindexLabels(autoReindexLabels);
         mapBuffer.setZerosLabelReservedForBackground(zerosLabelReservedForBackground);
+        mapBuffer.setRunLengthEncodedLabels(runLengthEncodedLabels);
         getScalar(NUMBER_OF_OBJECTS).setTo(mapBuffer.numberOfObjects());
         getScalar().setTo(mapBufferKey.mapBufferId());
     }
@@ -39,17 +39,24 @@ public final class MapBufferCorrelationTable extends ScalarFilter {
     public static final String PARTIAL_SET = "partial_set";
     public static final String RAW_PARTIAL_SET = "raw_partial_set";
     public static final String OBJECT_PAIRS = "object_pairs";
+    public static final String STITCHING_MAP_DELTA = "stitching_map_delta";
+    public static final String INPUT_SINCE_VERSION = "since_version";
+    public static final String OUTPUT_VERSION = "version";
 
     private IndexingBase indexingBase = IndexingBase.ONE_BASED;
+    private boolean incremental = false;
 
     public MapBufferCorrelationTable() {
         setDefaultInputScalar(InitializeMapBuffer.MAP_BUFFER_ID);
+        addInputScalar(INPUT_SINCE_VERSION);
         setDefaultOutputScalar(InitializeMapBuffer.MAP_BUFFER_ID);
         addOutputNumbers(STITCHING_MAP);
+        addOutputNumbers(STITCHING_MAP_DELTA);
         addOutputNumbers(PARTIAL_SET);
         addOutputNumbers(RAW_PARTIAL_SET);
         addOutputNumbers(OBJECT_PAIRS);
         addOutputScalar(InitializeMapBuffer.NUMBER_OF_OBJECTS);
+        addOutputScalar(OUTPUT_VERSION);
     }
 
     public IndexingBase getIndexingBase() {
@@ -61,18 +68,45 @@ public final class MapBufferCorrelationTable extends ScalarFilter {
         return this;
     }
 
+    public boolean isIncremental() {
+        return incremental;
+    }
+
+    public MapBufferCorrelationTable setIncremental(boolean incremental) {
+        this.incremental = incremental;
+        return this;
+    }
+
     @Override
     public SScalar process(SScalar source) {
         final MapBuffer mapBuffer = MapBufferKey.getInstance(source.toLong()).reqMapBuffer();
         final ObjectPairs objectPairs = mapBuffer.objectPairs();
-        final int[] stitchingMap = stitchingMap(objectPairs.reindexTable());
-        getNumbers(STITCHING_MAP).setTo(stitchingMap, 1);
-        getNumbers(OBJECT_PAIRS).setTo(objectPairs.pairsArray(), 2);
-        final int numberOfObjects = mapBuffer.numberOfObjects();
-        getScalar(InitializeMapBuffer.NUMBER_OF_OBJECTS).setTo(numberOfObjects);
-        if (isOutputNecessary(PARTIAL_SET) || isOutputNecessary(RAW_PARTIAL_SET)) {
-            getNumbers(RAW_PARTIAL_SET).setTo(toBytes(mapBuffer.rawPartialObjects(), numberOfObjects), 1);
-            getNumbers(PARTIAL_SET).setTo(toBytes(mapBuffer.reindexPartialObjects(), numberOfObjects), 1);
+        mapBuffer.readLock().lock();
+        // - the version, the table and partial objects must correspond to the same state of the map buffer
+        try {
+            final SScalar sinceVersion = getInputScalar(INPUT_SINCE_VERSION, true);
+            final long version = objectPairs.version();
+            if (incremental && sinceVersion.isInitialized() && objectPairs.isActualVersion(sinceVersion.toLong())) {
+                final long since = sinceVersion.toLong();
+                removeOutputData(STITCHING_MAP);
+                getNumbers(STITCHING_MAP_DELTA).setTo(objectPairs.reindexDeltaSince(since), 2);
+                getNumbers(OBJECT_PAIRS).setTo(objectPairs.pairsArraySince(since), 2);
+            } else {
+                // - full information: first call, non-incremental mode or the map buffer was cleared
+                removeOutputData(STITCHING_MAP_DELTA);
+                final int[] stitchingMap = stitchingMap(objectPairs.reindexTable());
+                getNumbers(STITCHING_MAP).setTo(stitchingMap, 1);
+                getNumbers(OBJECT_PAIRS).setTo(objectPairs.pairsArray(), 2);
+            }
+            getScalar(OUTPUT_VERSION).setTo(version);
+            final int numberOfObjects = mapBuffer.numberOfObjects();
+            getScalar(InitializeMapBuffer.NUMBER_OF_OBJECTS).setTo(numberOfObjects);
+            if (isOutputNecessary(PARTIAL_SET) || isOutputNecessary(RAW_PARTIAL_SET)) {
+                getNumbers(RAW_PARTIAL_SET).setTo(toBytes(mapBuffer.rawPartialObjects(), numberOfObjects), 1);
+                getNumbers(PARTIAL_SET).setTo(toBytes(mapBuffer.reindexPartialObjects(), numberOfObjects), 1);
+            }
+        } finally {
+            mapBuffer.readLock().unlock();
         }
         return source;
     }
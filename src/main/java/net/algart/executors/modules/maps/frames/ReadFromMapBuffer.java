@@ -60,6 +60,13 @@ public final class ReadFromMapBuffer extends ScalarFilter {
     private Integer expansionY = null;
     private boolean reindexStitched = true;
 
+    private long lastMapBufferId = 0;
+    private long lastFramesVersion = -1;
+    private IRectangularArea lastArea = null;
+    private IPoint lastExpansion = null;
+    private IRectangularArea lastExpanded = null;
+    // - the result of expandRectangleOnMap is the same while the frames of the same map buffer were not changed
+
     public ReadFromMapBuffer() {
         setDefaultInputScalar(InitializeMapBuffer.MAP_BUFFER_ID);
         addInputNumbers(ChangeRectangleInsideMapBuffer.RECTANGLE);
@@ -155,17 +162,24 @@ public final class ReadFromMapBuffer extends ScalarFilter {
         final ObjectPairs objectPairs = mapBuffer.objectPairs();
         final boolean reindex = mapBuffer.isStitchingLabels() && reindexStitched;
         long t1 = System.nanoTime();
-        if (reindex) {
-            objectPairs.resolveAllBases();
+        final IRectangularArea expanded;
+        final MultiMatrix result;
+        long t2;
+        mapBuffer.readLock().lock();
+        // - other readers work in parallel; adding frames waits until we finish
+        try {
+            if (reindex) {
+                objectPairs.resolveAllBases();
+                // - path compression only: can be performed by several readers simultaneously
+            }
+            t2 = System.nanoTime();
+            expanded = expandRectangleOnMap(mapBufferId, mapBuffer, area);
+            result = reindex ?
+                    mapBuffer.readMatrixReindexedByObjectPairs(expanded, true) :
+                    mapBuffer.readMatrix(expanded);
+        } finally {
+            mapBuffer.readLock().unlock();
         }
-        long t2 = System.nanoTime();
-        final IRectangularArea expanded = mapBuffer.expandRectangleOnMap(
-                area,
-                IPoint.of(expansionX, expansionY != null ? expansionY : expansionX),
-                false);
-        MultiMatrix result = reindex ?
-                mapBuffer.readMatrixReindexedByObjectPairs(expanded, true) :
-                mapBuffer.readMatrix(expanded);
         long t3 = System.nanoTime();
         logDebug(() -> String.format(Locale.US,
                 "Reading %s at %s from %s (%s): %.3f ms = "
@@ -183,6 +197,23 @@ public final class ReadFromMapBuffer extends ScalarFilter {
         return result;
     }
 
+    private IRectangularArea expandRectangleOnMap(long mapBufferId, MapBuffer mapBuffer, IRectangularArea area) {
+        final IPoint expansion = IPoint.of(expansionX, expansionY != null ? expansionY : expansionX);
+        final long framesVersion = mapBuffer.framesVersion();
+        if (lastExpanded == null
+                || mapBufferId != lastMapBufferId
+                || framesVersion != lastFramesVersion
+                || !area.equals(lastArea)
+                || !expansion.equals(lastExpansion)) {
+            lastExpanded = mapBuffer.expandRectangleOnMap(area, expansion, false);
+            lastMapBufferId = mapBufferId;
+            lastFramesVersion = framesVersion;
+            lastArea = area;
+            lastExpansion = expansion;
+        }
+        return lastExpanded;
+    }
+
     @Override
     public String visibleOutputPortName() {
         return DEFAULT_OUTPUT_PORT;
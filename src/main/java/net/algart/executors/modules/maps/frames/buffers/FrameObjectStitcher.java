@@ -47,6 +47,8 @@ public final class FrameObjectStitcher {
 
     private static final boolean EARLY_REINDEX = false;
     // - should be false for good performance
+    private static final long MAX_LINKING_GRAPH_SIZE = 1L << 22;
+    // - for larger number of pairs of positions, we use linear-memory linking
 
     public enum Side {
         X_MINUS(0, true, false) {
@@ -280,6 +282,16 @@ public final class FrameObjectStitcher {
 
     public MapBuffer.Frame jointCompletedObjectsOfLastFrame(IPoint expansion) {
         Objects.requireNonNull(expansion, "Null expansion");
+        map.writeLock().lock();
+        // - exclusive access: we modify partial objects and resolve all bases of object pairs
+        try {
+            return jointCompletedObjectsOfLastFrameUnderLock(expansion);
+        } finally {
+            map.writeLock().unlock();
+        }
+    }
+
+    private MapBuffer.Frame jointCompletedObjectsOfLastFrameUnderLock(IPoint expansion) {
         long t1 = System.nanoTime();
         final MapBuffer.Frame small = map.reqLastFrame();
         checkLabels(small.matrix(), false);
@@ -343,7 +355,7 @@ public final class FrameObjectStitcher {
                                 reducedLargeArea.get(),
                                 largeAreaFrames,
                                 smallArea,
-                                objectPairs.dynamicDisjointSet(),
+                                objectPairs.disjointSet(),
                                 reindexedCompleted,
                                 reindexedBoundaryLabelSet,
                                 jointingAutoCrop)
@@ -787,8 +799,14 @@ public final class FrameObjectStitcher {
             final int[] adjacentLabelToRight = new int[adjacentPositions.length];
             allChanges(adjacentLabels, adjacentPositions, adjacentLabelToRight);
 
-            final MinimalCostLinkingOnStraight linking = MinimalCostLinkingOnStraight.newInstance(
-                    ShortestPathFinder.Algorithm.FOR_SORTED_ACYCLIC, framePositions, adjacentPositions);
+            final MinimalCostLinkingOnStraight linking =
+                    (long) framePositions.length * (long) adjacentPositions.length <= MAX_LINKING_GRAPH_SIZE ?
+                            MinimalCostLinkingOnStraight.newInstance(
+                                    ShortestPathFinder.Algorithm.FOR_SORTED_ACYCLIC,
+                                    framePositions,
+                                    adjacentPositions) :
+                            MinimalCostLinkingOnStraight.newLinearMemoryInstance(framePositions, adjacentPositions);
+            // - both variants find identical links
             linking.findBestLinks();
 
             findPairs(frameLabelToRight, adjacentLabelToRight, linking);
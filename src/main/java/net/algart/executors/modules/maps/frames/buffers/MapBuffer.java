@@ -26,8 +26,9 @@ package net.algart.executors.modules.maps.frames.buffers;
 
 import net.algart.arrays.Arrays;
 import net.algart.arrays.*;
-import net.algart.executors.modules.maps.frames.joints.DynamicDisjointSet;
+import net.algart.executors.modules.maps.frames.joints.ConcurrentDisjointSet;
 import net.algart.executors.modules.maps.frames.joints.ObjectPairs;
+import net.algart.maps.pyramids.io.api.CachingMemoryGovernor;
 import net.algart.math.IPoint;
 import net.algart.math.IRange;
 import net.algart.math.IRectangularArea;
@@ -38,12 +39,17 @@ import net.algart.math.functions.LinearFunc;
 import net.algart.multimatrix.MultiMatrix;
 
 import java.util.*;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.IntUnaryOperator;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 
 public final class MapBuffer {
     private static final boolean OPTIMIZE_ADD_FRAME = true;
     // - should be true for good performance
+    private static final int READING_BAND_SIZE = 16384;
+    // - approximate number of elements in a band of lines, processed by one parallel task while reading labels
 
     public static class Frame {
         private final IRectangularArea position;
@@ -56,6 +62,8 @@ public final class MapBuffer {
         private final MultiMatrix matrix;
         final Matrix<? extends PArray> channel0;
         final int[] channel0Ints;
+        final RunLengthLabels runs;
+        // - non-null if the labels are stored in run-length representation; channel0 is lazy in this case
         private final boolean intMatrix;
 
         public Frame(IPoint leftTop, MultiMatrix matrix) {
@@ -63,10 +71,19 @@ public final class MapBuffer {
         }
 
         private Frame(IRectangularArea position, MultiMatrix matrix) {
+            this(position, matrix, null);
+        }
+
+        private Frame(IRectangularArea position, RunLengthLabels runs) {
+            this(position, MultiMatrix.of2DMono(runs.asMatrix()), runs);
+        }
+
+        private Frame(IRectangularArea position, MultiMatrix matrix, RunLengthLabels runs) {
             assert position != null;
             assert matrix != null;
             this.position = position;
             this.matrix = matrix;
+            this.runs = runs;
             this.channel0 = matrix.channel(0);
             final PArray channel0Array = this.channel0.array();
             this.intMatrix = channel0Array instanceof IntArray;
@@ -128,6 +145,10 @@ public final class MapBuffer {
             return intMatrix;
         }
 
+        public boolean isRunLengthEncoded() {
+            return runs != null;
+        }
+
         public Frame matrix(MultiMatrix newMatrix) {
             matrix.checkDimensionEquality(newMatrix,
                     "previous matrix in the frame", "new matrix");
@@ -135,11 +156,11 @@ public final class MapBuffer {
         }
 
         public Frame cloneMatrix() {
-            return matrix(matrix.clone());
+            return runs != null ? decodedRuns() : matrix(matrix.clone());
         }
 
         public Frame actualizeLazyMatrix() {
-            return matrix(matrix.actualizeLazy());
+            return runs != null ? decodedRuns() : matrix(matrix.actualizeLazy());
         }
 
         public Frame subFrameWithZeroContinuation(IRectangularArea other) {
@@ -153,6 +174,20 @@ public final class MapBuffer {
                             m.subMatrix(subRectangle, Matrix.ContinuationMode.ZERO_CONSTANT)));
         }
 
+        private Frame decodedRuns() {
+            return matrix(MultiMatrix.of2DMono(runs.decode()));
+            // - quicker than actualizing lazy channel0
+        }
+
+        // Returns this frame, if it cannot be run-length encoded or if such encoding does not save memory.
+        Frame runLengthEncoded() {
+            if (runs != null || !intMatrix || matrix.dimCount() != 2 || matrix.numberOfChannels() != 1) {
+                return this;
+            }
+            final RunLengthLabels encoded = RunLengthLabels.encode(channel0);
+            return encoded.memory() < Matrices.sizeOf(channel0) ? new Frame(position, encoded) : this;
+        }
+
         public int nextIndexingBase(int currentIndexingBase, boolean zerosLabelReservedForBackground) {
             FrameObjectStitcher.checkLabels(matrix);
             final int maxLabel = (int) Arrays.rangeOf(channel0.array()).max();
@@ -249,22 +284,83 @@ public final class MapBuffer {
         }
     }
 
-    private int maximalNumberOfStoredFrames = 1;
-    private boolean stitchingLabels = false;
-    private boolean autoReindexLabels = false;
-    private boolean zerosLabelReservedForBackground = true;
-    private final Deque<Frame> frames;
+    /**
+     * Immutable state of the map buffer: the list of frames and (optionally) the copy of the object pairs
+     * with resolved bases. Allows to read the map without locking, while other threads add new frames
+     * and joint objects: all results are consistent with the moment of creating the snapshot.
+     */
+    public static final class Snapshot {
+        private final List<Frame> frames;
+        private final ConcurrentDisjointSet resolvedObjectPairs;
+
+        private Snapshot(List<Frame> frames, ConcurrentDisjointSet resolvedObjectPairs) {
+            this.frames = frames;
+            this.resolvedObjectPairs = resolvedObjectPairs;
+        }
+
+        public Collection<Frame> frames() {
+            return frames;
+        }
+
+        public boolean isReindexedByObjectPairs() {
+            return resolvedObjectPairs != null;
+        }
+
+        public IRectangularArea containingRectangle() {
+            return IRectangularArea.minimalContainingArea(
+                    frames.stream().map(Frame::position).collect(Collectors.toList()));
+        }
+
+        /**
+         * Reads the given area from the frames of this snapshot. If the snapshot was created with reindexing
+         * by object pairs, the result is 1-channel <code>int</code> matrix of labels, reindexed by the copy
+         * of the object pairs; in other case, it is the same as {@link MapBuffer#readMatrix(IRectangularArea)}.
+         *
+         * @param area area to read.
+         * @return the matrix.
+         */
+        public MultiMatrix readMatrix(IRectangularArea area) {
+            Objects.requireNonNull(area, "Null area");
+            if (frames.isEmpty()) {
+                throw new IllegalStateException("No frames");
+            }
+            if (resolvedObjectPairs == null) {
+                return MapBuffer.readMatrix(frames, area);
+            }
+            final int[] result = readLabelsReindexed(null, 0, frames, area, true, resolvedObjectPairs);
+            return MultiMatrix.of2DMono(Matrices.matrix(SimpleMemoryModel.asUpdatableIntArray(result), area.sizes()));
+        }
+    }
+
+    private volatile int maximalNumberOfStoredFrames = 1;
+    private volatile boolean stitchingLabels = false;
+    private volatile boolean autoReindexLabels = false;
+    private volatile boolean zerosLabelReservedForBackground = true;
+    private volatile boolean runLengthEncodedLabels = false;
+    private volatile List<Frame> frames;
+    // - immutable snapshot, replaced by a new list (copy-on-write) while adding/evicting frames:
+    // readers may use it without synchronization
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    // - exclusive (write) lock: adding frames, clearing and jointing objects, i.e. all changes
+    // of the frame list, objectPairs and rawPartialObjects; shared (read) lock: reading labels,
+    // reindexed by objectPairs
     private final ObjectPairs objectPairs;
     private final BitSet rawPartialObjects;
-    private IRectangularArea firstFramePosition;
-    private int indexingBase;
+    private volatile IRectangularArea firstFramePosition;
+    private volatile int indexingBase;
+    private volatile long usedMemory = 0;
+    private volatile long framesVersion = 0;
+    private final CachingMemoryGovernor.Account memoryAccount;
+    // - the number of frames is determined by the algorithm and cannot be reduced by the governor,
+    // but the memory, occupied by the frames, is excluded from the budget of adjustable caches
 
     private MapBuffer() {
-        this.frames = new LinkedList<>();
+        this.frames = Collections.emptyList();
         this.objectPairs = ObjectPairs.newInstance();
         this.rawPartialObjects = new BitSet();
         this.firstFramePosition = null;
         this.indexingBase = 0;
+        this.memoryAccount = CachingMemoryGovernor.getInstance().register("map buffer", 0, null);
     }
 
     public static MapBuffer newInstance() {
@@ -275,6 +371,29 @@ public final class MapBuffer {
         return FrameObjectStitcher.getInstance(this, rawPartialObjects);
     }
 
+    /**
+     * Returns the lock, which should be held while several calls that must see the same state of the stitched
+     * objects (for example, {@link ObjectPairs#resolveAllBases()} and the following
+     * {@link #readMatrixReindexedByObjectPairs(IRectangularArea, boolean)}).
+     * Any number of threads may hold it simultaneously; adding frames and clearing wait for all of them.
+     *
+     * @return shared lock of this map buffer.
+     */
+    public Lock readLock() {
+        return lock.readLock();
+    }
+
+    /**
+     * Returns the exclusive lock, held while adding frames, clearing and jointing objects.
+     * It is necessary only for external operations, modifying {@link #objectPairs()}
+     * or {@link #rawPartialObjects()}.
+     *
+     * @return exclusive lock of this map buffer.
+     */
+    public Lock writeLock() {
+        return lock.writeLock();
+    }
+
     public int getMaximalNumberOfStoredFrames() {
         return maximalNumberOfStoredFrames;
     }
@@ -314,6 +433,25 @@ public final class MapBuffer {
         return this;
     }
 
+    public boolean isRunLengthEncodedLabels() {
+        return runLengthEncodedLabels;
+    }
+
+    /**
+     * Sets the mode, when newly added 2-dimensional 1-channel <code>int</code> frames are stored in run-length
+     * representation: a sequence of runs of equal labels for every line. It usually requires much less memory
+     * for label maps, where objects are large in comparison with the pixel, and allows to reindex the labels
+     * per run instead of per pixel. The frame is stored as is, if such representation does not save memory.
+     * Already stored frames are not changed.
+     *
+     * @param runLengthEncodedLabels whether the new frames should be run-length encoded.
+     * @return a reference to this object.
+     */
+    public MapBuffer setRunLengthEncodedLabels(boolean runLengthEncodedLabels) {
+        this.runLengthEncodedLabels = runLengthEncodedLabels;
+        return this;
+    }
+
     public int getIndexingBase() {
         return indexingBase;
     }
@@ -335,13 +473,33 @@ public final class MapBuffer {
     }
 
     public BitSet reindexPartialObjects() {
-        return objectPairs.reindexByAnd(rawPartialObjects);
+        lock.readLock().lock();
+        try {
+            return objectPairs.reindexByAnd(rawPartialObjects);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the number, that is changed by every adding a frame and by clearing this map buffer.
+     * If it was not changed, all areas on the map (and results of methods like
+     * {@link #expandRectangleOnMap}) are the same.
+     *
+     * @return current version of the frame list.
+     */
+    public long framesVersion() {
+        return framesVersion;
     }
 
     public int numberOfFrames() {
         return frames.size();
     }
 
+    public long usedMemory() {
+        return usedMemory;
+    }
+
     public int numberOfObjects() {
         return zerosLabelReservedForBackground ? indexingBase + 1 : indexingBase;
     }
@@ -351,12 +509,20 @@ public final class MapBuffer {
     }
 
     public void clear(boolean resetIndexing) {
-        frames.clear();
-        objectPairs.clear();
-        rawPartialObjects.clear();
-        firstFramePosition = null;
-        if (resetIndexing) {
-            indexingBase = 0;
+        lock.writeLock().lock();
+        try {
+            frames = Collections.emptyList();
+            framesVersion++;
+            usedMemory = 0;
+            memoryAccount.setUsedMemory(usedMemory);
+            objectPairs.clear();
+            rawPartialObjects.clear();
+            firstFramePosition = null;
+            if (resetIndexing) {
+                indexingBase = 0;
+            }
+        } finally {
+            lock.writeLock().unlock();
         }
     }
 
@@ -372,46 +538,12 @@ public final class MapBuffer {
             boolean disableOverlapping) {
         Objects.requireNonNull(matrix, "Null matrix");
         Objects.requireNonNull(leftTop, "Null leftTop");
-        checkFrameCompatibility(matrix);
-//        long t1 = System.nanoTime(), t2 = t1;
-        Frame frame = tryToAddFrameWithReindexingOptimized(matrix, leftTop, rectangleToCrop, disableOverlapping);
-        final boolean nonOptimized = frame == null;
-        if (nonOptimized) {
-            if (rectangleToCrop != null) {
-                matrix = matrix.apply(m -> cropMatrix(rectangleToCrop, m));
-            }
-            frame = new Frame(leftTop, matrix);
-            if (disableOverlapping) {
-                checkIntersected(frame);
-            }
-            if (autoReindexLabels) {
-                frame = frame.addIndexingBase(zerosLabelReservedForBackground, indexingBase);
-//                t2 = System.nanoTime();
-                indexingBase = frame.nextIndexingBase(indexingBase, zerosLabelReservedForBackground);
-            }
-            frame = frame.actualizeLazyMatrix();
-            // - does nothing if autoReindexLabels, but may be important if it is not so
-        }
-//        long t3 = System.nanoTime();
-        if (stitchingLabels) {
-            getFrameObjectStitcher().correlate(frame, nonOptimized);
-            // - if we used optimized branch, there is no need to check non-negative labels
-        }
-//        if (stitchingLabels) {
-//            long t4 = System.nanoTime();
-//            System.out.printf("!!! %s to %s: %.3f = %.3f + %.3f + %.3f%n", frame, this,
-//                    (t4 - t1) * 1e-6, (t2 - t1) * 1e-6, (t3 - t2) * 1e-6, (t4 - t3) * 1e-6);
-//        }
-        if (firstFramePosition == null) {
-            firstFramePosition = frame.position();
-        }
-        if (frames.size() >= maximalNumberOfStoredFrames) {
-            // - important to do this after all previous operations over frame,
-            // for a case of possible exceptions
-            frames.remove();
+        lock.writeLock().lock();
+        try {
+            return addFrameUnderLock(matrix, leftTop, rectangleToCrop, disableOverlapping);
+        } finally {
+            lock.writeLock().unlock();
         }
-        frames.add(frame);
-        return frame;
     }
 
     public IRectangularArea getFirstFramePosition() {
@@ -427,7 +559,8 @@ public final class MapBuffer {
     }
 
     public Frame getLastFrame() {
-        return frames.peekLast();
+        final List<Frame> frames = this.frames;
+        return frames.isEmpty() ? null : frames.get(frames.size() - 1);
     }
 
     public Frame reqLastFrame() {
@@ -439,7 +572,8 @@ public final class MapBuffer {
     }
 
     public Collection<Frame> allFrames() {
-        return Collections.unmodifiableCollection(frames);
+        return frames;
+        // - immutable snapshot
     }
 
     public List<Frame> allFramesWithMinCoordinate(int coordIndex, long coordinate) {
@@ -468,8 +602,9 @@ public final class MapBuffer {
 
     public void checkFrameCompatibility(MultiMatrix matrix) {
         Objects.requireNonNull(matrix, "Null matrix");
+        final List<Frame> frames = this.frames;
         if (!frames.isEmpty()) {
-            final MultiMatrix existing = frames.iterator().next().matrix;
+            final MultiMatrix existing = frames.get(0).matrix;
             if (matrix.elementType() != existing.elementType()) {
                 throw new IllegalArgumentException("The specified frame and existing frames " +
                         "have different element types: " + matrix + " and " + existing);
@@ -487,15 +622,16 @@ public final class MapBuffer {
 
     public boolean isCovered(IRectangularArea area) {
         Objects.requireNonNull(area, "Null rectangular area");
+        final List<Frame> frames = this.frames;
         if (frames.isEmpty()) {
             return false;
         }
-        final IRectangularArea existing = frames.iterator().next().position;
+        final IRectangularArea existing = frames.get(0).position;
         if (area.coordCount() != existing.coordCount()) {
             throw new IllegalArgumentException("The checked area and existing frames " +
                     "have different number of dimensions: " + area + " and " + existing);
         }
-        return area.subtract(allPositions()).isEmpty();
+        return area.subtract(frames.stream().map(frame -> frame.position).toList()).isEmpty();
     }
 
     public boolean isIntersected(IRectangularArea area) {
@@ -535,6 +671,29 @@ public final class MapBuffer {
         return IRectangularArea.minimalContainingArea(allPositions());
     }
 
+    /**
+     * Returns the current state of this map buffer, which can be read without any locking.
+     * If <code>reindexedByObjectPairs</code>, the object pairs are resolved and copied
+     * (it requires memory, proportional to the number of objects).
+     *
+     * @param reindexedByObjectPairs whether the snapshot should reindex labels by object pairs.
+     * @return the snapshot.
+     */
+    public Snapshot snapshot(boolean reindexedByObjectPairs) {
+        lock.readLock().lock();
+        // - the frames and the object pairs must correspond to each other
+        try {
+            ConcurrentDisjointSet resolvedObjectPairs = null;
+            if (reindexedByObjectPairs) {
+                objectPairs.resolveAllBases();
+                resolvedObjectPairs = objectPairs.disjointSet().clone();
+            }
+            return new Snapshot(frames, resolvedObjectPairs);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
     public IRectangularArea changeRectangleOnMap(
             IRectangularArea originalArea,
             IRectangularArea changedArea,
@@ -589,10 +748,16 @@ public final class MapBuffer {
 
     public MultiMatrix readMatrix(IRectangularArea area) {
         Objects.requireNonNull(area, "Null area");
+        final List<Frame> frames = this.frames;
+        // - no synchronization: frames are immutable
         if (frames.isEmpty()) {
             throw new IllegalStateException("No frames");
         }
-        final MultiMatrix existing = frames.iterator().next().matrix;
+        return readMatrix(frames, area);
+    }
+
+    private static MultiMatrix readMatrix(List<Frame> frames, IRectangularArea area) {
+        final MultiMatrix existing = frames.get(0).matrix;
         if (area.coordCount() != existing.dimCount()) {
             throw new IllegalArgumentException("The requested area and existing frames " +
                     "have different number of dimensions: " + area + " and " + existing);
@@ -626,6 +791,16 @@ public final class MapBuffer {
                 final long maxY = intersectionMaxY - areaMinY;
                 long frameY = intersectionMinY - frame.minY;
                 long p = y * resultDimX + intersectionMinX - areaMinX;
+                if (frame.runs != null && resultArray instanceof DirectAccessible da && da.hasJavaArray()
+                        && da.javaArray() instanceof int[] resultInts) {
+                    // - decoding runs directly, without calculating every element of the lazy channel0
+                    final int frameX = (int) (intersectionMinX - frame.minX);
+                    int q = (int) p + da.javaArrayOffset();
+                    for (; y <= maxY; y++, q += (int) resultDimX, frameY++) {
+                        frame.runs.readLine((int) frameY, frameX, resultInts, q, (int) length);
+                    }
+                    continue;
+                }
                 long frameP = frameY * frameDimX + intersectionMinX - frame.minX;
                 for (; y <= maxY; y++, p += resultDimX, frameP += frameDimX) {
                     resultArray.subArr(p, length).copy(frameArray.subArr(frameP, length));
@@ -644,21 +819,30 @@ public final class MapBuffer {
     }
 
     public MultiMatrix readMatrixReindexedByObjectPairs(IRectangularArea area, boolean quickCallAfterResolveAllBases) {
+        final List<Frame> frames = this.frames;
         if (frames.isEmpty()) {
             throw new IllegalStateException("No frames");
         }
-        return readMatrixReindexedByObjectPairs(this.frames, area, quickCallAfterResolveAllBases);
+        return readMatrixReindexedByObjectPairs(frames, area, quickCallAfterResolveAllBases);
     }
 
     @Override
     public String toString() {
         return "map buffer with " + numberOfFrames() + "/" + maximalNumberOfStoredFrames + " frames"
+                + String.format(Locale.US, " (%.2f MB)", usedMemory / 1048576.0)
                 + ", indexing base " + indexingBase
                 + (autoReindexLabels ? ", auto-reindexing" : "")
                 + (stitchingLabels ? ", auto-stitching" : ", no stitching")
                 + (zerosLabelReservedForBackground ? ", zero-labels for background" : "");
     }
 
+    public static long frameMemory(Frame frame) {
+        if (frame.runs != null) {
+            return frame.runs.memory();
+        }
+        return frame.matrix().allChannels().stream().mapToLong(m -> Matrices.sizeOf(m)).sum();
+    }
+
     public static Collection<IRectangularArea> externalBoundary(
             Collection<IRectangularArea> areas,
             boolean straightOnly) {
@@ -686,7 +870,13 @@ public final class MapBuffer {
             Collection<Frame> frames,
             IRectangularArea area,
             boolean quickCallAfterResolveAllBases) {
-        final int[] result = readLabelsReindexedByObjectPairs(frames, area, quickCallAfterResolveAllBases);
+        final int[] result;
+        lock.readLock().lock();
+        try {
+            result = readLabelsReindexedByObjectPairs(frames, area, quickCallAfterResolveAllBases);
+        } finally {
+            lock.readLock().unlock();
+        }
         final UpdatableIntArray resultArray = SimpleMemoryModel.asUpdatableIntArray(result);
         return MultiMatrix.of2DMono(Matrices.matrix(resultArray, area.sizes()));
     }
@@ -705,6 +895,22 @@ public final class MapBuffer {
             Collection<Frame> frames,
             IRectangularArea area,
             boolean quickCallAfterResolveAllBases) {
+        if (!quickCallAfterResolveAllBases) {
+            objectPairs.resolveAllBases();
+            // - usually incremental and quick; after this, parentOrThis returns the same bases as
+            // ObjectPairs.reindex, so all lines below can be processed in parallel
+        }
+        return readLabelsReindexed(result, resultOffset, frames, area, quickCallAfterResolveAllBases,
+                objectPairs.disjointSet());
+    }
+
+    private static int[] readLabelsReindexed(
+            int[] result,
+            int resultOffset,
+            Collection<Frame> frames,
+            IRectangularArea area,
+            boolean quickCallAfterResolveAllBases,
+            ConcurrentDisjointSet disjointSet) {
         Objects.requireNonNull(area, "Null area");
         Objects.requireNonNull(frames, "Null frames");
         if (resultOffset < 0) {
@@ -743,105 +949,39 @@ public final class MapBuffer {
         final long areaMaxY = area.maxY();
         if (areaMinY == areaMaxY && quickCallAfterResolveAllBases) {
             readLabelsLineReindexedByObjectPairsAfterResolveAllBases(
-                    result, resultOffset, objectPairs.dynamicDisjointSet(), frames, areaMinY, areaMinX, areaMaxX);
+                    result, resultOffset, disjointSet, frames, areaMinY, areaMinX, areaMaxX);
             return result;
         }
-        final int resultDimX = (int) (areaMaxX - areaMinX + 1L);
+        final List<Frame> intersecting = new ArrayList<>();
         for (Frame frame : frames) {
-            final long intersectionMinX = Math.max(areaMinX, frame.minX);
-            final long intersectionMaxX = Math.min(areaMaxX, frame.maxX);
-            if (intersectionMinX > intersectionMaxX) {
-                continue;
-            }
-            final long intersectionMinY = Math.max(areaMinY, frame.minY);
-            final long intersectionMaxY = Math.min(areaMaxY, frame.maxY);
-            if (intersectionMinY > intersectionMaxY) {
-                continue;
-            }
-            assert area.intersects(frame.position);
-            final int length = (int) (intersectionMaxX - intersectionMinX + 1L);
-            assert length >= 1 : "IRectangularArea cannot have zero sizes";
-            final Matrix<? extends PArray> frameMatrix = frame.channel0;
-            final PArray frameArray = frameMatrix.array();
-            if (!(frameArray instanceof PFixedArray)) {
-                // - necessary check: there is no guarantee that all elements of frames list have the same type
-                throw new IllegalArgumentException("Objects must be represented by 1-channel integer matrix "
-                        + "with <=32 bits/element, but we have " + frameMatrix);
-            }
-            assert frameMatrix.array() instanceof PFixedArray : "checkLabels didn't work properly: " + frameMatrix;
-            final long frameDimX = frame.dimX;
-            int minY = (int) (intersectionMinY - areaMinY);
-            final int maxY = (int) (intersectionMaxY - areaMinY);
-            assert maxY == intersectionMaxY - areaMinY : "impossible: area was already checked! "
-                    + intersectionMinY + ".." + intersectionMaxY + ", " + area;
-            final long differenceY = areaMinY - frame.minY;
-            final int shiftX = (int) (intersectionMinX - areaMinX);
-            final long frameShiftX = intersectionMinX - frame.minX;
-            final DynamicDisjointSet dynamicDisjointSet = objectPairs.dynamicDisjointSet();
-            if (!quickCallAfterResolveAllBases) {
-                int p = minY * resultDimX + shiftX + resultOffset;
-                long frameY = intersectionMinY - frame.minY;
-                assert frameY == minY + differenceY;
-                long frameP = frameY * frameDimX + frameShiftX;
-                for (int y = minY; y <= maxY; y++, p += resultDimX, frameP += frameDimX) {
-                    copyIoInts(labels, labelsArray, p, frameArray, frameP, length);
-                    for (int i = p, to = p + length; i < to; i++) {
-                        labels[i] = objectPairs.reindex(labels[i]);
-                    }
+            if (frame.minX <= areaMaxX && frame.maxX >= areaMinX && frame.minY <= areaMaxY && frame.maxY >= areaMinY) {
+                if (!(frame.channel0.array() instanceof PFixedArray)) {
+                    // - necessary check: there is no guarantee that all elements of frames list have the same type
+                    throw new IllegalArgumentException("Objects must be represented by 1-channel integer matrix "
+                            + "with <=32 bits/element, but we have " + frame.channel0);
                 }
-            } else if (resultDimX == 1) {
-                // - important special case for reading vertical boundaries
-                assert length == 1 : "intersection cannot be greater than area";
-                final int n = maxY - minY + 1;
-                IntStream.range(0, (n + 15) >>> 4).parallel().forEach(block -> {
-                    int i = block << 4;
-                    final int y = minY + i;
-                    int p = y + shiftX + resultOffset;
-                    long frameP = (y + differenceY) * frameDimX + frameShiftX;
-                    final PFixedArray frameFixedArray = (PFixedArray) frameArray;
-                    for (int to = (int) Math.min((long) i + 16, n); i < to; i++, p++, frameP += frameDimX) {
-                        final int label = frameFixedArray.getInt(frameP);
-                        labels[p] = dynamicDisjointSet.parentOrThis(label);
-                    }
-                });
-            } else if (!(frameArray instanceof IntArray)) {
-                IntStream.range(minY, maxY + 1).parallel().forEach(y -> {
-                    // - be careful! maxY+1 <= Integer.MAX_VALUE, see above
-                    int p = y * resultDimX + shiftX + resultOffset;
-                    long frameP = (y + differenceY) * frameDimX + frameShiftX;
-                    Arrays.applyFunc(null, Func.IDENTITY,
-                            labelsArray.subArr(p, length), (PArray) frameArray.subArr(frameP, length));
-                    for (int to = p + length; p < to; p++) {
-                        labels[p] = dynamicDisjointSet.parentOrThis(labels[p]);
-                    }
-                });
-            } else {
-                IntStream.range(minY, maxY + 1).parallel().forEach(y -> {
-                    // - be careful! maxY+1 <= Integer.MAX_VALUE, see above
-                    int p = y * resultDimX + shiftX + resultOffset;
-                    long frameP = (y + differenceY) * frameDimX + frameShiftX;
-                    frameArray.getData(frameP, labels, p, length);
-                    for (int to = p + length; p < to; p++) {
-                        labels[p] = dynamicDisjointSet.parentOrThis(labels[p]);
-                    }
-                });
+                intersecting.add(frame);
             }
-// No sense to use following optimization: for direct accessible, copyToInts work very quickly,
-// and previous variant provides better performance
-//                else {
-//                    final long frameShift = frameShiftX + da.javaArrayOffset();
-//                    IntStream.range(minY, maxY + 1).parallel().forEach(y -> {
-//                        int p = y * resultDimX + shiftX + resultOffset;
-//                        long frameP = (y + differenceY) * frameDimX + frameShift;
-//                        int q = (int) frameP;
-//                        assert frameP == q;
-//                        final int difference = q - p;
-//                        for (int to = p + length; p < to; p++) {
-//                            result[p] = dynamicDisjointSet.parentOrThis(frameInts[p + difference]);
-//                        }
-//                    });
-//                }
         }
+        if (intersecting.isEmpty()) {
+            return result;
+        }
+        final int resultDimX = (int) (areaMaxX - areaMinX + 1L);
+        final int resultDimY = (int) (areaMaxY - areaMinY + 1L);
+        final int bandHeight = Math.max(1, Math.min(resultDimY, READING_BAND_SIZE / resultDimX));
+        final int numberOfBands = (int) (((long) resultDimY + (long) bandHeight - 1) / bandHeight);
+        final boolean checkNegative = !quickCallAfterResolveAllBases;
+        IntStream.range(0, numberOfBands).parallel().forEach(band -> {
+            // - single parallel pass over all frames: every task composes the intersecting frames
+            // in the order of adding (later frames overwrite earlier ones) inside its band of lines
+            final int fromY = band * bandHeight;
+            final int toY = (int) Math.min((long) fromY + bandHeight, resultDimY);
+            for (Frame frame : intersecting) {
+                readFrameBandReindexed(
+                        labels, labelsArray, resultOffset, resultDimX, disjointSet, checkNegative,
+                        frame, areaMinX, areaMaxX, areaMinY, areaMinY + fromY, areaMinY + toY - 1);
+            }
+        });
         return result;
     }
 
@@ -849,7 +989,7 @@ public final class MapBuffer {
     static void readLabelsLineReindexedByObjectPairsAfterResolveAllBases(
             final int[] result,
             int resultOffset,
-            DynamicDisjointSet dynamicDisjointSet,
+            ConcurrentDisjointSet disjointSet,
             Collection<Frame> frames,
             long areaY,
             long areaMinX,
@@ -860,14 +1000,71 @@ public final class MapBuffer {
         for (Frame frame : frames) {
             if (frame.intMatrix) {
                 readFrameToReindexedLine(
-                        result, resultOffset, dynamicDisjointSet, frame, areaY, areaMinX, areaMaxX);
+                        result, resultOffset, disjointSet, frame, areaY, areaMinX, areaMaxX);
             } else {
                 readFrameToReindexedLine(
-                        result, resultOffset, dynamicDisjointSet, frame, areaY, areaMinX, areaMaxX, labelsArray);
+                        result, resultOffset, disjointSet, frame, areaY, areaMinX, areaMaxX, labelsArray);
             }
         }
     }
 
+    private Frame addFrameUnderLock(
+            MultiMatrix matrix,
+            IPoint leftTop,
+            IRectangularArea rectangleToCrop,
+            boolean disableOverlapping) {
+        checkFrameCompatibility(matrix);
+//        long t1 = System.nanoTime(), t2 = t1;
+        Frame frame = tryToAddFrameWithReindexingOptimized(matrix, leftTop, rectangleToCrop, disableOverlapping);
+        final boolean nonOptimized = frame == null;
+        if (nonOptimized) {
+            if (rectangleToCrop != null) {
+                matrix = matrix.apply(m -> cropMatrix(rectangleToCrop, m));
+            }
+            frame = new Frame(leftTop, matrix);
+            if (disableOverlapping) {
+                checkIntersected(frame);
+            }
+            if (autoReindexLabels) {
+                frame = frame.addIndexingBase(zerosLabelReservedForBackground, indexingBase);
+//                t2 = System.nanoTime();
+                indexingBase = frame.nextIndexingBase(indexingBase, zerosLabelReservedForBackground);
+            }
+            frame = frame.actualizeLazyMatrix();
+            // - does nothing if autoReindexLabels, but may be important if it is not so
+        }
+//        long t3 = System.nanoTime();
+        if (stitchingLabels) {
+            getFrameObjectStitcher().correlate(frame, nonOptimized);
+            // - if we used optimized branch, there is no need to check non-negative labels
+        }
+        if (runLengthEncodedLabels) {
+            frame = frame.runLengthEncoded();
+            // - after correlation, which is quicker for usual Java arrays
+        }
+//        if (stitchingLabels) {
+//            long t4 = System.nanoTime();
+//            System.out.printf("!!! %s to %s: %.3f = %.3f + %.3f + %.3f%n", frame, this,
+//                    (t4 - t1) * 1e-6, (t2 - t1) * 1e-6, (t3 - t2) * 1e-6, (t4 - t3) * 1e-6);
+//        }
+        if (firstFramePosition == null) {
+            firstFramePosition = frame.position();
+        }
+        final List<Frame> newFrames = new ArrayList<>(frames);
+        if (newFrames.size() >= maximalNumberOfStoredFrames) {
+            // - important to do this after all previous operations over frame,
+            // for a case of possible exceptions
+            usedMemory -= frameMemory(newFrames.remove(0));
+        }
+        newFrames.add(frame);
+        frames = Collections.unmodifiableList(newFrames);
+        // - readers, which already got the previous list, continue to work with it
+        framesVersion++;
+        usedMemory += frameMemory(frame);
+        memoryAccount.setUsedMemory(usedMemory);
+        return frame;
+    }
+
     private Frame tryToAddFrameWithReindexingOptimized(
             MultiMatrix matrix,
             IPoint leftTop,
@@ -1018,10 +1215,76 @@ public final class MapBuffer {
         return maxLabel + 1;
     }
 
+    private static void readFrameBandReindexed(
+            int[] result,
+            UpdatableIntArray resultArray,
+            int resultOffset,
+            int resultDimX,
+            ConcurrentDisjointSet disjointSet,
+            boolean checkNegative,
+            Frame frame,
+            long areaMinX,
+            long areaMaxX,
+            long areaMinY,
+            long bandMinY,
+            long bandMaxY) {
+        final long intersectionMinY = Math.max(bandMinY, frame.minY);
+        final long intersectionMaxY = Math.min(bandMaxY, frame.maxY);
+        if (intersectionMinY > intersectionMaxY) {
+            return;
+        }
+        final long intersectionMinX = Math.max(areaMinX, frame.minX);
+        final long intersectionMaxX = Math.min(areaMaxX, frame.maxX);
+        assert intersectionMinX <= intersectionMaxX : "non-intersecting frames must be skipped";
+        final int length = (int) (intersectionMaxX - intersectionMinX + 1L);
+        final long frameDimX = frame.dimX;
+        final int frameShiftX = (int) (intersectionMinX - frame.minX);
+        final RunLengthLabels runs = frame.runs;
+        final PArray frameArray = frame.channel0.array();
+        final boolean intArray = frameArray instanceof IntArray;
+        final IntUnaryOperator runsReindexing = checkNegative ?
+                label -> checkedParentOrThis(disjointSet, label) :
+                disjointSet::parentOrThis;
+        int p = (int) (intersectionMinY - areaMinY) * resultDimX + (int) (intersectionMinX - areaMinX) + resultOffset;
+        long frameP = (intersectionMinY - frame.minY) * frameDimX + frameShiftX;
+        for (long y = intersectionMinY; y <= intersectionMaxY; y++, p += resultDimX, frameP += frameDimX) {
+            if (runs != null) {
+                runs.readLineReindexed((int) (y - frame.minY), frameShiftX, result, p, length, runsReindexing);
+                // - reindexing once per run
+                continue;
+            }
+            if (intArray) {
+                frameArray.getData(frameP, result, p, length);
+            } else {
+                // Note: this method is called inside parallel loop by bands, so we must not use
+                // multithreading conversion by Arrays.applyFunc here
+                Arrays.applyFunc(ArrayContext.DEFAULT_SINGLE_THREAD, Func.IDENTITY,
+                        resultArray.subArr(p, length), (PArray) frameArray.subArr(frameP, length));
+            }
+            if (checkNegative) {
+                for (int i = p, to = p + length; i < to; i++) {
+                    result[i] = checkedParentOrThis(disjointSet, result[i]);
+                }
+            } else {
+                for (int i = p, to = p + length; i < to; i++) {
+                    result[i] = disjointSet.parentOrThis(result[i]);
+                }
+            }
+        }
+    }
+
+    private static int checkedParentOrThis(ConcurrentDisjointSet disjointSet, int label) {
+        if (label < 0) {
+            throw new IllegalArgumentException("Objects must be represented by zero or negative integers, "
+                    + "but we try to reindex " + label);
+        }
+        return disjointSet.parentOrThis(label);
+    }
+
     private static void readFrameToReindexedLine(
             int[] result,
             int resultOffset,
-            DynamicDisjointSet dynamicDisjointSet,
+            ConcurrentDisjointSet disjointSet,
             Frame frame,
             long areaY,
             long areaMinX,
@@ -1044,17 +1307,22 @@ public final class MapBuffer {
         final int shiftX = (int) (intersectionMinX - areaMinX);
         final long frameShiftX = intersectionMinX - frame.minX;
         int p = shiftX + resultOffset;
+        if (frame.runs != null) {
+            frame.runs.readLineReindexed((int) (areaY - frame.minY), (int) frameShiftX,
+                    result, p, length, disjointSet::parentOrThis);
+            return;
+        }
         long frameP = (areaY - frame.minY) * frameDimX + frameShiftX;
         frameArray.getData(frameP, result, p, length);
         for (int to = p + length; p < to; p++) {
-            result[p] = dynamicDisjointSet.parentOrThis(result[p]);
+            result[p] = disjointSet.parentOrThis(result[p]);
         }
     }
 
     private static void readFrameToReindexedLine(
             int[] result,
             int resultOffset,
-            DynamicDisjointSet dynamicDisjointSet,
+            ConcurrentDisjointSet disjointSet,
             Frame frame,
             long areaY,
             long areaMinX,
@@ -1082,7 +1350,7 @@ public final class MapBuffer {
         Arrays.applyFunc(null, Func.IDENTITY,
                 labelsArray.subArr(p, length), (PArray) frameArray.subArr(frameP, length));
         for (int to = p + length; p < to; p++) {
-            result[p] = dynamicDisjointSet.parentOrThis(result[p]);
+            result[p] = disjointSet.parentOrThis(result[p]);
         }
     }
 
@@ -1149,21 +1417,6 @@ public final class MapBuffer {
         return restoringTable;
     }
 
-    private static void copyIoInts(
-            int[] result,
-            UpdatableIntArray resultArray,
-            int resultOffset,
-            PArray source,
-            long sourceOffset,
-            int length) {
-        if (source instanceof IntArray) {
-            source.getData(sourceOffset, result, resultOffset, length);
-        } else {
-            Arrays.applyFunc(null, Func.IDENTITY,
-                    resultArray.subArr(resultOffset, length), (PArray) source.subArr(sourceOffset, length));
-        }
-    }
-
     private Matrix<? extends PArray> cropMatrix(IRectangularArea rectangleToCrop, Matrix<? extends PArray> m) {
         try {
             return m.subMatrix(rectangleToCrop);
@@ -25,14 +25,16 @@
 package net.algart.executors.modules.maps.frames.buffers;
 
 import net.algart.arrays.*;
-import net.algart.executors.modules.maps.frames.joints.DynamicDisjointSet;
+import net.algart.executors.modules.maps.frames.joints.ConcurrentDisjointSet;
 import net.algart.executors.modules.maps.frames.joints.QuickLabelsSet;
 import net.algart.math.IPoint;
 import net.algart.math.IRectangularArea;
 import net.algart.math.functions.Func;
 import net.algart.multimatrix.MultiMatrix;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.TreeSet;
 import java.util.stream.IntStream;
 
 class ReindexerAndRetainer {
@@ -44,7 +46,7 @@ class ReindexerAndRetainer {
 
     final IRectangularArea largeArea;
     final List<MapBuffer.Frame> frames;
-    final DynamicDisjointSet dynamicDisjointSet;
+    final ConcurrentDisjointSet disjointSet;
     final QuickLabelsSet reindexedCompleted;
     final QuickLabelsSet reindexedBoundaryWithOutside;
     final long largeAreaMinX;
@@ -60,18 +62,21 @@ class ReindexerAndRetainer {
     final UpdatableIntArray labelsArray;
     final int[] minNonZeroX, maxNonZeroX;
     final boolean jointingAutoCrop;
+    final int[] bandStarts;
+    final FrameSegment[][] bandSegments;
+    // - horizontal bands of lines, intersecting the same frames (in the same order as in the frames list)
 
     private ReindexerAndRetainer(
             IRectangularArea largeArea,
             List<MapBuffer.Frame> frames,
             IRectangularArea smallFrameArea,
-            DynamicDisjointSet dynamicDisjointSet,
+            ConcurrentDisjointSet disjointSet,
             QuickLabelsSet reindexedCompleted,
             QuickLabelsSet reindexedBoundaryWithOutside,
             boolean jointingAutoCrop) {
         this.largeArea = largeArea;
         this.frames = frames;
-        this.dynamicDisjointSet = dynamicDisjointSet;
+        this.disjointSet = disjointSet;
         this.reindexedCompleted = reindexedCompleted;
         this.reindexedBoundaryWithOutside = reindexedBoundaryWithOutside;
         this.largeAreaMinX = largeArea.minX();
@@ -101,13 +106,37 @@ class ReindexerAndRetainer {
             this.minNonZeroX = null;
             this.maxNonZeroX = null;
         }
+        final List<FrameSegment> segments = new ArrayList<>();
+        final TreeSet<Integer> bandBoundaries = new TreeSet<>();
+        bandBoundaries.add(0);
+        for (MapBuffer.Frame frame : frames) {
+            final long intersectionMinY = Math.max(largeAreaMinY, frame.minY);
+            final long intersectionMaxY = Math.min(largeArea.maxY(), frame.maxY);
+            final long intersectionMinX = Math.max(largeAreaMinX, frame.minX);
+            final long intersectionMaxX = Math.min(largeAreaMaxX, frame.maxX);
+            if (intersectionMinY <= intersectionMaxY && intersectionMinX <= intersectionMaxX) {
+                segments.add(new FrameSegment(frame, intersectionMinX, intersectionMaxX, largeAreaMinX));
+                bandBoundaries.add((int) (intersectionMinY - largeAreaMinY));
+                bandBoundaries.add((int) (intersectionMaxY + 1 - largeAreaMinY));
+                // - overflow impossible: the large area contains <2^31 elements
+            }
+        }
+        bandBoundaries.remove(dimY);
+        this.bandStarts = bandBoundaries.stream().mapToInt(Integer::intValue).toArray();
+        this.bandSegments = new FrameSegment[bandStarts.length][];
+        for (int k = 0; k < bandStarts.length; k++) {
+            final long y = largeAreaMinY + bandStarts[k];
+            bandSegments[k] = segments.stream()
+                    .filter(segment -> y >= segment.frame.minY && y <= segment.frame.maxY)
+                    .toArray(FrameSegment[]::new);
+        }
     }
 
     public static ReindexerAndRetainer newInstance(
             IRectangularArea largeArea,
             List<MapBuffer.Frame> frames,
             IRectangularArea smallFrameArea,
-            DynamicDisjointSet dynamicDisjointSet,
+            ConcurrentDisjointSet disjointSet,
             QuickLabelsSet reindexedCompleted,
             QuickLabelsSet reindexedBoundaryWithOutside,
             boolean jointingAutoCrop) {
@@ -116,7 +145,7 @@ class ReindexerAndRetainer {
                     largeArea,
                     frames,
                     smallFrameArea,
-                    dynamicDisjointSet,
+                    disjointSet,
                     reindexedCompleted,
                     reindexedBoundaryWithOutside,
                     jointingAutoCrop);
@@ -125,7 +154,7 @@ class ReindexerAndRetainer {
                     largeArea,
                     frames,
                     smallFrameArea,
-                    dynamicDisjointSet,
+                    disjointSet,
                     reindexedCompleted,
                     reindexedBoundaryWithOutside,
                     jointingAutoCrop);
@@ -134,7 +163,7 @@ class ReindexerAndRetainer {
                     largeArea,
                     frames,
                     smallFrameArea,
-                    dynamicDisjointSet,
+                    disjointSet,
                     reindexedCompleted,
                     reindexedBoundaryWithOutside,
                     jointingAutoCrop);
@@ -160,26 +189,16 @@ class ReindexerAndRetainer {
         int disp = i * dimX;
         int minX = Integer.MAX_VALUE;
         int maxX = Integer.MIN_VALUE;
-        for (MapBuffer.Frame frame : frames) {
-            if (y < frame.minY || y > frame.maxY) {
-                continue;
-            }
-            final long intersectionMinX = Math.max(largeAreaMinX, frame.minX);
-            final long intersectionMaxX = Math.min(largeAreaMaxX, frame.maxX);
-            if (intersectionMinX > intersectionMaxX) {
-                continue;
-            }
-            final int length = (int) (intersectionMaxX - intersectionMinX + 1L);
-            final PArray frameArray = frame.channel0.array();
-            final long frameDimX = frame.dimX;
-            int x = (int) (intersectionMinX - largeAreaMinX);
-            final long frameX = intersectionMinX - frame.minX;
+        for (FrameSegment segment : segmentsAtLine(i)) {
+            final MapBuffer.Frame frame = segment.frame;
+            final int length = segment.length;
+            int x = segment.x;
             int p = x + disp;
-            long frameP = (largeAreaMinY + i - frame.minY) * frameDimX + frameX;
-            readFrameLine(frameArray, p, frameP, length);
+            long frameP = (y - frame.minY) * frame.dimX + segment.frameX;
+            readFrameLine(segment, p, frameP, length);
             if (insideSmallFrameByY) {
                 for (int to = p + length; p < to; x++, p++) {
-                    final int label = dynamicDisjointSet.parentOrThis(labels[p]);
+                    final int label = disjointSet.parentOrThis(labels[p]);
                     final boolean insideSmallFrame = x >= smallMinX && x <= smallMaxX;
                     final boolean insideSmallOrCompleted = insideSmallFrame || reindexedCompleted.get(label);
                     if (!insideSmallOrCompleted || reindexedBoundaryWithOutside.get(label)) {
@@ -196,7 +215,7 @@ class ReindexerAndRetainer {
                 }
             } else {
                 for (int to = p + length; p < to; x++, p++) {
-                    final int label = dynamicDisjointSet.parentOrThis(labels[p]);
+                    final int label = disjointSet.parentOrThis(labels[p]);
                     final boolean completed = reindexedCompleted.get(label);
                     if (!completed || reindexedBoundaryWithOutside.get(label)) {
                         labels[p] = 0;
@@ -218,8 +237,29 @@ class ReindexerAndRetainer {
         }
     }
 
-    void readFrameLine(PArray frameArray, int p, long frameP, int length) {
-        frameArray.getData(frameP, labels, p, length);
+    void readFrameLine(FrameSegment segment, int p, long frameP, int length) {
+        final RunLengthLabels runs = segment.frame.runs;
+        if (runs != null) {
+            final long frameDimX = segment.frame.dimX;
+            runs.readLine((int) (frameP / frameDimX), (int) (frameP % frameDimX), labels, p, length);
+        } else {
+            segment.frameArray.getData(frameP, labels, p, length);
+        }
+    }
+
+    FrameSegment[] segmentsAtLine(int i) {
+        int low = 0;
+        int high = bandStarts.length - 1;
+        // - bandStarts[0] = 0 <= i
+        while (low < high) {
+            final int middle = (low + high + 1) >>> 1;
+            if (bandStarts[middle] <= i) {
+                low = middle;
+            } else {
+                high = middle - 1;
+            }
+        }
+        return bandSegments[low];
     }
 
     static MapBuffer.Frame crop(MapBuffer.Frame frame, int[] minNonZeroX, int[] maxNonZeroX) {
@@ -253,12 +293,42 @@ class ReindexerAndRetainer {
                 MultiMatrix.of2DMono(m.subMatrix(minX, minY, maxX + 1, maxY + 1)));
     }
 
+    // Intersection of a frame with the large area by X.
+    static final class FrameSegment {
+        final MapBuffer.Frame frame;
+        final PArray frameArray;
+        final Object frameJavaArray;
+        final int frameJavaArrayOffset;
+        final int x;
+        final long frameX;
+        final int length;
+
+        private FrameSegment(
+                MapBuffer.Frame frame,
+                long intersectionMinX,
+                long intersectionMaxX,
+                long largeAreaMinX) {
+            this.frame = frame;
+            this.frameArray = frame.channel0.array();
+            if (frameArray instanceof DirectAccessible da && da.hasJavaArray()) {
+                this.frameJavaArray = da.javaArray();
+                this.frameJavaArrayOffset = da.javaArrayOffset();
+            } else {
+                this.frameJavaArray = null;
+                this.frameJavaArrayOffset = 0;
+            }
+            this.x = (int) (intersectionMinX - largeAreaMinX);
+            this.frameX = intersectionMinX - frame.minX;
+            this.length = (int) (intersectionMaxX - intersectionMinX + 1L);
+        }
+    }
+
     private static class ReindexerAndRetainerNonInt extends ReindexerAndRetainer {
         private ReindexerAndRetainerNonInt(
                 IRectangularArea largeArea,
                 List<MapBuffer.Frame> frames,
                 IRectangularArea smallFrameArea,
-                DynamicDisjointSet dynamicDisjointSet,
+                ConcurrentDisjointSet disjointSet,
                 QuickLabelsSet reindexedCompleted,
                 QuickLabelsSet reindexedBoundaryWithOutside,
                 boolean jointingAutoCrop) {
@@ -266,17 +336,31 @@ class ReindexerAndRetainer {
                     largeArea,
                     frames,
                     smallFrameArea,
-                    dynamicDisjointSet,
+                    disjointSet,
                     reindexedCompleted,
                     reindexedBoundaryWithOutside,
                     jointingAutoCrop);
         }
 
         @Override
-        void readFrameLine(PArray frameArray, int p, long frameP, int length) {
-            Arrays.applyFunc(null, Func.IDENTITY,
-                    labelsArray.subArr(p, length),
-                    (PArray) frameArray.subArr(frameP, length));
+        void readFrameLine(FrameSegment segment, int p, long frameP, int length) {
+            // Note: this method is called inside parallel loop by lines, so we must not use
+            // multithreading conversion by Arrays.applyFunc here
+            final int offset = segment.frameJavaArrayOffset + (int) frameP;
+            // - overflow impossible: frameP is an index inside Java array
+            if (segment.frameJavaArray instanceof byte[] bytes) {
+                for (int k = 0; k < length; k++) {
+                    labels[p + k] = bytes[offset + k] & 0xFF;
+                }
+            } else if (segment.frameJavaArray instanceof short[] shorts) {
+                for (int k = 0; k < length; k++) {
+                    labels[p + k] = shorts[offset + k] & 0xFFFF;
+                }
+            } else {
+                Arrays.applyFunc(ArrayContext.DEFAULT_SINGLE_THREAD, Func.IDENTITY,
+                        labelsArray.subArr(p, length),
+                        (PArray) segment.frameArray.subArr(frameP, length));
+            }
         }
     }
 
@@ -285,7 +369,7 @@ class ReindexerAndRetainer {
                 IRectangularArea largeArea,
                 List<MapBuffer.Frame> frames,
                 IRectangularArea smallFrameArea,
-                DynamicDisjointSet dynamicDisjointSet,
+                ConcurrentDisjointSet disjointSet,
                 QuickLabelsSet reindexedCompleted,
                 QuickLabelsSet reindexedBoundaryWithOutside,
                 boolean jointingAutoCrop) {
@@ -293,7 +377,7 @@ class ReindexerAndRetainer {
                     largeArea,
                     frames,
                     smallFrameArea,
-                    dynamicDisjointSet,
+                    disjointSet,
                     reindexedCompleted,
                     reindexedBoundaryWithOutside,
                     jointingAutoCrop);
@@ -307,27 +391,18 @@ class ReindexerAndRetainer {
             int disp = i * dimX;
             int minX = Integer.MAX_VALUE;
             int maxX = Integer.MIN_VALUE;
-            for (MapBuffer.Frame frame : frames) {
-                if (y < frame.minY || y > frame.maxY) {
-                    continue;
-                }
-                final long intersectionMinX = Math.max(largeAreaMinX, frame.minX);
-                final long intersectionMaxX = Math.min(largeAreaMaxX, frame.maxX);
-                if (intersectionMinX > intersectionMaxX) {
-                    continue;
-                }
-                final int length = (int) (intersectionMaxX - intersectionMinX + 1L);
+            for (FrameSegment segment : segmentsAtLine(i)) {
+                final MapBuffer.Frame frame = segment.frame;
+                final int length = segment.length;
                 final int[] frameArray = frame.channel0Ints;
                 assert frameArray != null;
-                final long frameDimX = frame.dimX;
-                int x = (int) (intersectionMinX - largeAreaMinX);
-                final long frameX = intersectionMinX - frame.minX;
+                int x = segment.x;
                 final int p = x + disp;
-                int frameP = (int) ((largeAreaMinY + i - frame.minY) * frameDimX + frameX);
+                int frameP = (int) ((y - frame.minY) * frame.dimX + segment.frameX);
                 final int difference = p - frameP;
                 if (insideSmallFrameByY) {
                     for (int to = frameP + length; frameP < to; x++, frameP++) {
-                        final int label = dynamicDisjointSet.parentOrThis(frameArray[frameP]);
+                        final int label = disjointSet.parentOrThis(frameArray[frameP]);
                         final boolean insideSmallFrame = x >= smallMinX && x <= smallMaxX;
                         final boolean insideSmallOrCompleted = insideSmallFrame || reindexedCompleted.get(label);
                         if (insideSmallOrCompleted && !reindexedBoundaryWithOutside.get(label)) {
@@ -345,7 +420,7 @@ class ReindexerAndRetainer {
                     final int differenceMinusDisp = difference - disp;
                     assert differenceMinusDisp == x - frameP;
                     for (int to = frameP + length; frameP < to; frameP++) {
-                        final int label = dynamicDisjointSet.parentOrThis(frameArray[frameP]);
+                        final int label = disjointSet.parentOrThis(frameArray[frameP]);
                         final boolean completed = reindexedCompleted.get(label);
                         if (completed && !reindexedBoundaryWithOutside.get(label)) {
                             // else labels[p] stays to be 0
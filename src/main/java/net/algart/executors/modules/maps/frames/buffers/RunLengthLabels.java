@@ -0,0 +1,196 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2017-2026 Daniel Alievsky, AlgART Laboratory (http://algart.net)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package net.algart.executors.modules.maps.frames.buffers;
+
+import net.algart.arrays.IntArray;
+import net.algart.arrays.Matrices;
+import net.algart.arrays.Matrix;
+import net.algart.arrays.PArray;
+import net.algart.arrays.SimpleMemoryModel;
+import net.algart.arrays.TooLargeArrayException;
+import net.algart.arrays.UpdatableIntArray;
+import net.algart.math.functions.AbstractFunc;
+
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.function.IntUnaryOperator;
+
+// Run-length representation of 2-dimensional int labels: every line is a sequence of runs of equal labels.
+final class RunLengthLabels {
+    private final int dimX;
+    private final int dimY;
+    private final int[] lineStarts;
+    // - runs of the line y are numbered from lineStarts[y] to lineStarts[y+1]-1
+    private final int[] runEnds;
+    // - x-coordinate, following the last element of the run, inside the line
+    private final int[] runLabels;
+
+    private RunLengthLabels(int dimX, int dimY, int[] lineStarts, int[] runEnds, int[] runLabels) {
+        this.dimX = dimX;
+        this.dimY = dimY;
+        this.lineStarts = lineStarts;
+        this.runEnds = runEnds;
+        this.runLabels = runLabels;
+    }
+
+    static RunLengthLabels encode(Matrix<? extends PArray> labels) {
+        Objects.requireNonNull(labels, "Null labels");
+        if (labels.dimCount() != 2 || !(labels.array() instanceof IntArray array)) {
+            throw new IllegalArgumentException("Run-length encoding is possible only for 2-dimensional "
+                    + "int matrix, but we have " + labels);
+        }
+        if (labels.dimX() > Integer.MAX_VALUE || labels.dimY() >= Integer.MAX_VALUE) {
+            throw new TooLargeArrayException("Too large matrix for run-length encoding: " + labels);
+        }
+        final int dimX = (int) labels.dimX();
+        final int dimY = (int) labels.dimY();
+        final int[] lineStarts = new int[dimY + 1];
+        int[] runEnds = new int[Math.max(16, dimY)];
+        int[] runLabels = new int[runEnds.length];
+        final int[] line = new int[dimX];
+        int count = 0;
+        for (int y = 0; y < dimY; y++) {
+            lineStarts[y] = count;
+            array.getData((long) y * (long) dimX, line);
+            for (int x = 0; x < dimX; ) {
+                final int label = line[x];
+                int end = x + 1;
+                while (end < dimX && line[end] == label) {
+                    end++;
+                }
+                if (count == runEnds.length) {
+                    final int newLength = (int) Math.min(Integer.MAX_VALUE, 2L * count);
+                    if (newLength == count) {
+                        throw new TooLargeArrayException("Too large number of runs in " + labels);
+                    }
+                    runEnds = Arrays.copyOf(runEnds, newLength);
+                    runLabels = Arrays.copyOf(runLabels, newLength);
+                }
+                runEnds[count] = end;
+                runLabels[count] = label;
+                count++;
+                x = end;
+            }
+        }
+        lineStarts[dimY] = count;
+        return new RunLengthLabels(
+                dimX,
+                dimY,
+                lineStarts,
+                Arrays.copyOf(runEnds, count),
+                Arrays.copyOf(runLabels, count));
+    }
+
+    int dimX() {
+        return dimX;
+    }
+
+    int dimY() {
+        return dimY;
+    }
+
+    int numberOfRuns() {
+        return runEnds.length;
+    }
+
+    long memory() {
+        return 4L * ((long) lineStarts.length + (long) runEnds.length + (long) runLabels.length);
+    }
+
+    int get(int x, int y) {
+        return runLabels[runIndex(x, y)];
+    }
+
+    void readLine(int y, int fromX, int[] result, int resultOffset, int length) {
+        readLineReindexed(y, fromX, result, resultOffset, length, null);
+    }
+
+    // Note: reindexing is called once per run, not per element
+    void readLineReindexed(
+            int y,
+            int fromX,
+            int[] result,
+            int resultOffset,
+            int length,
+            IntUnaryOperator reindexing) {
+        assert length >= 0 && fromX >= 0 && fromX + length <= dimX : "illegal line range";
+        if (length == 0) {
+            return;
+        }
+        final int toX = fromX + length;
+        int p = resultOffset;
+        for (int k = runIndex(fromX, y), x = fromX; x < toX; k++) {
+            final int end = Math.min(runEnds[k], toX);
+            final int label = reindexing == null ? runLabels[k] : reindexing.applyAsInt(runLabels[k]);
+            Arrays.fill(result, p, p + end - x, label);
+            p += end - x;
+            x = end;
+        }
+    }
+
+    Matrix<UpdatableIntArray> decode() {
+        final int[] result = new int[Math.multiplyExact(dimX, dimY)];
+        for (int y = 0, p = 0; y < dimY; y++, p += dimX) {
+            readLine(y, 0, result, p, dimX);
+        }
+        return Matrices.matrix(SimpleMemoryModel.asUpdatableIntArray(result), dimX, dimY);
+    }
+
+    // Lazy matrix, calculating every element by its run: it allows to use the frame by any algorithms
+    // that do not know about this representation
+    Matrix<? extends PArray> asMatrix() {
+        return Matrices.asCoordFuncMatrix(new AbstractFunc() {
+            @Override
+            public double get(double... x) {
+                return get(x[0], x[1]);
+            }
+
+            @Override
+            public double get(double x0, double x1) {
+                return RunLengthLabels.this.get((int) x0, (int) x1);
+            }
+        }, IntArray.class, dimX, dimY);
+    }
+
+    @Override
+    public String toString() {
+        return "run-length encoded labels " + dimX + "x" + dimY + " (" + runEnds.length + " runs)";
+    }
+
+    private int runIndex(int x, int y) {
+        int low = lineStarts[y];
+        int high = lineStarts[y + 1] - 1;
+        // - every line contains at least 1 run, and runEnds[high] = dimX > x
+        while (low < high) {
+            final int middle = (low + high) >>> 1;
+            if (runEnds[middle] <= x) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+}
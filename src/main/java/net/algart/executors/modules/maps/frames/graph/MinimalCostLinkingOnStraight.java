@@ -32,8 +32,17 @@ import java.util.Objects;
  * See <a href="https://archive.siam.org/journals/plagiary/LinkQuadratic.pdf">
  * <b>A Faster Algorithm for Computing the Link Distance Between Two Point Sets on the RealLine</b>.</a><br>
  * Justin Colannino, Godfried Toussain
+ *
+ * <p>Instances, created by {@link #newLinearMemoryInstance(double[], double[])}, do not build the graph
+ * (which requires O(S&middot;T) memory for S source and T target points). Instead, they use dynamic programming
+ * with recursive halving of the target range, which requires only O(S&middot;log&nbsp;T+T) memory
+ * and finds the same links as {@link ShortestPathFinder.Algorithm#FOR_SORTED_ACYCLIC} algorithm.
+ * The graph methods ({@link #numberOfVertices()} etc.) are not supported by such instances.
  */
 public final class MinimalCostLinkingOnStraight implements WeightedDirectedGraph {
+    private static final int LINEAR_MEMORY_BLOCK_SIZE = 1 << 18;
+    // - number of elements in a block of rows, which is fully stored by linear-memory algorithm
+
     private final double[] source;
     private final double[] target;
     private final int numberOfVertices;
@@ -43,6 +52,10 @@ public final class MinimalCostLinkingOnStraight implements WeightedDirectedGraph
     private final ShortestPathFinder finder;
 
     private final int[] resultShortestPath;
+    private final int[] linkSourceIndexes;
+    private final int[] linkTargetIndexes;
+    // - used in linear-memory mode instead of resultShortestPath
+    private final boolean linearMemory;
     private int numberOfLinks = 0;
 
     private MinimalCostLinkingOnStraight(ShortestPathFinder.Algorithm algorithm, double[] source, double[] target) {
@@ -55,6 +68,7 @@ public final class MinimalCostLinkingOnStraight implements WeightedDirectedGraph
         }
         checkSorted(source);
         checkSorted(target);
+        this.linearMemory = false;
         this.source = source;
         this.target = target;
         this.numberOfVertices = source.length * target.length + 1;
@@ -71,6 +85,30 @@ public final class MinimalCostLinkingOnStraight implements WeightedDirectedGraph
         };
         this.finder = ShortestPathFinder.newInstance(algorithm, this);
         this.resultShortestPath = new int[source.length + target.length + 1];
+        this.linkSourceIndexes = null;
+        this.linkTargetIndexes = null;
+    }
+
+    private MinimalCostLinkingOnStraight(double[] source, double[] target) {
+        Objects.requireNonNull(source, "Null source");
+        Objects.requireNonNull(target, "Null target");
+        if ((long) source.length + (long) target.length > Integer.MAX_VALUE) {
+            throw new TooLargeArrayException("Too large array: source.length + target.length = "
+                    + source.length + " + " + target.length + " > Integer.MAX_VALUE");
+        }
+        checkSorted(source);
+        checkSorted(target);
+        this.linearMemory = true;
+        this.source = source;
+        this.target = target;
+        this.numberOfVertices = -1;
+        this.sIndex = null;
+        this.tIndex = null;
+        this.neighbourOffset = null;
+        this.finder = null;
+        this.resultShortestPath = null;
+        this.linkSourceIndexes = new int[source.length + target.length];
+        this.linkTargetIndexes = new int[source.length + target.length];
     }
 
     public static MinimalCostLinkingOnStraight newInstance(
@@ -80,6 +118,14 @@ public final class MinimalCostLinkingOnStraight implements WeightedDirectedGraph
         return new MinimalCostLinkingOnStraight(algorithm, source, target);
     }
 
+    public static MinimalCostLinkingOnStraight newLinearMemoryInstance(double[] source, double[] target) {
+        return new MinimalCostLinkingOnStraight(source, target);
+    }
+
+    public boolean isLinearMemory() {
+        return linearMemory;
+    }
+
     public double[] source() {
         return source;
     }
@@ -89,6 +135,10 @@ public final class MinimalCostLinkingOnStraight implements WeightedDirectedGraph
     }
 
     public void findBestLinks() {
+        if (isLinearMemory()) {
+            this.numberOfLinks = new LinearMemoryLinker().findLinks();
+            return;
+        }
         finder.findShortestPaths(0);
         final int targetVertex = numberOfVertices - 1;
         this.numberOfLinks = finder.getPath(resultShortestPath, targetVertex) - 1;
@@ -100,12 +150,12 @@ public final class MinimalCostLinkingOnStraight implements WeightedDirectedGraph
 
     public int getSourceIndex(int linkIndex) {
         checkIndex(linkIndex);
-        return sIndex[resultShortestPath[linkIndex + 1]];
+        return isLinearMemory() ? linkSourceIndexes[linkIndex] : sIndex[resultShortestPath[linkIndex + 1]];
     }
 
     public int getTargetIndex(int linkIndex) {
         checkIndex(linkIndex);
-        return tIndex[resultShortestPath[linkIndex + 1]];
+        return isLinearMemory() ? linkTargetIndexes[linkIndex] : tIndex[resultShortestPath[linkIndex + 1]];
     }
 
     public double getLinkCost(int linkIndex) {
@@ -124,11 +174,13 @@ public final class MinimalCostLinkingOnStraight implements WeightedDirectedGraph
 
     @Override
     public int numberOfVertices() {
+        checkGraphMode();
         return numberOfVertices;
     }
 
     @Override
     public int numberOfOutgoingEdges(int vertex) {
+        checkGraphMode();
         if (vertex == 0) {
             return numberOfVertices > 1 ? 1 : 0;
             // - possible degenerated case, when source or target array is empty
@@ -143,6 +195,7 @@ public final class MinimalCostLinkingOnStraight implements WeightedDirectedGraph
 
     @Override
     public int neighbourVertex(int vertex, int neighbourIndex) {
+        checkGraphMode();
         if (vertex == 0) {
             if (numberOfVertices <= 1) {
                 throw new IndexOutOfBoundsException("Degenerated graph: no edges");
@@ -167,6 +220,7 @@ public final class MinimalCostLinkingOnStraight implements WeightedDirectedGraph
 
     @Override
     public double edgeWeight(int vertex, int neighbourIndex) {
+        checkGraphMode();
         if (vertex == 0) {
             return Math.abs(source[0] - target[0]);
             // - note: IndexOutOfBoundsException when one of arrays is empty;
@@ -208,6 +262,12 @@ public final class MinimalCostLinkingOnStraight implements WeightedDirectedGraph
         }
     }
 
+    private void checkGraphMode() {
+        if (isLinearMemory()) {
+            throw new UnsupportedOperationException("Graph is not built in linear-memory mode");
+        }
+    }
+
     private void checkIndex(int k) {
         if (numberOfLinks == 0) {
             throw new IllegalStateException("Links are not found");
@@ -216,4 +276,142 @@ public final class MinimalCostLinkingOnStraight implements WeightedDirectedGraph
             throw new IndexOutOfBoundsException("Index of link " + k + " is out of range 0.." + (numberOfLinks - 1));
         }
     }
+
+    // Dynamic programming, equivalent to FOR_SORTED_ACYCLIC algorithm for the graph above.
+    // Vertex (s,t) (s = source index, t = target index) is reached from (s-1,t-1), (s,t-1), (s-1,t);
+    // in the graph, these predecessors have increasing vertex indexes, so, in a case of equal distances,
+    // FOR_SORTED_ACYCLIC chooses the first of them in this order: we do the same.
+    // Row #t contains distances to all vertices (0..S-1,t).
+    private final class LinearMemoryLinker {
+        private static final int DIAGONAL = 0;
+        private static final int UP = 1;
+        private static final int LEFT = 2;
+
+        private final int numberOfSource = source.length;
+        private final int blockRows = Math.max(1, LINEAR_MEMORY_BLOCK_SIZE / Math.max(1, source.length));
+        private final double[] block;
+        private final double[] work1;
+        private final double[] work2;
+        private int pathLength = 0;
+
+        LinearMemoryLinker() {
+            this.block = new double[(int) Math.min((long) blockRows, target.length) * numberOfSource];
+            this.work1 = new double[numberOfSource];
+            this.work2 = new double[numberOfSource];
+        }
+
+        int findLinks() {
+            if (source.length == 0 || target.length == 0) {
+                return 0;
+                // - degenerated graph: only 1 vertex #0 and no links
+            }
+            findPath(0, target.length - 1, null, numberOfSource - 1);
+            reverse(linkSourceIndexes, pathLength);
+            reverse(linkTargetIndexes, pathLength);
+            return pathLength;
+        }
+
+        // Adds the path part inside rows tFrom..tTo, ending at (sLast,tTo), in reverse order.
+        // Returns the source index, where the path comes from the row tFrom-1.
+        private int findPath(int tFrom, int tTo, double[] rowBefore, int sLast) {
+            if (tTo - tFrom < blockRows) {
+                return findPathInsideBlock(tFrom, tTo, rowBefore, sLast);
+            }
+            final int tMiddle = (tFrom + tTo) >>> 1;
+            double[] previous = rowBefore;
+            double[] current = work1;
+            for (int t = tFrom; t <= tMiddle; t++) {
+                calculateRow(previous, current, 0, t);
+                previous = current;
+                current = current == work1 ? work2 : work1;
+            }
+            final double[] rowMiddle = previous.clone();
+            final int sMiddle = findPath(tMiddle + 1, tTo, rowMiddle, sLast);
+            return findPath(tFrom, tMiddle, rowBefore, sMiddle);
+        }
+
+        private int findPathInsideBlock(int tFrom, int tTo, double[] rowBefore, int sLast) {
+            for (int t = tFrom; t <= tTo; t++) {
+                calculateRow(t == tFrom ? rowBefore : block, block, t - tFrom, t);
+            }
+            int s = sLast;
+            int t = tTo;
+            for (; ; ) {
+                linkSourceIndexes[pathLength] = s;
+                linkTargetIndexes[pathLength] = t;
+                pathLength++;
+                if (s == 0 && t == 0) {
+                    return -1;
+                }
+                switch (predecessor(t == tFrom ? rowBefore : block, t - tFrom, s, t)) {
+                    case DIAGONAL -> {
+                        s--;
+                        t--;
+                    }
+                    case UP -> t--;
+                    default -> s--;
+                }
+                if (t < tFrom) {
+                    return s;
+                }
+            }
+        }
+
+        // If previous == block, the previous row is stored in block before the row #rowIndex
+        private void calculateRow(double[] previous, double[] result, int rowIndex, int t) {
+            final int offset = result == block ? rowIndex * numberOfSource : 0;
+            final int previousOffset = previous == block ? offset - numberOfSource : 0;
+            final double targetPoint = target[t];
+            for (int s = 0; s < numberOfSource; s++) {
+                final double cost = Math.abs(source[s] - targetPoint);
+                double distance;
+                if (t == 0) {
+                    distance = s == 0 ? 0.0 : result[offset + s - 1];
+                } else if (s == 0) {
+                    distance = previous[previousOffset];
+                } else {
+                    distance = previous[previousOffset + s - 1];
+                    final double up = previous[previousOffset + s];
+                    if (up < distance) {
+                        distance = up;
+                    }
+                    final double left = result[offset + s - 1];
+                    if (left < distance) {
+                        distance = left;
+                    }
+                }
+                result[offset + s] = distance + cost;
+            }
+        }
+
+        private int predecessor(double[] previous, int rowIndex, int s, int t) {
+            final int offset = rowIndex * numberOfSource;
+            final int previousOffset = previous == block ? offset - numberOfSource : 0;
+            if (t == 0) {
+                return LEFT;
+            }
+            if (s == 0) {
+                return UP;
+            }
+            double distance = previous[previousOffset + s - 1];
+            int result = DIAGONAL;
+            final double up = previous[previousOffset + s];
+            if (up < distance) {
+                distance = up;
+                result = UP;
+            }
+            if (block[offset + s - 1] < distance) {
+                result = LEFT;
+            }
+            return result;
+        }
+
+        private static void reverse(int[] array, int length) {
+            for (int i = 0, j = length - 1; i < j; i++, j--) {
+                final int temp = array[i];
+                array[i] = array[j];
+                array[j] = temp;
+            }
+        }
+    }
 }
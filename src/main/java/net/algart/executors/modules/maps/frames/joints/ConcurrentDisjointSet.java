@@ -0,0 +1,256 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2017-2026 Daniel Alievsky, AlgART Laboratory (http://algart.net)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package net.algart.executors.modules.maps.frames.joints;
+
+import net.algart.arrays.TooLargeArrayException;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+
+/**
+ * Lock-free analog of {@link DynamicDisjointSet}, which may be safely used from several threads
+ * simultaneously: any number of {@link #jointObjects(long, long)}, {@link #findBase(long)} and
+ * {@link #resolveAllBases()} calls may be executed concurrently.
+ *
+ * <p>Objects are indexed by <code>long</code> values. Parent references are stored in segments,
+ * allocated lazily: while an object was never joined, its segment may be absent,
+ * and such an object is considered to be a base of its own single-element set.
+ *
+ * <p>Unlike {@link DynamicDisjointSet}, the sets are linked by index, not by cardinality:
+ * the base of every set is always its minimal object index. So, the result
+ * does not depend on the order of concurrent operations, and the base of an <code>int</code> object
+ * is always <code>int</code>: {@link #parentOrThis(int)} may be used for quick reindexing of
+ * <code>int</code> labels.
+ *
+ * <p>Note: {@link #clear()} and {@link #clone()} must not be called concurrently with joining objects.
+ */
+public final class ConcurrentDisjointSet implements Cloneable {
+    private static final int SEGMENT_LOG = 18;
+    private static final int SEGMENT_SIZE = 1 << SEGMENT_LOG;
+    private static final int SEGMENT_MASK = SEGMENT_SIZE - 1;
+    private static final long MAX_NUMBER_OF_OBJECTS = (long) (Integer.MAX_VALUE - 1000) << SEGMENT_LOG;
+    private static final AtomicLongArray[] EMPTY_SEGMENTS = new AtomicLongArray[0];
+
+    // Every element contains (parent + 1) or 0, if the object is a base (parent == this object).
+    // So, zero-filled segments are automatically correct.
+    private final AtomicReference<AtomicLongArray[]> segments = new AtomicReference<>(EMPTY_SEGMENTS);
+    private final AtomicLong count = new AtomicLong(0);
+
+    private ConcurrentDisjointSet() {
+    }
+
+    public static ConcurrentDisjointSet newInstance() {
+        return new ConcurrentDisjointSet();
+    }
+
+    public long count() {
+        return count.get();
+    }
+
+    public void expand(long objectIndex) {
+        checkIndex(objectIndex);
+        final long newCount = objectIndex + 1;
+        if (newCount > count.get()) {
+            count.accumulateAndGet(newCount, Math::max);
+        }
+    }
+
+    public void clear() {
+        segments.set(EMPTY_SEGMENTS);
+        count.set(0);
+    }
+
+    public long parentOrThis(long objectIndex) {
+        final AtomicLongArray segment = segment(objectIndex);
+        if (segment == null) {
+            return objectIndex;
+        }
+        final long value = segment.get((int) (objectIndex & SEGMENT_MASK));
+        return value == 0 ? objectIndex : value - 1;
+    }
+
+    public int parentOrThis(int objectIndex) {
+        // - this function is recommended for reindexing labels after resolveAllBases
+        final AtomicLongArray segment = segment(objectIndex);
+        if (segment == null) {
+            return objectIndex;
+        }
+        final long value = segment.get(objectIndex & SEGMENT_MASK);
+        return value == 0 ? objectIndex : (int) (value - 1);
+        // - the parent is never greater than the object
+    }
+
+    public long findBase(long objectIndex) {
+        checkIndex(objectIndex);
+        long x = objectIndex;
+        for (; ; ) {
+            final AtomicLongArray xSegment = segment(x);
+            if (xSegment == null) {
+                return x;
+            }
+            final int xOffset = (int) (x & SEGMENT_MASK);
+            final long xValue = xSegment.get(xOffset);
+            if (xValue == 0) {
+                return x;
+            }
+            final long parent = xValue - 1;
+            final AtomicLongArray parentSegment = segment(parent);
+            final long parentValue = parentSegment == null ? 0 : parentSegment.get((int) (parent & SEGMENT_MASK));
+            if (parentValue == 0) {
+                return parent;
+            }
+            xSegment.compareAndSet(xOffset, xValue, parentValue);
+            // - path halving: the grandparent is always an ancestor, so it is correct even if CAS fails
+            x = parentValue - 1;
+        }
+    }
+
+    public long jointObjects(long object1, long object2) {
+        expand(object1);
+        expand(object2);
+        long base1 = object1;
+        long base2 = object2;
+        for (; ; ) {
+            base1 = findBase(base1);
+            base2 = findBase(base2);
+            if (base1 == base2) {
+                return base1;
+            }
+            if (base1 > base2) {
+                final long temp = base1;
+                base1 = base2;
+                base2 = temp;
+            }
+            // - joining larger index (base2) to smaller (base1): it excludes cycles
+            if (reqSegment(base2).compareAndSet((int) (base2 & SEGMENT_MASK), 0, base1 + 1)) {
+                return base1;
+            }
+            // - base2 was joined by another thread: repeat from the current bases
+        }
+    }
+
+    /**
+     * Finds the base of the given object and makes it the parent of this object,
+     * so that the following {@link #parentOrThis(long)} returns the base
+     * (if the sets were not joined after this).
+     *
+     * @param objectIndex index of the object.
+     * @return the base of the object.
+     */
+    public long resolveBase(long objectIndex) {
+        final long base = findBase(objectIndex);
+        final AtomicLongArray segment = segment(objectIndex);
+        if (segment == null) {
+            return base;
+        }
+        final int offset = (int) (objectIndex & SEGMENT_MASK);
+        for (; ; ) {
+            final long value = segment.get(offset);
+            if (value == 0 || value == base + 1 || segment.compareAndSet(offset, value, base + 1)) {
+                return base;
+            }
+            // - base is an ancestor of this object in any case, so we may retry
+        }
+    }
+
+    public void resolveAllBases() {
+        final AtomicLongArray[] current = segments.get();
+        final long n = count.get();
+        final int[] allocated = IntStream.range(0, current.length).filter(k -> current[k] != null).toArray();
+        // - objects in absent segments are bases: no sense to resolve them
+        final int blocksPerSegment = SEGMENT_SIZE >>> 8;
+        LongStream.range(0, (long) allocated.length * blocksPerSegment).parallel().forEach(block -> {
+            // note: splitting to blocks necessary for normal speed
+            final long segmentStart = (long) allocated[(int) (block / blocksPerSegment)] << SEGMENT_LOG;
+            for (long i = segmentStart + ((block % blocksPerSegment) << 8), to = Math.min(i + 256, n);
+                 i < to; i++) {
+                resolveBase(i);
+            }
+        });
+    }
+
+    @Override
+    public ConcurrentDisjointSet clone() {
+        final ConcurrentDisjointSet result = new ConcurrentDisjointSet();
+        final AtomicLongArray[] current = segments.get();
+        final AtomicLongArray[] copy = new AtomicLongArray[current.length];
+        for (int k = 0; k < current.length; k++) {
+            if (current[k] != null) {
+                final long[] values = new long[SEGMENT_SIZE];
+                for (int i = 0; i < SEGMENT_SIZE; i++) {
+                    values[i] = current[k].get(i);
+                }
+                copy[k] = new AtomicLongArray(values);
+            }
+        }
+        result.segments.set(copy);
+        result.count.set(count.get());
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return "concurrent disjoint set of " + count.get() + " objects";
+    }
+
+
+    private AtomicLongArray segment(long objectIndex) {
+        final AtomicLongArray[] current = segments.get();
+        final long segmentIndex = objectIndex >>> SEGMENT_LOG;
+        return segmentIndex < current.length ? current[(int) segmentIndex] : null;
+    }
+
+    private AtomicLongArray reqSegment(long objectIndex) {
+        final int segmentIndex = (int) (objectIndex >>> SEGMENT_LOG);
+        for (; ; ) {
+            final AtomicLongArray[] current = segments.get();
+            if (segmentIndex < current.length && current[segmentIndex] != null) {
+                return current[segmentIndex];
+            }
+            final int newLength = Math.max(segmentIndex + 1,
+                    (int) Math.min(Integer.MAX_VALUE - 1000, 2L * current.length));
+            final AtomicLongArray[] updated = Arrays.copyOf(current, Math.max(current.length, newLength));
+            updated[segmentIndex] = new AtomicLongArray(SEGMENT_SIZE);
+            if (segments.compareAndSet(current, updated)) {
+                return updated[segmentIndex];
+            }
+            // - another thread has installed a new segment: repeat with the actual directory
+        }
+    }
+
+    private static void checkIndex(long objectIndex) {
+        if (objectIndex < 0) {
+            throw new IllegalArgumentException("Negative object index: " + objectIndex);
+        }
+        if (objectIndex >= MAX_NUMBER_OF_OBJECTS) {
+            throw new TooLargeArrayException("Too large object index: " + objectIndex
+                    + " (maximal supported number of objects is " + MAX_NUMBER_OF_OBJECTS + ")");
+        }
+    }
+}
@@ -87,8 +87,13 @@ public final class DynamicDisjointSet implements Cloneable {
         while ((newBase = parent[base]) != base) {
             base = newBase;
         }
-        parent[objectIndex] = base;
-        // - path compression; correct even while multithreading, though may lead to slowing down
+        for (int k = objectIndex; k != base; ) {
+            final int ancestor = parent[k];
+            parent[k] = base;
+            k = ancestor;
+        }
+        // - full path compression; correct even while multithreading (we always replace a parent
+        // with some its ancestor), though may lead to slowing down
         return base;
     }
 
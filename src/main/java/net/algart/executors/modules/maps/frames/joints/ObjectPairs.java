@@ -30,14 +30,33 @@ import net.algart.executors.modules.maps.frames.buffers.MapBuffer;
 import net.algart.multimatrix.MultiMatrix;
 
 import java.util.BitSet;
+import java.util.HashSet;
 import java.util.Objects;
+import java.util.Set;
 import java.util.stream.IntStream;
 
 public final class ObjectPairs {
     private static final int MAX_NUMBER_OF_PAIRS = Integer.MAX_VALUE / 2;
+    private static final int MAX_BASE_CHANGES_LENGTH = Integer.MAX_VALUE - 1000;
 
     private final MutableIntArray pairs = Arrays.SMM.newEmptyIntArray();
-    private final DynamicDisjointSet dynamicDisjointSet = DynamicDisjointSet.newInstance();
+    private final ConcurrentDisjointSet disjointSet = ConcurrentDisjointSet.newInstance();
+    // - may be used (found bases, resolved) by several threads while another thread adds pairs
+    private int[] nextInSet = JArrays.EMPTY_INTS;
+    // - circular lists of objects of the same set: allows to enumerate a set without scanning all objects;
+    // objects, that were never joined, are not stored here
+    private final MutableIntArray baseChanges = Arrays.SMM.newEmptyIntArray();
+    // - pairs (object, new base) for all objects of the sets, absorbed by other sets while adding pairs:
+    // these are the only objects, which change their bases
+    private final MutableIntArray baseChangesOffsets = Arrays.SMM.newEmptyIntArray();
+    // - baseChangesOffsets[k] = length of baseChanges before adding pair #k
+    private long version = 0;
+    private long clearingVersion = 0;
+    // - version is incremented by every added pair and by clearing, so, pair #k was added
+    // at version clearingVersion + k + 1
+    private volatile long resolvedVersion = -1;
+    // - all bases were resolved at this version: after this, only the sets, containing pairs
+    // added since this version, may contain objects with parent != base
 
     private ObjectPairs() {
     }
@@ -46,8 +65,8 @@ public final class ObjectPairs {
         return new ObjectPairs();
     }
 
-    public DynamicDisjointSet dynamicDisjointSet() {
-        return dynamicDisjointSet;
+    public ConcurrentDisjointSet disjointSet() {
+        return disjointSet;
     }
 
     public static ObjectPairs of(int[] pairsArray) {
@@ -66,6 +85,15 @@ public final class ObjectPairs {
         return (int) pairs.length() >> 1;
     }
 
+    public long version() {
+        return version;
+    }
+
+    public boolean isActualVersion(long version) {
+        return version >= clearingVersion && version <= this.version;
+        // - if false, the pairs were cleared after this version, and we cannot build increments
+    }
+
     public void addPair(int object1, int object2) {
         if (object1 < 0) {
             throw new IllegalArgumentException("Negative object1 index");
@@ -80,13 +108,41 @@ public final class ObjectPairs {
             // - we don't need to store identical pairs: it is senseless
             pairs.pushInt(object1);
             pairs.pushInt(object2);
-            dynamicDisjointSet.jointObjects(object1, object2);
+            baseChangesOffsets.pushInt((int) baseChanges.length());
+            disjointSet.expand(Math.max(object1, object2));
+            final int base1 = (int) disjointSet.findBase(object1);
+            final int base2 = (int) disjointSet.findBase(object2);
+            if (base1 != base2) {
+                final int base = (int) disjointSet.jointObjects(base1, base2);
+                // - lock-free: other threads may find bases at the same time
+                ensureNextInSetCapacity(Math.max(object1, object2) + 1L);
+                final int absorbed = base == base1 ? base2 : base1;
+                int object = absorbed;
+                do {
+                    if (baseChanges.length() >= MAX_BASE_CHANGES_LENGTH) {
+                        throw new TooLargeArrayException("Too many changes of bases while joining objects");
+                    }
+                    baseChanges.pushInt(object);
+                    baseChanges.pushInt(base);
+                    object = nextInSet[object];
+                } while (object != absorbed);
+                // - the circular list of the absorbed set, before merging
+                final int nextOfBase1 = nextInSet[base1];
+                nextInSet[base1] = nextInSet[base2];
+                nextInSet[base2] = nextOfBase1;
+                // - merging two circular lists
+            }
+            version++;
         }
     }
 
     public void clear() {
         pairs.length(0);
-        dynamicDisjointSet.clear();
+        disjointSet.clear();
+        nextInSet = JArrays.EMPTY_INTS;
+        baseChanges.length(0);
+        baseChangesOffsets.length(0);
+        clearingVersion = ++version;
     }
 
     public int object1(int pairIndex) {
@@ -107,14 +163,73 @@ public final class ObjectPairs {
         return pairs.toJavaArray();
     }
 
+    public int[] pairsArraySince(long version) {
+        checkActualVersion(version);
+        final long from = 2 * (version - clearingVersion);
+        final int[] result = new int[(int) (pairs.length() - from)];
+        pairs.getData(from, result);
+        return result;
+    }
+
+    /**
+     * Returns pairs (object, new base) for all objects, which changed their base since the given version,
+     * i.e. the objects of the sets, which were absorbed by other sets while adding pairs after that version.
+     * Every object appears in the result only once, with its current base.
+     * So, the size of the result does not depend on the total number of objects:
+     * for example, when a large object grows by joining new labels, only these labels are returned.
+     *
+     * @param version some actual version, returned by {@link #version()} before.
+     * @return pairs (object, new base), packed into a single array.
+     */
+    public int[] reindexDeltaSince(long version) {
+        checkActualVersion(version);
+        final MutableIntArray result = Arrays.SMM.newEmptyIntArray();
+        final Set<Integer> processedObjects = new HashSet<>();
+        for (long k = baseChanges.length() - 2, from = baseChangesOffset(version); k >= from; k -= 2) {
+            final int object = baseChanges.getInt(k);
+            if (processedObjects.add(object)) {
+                // - the last change of the object contains its current base
+                result.pushInt(object);
+                result.pushInt(baseChanges.getInt(k + 1));
+            }
+        }
+        return result.toJavaArray();
+    }
+
+    /**
+     * Makes the parent of every object equal to its base, so that {@link #quickReindex(int)} returns the base.
+     * If the bases were already resolved before (and the pairs were not cleared after this),
+     * only the objects, which changed their bases since that moment, are processed;
+     * in particular, this method does nothing if no pairs were added.
+     *
+     * <p>Several threads may call this method simultaneously, if there are no threads that add pairs.
+     *
+     * @return a reference to this object.
+     */
     public ObjectPairs resolveAllBases() {
-        dynamicDisjointSet.resolveAllBases();
+        final long version = this.version;
+        final long resolvedVersion = this.resolvedVersion;
+        if (resolvedVersion == version) {
+            return this;
+        }
+        if (resolvedVersion >= clearingVersion && resolvedVersion < version
+                && (baseChanges.length() - baseChangesOffset(resolvedVersion)) / 2 < disjointSet.count() / 4) {
+            resolveBasesSince(resolvedVersion);
+        } else {
+            disjointSet.resolveAllBases();
+        }
+        this.resolvedVersion = version;
         return this;
     }
 
     public int[] reindexTable() {
         resolveAllBases();
-        return dynamicDisjointSet.parent();
+        final int[] result = new int[(int) disjointSet.count()];
+        // - count() <= Integer.MAX_VALUE: all objects are int
+        for (int k = 0; k < result.length; k++) {
+            result[k] = disjointSet.parentOrThis(k);
+        }
+        return result;
     }
 
     public int reindex(int objectIndex) {
@@ -122,21 +237,21 @@ public final class ObjectPairs {
             throw new IllegalArgumentException("Objects must be represented by zero or negative integers, "
                     + "but we try to reindex " + objectIndex);
         }
-        if (objectIndex >= dynamicDisjointSet.count) {
+        if (objectIndex >= disjointSet.count()) {
             // - correct situation: internal objects, not intersecting frame boundaries,
             // are not added into this disjoint set
             return objectIndex;
         } else {
-            return dynamicDisjointSet.findBase(objectIndex);
+            return (int) disjointSet.findBase(objectIndex);
         }
     }
 
     public int quickReindex(int objectIndex) {
-        return dynamicDisjointSet.parentOrThis(objectIndex);
+        return disjointSet.parentOrThis(objectIndex);
     }
 
     public QuickLabelsSet reindex(QuickLabelsSet labelsSet) {
-        return labelsSet.reindex(dynamicDisjointSet);
+        return labelsSet.reindex(disjointSet);
     }
 
     public BitSet reindexByAnd(BitSet bitSet) {
@@ -181,11 +296,11 @@ public final class ObjectPairs {
 //        long t2 = System.nanoTime();
         if (quickCallAfterResolveAllBases) {
 //            for (int i = 0; i < labels.length; i++) {
-//                result[i] = dynamicDisjointSet.parentOrThis(labels[i]);
+//                result[i] = disjointSet.parentOrThis(labels[i]);
 //            }
             IntStream.range(0, (labels.length + 255) >>> 8).parallel().forEach(block -> {
                 for (int i = block << 8, to = (int) Math.min((long) i + 256, labels.length); i < to; i++) {
-                    result[i] = dynamicDisjointSet.parentOrThis(labels[i]);
+                    result[i] = disjointSet.parentOrThis(labels[i]);
                 }
             });
         } else {
@@ -204,6 +319,44 @@ public final class ObjectPairs {
 
     @Override
     public String toString() {
-        return "object pairs: " + pairs.length() / 2 + " pairs among " + dynamicDisjointSet.count() + " objects";
+        return "object pairs: " + pairs.length() / 2 + " pairs among " + disjointSet.count() + " objects";
+    }
+
+    private void resolveBasesSince(long version) {
+        for (long k = baseChangesOffset(version), n = baseChanges.length(); k < n; k += 2) {
+            disjointSet.resolveBase(baseChanges.getInt(k));
+            // - objects of other sets already have parent = base
+        }
+    }
+
+    private long baseChangesOffset(long version) {
+        final long pairIndex = version - clearingVersion;
+        return pairIndex < baseChangesOffsets.length() ? baseChangesOffsets.getInt(pairIndex) : baseChanges.length();
+    }
+
+    private int nextInSet(int objectIndex) {
+        return objectIndex >= nextInSet.length ? objectIndex : nextInSet[objectIndex];
+        // - iterating nextInSet from any object returns to this object after visiting the whole its set
+    }
+
+    private void ensureNextInSetCapacity(long newNumberOfObjects) {
+        final int oldNumberOfObjects = nextInSet.length;
+        if (newNumberOfObjects > oldNumberOfObjects) {
+            final int newLength = Math.max(16, (int) Math.max(newNumberOfObjects,
+                    Math.min(Integer.MAX_VALUE - 1000, 2L * oldNumberOfObjects)));
+            final int[] newNextInSet = new int[newLength];
+            System.arraycopy(nextInSet, 0, newNextInSet, 0, oldNumberOfObjects);
+            for (int k = oldNumberOfObjects; k < newLength; k++) {
+                newNextInSet[k] = k;
+            }
+            nextInSet = newNextInSet;
+        }
+    }
+
+    private void checkActualVersion(long version) {
+        if (!isActualVersion(version)) {
+            throw new IllegalArgumentException("Version " + version + " is not actual: the pairs were cleared at "
+                    + "version " + clearingVersion + ", current version is " + this.version);
+        }
     }
 }
@@ -28,11 +28,34 @@ import net.algart.arrays.JArrays;
 
 import java.util.Arrays;
 import java.util.Objects;
+import java.util.function.IntConsumer;
+import java.util.function.IntUnaryOperator;
 
+/**
+ * Set of non-negative object labels in some range <code>min..max</code>, optimized for very quick
+ * {@link #get(int)}. Usage: {@link #expand(int)} for all labels, that will be added, {@link #prepareToUse()},
+ * then {@link #set(int)} for the same labels; after this, {@link #get(int)} can be called
+ * from several threads simultaneously.
+ *
+ * <p>The labels are stored in a bitset <code>long[]</code> with the length of the range,
+ * or, if the range is much greater than the number of calls of {@link #expand(int)}
+ * (few objects on a large map), in a sparse hash set: the choice is made automatically
+ * by {@link #prepareToUse()}.
+ */
 public final class QuickLabelsSet {
+    private static final int MIN_SPARSE_RANGE = 1 << 16;
+    private static final int SPARSE_RANGE_PER_LABEL = 64;
+    // - sparse hash set requires up to 2 int (64 bits) per label
+    private static final int INITIAL_HASH_CAPACITY = 1024;
+    private static final int NO_LABEL = -1;
+
     private int min;
     private int max;
-    private boolean[] bits = JArrays.EMPTY_BOOLEANS;
+    private long expandCount;
+    private boolean sparse = false;
+    private long[] bits = JArrays.EMPTY_LONGS;
+    private int[] hashTable = JArrays.EMPTY_INTS;
+    private int hashCount = 0;
 
     private QuickLabelsSet() {
         clear();
@@ -60,6 +83,10 @@ public final class QuickLabelsSet {
         return max == Integer.MIN_VALUE;
     }
 
+    public boolean isSparse() {
+        return sparse;
+    }
+
     public QuickLabelsSet setLabelsRange(int min, int max) {
         if (min < 0) {
             throw new IllegalArgumentException("Negative min = " + min);
@@ -70,6 +97,8 @@ public final class QuickLabelsSet {
         }
         this.min = min;
         this.max = max;
+        this.expandCount = (long) max - (long) min + 1;
+        // - unknown number of labels: dense bitset
         prepareToUse();
         return this;
     }
@@ -77,6 +106,7 @@ public final class QuickLabelsSet {
     public void clear() {
         min = Integer.MAX_VALUE;
         max = Integer.MIN_VALUE;
+        expandCount = 0;
     }
 
     public void expand(int label) {
@@ -89,23 +119,49 @@ public final class QuickLabelsSet {
         if (label > max) {
             max = label;
         }
+        expandCount++;
     }
 
     public void prepareToUse() {
         if (isEmpty()) {
             min = max = 0;
         }
-        ensureCapacityAndClear(max - min + 1);
-        Arrays.fill(bits, 0, max - min + 1, false);
+        final long range = (long) max - (long) min + 1;
+        sparse = range >= MIN_SPARSE_RANGE && range / SPARSE_RANGE_PER_LABEL > expandCount;
+        if (sparse) {
+            final int capacity = hashCapacity(Math.min(expandCount, INITIAL_HASH_CAPACITY));
+            if (hashTable.length != capacity) {
+                hashTable = new int[capacity];
+            }
+            Arrays.fill(hashTable, NO_LABEL);
+            hashCount = 0;
+            bits = JArrays.EMPTY_LONGS;
+        } else {
+            final int numberOfWords = (int) ((range + 63) >>> 6);
+            ensureCapacityAndClear(numberOfWords);
+            Arrays.fill(bits, 0, numberOfWords, 0L);
+            hashTable = JArrays.EMPTY_INTS;
+            hashCount = 0;
+        }
     }
 
     public void clearAndFreeResources() {
         clear();
-        bits = JArrays.EMPTY_BOOLEANS;
+        bits = JArrays.EMPTY_LONGS;
+        hashTable = JArrays.EMPTY_INTS;
+        hashCount = 0;
+        sparse = false;
     }
 
     public boolean get(int objectLabel) {
-        return objectLabel >= min && objectLabel <= max && bits[objectLabel - min];
+        if (objectLabel < min || objectLabel > max) {
+            return false;
+        }
+        if (sparse) {
+            return hashTable[hashIndex(objectLabel)] != NO_LABEL;
+        }
+        final int k = objectLabel - min;
+        return (bits[k >>> 6] & (1L << k)) != 0;
     }
 
     public void set(int objectLabel, boolean value) {
@@ -114,7 +170,20 @@ public final class QuickLabelsSet {
             throw new IndexOutOfBoundsException("Object's label " + objectLabel
                     + " is out of range " + min + ".." + max);
         }
-        this.bits[objectLabel - min] = value;
+        if (sparse) {
+            if (value) {
+                addToHash(objectLabel);
+            } else {
+                removeFromHash(objectLabel);
+            }
+        } else {
+            final int k = objectLabel - min;
+            if (value) {
+                bits[k >>> 6] |= 1L << k;
+            } else {
+                bits[k >>> 6] &= ~(1L << k);
+            }
+        }
     }
 
     public void set(int objectLabel) {
@@ -123,42 +192,101 @@ public final class QuickLabelsSet {
             throw new IndexOutOfBoundsException("Object's label " + objectLabel
                     + " is out of range " + min + ".." + max);
         }
-        this.bits[objectLabel - min] = true;
+        if (sparse) {
+            addToHash(objectLabel);
+        } else {
+            final int k = objectLabel - min;
+            bits[k >>> 6] |= 1L << k;
+        }
     }
 
-    public QuickLabelsSet reindex(DynamicDisjointSet disjointSet) {
-        Objects.requireNonNull(disjointSet, "Null disjoint set");
-        checkEmpty();
-        int newMin = Integer.MAX_VALUE;
-        int newMax = Integer.MIN_VALUE;
-        final int n = max - min + 1;
-        for (int k = 0; k < n; k++) {
-            if (bits[k]) {
-                final int base = disjointSet.findBase(min + k);
-                if (base < newMin) {
-                    newMin = base;
-                }
-                if (base > newMax) {
-                    newMax = base;
+    public int cardinality() {
+        if (isEmpty()) {
+            return 0;
+        }
+        if (sparse) {
+            return hashCount;
+        }
+        int result = 0;
+        for (int i = 0, n = numberOfWords(); i < n; i++) {
+            result += Long.bitCount(bits[i]);
+        }
+        return result;
+    }
+
+    /**
+     * Performs the given action for every label in this set. In a dense set, the labels are enumerated
+     * in increasing order; in a sparse set, the order is not specified.
+     *
+     * @param action action for every label.
+     */
+    public void forEachLabel(IntConsumer action) {
+        Objects.requireNonNull(action, "Null action");
+        if (isEmpty()) {
+            return;
+        }
+        if (sparse) {
+            for (int label : hashTable) {
+                if (label != NO_LABEL) {
+                    action.accept(label);
                 }
             }
+            return;
         }
-        if (newMax == Integer.MIN_VALUE) {
-            newMin = newMax = 1;
+        for (int i = 0, n = numberOfWords(); i < n; i++) {
+            long word = bits[i];
+            while (word != 0) {
+                action.accept(min + (i << 6) + Long.numberOfTrailingZeros(word));
+                word &= word - 1;
+            }
         }
-        final QuickLabelsSet result = newInstance(newMin, newMax);
-        for (int k = 0; k < n; k++) {
-            if (bits[k]) {
-                final int base = disjointSet.findBase(min + k);
-                result.set(base);
+    }
+
+    public QuickLabelsSet reindex(DynamicDisjointSet disjointSet) {
+        Objects.requireNonNull(disjointSet, "Null disjoint set");
+        return reindex(disjointSet::findBase);
+    }
+
+    public QuickLabelsSet reindex(ConcurrentDisjointSet disjointSet) {
+        Objects.requireNonNull(disjointSet, "Null disjoint set");
+        return reindex(label -> (int) disjointSet.findBase(label));
+        // - the base is never greater than the label
+    }
+
+    private QuickLabelsSet reindex(IntUnaryOperator findBase) {
+        checkEmpty();
+        final int[] bases = new int[cardinality()];
+        final int[] newMinMaxCount = {Integer.MAX_VALUE, Integer.MIN_VALUE, 0};
+        forEachLabel(label -> {
+            final int base = findBase.applyAsInt(label);
+            bases[newMinMaxCount[2]++] = base;
+            if (base < newMinMaxCount[0]) {
+                newMinMaxCount[0] = base;
+            }
+            if (base > newMinMaxCount[1]) {
+                newMinMaxCount[1] = base;
             }
+        });
+        // - single pass: findBase is called once for every label
+        final QuickLabelsSet result = newEmptyInstance();
+        final int count = newMinMaxCount[2];
+        if (count == 0) {
+            result.min = result.max = 1;
+        } else {
+            result.min = newMinMaxCount[0];
+            result.max = newMinMaxCount[1];
+        }
+        result.expandCount = count;
+        result.prepareToUse();
+        for (int k = 0; k < count; k++) {
+            result.set(bases[k]);
         }
         return result;
     }
 
     @Override
     public String toString() {
-        return "quick labels set in range " + min + ".." + max;
+        return (sparse ? "sparse " : "") + "quick labels set in range " + min + ".." + max;
     }
 
     private void checkEmpty() {
@@ -167,12 +295,80 @@ public final class QuickLabelsSet {
         }
     }
 
-    private void ensureCapacityAndClear(final int newNumberOfObjects) {
-        final int oldNumberOfObjects = bits.length;
-        if (newNumberOfObjects > oldNumberOfObjects) {
-            final int newLength = Math.max(16, Math.max(newNumberOfObjects,
-                    (int) Math.min(Integer.MAX_VALUE, (long) (2.0 * oldNumberOfObjects))));
-            this.bits = new boolean[newLength];
+    private int numberOfWords() {
+        return (int) (((long) max - (long) min + 64) >>> 6);
+    }
+
+    private void ensureCapacityAndClear(final int newNumberOfWords) {
+        final int oldNumberOfWords = bits.length;
+        if (newNumberOfWords > oldNumberOfWords) {
+            final int newLength = Math.max(16, Math.max(newNumberOfWords,
+                    (int) Math.min(Integer.MAX_VALUE, (long) (2.0 * oldNumberOfWords))));
+            this.bits = new long[newLength];
+        }
+    }
+
+    // Open addressing with linear probing: returns the index of the label or of the free slot for it.
+    private int hashIndex(int label) {
+        final int mask = hashTable.length - 1;
+        int h = label * 0x9E3779B9;
+        int index = (h ^ (h >>> 16)) & mask;
+        int value;
+        while ((value = hashTable[index]) != NO_LABEL && value != label) {
+            index = (index + 1) & mask;
+        }
+        return index;
+    }
+
+    private void addToHash(int label) {
+        final int index = hashIndex(label);
+        if (hashTable[index] == NO_LABEL) {
+            hashTable[index] = label;
+            hashCount++;
+            if (2 * (long) hashCount > hashTable.length) {
+                rehash(2 * hashTable.length);
+            }
+        }
+    }
+
+    private void removeFromHash(int label) {
+        int index = hashIndex(label);
+        if (hashTable[index] == NO_LABEL) {
+            return;
+        }
+        final int mask = hashTable.length - 1;
+        // backward shift deletion: no "deleted" marks, so get() stays simple
+        for (int next = (index + 1) & mask; hashTable[next] != NO_LABEL; next = (next + 1) & mask) {
+            final int h = hashTable[next] * 0x9E3779B9;
+            final int desired = (h ^ (h >>> 16)) & mask;
+            final boolean staying = index <= next ?
+                    index < desired && desired <= next :
+                    index < desired || desired <= next;
+            if (!staying) {
+                hashTable[index] = hashTable[next];
+                index = next;
+            }
+        }
+        hashTable[index] = NO_LABEL;
+        hashCount--;
+    }
+
+    private void rehash(int newCapacity) {
+        final int[] oldTable = hashTable;
+        hashTable = new int[newCapacity];
+        Arrays.fill(hashTable, NO_LABEL);
+        for (int label : oldTable) {
+            if (label != NO_LABEL) {
+                hashTable[hashIndex(label)] = label;
+            }
+        }
+    }
+
+    private static int hashCapacity(long numberOfLabels) {
+        long result = 16;
+        while (result < 2 * numberOfLabels) {
+            result *= 2;
         }
+        return (int) result;
     }
 }
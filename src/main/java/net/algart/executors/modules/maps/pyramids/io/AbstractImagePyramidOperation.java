@@ -271,11 +271,8 @@ public abstract class AbstractImagePyramidOperation extends FileOperation {
 
     public PlanePyramidSource newPlanePyramidSource(Path planePyramidPath) throws IOException {
         Objects.requireNonNull(planePyramidPath, "Null path");
-        final String emptyJson = Json.createObjectBuilder().build().toString();
-        final String pyramidConfiguration = getInputScalar(INPUT_PYRAMID_CONFIGURATION, true)
-                .getValueOrDefault(emptyJson);
-        final String rendererConfiguration = getInputScalar(INPUT_RENDERING_CONFIGURATION, true)
-                .getValueOrDefault(emptyJson);
+        final String pyramidConfiguration = pyramidConfiguration();
+        final String rendererConfiguration = renderingConfiguration();
         if (!Files.exists(planePyramidPath)) {
             throw new FileNotFoundException("Pyramid file/folder \"" + planePyramidPath + "\" not found");
         }
@@ -284,6 +281,33 @@ public abstract class AbstractImagePyramidOperation extends FileOperation {
                 planePyramidPath.toAbsolutePath().toString(), pyramidConfiguration, rendererConfiguration);
     }
 
+    public String pyramidConfiguration() {
+        return getInputScalar(INPUT_PYRAMID_CONFIGURATION, true).getValueOrDefault(emptyJson());
+    }
+
+    public String renderingConfiguration() {
+        return getInputScalar(INPUT_RENDERING_CONFIGURATION, true).getValueOrDefault(emptyJson());
+    }
+
+    /**
+     * Returns the current source factory, if it is suitable for the given path without resetting,
+     * or <code>null</code> if opening this path will require another factory.
+     * Unlike {@link #resetPlanePyramidSourceFactory(Path)}, never closes the current factory,
+     * so it can be used for opening pyramids in parallel threads.
+     */
+    public final PlanePyramidSourceFactory currentSourceFactoryFor(Path path) {
+        synchronized (lock) {
+            final String className;
+            try {
+                className = sourceFactoryClassName(
+                        path, planePyramidFormat, customPlanePyramidSourceFactoryClass.trim());
+            } catch (IllegalArgumentException e) {
+                return null;
+            }
+            return className.equals(sourceFactory.getClass().getName()) ? sourceFactory : null;
+        }
+    }
+
     public final void resetPlanePyramidSourceFactory(Path path) {
         synchronized (lock) {
             final ImagePyramidFormatKind format = this.planePyramidFormat;
@@ -417,6 +441,10 @@ public abstract class AbstractImagePyramidOperation extends FileOperation {
         }
     }
 
+    private static String emptyJson() {
+        return Json.createObjectBuilder().build().toString();
+    }
+
     private static Object parseNumberIfPossible(String s) {
         try {
             return Integer.valueOf(s);
@@ -0,0 +1,142 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2017-2026 Daniel Alievsky, AlgART Laboratory (http://algart.net)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package net.algart.executors.modules.maps.pyramids.io;
+
+import net.algart.executors.api.ReadOnlyExecutionInput;
+import net.algart.maps.pyramids.io.api.PlanePyramidSource;
+import net.algart.maps.pyramids.io.formats.sources.svs.SVSPlanePyramidSource;
+import net.algart.math.IRectangularArea;
+import net.algart.matrices.tiff.TiffWriter;
+
+import java.io.IOError;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Objects;
+
+public final class CopyImagePyramidToTiff extends AbstractImagePyramidOperation implements ReadOnlyExecutionInput {
+    public static final String OUTPUT_RESULT_ABSOLUTE_PATH = "result_absolute_path";
+    public static final String OUTPUT_NUMBER_OF_COPIED_TILES = "number_of_copied_tiles";
+
+    private String resultFile = "";
+    private boolean bigTiff = false;
+    private boolean appendIFDToExistingTiff = false;
+
+    public CopyImagePyramidToTiff() {
+        super();
+        defaultOutputPortName(OUTPUT_RESULT_ABSOLUTE_PATH);
+        addOutputScalar(OUTPUT_RESULT_ABSOLUTE_PATH);
+        addOutputScalar(OUTPUT_NUMBER_OF_COPIED_TILES);
+        addOutputScalar(OUTPUT_LEVEL_DIM_X);
+        addOutputScalar(OUTPUT_LEVEL_DIM_Y);
+    }
+
+    public String getResultFile() {
+        return resultFile;
+    }
+
+    public CopyImagePyramidToTiff setResultFile(String resultFile) {
+        this.resultFile = nonNull(resultFile);
+        return this;
+    }
+
+    public boolean isBigTiff() {
+        return bigTiff;
+    }
+
+    public CopyImagePyramidToTiff setBigTiff(boolean bigTiff) {
+        this.bigTiff = bigTiff;
+        return this;
+    }
+
+    public boolean isAppendIFDToExistingTiff() {
+        return appendIFDToExistingTiff;
+    }
+
+    public CopyImagePyramidToTiff setAppendIFDToExistingTiff(boolean appendIFDToExistingTiff) {
+        this.appendIFDToExistingTiff = appendIFDToExistingTiff;
+        return this;
+    }
+
+    @Override
+    public void process() {
+        final Path path = completeFilePath();
+        if (resultFile.isEmpty()) {
+            throw new IllegalArgumentException("Result file is not specified");
+        }
+        Path resultPath = Paths.get(resultFile);
+        if (!resultPath.isAbsolute()) {
+            resultPath = path.toAbsolutePath().resolveSibling(resultPath);
+        }
+        copyPlanePyramid(path, resultPath);
+    }
+
+    public void copyPlanePyramid(Path path, Path resultPath) {
+        Objects.requireNonNull(path, "Null path");
+        Objects.requireNonNull(resultPath, "Null result path");
+        PlanePyramidSource planePyramidSource = null;
+        try {
+            logDebug(() -> "Opening " + path);
+            planePyramidSource = newPlanePyramidSource(path);
+            if (!(planePyramidSource instanceof SVSPlanePyramidSource svs)) {
+                throw new UnsupportedOperationException("Copying tiles to TIFF is supported only for "
+                        + "SVS pyramids without rotation, but " + path + " is opened as " + planePyramidSource);
+            }
+            if (resolutionLevel >= svs.numberOfResolutions()) {
+                throw new IllegalArgumentException("Too big index of resolution level: there are only "
+                        + svs.numberOfResolutions() + " resolutions");
+            }
+            final ImagePyramidLevelRois levelRois = newLevelRois(svs, null);
+            final IRectangularArea area = levelRois.inputRoiOrWholeLevel();
+            getScalar(OUTPUT_LEVEL_DIM_X).setTo(levelRois.levelDimX());
+            getScalar(OUTPUT_LEVEL_DIM_Y).setTo(levelRois.levelDimY());
+            logDebug(() -> "Copying " + area + " (level " + resolutionLevel + ") to " + resultPath);
+            try (TiffWriter writer = new TiffWriter(resultPath)) {
+                writer.setBigTiff(bigTiff);
+                writer.create(appendIFDToExistingTiff);
+                final int copiedCount = svs.copyToTiff(writer, resolutionLevel,
+                        area.minX(), area.minY(), area.maxX() + 1, area.maxY() + 1);
+                getScalar(OUTPUT_NUMBER_OF_COPIED_TILES).setTo(copiedCount);
+            } catch (IOException | RuntimeException e) {
+                if (!appendIFDToExistingTiff) {
+                    try {
+                        Files.deleteIfExists(resultPath);
+                    } catch (IOException suppressed) {
+                        e.addSuppressed(suppressed);
+                    }
+                }
+                throw e;
+            }
+            getScalar(OUTPUT_RESULT_ABSOLUTE_PATH).setTo(resultPath.toAbsolutePath().toString());
+        } catch (IOException e) {
+            throw new IOError(e);
+        } finally {
+            if (planePyramidSource != null) {
+                planePyramidSource.freeResources(PlanePyramidSource.FlushMode.STANDARD);
+            }
+        }
+    }
+}
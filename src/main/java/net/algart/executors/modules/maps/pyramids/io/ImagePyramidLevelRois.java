@@ -29,9 +29,13 @@ import net.algart.maps.pyramids.io.api.PlanePyramidSource;
 import net.algart.math.IRectangularArea;
 
 import java.nio.file.Path;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.TreeMap;
 import java.util.stream.Collectors;
 
 public final class ImagePyramidLevelRois {
@@ -276,18 +280,96 @@ public final class ImagePyramidLevelRois {
         return r.sizeX() >= minimalROISize && r.sizeY() >= minimalROISize;
     }
 
-    private void checkIntersectionOfRectangles(List<IRectangularArea> roiRectangles) {
-        final IRectangularArea[] rectangles = roiRectangles.toArray(new IRectangularArea[0]);
-        for (int i = 0; i < rectangles.length; i++) {
-            final IRectangularArea r = rectangles[i];
-            assert r.coordCount() == 2;
-            for (int j = i + 1; j < rectangles.length; j++) {
-                if (quickIntersects(r, rectangles[j])) {
-                    throw new IllegalArgumentException("ROI rectangles intersects each other: rectangle #"
-                            + i + " = " + r + " intersects rectangle #" + j + " = " + rectangles[j]
-                            + inMetaFileMessage());
+    // Returns the first pair (i,j), i<j, of intersecting rectangles in lexicographical order, or null if
+    // there are no intersections. Uses the sweep line along x: active rectangles are stored in a tree by minY;
+    // while there are no intersections, their y-ranges are disjoint, so it is enough to check the neighbours.
+    static int[] firstIntersectingPair(List<IRectangularArea> rectangles) {
+        final IRectangularArea[] r = rectangles.toArray(new IRectangularArea[0]);
+        final int n = r.length;
+        final Integer[] byMinX = new Integer[n];
+        final Integer[] byMaxX = new Integer[n];
+        for (int k = 0; k < n; k++) {
+            assert r[k].coordCount() == 2;
+            byMinX[k] = k;
+            byMaxX[k] = k;
+        }
+        Arrays.sort(byMinX, Comparator.comparingLong(k -> r[k].min(0)));
+        Arrays.sort(byMaxX, Comparator.comparingLong(k -> r[k].max(0)));
+        final TreeMap<Long, Integer> active = new TreeMap<>();
+        int foundIndex = -1;
+        for (int i = 0, removed = 0; i < n; i++) {
+            final int index = byMinX[i];
+            final long minX = r[index].min(0);
+            for (; removed < n && r[byMaxX[removed]].max(0) < minX; removed++) {
+                active.remove(r[byMaxX[removed]].min(1));
+                // - it was inserted before: its minX <= maxX < current minX
+            }
+            final long minY = r[index].min(1);
+            final long maxY = r[index].max(1);
+            final Map.Entry<Long, Integer> floor = active.floorEntry(minY);
+            if (floor != null && r[floor.getValue()].max(1) >= minY) {
+                foundIndex = Math.min(index, floor.getValue());
+                break;
+            }
+            final Map.Entry<Long, Integer> higher = active.higherEntry(minY);
+            if (higher != null && higher.getKey() <= maxY) {
+                foundIndex = Math.min(index, higher.getValue());
+                break;
+            }
+            active.put(minY, index);
+        }
+        if (foundIndex == -1) {
+            return null;
+        }
+        // Rare case of invalid rectangles: finding the same pair as a simple O(N^2) loop would find;
+        // the first pair cannot start after the found one. For every rectangle, we check only rectangles
+        // with minX in the range, where intersection is possible (usually a little part of all rectangles).
+        final long[] sortedMinX = new long[n];
+        long maxSizeX = 0;
+        for (int k = 0; k < n; k++) {
+            sortedMinX[k] = r[byMinX[k]].min(0);
+            maxSizeX = Math.max(maxSizeX, r[k].max(0) - r[k].min(0));
+        }
+        for (int i = 0; i <= foundIndex; i++) {
+            final long from = r[i].min(0) - maxSizeX;
+            final long to = r[i].max(0);
+            int minJ = Integer.MAX_VALUE;
+            for (int k = lowerBound(sortedMinX, from); k < n && sortedMinX[k] <= to; k++) {
+                final int j = byMinX[k];
+                if (j > i && j < minJ && quickIntersects(r[i], r[j])) {
+                    minJ = j;
                 }
             }
+            if (minJ != Integer.MAX_VALUE) {
+                return new int[]{i, minJ};
+            }
+        }
+        throw new AssertionError("Sweep line found intersection of rectangle #" + foundIndex
+                + ", but it is not confirmed");
+    }
+
+    private static int lowerBound(long[] sorted, long value) {
+        int low = 0;
+        int high = sorted.length;
+        while (low < high) {
+            final int middle = (low + high) >>> 1;
+            if (sorted[middle] < value) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private void checkIntersectionOfRectangles(List<IRectangularArea> roiRectangles) {
+        final int[] pair = firstIntersectingPair(roiRectangles);
+        if (pair != null) {
+            final int i = pair[0];
+            final int j = pair[1];
+            throw new IllegalArgumentException("ROI rectangles intersects each other: rectangle #"
+                    + i + " = " + roiRectangles.get(i) + " intersects rectangle #" + j + " = "
+                    + roiRectangles.get(j) + inMetaFileMessage());
         }
     }
 
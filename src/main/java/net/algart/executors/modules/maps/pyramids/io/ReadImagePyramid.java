@@ -28,7 +28,10 @@ import net.algart.executors.api.ReadOnlyExecutionInput;
 import net.algart.executors.api.data.SMat;
 import net.algart.executors.api.data.SScalar;
 import net.algart.executors.modules.maps.LongTimeOpeningMode;
+import net.algart.maps.pyramids.io.api.AbstractPlanePyramidSource;
 import net.algart.maps.pyramids.io.api.PlanePyramidSource;
+import net.algart.maps.pyramids.io.api.PlanePyramidSourceFactory;
+import net.algart.maps.pyramids.io.api.PlanePyramidTools;
 import net.algart.math.IPoint;
 import net.algart.math.IRectangularArea;
 import net.algart.multimatrix.MultiMatrix;
@@ -36,10 +39,16 @@ import net.algart.multimatrix.MultiMatrix2D;
 
 import java.io.IOError;
 import java.io.IOException;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.util.List;
-import java.util.Objects;
+import java.util.*;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.ToLongFunction;
 import java.util.stream.Collectors;
 
 public final class ReadImagePyramid extends AbstractImagePyramidOperation implements ReadOnlyExecutionInput {
@@ -65,38 +74,98 @@ public final class ReadImagePyramid extends AbstractImagePyramidOperation implem
     public enum SizeUnit {
         PIXEL() {
             @Override
-            long scaleX(ReadImagePyramid e, long x, boolean forSize) {
+            long scaleX(PlanePyramidSource source, MultiMatrix2D specialMatrix, int level, long x, boolean forSize) {
                 return x;
             }
 
             @Override
-            long scaleY(ReadImagePyramid e, long y, boolean forSize) {
+            long scaleY(PlanePyramidSource source, MultiMatrix2D specialMatrix, int level, long y, boolean forSize) {
                 return y;
             }
         },
         PIXEL_OF_SPECIAL_IMAGE() {
             @Override
-            long scaleX(ReadImagePyramid e, long x, boolean forSize) {
-                x = Math.round(x / (double) (e.specialMatrix.dimX() - 1)
-                        * (e.planePyramidSource.width(e.resolutionLevel) - 1));
+            long scaleX(PlanePyramidSource source, MultiMatrix2D specialMatrix, int level, long x, boolean forSize) {
+                x = Math.round(x / (double) (specialMatrix.dimX() - 1) * (source.width(level) - 1));
                 return forSize ? Math.max(x, 1) : x;
             }
 
             @Override
-            long scaleY(ReadImagePyramid e, long y, boolean forSize) {
-                y = Math.round(y / (double) (e.specialMatrix.dimY() - 1)
-                        * (double) (e.planePyramidSource.height(e.resolutionLevel) - 1));
+            long scaleY(PlanePyramidSource source, MultiMatrix2D specialMatrix, int level, long y, boolean forSize) {
+                y = Math.round(y / (double) (specialMatrix.dimY() - 1) * (double) (source.height(level) - 1));
                 return forSize ? Math.max(y, 1) : y;
             }
         };
 
-        abstract long scaleX(ReadImagePyramid e, long x, boolean forSize);
+        abstract long scaleX(
+                PlanePyramidSource source, MultiMatrix2D specialMatrix, int level, long x, boolean forSize);
 
-        abstract long scaleY(ReadImagePyramid e, long y, boolean forSize);
+        abstract long scaleY(
+                PlanePyramidSource source, MultiMatrix2D specialMatrix, int level, long y, boolean forSize);
+
+        SizeUnit checked(PlanePyramidSource source, MultiMatrix2D specialMatrix) {
+            if (source == null) {
+                throw new IllegalStateException("Cannot use size unit: plane pyramid source is not initialized");
+            }
+            if (this == PIXEL_OF_SPECIAL_IMAGE && specialMatrix == null) {
+                throw new IllegalArgumentException(
+                        "No requested special image, so we cannot use size unit, based on its pixels");
+            }
+            return this;
+        }
+    }
+
+    // Pyramid, opened in a background thread before the loop reaches it in the file list
+    private static final class PrefetchedPyramid {
+        private final List<Object> settings;
+        private Future<?> future = null;
+        private PlanePyramidSource source = null;
+        private MultiMatrix2D specialMatrix = null;
+        private boolean discarded = false;
+
+        private PrefetchedPyramid(List<Object> settings) {
+            this.settings = settings;
+        }
+
+        private synchronized boolean complete(PlanePyramidSource source, MultiMatrix2D specialMatrix) {
+            if (discarded) {
+                return false;
+            }
+            this.source = source;
+            this.specialMatrix = specialMatrix;
+            return true;
+        }
+
+        // Waits for finishing the background opening; returns false if it failed or was discarded.
+        private boolean await() {
+            try {
+                future.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            } catch (ExecutionException | CancellationException e) {
+                return false;
+            }
+            synchronized (this) {
+                return !discarded && source != null;
+            }
+        }
+
+        private synchronized void discard() {
+            discarded = true;
+            if (future != null) {
+                future.cancel(false);
+            }
+            if (source != null) {
+                source.freeResources(PlanePyramidSource.FlushMode.STANDARD);
+                source = null;
+            }
+        }
     }
 
     private LongTimeOpeningMode openingMode = LongTimeOpeningMode.OPEN_ON_RESET_AND_FIRST_CALL;
     private boolean closeAfterLast = true;
+    private int numberOfPrefetchedPyramids = 0;
     private boolean wholeROI = false;
     private long startX = 0;
     private long startY = 0;
@@ -104,6 +173,8 @@ public final class ReadImagePyramid extends AbstractImagePyramidOperation implem
     private long sizeY = 1;
     private SizeUnit sizeUnit = SizeUnit.PIXEL;
     private boolean equalizeGrid = false;
+    private boolean tileReadahead = false;
+    private boolean skipFramesWithoutActualData = false;
     private PlanePyramidSource.SpecialImageKind specialImageKind = PlanePyramidSource.SpecialImageKind.NONE;
 
     private volatile List<Path> fileList = null;
@@ -112,8 +183,12 @@ public final class ReadImagePyramid extends AbstractImagePyramidOperation implem
     private volatile PlanePyramidSource planePyramidSource = null;
     private volatile MultiMatrix2D specialMatrix = null;
     private volatile ImagePyramidLevelRois selectedLevelRois = null;
+    private volatile long[] selectedRoiFrameSizesX = null;
+    private volatile long[] selectedRoiFrameSizesY = null;
     private volatile boolean pyramidOpened = false;
     private volatile List<IRectangularArea> roiRectangles = null;
+    private volatile List<IRectangularArea> selectedActualRectangles = null;
+    // - null if we should not skip frames without actual data
     private volatile long currentFrameIndex = 0;
     // - used for returning in OUTPUT_CURRENT_FRAME_INDEX only
     private volatile long currentFrameLowIndex = 0;
@@ -130,7 +205,11 @@ public final class ReadImagePyramid extends AbstractImagePyramidOperation implem
     private volatile boolean selectedWholeROI;
     private volatile long selectedSizeX;
     private volatile long selectedSizeY;
+    private volatile boolean selectedEqualizeGrid;
 
+    private final Map<Integer, PrefetchedPyramid> prefetchedPyramids = new HashMap<>();
+    private ExecutorService prefetchingService = null;
+    private int prefetchingServiceThreads = 0;
     private final Object lock = new Object();
 
     public ReadImagePyramid() {
@@ -186,6 +265,15 @@ public final class ReadImagePyramid extends AbstractImagePyramidOperation implem
         return this;
     }
 
+    public int getNumberOfPrefetchedPyramids() {
+        return numberOfPrefetchedPyramids;
+    }
+
+    public ReadImagePyramid setNumberOfPrefetchedPyramids(int numberOfPrefetchedPyramids) {
+        this.numberOfPrefetchedPyramids = nonNegative(numberOfPrefetchedPyramids);
+        return this;
+    }
+
     public boolean isWholeROI() {
         return wholeROI;
     }
@@ -241,15 +329,7 @@ public final class ReadImagePyramid extends AbstractImagePyramidOperation implem
     }
 
     public SizeUnit sizeUnit() {
-        SizeUnit result = sizeUnit;
-        if (planePyramidSource == null) {
-            throw new IllegalStateException("Cannot use size unit: plane pyramid source is not initialized");
-        }
-        if (result == SizeUnit.PIXEL_OF_SPECIAL_IMAGE && specialMatrix == null) {
-            throw new IllegalArgumentException(
-                    "No requested special image, so we cannot use size unit, based on its pixels");
-        }
-        return result;
+        return sizeUnit.checked(planePyramidSource, specialMatrix);
     }
 
     public boolean isEqualizeGrid() {
@@ -261,6 +341,24 @@ public final class ReadImagePyramid extends AbstractImagePyramidOperation implem
         return this;
     }
 
+    public boolean isTileReadahead() {
+        return tileReadahead;
+    }
+
+    public ReadImagePyramid setTileReadahead(boolean tileReadahead) {
+        this.tileReadahead = tileReadahead;
+        return this;
+    }
+
+    public boolean isSkipFramesWithoutActualData() {
+        return skipFramesWithoutActualData;
+    }
+
+    public ReadImagePyramid setSkipFramesWithoutActualData(boolean skipFramesWithoutActualData) {
+        this.skipFramesWithoutActualData = skipFramesWithoutActualData;
+        return this;
+    }
+
     public PlanePyramidSource.SpecialImageKind getSpecialImageKind() {
         return specialImageKind;
     }
@@ -300,6 +398,7 @@ public final class ReadImagePyramid extends AbstractImagePyramidOperation implem
 
 
     public void clearFileList() {
+        discardPrefetchedPyramids();
         this.fileList = null;
         this.currentFileIndex = 0;
     }
@@ -329,11 +428,13 @@ public final class ReadImagePyramid extends AbstractImagePyramidOperation implem
         getScalar(OUTPUT_NUMBER_OF_PYRAMIDS).setTo(n);
         getScalar(OUTPUT_CURRENT_PYRAMID_INDEX).setTo(currentFileIndex);
         if (fileListSpecified) {
+            prefetchNextPyramids();
             if (lastInPyramid) {
                 currentFileIndex++;
                 last = currentFileIndex >= n;
                 if (last) {
                     currentFileIndex = 0;
+                    discardPrefetchedPyramids();
                 }
                 getScalar(OUTPUT_LAST).setTo(last);
             }
@@ -372,6 +473,12 @@ public final class ReadImagePyramid extends AbstractImagePyramidOperation implem
                         + " (" + selectedLevelRois.levelDimX() + "x" + selectedLevelRois.levelDimY()
                         + ") of the pyramid " + path);
             }
+            final boolean skipping = mapSequence != null && selectedActualRectangles != null;
+            final boolean skippedFromPyramidStart = skipping
+                    && currentRoiIndex == 0 && currentFrameLowIndex == 0 && currentFrameHighIndex == 0;
+            if (skippedFromPyramidStart) {
+                skipFramesWithoutActualData(mapSequence, sizeX, sizeY);
+            }
             final IRectangularArea actualRoi = mapSequence != null ?
                     roiRectangles.get(currentRoiIndex) :
                     selectedLevelRois.inputRoiOrWholeLevel();
@@ -408,11 +515,24 @@ public final class ReadImagePyramid extends AbstractImagePyramidOperation implem
                             .setTo(selectedLevelRois.roiContours(currentRoiIndex));
                 }
                 getScalar(OUTPUT_FRAMES_PER_SERIES).setTo(framesPerSeries);
-                firstInRoi = currentFrameLowIndex == 0 && currentFrameHighIndex == 0;
-                firstInPyramid = firstInRoi && currentRoiIndex == 0;
+                if (skipping) {
+                    firstInRoi = skippedFromPyramidStart || lastInRoi
+                            || (currentFrameLowIndex == 0 && currentFrameHighIndex == 0);
+                    // - lastInRoi is still the result of the previous call: the previous ROI was finished
+                    firstInPyramid = skippedFromPyramidStart;
+                } else {
+                    firstInRoi = currentFrameLowIndex == 0 && currentFrameHighIndex == 0;
+                    firstInPyramid = firstInRoi && currentRoiIndex == 0;
+                }
+                final int roiIndex = currentRoiIndex;
                 nextSequentialIndex(mapSequence, sizeX, sizeY, roiDimX, roiDimY);
                 // - note: it must be called AFTER filling results on the base of current low/high indexes
-                lastInRoi = currentFrameLowIndex == 0 && currentFrameHighIndex == 0;
+                if (skipping) {
+                    skipFramesWithoutActualData(mapSequence, sizeX, sizeY);
+                    // - the next frame will contain actual data, so we know whether this frame is the last one
+                }
+                lastInRoi = currentRoiIndex != roiIndex
+                        || (currentFrameLowIndex == 0 && currentFrameHighIndex == 0);
                 lastInPyramid = lastInRoi && currentRoiIndex == 0;
                 last = lastInPyramid;
             } else {
@@ -446,19 +566,19 @@ public final class ReadImagePyramid extends AbstractImagePyramidOperation implem
     }
 
     public long pixelStartX() {
-        return sizeUnit().scaleX(this, startX, false);
+        return sizeUnit().scaleX(planePyramidSource, specialMatrix, resolutionLevel, startX, false);
     }
 
     public long pixelStartY() {
-        return sizeUnit().scaleY(this, startY, false);
+        return sizeUnit().scaleY(planePyramidSource, specialMatrix, resolutionLevel, startY, false);
     }
 
     public long pixelSizeX() {
-        return sizeUnit().scaleX(this, sizeX, true);
+        return sizeUnit().scaleX(planePyramidSource, specialMatrix, resolutionLevel, sizeX, true);
     }
 
     public long pixelSizeY() {
-        return sizeUnit().scaleY(this, sizeY, true);
+        return sizeUnit().scaleY(planePyramidSource, specialMatrix, resolutionLevel, sizeY, true);
     }
 
     public boolean isFirstInRoi() {
@@ -485,22 +605,50 @@ public final class ReadImagePyramid extends AbstractImagePyramidOperation implem
     public void close() {
         super.close();
         closePyramid(true);
+        discardPrefetchedPyramids();
+        synchronized (lock) {
+            if (prefetchingService != null) {
+                prefetchingService.shutdownNow();
+                prefetchingService = null;
+            }
+        }
     }
 
     public void openPyramid(Path path) {
         Objects.requireNonNull(path, "Null path");
         if (!pyramidOpened) {
             try {
-                logDebug(() -> "Opening " + path);
+                final PrefetchedPyramid prefetched = takePrefetchedPyramid(path);
                 pyramidOpened = true;
-                planePyramidSource = newPlanePyramidSource(path);
-                specialMatrix = readSpecialMatrix(planePyramidSource, specialImageKind);
+                if (prefetched != null) {
+                    logDebug(() -> "Opening prefetched " + path);
+                    planePyramidSource = prefetched.source;
+                    specialMatrix = prefetched.specialMatrix;
+                } else {
+                    logDebug(() -> "Opening " + path);
+                    planePyramidSource = newPlanePyramidSource(path);
+                    specialMatrix = readSpecialMatrix(planePyramidSource, specialImageKind);
+                }
                 // - specialMatrix is necessary already in selectGeometry(),
                 // to provide correct usage of sizeUnit
                 final ImagePyramidMetadataJson metadataJson = readMetadataOrNull(path);
                 selectGeometry();
                 selectedLevelRois = newLevelRois(planePyramidSource, metadataJson);
                 roiRectangles = selectedLevelRois.roiRectangles();
+                if (!selectedWholeROI) {
+                    selectedRoiFrameSizesX = roiFrameSizes(
+                            roiRectangles, IRectangularArea::sizeX, selectedSizeX, selectedEqualizeGrid);
+                    selectedRoiFrameSizesY = roiFrameSizes(
+                            roiRectangles, IRectangularArea::sizeY, selectedSizeY, selectedEqualizeGrid);
+                }
+                configureTileCaching(planePyramidSource);
+                selectedActualRectangles = skipFramesWithoutActualData && !selectedWholeROI ?
+                        PlanePyramidTools.actualRectanglesAtLevel(planePyramidSource, selectedResolutionLevel) :
+                        null;
+                if (selectedActualRectangles != null) {
+                    logDebug(() -> "Frames outside " + selectedActualRectangles.size()
+                            + " actual rectangles will be skipped");
+                }
                 currentFrameIndex = 0;
                 currentFrameHighIndex = 0;
                 currentFrameLowIndex = 0;
@@ -529,10 +677,22 @@ public final class ReadImagePyramid extends AbstractImagePyramidOperation implem
                 // - but this.planePyramidSource stays to be non-zero, to allow longTermResources closing in future
             }
             this.selectedLevelRois = null;
+            this.selectedRoiFrameSizesX = null;
+            this.selectedRoiFrameSizesY = null;
+            this.selectedActualRectangles = null;
             this.pyramidOpened = false;
         }
     }
 
+    private void configureTileCaching(PlanePyramidSource source) {
+        if (tileReadahead && getScanningSequence().isUsingRoi()
+                && source instanceof AbstractPlanePyramidSource abstractSource) {
+            abstractSource.enableTileCaching(AbstractPlanePyramidSource.TileDirection.RIGHT_DOWN);
+            // - all scanning sequences start from the left top corner
+            abstractSource.setTileReadahead(true);
+        }
+    }
+
     private void selectGeometry() {
         if (resolutionLevel >= planePyramidSource.numberOfResolutions()) {
             throw new IllegalArgumentException("Too big index of resolution level "
@@ -548,6 +708,7 @@ public final class ReadImagePyramid extends AbstractImagePyramidOperation implem
         selectedWholeROI = wholeROI;
         selectedSizeX = pixelSizeX();
         selectedSizeY = pixelSizeY();
+        selectedEqualizeGrid = equalizeGrid;
     }
 
     private void checkSelectedGeometry() {
@@ -582,13 +743,13 @@ public final class ReadImagePyramid extends AbstractImagePyramidOperation implem
         assert sizeY > 0;
         final IRectangularArea area;
         if (mapSequence != null) {
-            sizeX = Math.min(sizeX, actualRoi.sizeX());
-            sizeY = Math.min(sizeY, actualRoi.sizeY());
-            // - note: it is NOT clipping selected area by ROI, it is just reducing sizes
-            // (to be on the safe side) for correct calculating framePosition()
-            if (equalizeGrid) {
-                sizeX = GridEqualizer.equalizeGrid(actualRoi.sizeX(), sizeX);
-                sizeY = GridEqualizer.equalizeGrid(actualRoi.sizeY(), sizeY);
+            if (equalizeGrid == selectedEqualizeGrid && selectedRoiFrameSizesX != null) {
+                // - usual case: the grid was calculated while opening the pyramid
+                sizeX = selectedRoiFrameSizesX[currentRoiIndex];
+                sizeY = selectedRoiFrameSizesY[currentRoiIndex];
+            } else {
+                sizeX = roiFrameSize(actualRoi.sizeX(), sizeX, equalizeGrid);
+                sizeY = roiFrameSize(actualRoi.sizeY(), sizeY, equalizeGrid);
             }
             final IPoint start = mapSequence.framePosition(
                             currentFrameLowIndex, currentFrameHighIndex, sizeX, sizeY, actualRoi.sizeX(),
@@ -614,6 +775,157 @@ public final class ReadImagePyramid extends AbstractImagePyramidOperation implem
         return result;
     }
 
+    private static long[] roiFrameSizes(
+            List<IRectangularArea> roiRectangles,
+            ToLongFunction<IRectangularArea> roiSize,
+            long frameSize,
+            boolean equalizeGrid) {
+        return roiRectangles.stream().mapToLong(
+                r -> roiFrameSize(roiSize.applyAsLong(r), frameSize, equalizeGrid)).toArray();
+    }
+
+    private static long roiFrameSize(long roiSize, long frameSize, boolean equalizeGrid) {
+        frameSize = Math.min(frameSize, roiSize);
+        // - note: it is NOT clipping selected area by ROI, it is just reducing sizes
+        // (to be on the safe side) for correct calculating framePosition()
+        return equalizeGrid ? GridEqualizer.equalizeGrid(roiSize, frameSize) : frameSize;
+    }
+
+    // Starts opening the next pyramids in the file list in background threads.
+    // Only pyramids, which can be opened by the current source factory, are prefetched:
+    // switching the factory would close it while it is used by the current pyramid.
+    // Background threads only create the source (if the factory allows calling it from several threads,
+    // see PlanePyramidSourceFactory.isThreadSafe()) and read its special image; this source is not accessible
+    // to other threads until it is taken. Metadata and ROIs are processed by openPyramid in the usual way.
+    private void prefetchNextPyramids() {
+        final int numberOfPrefetched = this.numberOfPrefetchedPyramids;
+        final List<Path> fileList = this.fileList;
+        if (numberOfPrefetched == 0 || fileList == null) {
+            return;
+        }
+        final List<Object> settings = prefetchingSettings();
+        final String pyramidConfiguration = pyramidConfiguration();
+        final String renderingConfiguration = renderingConfiguration();
+        final PlanePyramidSource.SpecialImageKind specialImageKind = this.specialImageKind;
+        synchronized (lock) {
+            final int from = currentFileIndex + 1;
+            final int to = (int) Math.min(fileList.size(), (long) from + numberOfPrefetched);
+            prefetchedPyramids.keySet().removeIf(index -> {
+                if (index < from) {
+                    // - skipped or already opened in usual way
+                    prefetchedPyramids.get(index).discard();
+                    return true;
+                }
+                return false;
+            });
+            for (int index = from; index < to; index++) {
+                if (prefetchedPyramids.containsKey(index)) {
+                    continue;
+                }
+                final Path path = fileList.get(index);
+                final PlanePyramidSourceFactory factory = currentSourceFactoryFor(path);
+                if (factory == null || !factory.isThreadSafe() || !Files.exists(path)) {
+                    // - the problem will be processed while usual opening
+                    continue;
+                }
+                final PrefetchedPyramid prefetched = new PrefetchedPyramid(settings);
+                prefetched.future = prefetchingService(numberOfPrefetched).submit(() -> {
+                    logDebug(() -> "Prefetching " + path);
+                    PlanePyramidSource source = factory.newPlanePyramidSource(
+                            path.toAbsolutePath().toString(), pyramidConfiguration, renderingConfiguration);
+                    try {
+                        final MultiMatrix2D specialMatrix = readSpecialMatrix(source, specialImageKind);
+                        if (prefetched.complete(source, specialMatrix)) {
+                            source = null;
+                        }
+                    } finally {
+                        if (source != null) {
+                            source.freeResources(PlanePyramidSource.FlushMode.STANDARD);
+                        }
+                    }
+                    return null;
+                });
+                prefetchedPyramids.put(index, prefetched);
+            }
+        }
+    }
+
+    private PrefetchedPyramid takePrefetchedPyramid(Path path) {
+        final PrefetchedPyramid prefetched;
+        synchronized (lock) {
+            final List<Path> fileList = this.fileList;
+            if (!fileListSpecified || fileList == null || !path.equals(fileList.get(currentFileIndex))) {
+                return null;
+            }
+            prefetched = prefetchedPyramids.remove(currentFileIndex);
+        }
+        if (prefetched == null) {
+            return null;
+        }
+        if (!prefetched.await() || !prefetched.settings.equals(prefetchingSettings())) {
+            // - opening failed (it will be repeated in usual way to report the problem)
+            // or the parameters were changed after starting prefetching
+            prefetched.discard();
+            return null;
+        }
+        return prefetched;
+    }
+
+    private void discardPrefetchedPyramids() {
+        synchronized (lock) {
+            prefetchedPyramids.values().forEach(PrefetchedPyramid::discard);
+            prefetchedPyramids.clear();
+        }
+    }
+
+    private List<Object> prefetchingSettings() {
+        return Arrays.asList(
+                getPlanePyramidFormat(),
+                getCustomPlanePyramidSourceFactoryClass(),
+                pyramidConfiguration(),
+                renderingConfiguration(),
+                specialImageKind);
+        // - all parameters, used for creating the source and reading the special image
+    }
+
+    private ExecutorService prefetchingService(int numberOfPrefetched) {
+        assert Thread.holdsLock(lock);
+        final int numberOfThreads = Math.min(numberOfPrefetched, Runtime.getRuntime().availableProcessors());
+        if (prefetchingService != null && prefetchingServiceThreads != numberOfThreads) {
+            prefetchingService.shutdown();
+            // - already submitted tasks will be completed: their results can be still used
+            prefetchingService = null;
+        }
+        if (prefetchingService == null) {
+            prefetchingServiceThreads = numberOfThreads;
+            prefetchingService = Executors.newFixedThreadPool(
+                    numberOfThreads,
+                    runnable -> {
+                        final Thread thread = new Thread(runnable, "ReadImagePyramid prefetching");
+                        thread.setDaemon(true);
+                        return thread;
+                    });
+        }
+        return prefetchingService;
+    }
+
+    // Advances the current frame while it does not intersect actual rectangles, but stops
+    // at the beginning of the pyramid: if there is no actual data at all, the first frame is returned.
+    private void skipFramesWithoutActualData(ScanningMapSequence mapSequence, long sizeX, long sizeY) {
+        final List<IRectangularArea> actualRectangles = selectedActualRectangles;
+        assert actualRectangles != null;
+        for (; ; ) {
+            final IRectangularArea roi = roiRectangles.get(currentRoiIndex);
+            if (PlanePyramidTools.intersectsSomeRectangle(actualRectangles, findAreaToRead(mapSequence, roi))) {
+                return;
+            }
+            nextSequentialIndex(mapSequence, sizeX, sizeY, roi.sizeX(), roi.sizeY());
+            if (currentRoiIndex == 0 && currentFrameLowIndex == 0 && currentFrameHighIndex == 0) {
+                return;
+            }
+        }
+    }
+
     private void nextSequentialIndex(
             ScanningMapSequence mapSequence,
             long sizeX,
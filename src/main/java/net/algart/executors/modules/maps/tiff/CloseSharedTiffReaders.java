@@ -0,0 +1,57 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2017-2026 Daniel Alievsky, AlgART Laboratory (http://algart.net)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package net.algart.executors.modules.maps.tiff;
+
+import java.nio.file.Path;
+
+public final class CloseSharedTiffReaders extends AbstractTiffOperation {
+    public static final String OUTPUT_NUMBER_OF_CLOSED_READERS = "number_of_closed_readers";
+    public static final String OUTPUT_NUMBER_OF_SHARED_READERS = "number_of_shared_readers";
+
+    private boolean allFiles = true;
+
+    public CloseSharedTiffReaders() {
+        setDefaultOutputScalar(OUTPUT_NUMBER_OF_CLOSED_READERS);
+        addOutputScalar(OUTPUT_NUMBER_OF_SHARED_READERS);
+    }
+
+    public boolean isAllFiles() {
+        return allFiles;
+    }
+
+    public CloseSharedTiffReaders setAllFiles(boolean allFiles) {
+        this.allFiles = allFiles;
+        return this;
+    }
+
+    @Override
+    public void process() {
+        final Path path = allFiles ? null : completeFilePath();
+        final int count = SharedTiffReaders.closeIdle(path);
+        logDebug(() -> "Closing " + count + " idle shared TIFF readers" + (path == null ? "" : " of " + path));
+        getScalar().setTo(count);
+        getScalar(OUTPUT_NUMBER_OF_SHARED_READERS).setTo(SharedTiffReaders.numberOfReaders());
+    }
+}
@@ -24,26 +24,36 @@
 
 package net.algart.executors.modules.maps.tiff;
 
+import net.algart.arrays.Arrays;
 import net.algart.arrays.Matrix;
 import net.algart.arrays.PArray;
+import net.algart.arrays.UpdatablePArray;
 import net.algart.executors.api.ReadOnlyExecutionInput;
 import net.algart.executors.api.data.SMat;
+import net.algart.executors.api.data.SNumbers;
 import net.algart.executors.modules.maps.LongTimeOpeningMode;
 import net.algart.math.IRectangularArea;
 import net.algart.matrices.tiff.TiffOpenMode;
 import net.algart.matrices.tiff.TiffReader;
+import net.algart.matrices.tiff.tiles.TiffTile;
+import net.algart.matrices.tiff.tiles.TiffTileIndex;
 import net.algart.multimatrix.MultiMatrix;
 import net.algart.multimatrix.MultiMatrix2D;
 
 import java.io.IOError;
 import java.io.IOException;
 import java.nio.file.Path;
-import java.util.Objects;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 public final class ReadTiff extends AbstractTiffOperation implements ReadOnlyExecutionInput {
     public static final String OUTPUT_DIM_X = "dim_x";
     public static final String OUTPUT_DIM_Y = "dim_y";
     public static final String OUTPUT_RECTANGLE = "rectangle";
+    public static final String INPUT_RECTANGLES = "rectangles";
+    public static final String OUTPUT_RECTANGLES = "read_rectangles";
 
     private LongTimeOpeningMode openingMode = LongTimeOpeningMode.OPEN_AND_CLOSE;
     // - note: default value in this CLASS (not in the executor model) SHOULD be very simple,
@@ -59,18 +69,24 @@ public final class ReadTiff extends AbstractTiffOperation implements ReadOnlyExe
     // - necessary when we do not know level sizes before 1st call of this function,
     // for example, if we need to read large image fragment-per-fragment
     private boolean caching = false;
+    private boolean sharedReader = false;
     private boolean autoUnpackBitsToBytes = false;
     private boolean autoScaleWhenIncreasingBitDepth = true;
     private boolean autoCorrectColors = false;
     private boolean cropTilesToImageBoundaries = true;
     private int numberOfChannels = 0;
+    private int numberOfReadingThreads = 0;
 
     private volatile TiffReader reader = null;
+    private volatile SharedTiffReaders.Lease sharedLease = null;
+    private ExecutorService readingService = null;
+    private final AtomicLong numberOfReadTiles = new AtomicLong(0);
 
     public ReadTiff() {
         useVisibleResultParameter();
         addInputMat(DEFAULT_INPUT_PORT);
         addInputScalar(INPUT_CLOSE_FILE);
+        addInputNumbers(INPUT_RECTANGLES);
         addOutputMat(DEFAULT_OUTPUT_PORT);
         addOutputScalar(OUTPUT_DIM_X);
         addOutputScalar(OUTPUT_DIM_Y);
@@ -80,6 +96,7 @@ public final class ReadTiff extends AbstractTiffOperation implements ReadOnlyExe
         addOutputScalar(OUTPUT_IMAGE_DIM_X);
         addOutputScalar(OUTPUT_IMAGE_DIM_Y);
         addOutputNumbers(OUTPUT_RECTANGLE);
+        addOutputNumbers(OUTPUT_RECTANGLES);
         addOutputScalar(OUTPUT_IFD);
         addOutputScalar(OUTPUT_PRETTY_IFD);
         addOutputScalar(OUTPUT_FILE_SIZE);
@@ -193,6 +210,35 @@ public final class ReadTiff extends AbstractTiffOperation implements ReadOnlyExe
         return this;
     }
 
+    /**
+     * Returns the number of TIFF tiles, read (and decoded) from the file by all readers, opened by this executor
+     * (including the readers of the additional threads of {@link #readTiffRegions(Path, List)}).
+     * Tiles, found in the cache of a reader, are not counted.
+     * This statistics allows to check the efficiency of caching.
+     *
+     * @return the number of tiles, read by this executor since its creation.
+     */
+    public long numberOfReadTiles() {
+        return numberOfReadTiles.get();
+    }
+
+    public boolean isSharedReader() {
+        return sharedReader;
+    }
+
+    /**
+     * Sets the flag, whether this executor should use a reader from {@link SharedTiffReaders} instead of
+     * its own reader. Shared readers always cache tiles (the {@link #isCaching() caching} flag is ignored);
+     * parsed IFDs and decoded tiles survive between calls of different executors, reading the same file.
+     *
+     * @param sharedReader whether the reader should be shared.
+     * @return a reference to this object.
+     */
+    public ReadTiff setSharedReader(boolean sharedReader) {
+        this.sharedReader = sharedReader;
+        return this;
+    }
+
     public boolean isAutoUnpackBitsToBytes() {
         return autoUnpackBitsToBytes;
     }
@@ -238,6 +284,15 @@ public final class ReadTiff extends AbstractTiffOperation implements ReadOnlyExe
         return this;
     }
 
+    public int getNumberOfReadingThreads() {
+        return numberOfReadingThreads;
+    }
+
+    public ReadTiff setNumberOfReadingThreads(int numberOfReadingThreads) {
+        this.numberOfReadingThreads = nonNegative(numberOfReadingThreads);
+        return this;
+    }
+
     @Override
     public void initialize() {
         if (openingMode.isClosePreviousOnReset()) {
@@ -252,7 +307,9 @@ public final class ReadTiff extends AbstractTiffOperation implements ReadOnlyExe
             logDebug(() -> "Copying " + input);
             getMat().setTo(input);
         } else {
-            MultiMatrix multiMatrix = readTiff(completeFilePath(), isOutputNecessary(DEFAULT_OUTPUT_PORT));
+            final SNumbers rectangles = getInputNumbers(INPUT_RECTANGLES, true);
+            final List<IRectangularArea> regions = rectangles.isInitialized() ? toRegions(rectangles) : null;
+            MultiMatrix multiMatrix = readTiff(completeFilePath(), isOutputNecessary(DEFAULT_OUTPUT_PORT), regions);
             getMat().setToOrRemove(multiMatrix);
         }
     }
@@ -262,23 +319,58 @@ public final class ReadTiff extends AbstractTiffOperation implements ReadOnlyExe
     }
 
     public MultiMatrix readTiff(Path path, boolean doActualReading) {
+        return readTiff(path, doActualReading, null);
+    }
+
+    /**
+     * Reads several regions of the same IFD image and returns them, stacked vertically in the given order
+     * (left-aligned, the width of the result is the maximal width of the regions).
+     * The regions are cropped to the image, if {@link #isCropToImage()}; regions, which become empty,
+     * are skipped. The actually read regions are returned in <code>{@value #OUTPUT_RECTANGLES}</code> port.
+     *
+     * <p>The caller can extract every region from the result by these rectangles: the region #<i>k</i>
+     * with sizes <i>w<sub>k</sub></i>=max_x&minus;min_x+1, <i>h<sub>k</sub></i>=max_y&minus;min_y+1
+     * occupies the columns 0..<i>w<sub>k</sub></i>&minus;1 and the rows starting from
+     * <i>h</i><sub>0</sub>+...+<i>h<sub>k&minus;1</sub></i>. The rest of its rows (to the right of the region,
+     * when the region is narrower than the result) is filled by zeros.
+     *
+     * <p>Regions, sharing some TIFF tiles, are read by the same thread with caching, so every tile is decoded
+     * once; other regions are read in parallel by (at most) {@link #getNumberOfReadingThreads()} threads,
+     * each with its own {@link TiffReader}.
+     *
+     * @param path    path to the TIFF file.
+     * @param regions regions to read.
+     * @return all regions, stacked vertically.
+     */
+    public MultiMatrix readTiffRegions(Path path, List<IRectangularArea> regions) {
+        Objects.requireNonNull(regions, "Null regions");
+        return readTiff(path, true, regions);
+    }
+
+    private MultiMatrix readTiff(Path path, boolean doActualReading, List<IRectangularArea> regions) {
         try {
             getScalar(OUTPUT_VALID).setTo(false);
             getScalar(OUTPUT_DIM_X).remove();
             getScalar(OUTPUT_DIM_Y).remove();
             getNumbers(OUTPUT_RECTANGLE).remove();
+            getNumbers(OUTPUT_RECTANGLES).remove();
             if (skipIfMissingFileOrThrow(path)) {
                 return null;
             }
             final TiffReader reader = openFile(path);
-            fillReadingOutputInformation(this, reader, ifdIndex);
-            if (!reader.isValidTiff()) {
-                closeReader();
-                return null;
+            final MultiMatrix2D multiMatrix;
+            synchronized (reader) {
+                // - shared reader can be used by other executors at the same time
+                fillReadingOutputInformation(this, reader, ifdIndex);
+                if (!reader.isValidTiff()) {
+                    closeReader();
+                    return null;
+                }
+                multiMatrix = !doActualReading ? null :
+                        regions != null ?
+                                readRegions(path, reader, regions) :
+                                readMultiMatrix(reader);
             }
-            final MultiMatrix2D multiMatrix = doActualReading ?
-                    readMultiMatrix(reader) :
-                    null;
             final boolean close = needToClose(this, openingMode);
             if (close) {
                 closeReader();
@@ -286,6 +378,10 @@ public final class ReadTiff extends AbstractTiffOperation implements ReadOnlyExe
             return multiMatrix;
         } catch (IOException e) {
             getScalar(OUTPUT_VALID).setTo(false);
+            final SharedTiffReaders.Lease sharedLease = this.sharedLease;
+            if (sharedLease != null) {
+                sharedLease.invalidate();
+            }
             closeReader();
             // - closing can be important to allow the user to fix the problem;
             // moreover, in a case the error it is better to free all possible connected resources
@@ -306,6 +402,12 @@ public final class ReadTiff extends AbstractTiffOperation implements ReadOnlyExe
     public void close() {
         super.close();
         closeReader();
+        synchronized (this) {
+            if (readingService != null) {
+                readingService.shutdown();
+                readingService = null;
+            }
+        }
     }
 
 
@@ -314,11 +416,14 @@ public final class ReadTiff extends AbstractTiffOperation implements ReadOnlyExe
         logDebug(() -> "Reading " + path);
         TiffReader reader = this.reader;
         if (reader == null) {
-            reader = new TiffReader(path, TiffOpenMode.ofRequireTiff(tiffRequired)).setCaching(caching);
-            reader.setAutoUnpackBits(TiffReader.UnpackBits.of(autoUnpackBitsToBytes));
-            reader.setAutoScaleWhenIncreasingBitDepth(autoScaleWhenIncreasingBitDepth);
-            reader.setAutoCorrectInvertedBrightness(autoCorrectColors);
-            reader.setCropTilesToImageBoundaries(cropTilesToImageBoundaries);
+            if (sharedReader) {
+                final SharedTiffReaders.Lease sharedLease = SharedTiffReaders.acquire(
+                        path, readerSettings(), p -> newReader(p, true));
+                this.sharedLease = sharedLease;
+                reader = sharedLease.reader();
+            } else {
+                reader = newReader(path, caching);
+            }
             this.reader = reader;
             // - note: the assignments sequence guarantees that this method will not return null
         }
@@ -358,8 +463,235 @@ public final class ReadTiff extends AbstractTiffOperation implements ReadOnlyExe
         return result;
     }
 
+    private List<Object> readerSettings() {
+        // - all settings, used in newReader
+        return List.of(tiffRequired, autoUnpackBitsToBytes, autoScaleWhenIncreasingBitDepth,
+                autoCorrectColors, cropTilesToImageBoundaries);
+    }
+
+    private TiffReader newReader(Path path, boolean caching) throws IOException {
+        final TiffReader reader = new TileCountingReader(path, TiffOpenMode.ofRequireTiff(tiffRequired),
+                numberOfReadTiles).setCaching(caching);
+        reader.setAutoUnpackBits(TiffReader.UnpackBits.of(autoUnpackBitsToBytes));
+        reader.setAutoScaleWhenIncreasingBitDepth(autoScaleWhenIncreasingBitDepth);
+        reader.setAutoCorrectInvertedBrightness(autoCorrectColors);
+        reader.setCropTilesToImageBoundaries(cropTilesToImageBoundaries);
+        return reader;
+    }
+
+    private MultiMatrix2D readRegions(Path path, TiffReader reader, List<IRectangularArea> regions)
+            throws IOException {
+        final var map = reader.map(ifdIndex);
+        final IRectangularArea image = IRectangularArea.of(0, 0, map.dimX() - 1, map.dimY() - 1);
+        final List<IRectangularArea> actual = new ArrayList<>();
+        for (IRectangularArea region : regions) {
+            final IRectangularArea cropped = cropToImage ? region.intersection(image) : region;
+            if (cropped != null) {
+                actual.add(cropped);
+            }
+        }
+        if (actual.isEmpty()) {
+            return null;
+        }
+        final List<List<Integer>> groups = groupsSharingTiles(actual, map.tileSizeX(), map.tileSizeY(), image);
+        final int numberOfThreads = Math.min(groups.size(), numberOfReadingThreads == 0 ?
+                Runtime.getRuntime().availableProcessors() :
+                numberOfReadingThreads);
+        final MultiMatrix2D[] patches = new MultiMatrix2D[actual.size()];
+        final AtomicInteger nextGroup = new AtomicInteger(0);
+        final List<Callable<Void>> workers = new ArrayList<>();
+        for (int k = 0; k < numberOfThreads; k++) {
+            final boolean mainReader = k == 0 && (caching || sharedLease != null);
+            // - other threads need their own readers: we don't share one reader between threads;
+            // every such reader caches tiles, so tiles, shared by the regions of one group, are decoded once
+            // (so, the main reader is used only if it caches tiles, even in the single-threaded case)
+            workers.add(() -> {
+                final TiffReader workerReader = mainReader ? reader : newReader(path, true);
+                try {
+                    final var workerMap = workerReader.map(ifdIndex);
+                    for (int g; (g = nextGroup.getAndIncrement()) < groups.size(); ) {
+                        for (int i : groups.get(g)) {
+                            final IRectangularArea r = actual.get(i);
+                            patches[i] = readPatch(workerReader.readMatrix(workerMap,
+                                    (int) r.minX(), (int) r.minY(), (int) r.maxX() + 1, (int) r.maxY() + 1));
+                        }
+                    }
+                } finally {
+                    if (workerReader != reader) {
+                        workerReader.close();
+                    }
+                }
+                return null;
+            });
+        }
+        if (numberOfThreads == 1) {
+            try {
+                workers.get(0).call();
+            } catch (IOException | RuntimeException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new AssertionError("Unexpected exception", e);
+            }
+        } else {
+            invokeAll(workers);
+        }
+        final MultiMatrix2D result = stackVertically(patches);
+        final int[] rectangles = new int[4 * actual.size()];
+        for (int i = 0, disp = 0; i < actual.size(); i++) {
+            final IRectangularArea r = actual.get(i);
+            rectangles[disp++] = (int) r.minX();
+            rectangles[disp++] = (int) r.maxX();
+            rectangles[disp++] = (int) r.minY();
+            rectangles[disp++] = (int) r.maxY();
+        }
+        getScalar(OUTPUT_DIM_X).setTo(result.dim(0));
+        getScalar(OUTPUT_DIM_Y).setTo(result.dim(1));
+        getNumbers(OUTPUT_RECTANGLES).setToArray(rectangles, 4);
+        logDebug(() -> "Reading " + actual.size() + " regions (" + groups.size() + " groups) by "
+                + numberOfThreads + " threads: " + result);
+        return result;
+    }
+
+    private MultiMatrix2D readPatch(Matrix<? extends PArray> m) {
+        MultiMatrix2D result = MultiMatrix.of2DMerged(m);
+        if (numberOfChannels != 0) {
+            result = result.asOtherNumberOfChannels(numberOfChannels);
+        }
+        return result;
+    }
+
+    private synchronized ExecutorService readingService() {
+        if (readingService == null) {
+            readingService = Executors.newCachedThreadPool(runnable -> {
+                final Thread thread = new Thread(runnable, "ReadTiff regions reading");
+                thread.setDaemon(true);
+                return thread;
+            });
+            // - the number of simultaneous tasks is limited by numberOfReadingThreads;
+            // idle threads are terminated automatically, the service itself is shut down in close()
+        }
+        return readingService;
+    }
+
+    private void invokeAll(List<Callable<Void>> workers) throws IOException {
+        final List<Future<Void>> futures;
+        try {
+            futures = readingService().invokeAll(workers);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Reading TIFF regions was interrupted", e);
+        }
+        for (Future<Void> future : futures) {
+            try {
+                future.get();
+                // - all tasks are already completed by invokeAll
+            } catch (ExecutionException e) {
+                final Throwable cause = e.getCause();
+                if (cause instanceof IOException ioException) {
+                    throw ioException;
+                }
+                if (cause instanceof RuntimeException runtimeException) {
+                    throw runtimeException;
+                }
+                if (cause instanceof Error error) {
+                    throw error;
+                }
+                throw new AssertionError("Unexpected exception", cause);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Reading TIFF regions was interrupted", e);
+            }
+        }
+    }
+
+    // Groups of regions (indexes in the list): regions of different groups have no common tiles.
+    private static List<List<Integer>> groupsSharingTiles(
+            List<IRectangularArea> regions,
+            int tileSizeX,
+            int tileSizeY,
+            IRectangularArea image) {
+        final int n = regions.size();
+        final int[] parent = new int[n];
+        final Map<Long, Integer> tileOwners = new HashMap<>();
+        for (int i = 0; i < n; i++) {
+            parent[i] = i;
+            final IRectangularArea r = regions.get(i).intersection(image);
+            if (r == null) {
+                // - possible if !cropToImage: such region contains no tiles
+                continue;
+            }
+            for (long ty = r.minY() / tileSizeY, toY = r.maxY() / tileSizeY; ty <= toY; ty++) {
+                for (long tx = r.minX() / tileSizeX, toX = r.maxX() / tileSizeX; tx <= toX; tx++) {
+                    final Integer owner = tileOwners.putIfAbsent((ty << 32) | tx, i);
+                    if (owner != null) {
+                        parent[findGroup(parent, i)] = findGroup(parent, owner);
+                    }
+                }
+            }
+        }
+        final Map<Integer, List<Integer>> groups = new LinkedHashMap<>();
+        for (int i = 0; i < n; i++) {
+            groups.computeIfAbsent(findGroup(parent, i), key -> new ArrayList<>()).add(i);
+        }
+        return new ArrayList<>(groups.values());
+    }
+
+    private static int findGroup(int[] parent, int i) {
+        while (parent[i] != i) {
+            parent[i] = parent[parent[i]];
+            i = parent[i];
+        }
+        return i;
+    }
+
+    private static MultiMatrix2D stackVertically(MultiMatrix2D[] patches) {
+        final MultiMatrix2D first = patches[0];
+        // - all regions are read from the same IFD: they have the same element type and number of channels
+        long dimX = 0;
+        long dimY = 0;
+        for (MultiMatrix2D patch : patches) {
+            dimX = Math.max(dimX, patch.dim(0));
+            dimY += patch.dim(1);
+        }
+        final List<Matrix<? extends PArray>> channels = new ArrayList<>();
+        for (int c = 0; c < first.numberOfChannels(); c++) {
+            final Matrix<UpdatablePArray> result = Arrays.SMM.newMatrix(
+                    UpdatablePArray.class, first.elementType(), dimX, dimY);
+            long y = 0;
+            for (MultiMatrix2D patch : patches) {
+                result.subMatrix(0, y, patch.dim(0), y + patch.dim(1)).array().copy(patch.channel(c).array());
+                y += patch.dim(1);
+            }
+            channels.add(result);
+        }
+        return MultiMatrix.of2D(channels);
+    }
+
+    private static List<IRectangularArea> toRegions(SNumbers rectangles) {
+        if (rectangles.getBlockLength() != 4) {
+            throw new IllegalArgumentException("Rectangles must be specified by blocks of 4 numbers "
+                    + "min_x, max_x, min_y, max_y, but block length is " + rectangles.getBlockLength());
+        }
+        final double[] values = rectangles.toDoubleArray();
+        final List<IRectangularArea> result = new ArrayList<>();
+        for (int k = 0; k + 3 < values.length; k += 4) {
+            result.add(IRectangularArea.of(
+                    Math.round(values[k]), Math.round(values[k + 2]),
+                    Math.round(values[k + 1]), Math.round(values[k + 3])));
+        }
+        return result;
+    }
+
     private void closeReader() {
         TiffReader reader = this.reader;
+        final SharedTiffReaders.Lease sharedLease = this.sharedLease;
+        if (sharedLease != null) {
+            this.reader = null;
+            this.sharedLease = null;
+            logDebug(() -> "Releasing " + sharedLease);
+            sharedLease.close();
+            return;
+        }
         if (reader != null) {
             this.reader = null;
             logDebug(() -> "Closing " + reader);
@@ -370,4 +702,21 @@ public final class ReadTiff extends AbstractTiffOperation implements ReadOnlyExe
             }
         }
     }
+
+    private static class TileCountingReader extends TiffReader {
+        private final AtomicLong numberOfReadTiles;
+        // - not a reference to ReadTiff: shared readers may live longer than the executor
+
+        private TileCountingReader(Path path, TiffOpenMode openMode, AtomicLong numberOfReadTiles)
+                throws IOException {
+            super(path, openMode);
+            this.numberOfReadTiles = numberOfReadTiles;
+        }
+
+        @Override
+        public TiffTile readEncodedTile(TiffTileIndex tileIndex) throws IOException {
+            numberOfReadTiles.incrementAndGet();
+            return super.readEncodedTile(tileIndex);
+        }
+    }
 }
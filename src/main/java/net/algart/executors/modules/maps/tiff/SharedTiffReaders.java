@@ -0,0 +1,318 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2017-2026 Daniel Alievsky, AlgART Laboratory (http://algart.net)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package net.algart.executors.modules.maps.tiff;
+
+import net.algart.arrays.Arrays;
+import net.algart.matrices.tiff.TiffReader;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.*;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cache of {@link TiffReader} instances, shared between calls of TIFF executors: the parsed IFDs and the tile cache
+ * of the reader survive between calls. Readers are identified by the file path, its last modification time
+ * and size (so, a modified file is reopened) and by the reader settings.
+ *
+ * <p>Every user acquires a {@link Lease} and must close it after usage; the reader is closed after
+ * {@link #IDLE_TIMEOUT} milliseconds without leases or by {@link #closeIdle(Path)}.
+ * The reader of the lease can be used by other threads at the same time: please synchronize usage
+ * by the reader object.
+ */
+public final class SharedTiffReaders {
+    public static final long IDLE_TIMEOUT = Math.max(0, Arrays.SystemSettings.getLongProperty(
+            "net.algart.executors.modules.maps.tiff.sharedReadersIdleTimeout", 60000));
+    // - milliseconds
+
+    @FunctionalInterface
+    public interface ReaderFactory {
+        TiffReader newReader(Path path) throws IOException;
+    }
+
+    private static final System.Logger LOG = System.getLogger(SharedTiffReaders.class.getName());
+
+    private static final Map<Key, Entry> entries = new HashMap<>();
+    private static final ScheduledExecutorService CLEANER = Executors.newSingleThreadScheduledExecutor(
+            runnable -> {
+                final Thread thread = new Thread(runnable, "SharedTiffReaders cleaner");
+                thread.setDaemon(true);
+                return thread;
+            });
+
+    private SharedTiffReaders() {
+    }
+
+    /**
+     * Returns a lease of the shared reader of the given file with the given settings, or of a new reader,
+     * created by <code>factory</code>, if there is no such reader yet.
+     *
+     * @param path     path to existing TIFF file.
+     * @param settings any object with correct <code>equals</code> method, describing the settings of the reader:
+     *                 readers with different settings are not shared.
+     * @param factory  creates a new reader with these settings.
+     * @return new lease; must be closed after usage.
+     * @throws IOException in a case of I/O error while creating new reader.
+     */
+    public static Lease acquire(Path path, Object settings, ReaderFactory factory) throws IOException {
+        Objects.requireNonNull(path, "Null path");
+        Objects.requireNonNull(settings, "Null settings");
+        Objects.requireNonNull(factory, "Null factory");
+        final Path absolutePath = path.toAbsolutePath().normalize();
+        final BasicFileAttributes attributes = Files.readAttributes(absolutePath, BasicFileAttributes.class);
+        final Key key = new Key(absolutePath, attributes.lastModifiedTime().toMillis(), attributes.size(), settings);
+        synchronized (entries) {
+            final Entry entry = entries.get(key);
+            if (entry != null) {
+                entry.leaseCount++;
+                return new Lease(entry);
+            }
+            closeModified(key);
+        }
+        final Entry newEntry = new Entry(key, factory.newReader(absolutePath));
+        // - opening outside the lock: it may be slow (for example, for network files)
+        final Lease result;
+        synchronized (entries) {
+            Entry entry = entries.get(key);
+            if (entry == null) {
+                entry = newEntry;
+                entries.put(key, entry);
+            }
+            entry.leaseCount++;
+            result = new Lease(entry);
+        }
+        if (result.entry != newEntry) {
+            newEntry.closeReader();
+            // - another thread has opened the same reader simultaneously
+        }
+        return result;
+    }
+
+    /**
+     * Analog of {@link #acquire(Path, Object, ReaderFactory)}, which also returns a shared reader of the same file
+     * with any other settings, if it exists and the file is a valid TIFF. Useful for operations that do not
+     * depend on the reader settings, like analysing IFDs.
+     *
+     * @param path     path to existing TIFF file.
+     * @param settings settings of a new reader, if there is no suitable shared reader.
+     * @param factory  creates a new reader with these settings.
+     * @return new lease; must be closed after usage.
+     * @throws IOException in a case of I/O error while creating new reader.
+     */
+    public static Lease acquireAny(Path path, Object settings, ReaderFactory factory) throws IOException {
+        Objects.requireNonNull(path, "Null path");
+        final Path absolutePath = path.toAbsolutePath().normalize();
+        final BasicFileAttributes attributes = Files.readAttributes(absolutePath, BasicFileAttributes.class);
+        final long lastModified = attributes.lastModifiedTime().toMillis();
+        synchronized (entries) {
+            for (Entry entry : entries.values()) {
+                final Key key = entry.key;
+                if (key.path.equals(absolutePath) && key.lastModified == lastModified
+                        && key.size == attributes.size() && entry.reader.isValidTiff()) {
+                    entry.leaseCount++;
+                    return new Lease(entry);
+                }
+            }
+        }
+        return acquire(absolutePath, settings, factory);
+    }
+
+    /**
+     * Closes all idle (not leased) shared readers of the given file, or all idle shared readers
+     * if <code>path</code> is <code>null</code>. Readers, that are leased now, will be closed
+     * when all their leases will be closed.
+     *
+     * @param path path to the file; may be <code>null</code>.
+     * @return number of closed readers.
+     */
+    public static int closeIdle(Path path) {
+        synchronized (entries) {
+            return closeAllIdle(path == null ? null : path.toAbsolutePath().normalize());
+        }
+    }
+
+    public static int numberOfReaders() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    public static final class Lease implements AutoCloseable {
+        private final Entry entry;
+        private boolean closed = false;
+
+        private Lease(Entry entry) {
+            this.entry = entry;
+        }
+
+        public TiffReader reader() {
+            return entry.reader;
+        }
+
+        /**
+         * Prevents the further sharing of this reader: it will be closed when all its leases will be closed.
+         * Should be called after an exception while reading, because the reader can be in incorrect state.
+         */
+        public void invalidate() {
+            synchronized (entries) {
+                entries.remove(entry.key, entry);
+                entry.closeWhenReleased = true;
+            }
+        }
+
+        @Override
+        public void close() {
+            synchronized (entries) {
+                if (closed) {
+                    return;
+                }
+                closed = true;
+                entry.leaseCount--;
+                entry.lastReleaseTime = System.currentTimeMillis();
+                if (entry.leaseCount == 0) {
+                    if (entry.closeWhenReleased || IDLE_TIMEOUT == 0) {
+                        entries.remove(entry.key, entry);
+                        entry.closeReader();
+                    } else {
+                        CLEANER.schedule(SharedTiffReaders::closeExpired, IDLE_TIMEOUT, TimeUnit.MILLISECONDS);
+                    }
+                }
+            }
+        }
+
+        @Override
+        public String toString() {
+            return "lease of shared " + entry.reader;
+        }
+    }
+
+    private static void closeExpired() {
+        synchronized (entries) {
+            final long time = System.currentTimeMillis();
+            for (Iterator<Entry> iterator = entries.values().iterator(); iterator.hasNext(); ) {
+                final Entry entry = iterator.next();
+                if (entry.leaseCount == 0 && time - entry.lastReleaseTime >= IDLE_TIMEOUT) {
+                    iterator.remove();
+                    entry.closeReader();
+                }
+            }
+        }
+    }
+
+    private static void closeModified(Key key) {
+        assert Thread.holdsLock(entries);
+        for (Iterator<Entry> iterator = entries.values().iterator(); iterator.hasNext(); ) {
+            final Entry entry = iterator.next();
+            final Key other = entry.key;
+            if (other.path.equals(key.path) && (other.lastModified != key.lastModified || other.size != key.size)) {
+                // - the file was modified: readers of its previous version are not necessary
+                iterator.remove();
+                if (entry.leaseCount == 0) {
+                    entry.closeReader();
+                } else {
+                    entry.closeWhenReleased = true;
+                }
+            }
+        }
+    }
+
+    private static int closeAllIdle(Path absolutePath) {
+        assert Thread.holdsLock(entries);
+        int count = 0;
+        for (Iterator<Entry> iterator = entries.values().iterator(); iterator.hasNext(); ) {
+            final Entry entry = iterator.next();
+            if (absolutePath != null && !entry.key.path.equals(absolutePath)) {
+                continue;
+            }
+            if (entry.leaseCount == 0) {
+                iterator.remove();
+                entry.closeReader();
+                count++;
+            } else {
+                iterator.remove();
+                entry.closeWhenReleased = true;
+            }
+        }
+        return count;
+    }
+
+    private static final class Entry {
+        private final Key key;
+        private final TiffReader reader;
+        private int leaseCount = 0;
+        private long lastReleaseTime = 0;
+        private boolean closeWhenReleased = false;
+
+        private Entry(Key key, TiffReader reader) {
+            this.key = key;
+            this.reader = Objects.requireNonNull(reader, "Null reader created by the factory");
+        }
+
+        private void closeReader() {
+            try {
+                reader.close();
+            } catch (IOException e) {
+                LOG.log(System.Logger.Level.WARNING, "Cannot close shared TIFF reader " + reader + ": " + e);
+                // - should not stop the caller (for example, the cleaner thread): the reader is not used anymore
+            }
+        }
+    }
+
+    private static final class Key {
+        private final Path path;
+        private final long lastModified;
+        private final long size;
+        private final Object settings;
+
+        private Key(Path path, long lastModified, long size, Object settings) {
+            this.path = path;
+            this.lastModified = lastModified;
+            this.size = size;
+            this.settings = settings;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            Key that = (Key) o;
+            return lastModified == that.lastModified && size == that.size
+                    && path.equals(that.path) && settings.equals(that.settings);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(path, lastModified, size, settings);
+        }
+    }
+}
@@ -47,6 +47,7 @@ public final class TiffInfo extends AbstractTiffOperation implements ReadOnlyExe
 
     private boolean tiffRequired = true;
     private int ifdIndex = 0;
+    private boolean sharedReader = false;
 
     public TiffInfo() {
         super();
@@ -78,6 +79,22 @@ public final class TiffInfo extends AbstractTiffOperation implements ReadOnlyExe
         return this;
     }
 
+    public boolean isSharedReader() {
+        return sharedReader;
+    }
+
+    /**
+     * Sets the flag, whether this executor should use a reader from {@link SharedTiffReaders}: in this case,
+     * IFDs, already parsed by other executors (like {@link ReadTiff}), are not parsed again.
+     *
+     * @param sharedReader whether the reader should be shared.
+     * @return a reference to this object.
+     */
+    public TiffInfo setSharedReader(boolean sharedReader) {
+        this.sharedReader = sharedReader;
+        return this;
+    }
+
     @Override
     public void process() {
         testTiff(completeFilePath());
@@ -89,12 +106,24 @@ public final class TiffInfo extends AbstractTiffOperation implements ReadOnlyExe
             if (skipIfMissingFileOrThrow(path)) {
                 return;
             }
-            try (TiffReader reader = new TiffReader(path, TiffOpenMode.ofRequireTiff(tiffRequired))) {
-                fillOutputFileInformation(path);
-                fillReadingOutputInformation(this, reader, ifdIndex);
-                final List<TiffIFD> ifds = reader.allIFDs();
-                setOutputScalarIfNecessary(OUTPUT_ALL_IFDS, () -> Jsons.toPrettyString(allIFDJson(ifds)));
-                setOutputScalarIfNecessary(OUTPUT_PRETTY_ALL_IFDS, () -> allIFDPrettyInfo(ifds));
+            if (sharedReader) {
+                try (SharedTiffReaders.Lease lease = SharedTiffReaders.acquireAny(
+                        path, List.of(tiffRequired), p -> newReader(p).setCaching(true))) {
+                    try {
+                        final TiffReader reader = lease.reader();
+                        synchronized (reader) {
+                            // - shared reader can be used by other executors at the same time
+                            fillInformation(path, reader);
+                        }
+                    } catch (IOException e) {
+                        lease.invalidate();
+                        throw e;
+                    }
+                }
+            } else {
+                try (TiffReader reader = newReader(path)) {
+                    fillInformation(path, reader);
+                }
             }
         } catch (IOException e) {
             getScalar(OUTPUT_VALID).setTo(false);
@@ -109,6 +138,18 @@ public final class TiffInfo extends AbstractTiffOperation implements ReadOnlyExe
         }
     }
 
+    private TiffReader newReader(Path path) throws IOException {
+        return new TiffReader(path, TiffOpenMode.ofRequireTiff(tiffRequired));
+    }
+
+    private void fillInformation(Path path, TiffReader reader) throws IOException {
+        fillOutputFileInformation(path);
+        fillReadingOutputInformation(this, reader, ifdIndex);
+        final List<TiffIFD> ifds = reader.allIFDs();
+        setOutputScalarIfNecessary(OUTPUT_ALL_IFDS, () -> Jsons.toPrettyString(allIFDJson(ifds)));
+        setOutputScalarIfNecessary(OUTPUT_PRETTY_ALL_IFDS, () -> allIFDPrettyInfo(ifds));
+    }
+
     public static JsonArray allIFDJson(List<TiffIFD> allIFDs) {
         Objects.requireNonNull(allIFDs, "Null allIFDs");
         final JsonArrayBuilder builder = Json.createArrayBuilder();
@@ -33,9 +33,12 @@ import net.algart.math.Range;
 import net.algart.math.functions.LinearFunc;
 
 import java.awt.*;
+import java.io.IOError;
 import java.nio.channels.NotYetConnectedException;
 import java.util.List;
 import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.atomic.AtomicReference;
 
 public abstract class AbstractPlanePyramidSource implements PlanePyramidSource {
@@ -47,9 +50,24 @@ public abstract class AbstractPlanePyramidSource implements PlanePyramidSource {
     private static final long TILE_CACHING_MEMORY = Math.max(16, Arrays.SystemSettings.getLongProperty(
             "net.algart.maps.pyramids.io.tileCachingMemory", 67108864));
     // 64 MB (+1 possible additional tile)
+    private static final boolean DETECT_CONSTANT_TILES = Arrays.SystemSettings.getBooleanProperty(
+            "net.algart.maps.pyramids.io.detectConstantTiles", true);
+    // - constant (usually background) tiles are stored in the cache and returned as nXxxCopies
+    private static final long CONSTANT_TILE_CACHING_MEMORY = 256;
+    // - approximate memory, occupied by a constant tile in the cache (Java objects)
+    private static final boolean TILE_READAHEAD = Arrays.SystemSettings.getBooleanProperty(
+            "net.algart.maps.pyramids.io.tileReadahead", false);
+
+    private static final ExecutorService READAHEAD_SERVICE = Executors.newFixedThreadPool(
+            Math.max(1, Runtime.getRuntime().availableProcessors() / 2),
+            runnable -> {
+                final Thread thread = new Thread(runnable, "Tile readahead");
+                thread.setDaemon(true);
+                return thread;
+            });
 
     public enum TileDirection {
-        RIGHT_DOWN() {
+        RIGHT_DOWN(1, 1) {
             @Override
             IRectangularArea findTile(long tileDim, long dimX, long dimY, long x, long y) {
                 assert dimX > 0 && dimY > 0;
@@ -62,7 +80,7 @@ public abstract class AbstractPlanePyramidSource implements PlanePyramidSource {
                 return IRectangularArea.of(IPoint.of(minX, minY), IPoint.of(maxX, maxY));
             }
         },
-        LEFT_DOWN() {
+        LEFT_DOWN(-1, 1) {
             @Override
             IRectangularArea findTile(long tileDim, long dimX, long dimY, long x, long y) {
                 assert dimX > 0 && dimY > 0;
@@ -78,7 +96,7 @@ public abstract class AbstractPlanePyramidSource implements PlanePyramidSource {
                         IPoint.of(dimX - 1 - minX, maxY));
             }
         },
-        RIGHT_UP() {
+        RIGHT_UP(1, -1) {
             @Override
             IRectangularArea findTile(long tileDim, long dimX, long dimY, long x, long y) {
                 assert dimX > 0 && dimY > 0;
@@ -94,7 +112,7 @@ public abstract class AbstractPlanePyramidSource implements PlanePyramidSource {
                         IPoint.of(maxX, dimY - 1 - minY));
             }
         },
-        LEFT_UP() {
+        LEFT_UP(-1, -1) {
             @Override
             IRectangularArea findTile(long tileDim, long dimX, long dimY, long x, long y) {
                 assert dimX > 0 && dimY > 0;
@@ -112,6 +130,34 @@ public abstract class AbstractPlanePyramidSource implements PlanePyramidSource {
             }
         };
 
+        private final int directionX;
+        private final int directionY;
+
+        TileDirection(int directionX, int directionY) {
+            this.directionX = directionX;
+            this.directionY = directionY;
+        }
+
+        /**
+         * Returns +1 if the tiles are aligned from the left side (and the map is supposed to be scanned
+         * from left to right), or &minus;1 in the opposite case.
+         *
+         * @return horizontal direction of scanning.
+         */
+        public int directionX() {
+            return directionX;
+        }
+
+        /**
+         * Returns +1 if the tiles are aligned from the top side (and the map is supposed to be scanned
+         * from top to bottom), or &minus;1 in the opposite case.
+         *
+         * @return vertical direction of scanning.
+         */
+        public int directionY() {
+            return directionY;
+        }
+
         abstract IRectangularArea findTile(long tileDim, long dimX, long dimY, long x, long y);
     }
 
@@ -128,6 +174,7 @@ public abstract class AbstractPlanePyramidSource implements PlanePyramidSource {
 
     private TileDirection tileCacheDirection = null;
     private volatile long tileCachingMemory = TILE_CACHING_MEMORY;
+    private volatile boolean tileReadahead = TILE_READAHEAD;
 
     private volatile RotatingPlanePyramidSource.RotationMode labelRotation =
             RotatingPlanePyramidSource.RotationMode.NONE;
@@ -228,16 +275,47 @@ public abstract class AbstractPlanePyramidSource implements PlanePyramidSource {
     public Matrix<? extends PArray> readSubMatrix(
             int resolutionLevel, long fromX, long fromY, long toX, long toY)
             throws NoSuchElementException, NotYetConnectedException {
-        final int bandCount = bandCount();
         final long[] dimensions = dimensions(resolutionLevel);
         checkSubMatrixRanges(dimensions, fromX, fromY, toX, toY, false);
+        if (!isTileCachingEnabled() || fromX == toX || fromY == toY) {
+            final Matrix<? extends PArray> result = readSubMatrixByTiles(
+                    resolutionLevel, dimensions, fromX, fromY, toX, toY);
+            CachingMemoryGovernor.getInstance().rebalanceIfNecessary();
+            // - also for caches of subclasses, like the cache of encoded tiles in SVS
+            return result;
+        }
+        final TileDirection direction = getTileCacheDirection();
+        final IRectangularArea area = IRectangularArea.of(fromX, fromY, toX - 1, toY - 1);
+        synchronized (tileCacheContainer) {
+            tileCache().noteRequest(resolutionLevel, area, direction);
+        }
+        final Matrix<? extends PArray> result = readSubMatrixByTiles(
+                resolutionLevel, dimensions, fromX, fromY, toX, toY);
+        CachingMemoryGovernor.getInstance().rebalanceIfNecessary();
+        // - outside the synchronization: the governor may call setMemoryLimit of all caches
+        if (tileReadahead) {
+            startReadahead(resolutionLevel, dimensions, direction);
+        }
+        return result;
+    }
+
+    private Matrix<? extends PArray> readSubMatrixByTiles(
+            int resolutionLevel, long[] dimensions, long fromX, long fromY, long toX, long toY) {
+        final int bandCount = bandCount();
         final long totalElements = Arrays.longMul(bandCount, toX - fromX, toY - fromY);
         assert totalElements != Long.MIN_VALUE; // because of the check above
         if (fromX == toX || fromY == toY
                 || (!isTileCachingEnabled() && Math.max(toX - fromX, toY - fromY) <= MAX_NON_TILED_READING_DIM)) {
             return readSubMatrixViaTileCache(resolutionLevel, fromX, fromY, toX, toY, null);
         }
+        if (!containsActualData(resolutionLevel, IRectangularArea.of(fromX, fromY, toX - 1, toY - 1))) {
+            return constantMatrixSkippingFiller(elementType(), toX - fromX, toY - fromY);
+            // - no sense to split into tiles
+        }
         Matrix<? extends UpdatablePArray> result = null;
+        double constantValue = Double.NaN;
+        // - while result == null, all tiles, read before, are constant with this value (if not NaN)
+        Class<?> constantElementType = null;
         long readyElements = 0;
         TileDirection direction = isTileCachingEnabled() ? getTileCacheDirection() : TileDirection.RIGHT_DOWN;
         final long dimX = dimensions[1];
@@ -267,6 +345,17 @@ public abstract class AbstractPlanePyramidSource implements PlanePyramidSource {
                             + " quickly returned result: " + m);
                     return m;
                 }
+                final boolean constantTile = Arrays.isNCopies(m.array());
+                if (result == null && constantTile) {
+                    final double value = m.array().getDouble(0);
+                    if (readyElements == 0 || value == constantValue) {
+                        // - note: NaN value cannot be equal to NaN constantValue
+                        constantValue = value;
+                        constantElementType = m.elementType();
+                        readyElements += m.size();
+                        continue;
+                    }
+                }
                 if (result == null) {
                     final MemoryModel mm = Arrays.sizeOf(m.elementType(), totalElements) <=
                             Arrays.SystemSettings.maxTempJavaMemory() ?
@@ -279,6 +368,10 @@ public abstract class AbstractPlanePyramidSource implements PlanePyramidSource {
                     }
                     LOG.log(System.Logger.Level.TRACE, AbstractPlanePyramidSource.class.getSimpleName()
                             + " created result " + result);
+                    if (readyElements > 0) {
+                        // - all previous tiles were constant
+                        result.array().fill(constantValue);
+                    }
                 }
                 final Matrix<? extends UpdatablePArray> subMatrix = result.subMatrix(
                         0, tileFromX - fromX, tileFromY - fromY,
@@ -293,6 +386,12 @@ public abstract class AbstractPlanePyramidSource implements PlanePyramidSource {
                 readyElements += m.size();
             }
         }
+        if (result == null) {
+            // - all tiles were constant with the same value: no reasons to allocate memory
+            assert readyElements == totalElements;
+            return Matrices.constantMatrix(constantValue, Arrays.type(PArray.class, constantElementType),
+                    bandCount, toX - fromX, toY - fromY);
+        }
         return result;
     }
 
@@ -344,6 +443,7 @@ public abstract class AbstractPlanePyramidSource implements PlanePyramidSource {
             if (tileCacheContainer.get() != null) {
                 LOG.log(System.Logger.Level.DEBUG, () ->
                         AbstractPlanePyramidSource.class.getSimpleName() + " is freeing tile cache");
+                tileCacheContainer.get().unregister();
                 tileCacheContainer.set(null);
             }
         }
@@ -364,6 +464,30 @@ public abstract class AbstractPlanePyramidSource implements PlanePyramidSource {
         return Matrices.constantMatrix(filler, arrayType, bandCount(), dimX, dimY);
     }
 
+    /**
+     * Returns <code>false</code> if the given area at the given level surely does not contain actual data,
+     * so that its content is the {@link #constantMatrixSkippingFiller constant filler}.
+     * In this case, {@link #readSubMatrix} returns such constant matrix without calling
+     * {@link #readLittleSubMatrix}: there is no sense to read and decode the background.
+     *
+     * <p>This implementation returns <code>true</code> if {@link #isSkipCoarseData()} is not set
+     * or {@link #isElementTypeSupported()} returns <code>false</code>.
+     * In other case, it checks whether the area intersects some of {@link #zeroLevelActualRectangles()},
+     * scaled to this level (if they are supported). Sources, which draw something outside the actual
+     * rectangles even while skipping coarse data (like borders), should override this method.
+     *
+     * @param resolutionLevel the level of the pyramid.
+     * @param area            some area at this level.
+     * @return whether this area may contain some actual data.
+     */
+    protected boolean containsActualData(int resolutionLevel, IRectangularArea area) {
+        if (!isSkipCoarseData() || !isElementTypeSupported()) {
+            return true;
+        }
+        final List<IRectangularArea> rectangles = PlanePyramidTools.actualRectanglesAtLevel(this, resolutionLevel);
+        return rectangles == null || PlanePyramidTools.intersectsSomeRectangle(rectangles, area);
+    }
+
     public final boolean isTileCachingEnabled() {
         return tileCacheDirection != null;
     }
@@ -411,6 +535,25 @@ public abstract class AbstractPlanePyramidSource implements PlanePyramidSource {
         this.tileCachingMemory = tileCachingMemory;
     }
 
+    /**
+     * Returns the flag, enabling reading tiles ahead of the scanning when {@link #isTileCachingEnabled()}.
+     * If it is set, after every call of {@link #readSubMatrix} this class predicts the next area to read,
+     * on the base of the motion between the last requests (along rows or columns, possibly by snake),
+     * and loads the tiles of that area into the cache in a background thread.
+     *
+     * <p>The initial value is retrieved from the system property
+     * "<code>net.algart.maps.pyramids.io.tileReadahead</code>"; by default it is <code>false</code>.
+     *
+     * @return whether the tiles should be read ahead of the scanning.
+     */
+    public final boolean isTileReadahead() {
+        return tileReadahead;
+    }
+
+    public final void setTileReadahead(boolean tileReadahead) {
+        this.tileReadahead = tileReadahead;
+    }
+
     public final RotatingPlanePyramidSource.RotationMode getLabelRotation() {
         return labelRotation;
     }
@@ -613,31 +756,117 @@ public abstract class AbstractPlanePyramidSource implements PlanePyramidSource {
         }
         Matrix<? extends PArray> tileData;
         synchronized (tileCacheContainer) {
-            if (tileCacheContainer.get() == null) {
-                tileCacheContainer.set(new TileCache(readingTileDim(), tileCachingMemory));
-            }
-            tileData = tileCacheContainer.get().getTile(resolutionLevel, containingTile);
+            final TileCache tileCache = tileCache();
+            tileData = tileCache.getTile(resolutionLevel, containingTile);
             if (tileData == null) {
-                tileData = callAndCheckReadLittleSubMatrix(
-                        resolutionLevel,
-                        containingTile.min(0),
-                        containingTile.min(1),
-                        containingTile.max(0) + 1,
-                        containingTile.max(1) + 1);
-                if (!(SimpleMemoryModel.isSimpleArray(tileData.array()) || Arrays.isNCopies(tileData.array()))) {
-                    tileData = tileData.matrix(tileData.array().updatableClone(Arrays.SMM));
-                }
-                tileCacheContainer.get().putTile(resolutionLevel, containingTile, tileData);
+                tileData = readTileForCache(resolutionLevel, containingTile);
+                tileCache.putTile(resolutionLevel, containingTile, tileData);
             }
         }
+        if (Arrays.isNCopies(tileData.array())) {
+            // - submatrix of a constant matrix is not always recognized as constant
+            return Matrices.constantMatrix(tileData.array().getDouble(0),
+                    Arrays.type(PArray.class, tileData.elementType()), tileData.dim(0), toX - fromX, toY - fromY);
+        }
         return tileData.subMatrix(
                 0, fromX - containingTile.min(0), fromY - containingTile.min(1),
                 tileData.dim(0), toX - containingTile.min(0), toY - containingTile.min(1));
     }
 
+    private TileCache tileCache() {
+        assert Thread.holdsLock(tileCacheContainer);
+        if (tileCacheContainer.get() == null) {
+            tileCacheContainer.set(new TileCache(readingTileDim(), tileCachingMemory));
+        }
+        return tileCacheContainer.get();
+    }
+
+    private Matrix<? extends PArray> readTileForCache(int resolutionLevel, IRectangularArea tile) {
+        Matrix<? extends PArray> result = callAndCheckReadLittleSubMatrix(
+                resolutionLevel, tile.min(0), tile.min(1), tile.max(0) + 1, tile.max(1) + 1);
+        if (!(SimpleMemoryModel.isSimpleArray(result.array()) || Arrays.isNCopies(result.array()))) {
+            result = result.matrix(result.array().updatableClone(Arrays.SMM));
+        }
+        return result;
+    }
+
+    private void startReadahead(int resolutionLevel, long[] dimensions, TileDirection direction) {
+        final TileCache tileCache;
+        final long generation;
+        final List<IRectangularArea> tiles = new ArrayList<>();
+        synchronized (tileCacheContainer) {
+            tileCache = tileCacheContainer.get();
+            if (tileCache == null || tileCache.readaheadInProgress) {
+                return;
+            }
+            final IRectangularArea next = tileCache.predictNextArea(dimensions[1], dimensions[2]);
+            if (next == null) {
+                return;
+            }
+            final int readingTileDim = readingTileDim();
+            IRectangularArea leftTile;
+            for (long y = next.minY(); y <= next.maxY(); y = leftTile.maxY() + 1) {
+                leftTile = direction.findTile(readingTileDim, dimensions[1], dimensions[2], next.minX(), y);
+                IRectangularArea tile;
+                for (long x = next.minX(); x <= next.maxX(); x = tile.maxX() + 1) {
+                    tile = direction.findTile(readingTileDim, dimensions[1], dimensions[2], x, y);
+                    if (!tileCache.containsTile(resolutionLevel, tile)) {
+                        tiles.add(tile);
+                    }
+                }
+            }
+            if (tiles.isEmpty()) {
+                return;
+            }
+            tileCache.readaheadInProgress = true;
+            generation = tileCache.generation;
+        }
+        READAHEAD_SERVICE.execute(() -> {
+            try {
+                for (IRectangularArea tile : tiles) {
+                    synchronized (tileCacheContainer) {
+                        if (tileCacheContainer.get() != tileCache || tileCache.generation != generation
+                                || !tileCache.hasSpaceForReadahead()) {
+                            // - the cache was freed, the scanning went further or there is no free space
+                            return;
+                        }
+                        if (tileCache.containsTile(resolutionLevel, tile)) {
+                            continue;
+                        }
+                    }
+                    final Matrix<? extends PArray> tileData = readTileForCache(resolutionLevel, tile);
+                    // - outside the synchronization: usual reading should not wait for decoding tiles ahead
+                    synchronized (tileCacheContainer) {
+                        if (tileCacheContainer.get() != tileCache || tileCache.generation != generation) {
+                            return;
+                        }
+                        if (!tileCache.containsTile(resolutionLevel, tile)) {
+                            tileCache.putTile(resolutionLevel, tile, tileData);
+                        }
+                    }
+                }
+            } catch (RuntimeException | IOError e) {
+                LOG.log(System.Logger.Level.DEBUG, () -> AbstractPlanePyramidSource.class.getSimpleName()
+                        + " cannot read tiles ahead: " + e);
+                // - not a problem: this tile will be read (and the error will be reported) in usual way
+            } finally {
+                synchronized (tileCacheContainer) {
+                    tileCache.readaheadInProgress = false;
+                }
+            }
+        });
+    }
+
     private Matrix<? extends PArray> callAndCheckReadLittleSubMatrix(
             int resolutionLevel, long fromX, long fromY, long toX, long toY)
             throws NoSuchElementException, NotYetConnectedException {
+        if (fromX < toX && fromY < toY
+                && !containsActualData(resolutionLevel, IRectangularArea.of(fromX, fromY, toX - 1, toY - 1))) {
+            LOG.log(System.Logger.Level.TRACE, () -> String.format(
+                    "%s skips reading (level %d) %d..%d x %d..%d: no actual data",
+                    AbstractPlanePyramidSource.class.getSimpleName(), resolutionLevel, fromX, toX, fromY, toY));
+            return constantMatrixSkippingFiller(elementType(), toX - fromX, toY - fromY);
+        }
         long t1 = System.nanoTime();
         final Matrix<? extends PArray> m = readLittleSubMatrix(resolutionLevel, fromX, fromY, toX, toY);
         long t2 = System.nanoTime();
@@ -655,7 +884,7 @@ public abstract class AbstractPlanePyramidSource implements PlanePyramidSource {
                 (t2 - t1) * 1e-6, Matrices.sizeOf(m) / 1048576.0 / ((t2 - t1) * 1e-9), averageSpeed,
                 super.getClass().getSimpleName()
         ));
-        return m;
+        return DETECT_CONSTANT_TILES ? PlanePyramidTools.asNCopiesIfConstant(m) : m;
     }
 
     private Matrix<? extends PArray> rotateLabelImage(final Matrix<? extends PArray> label) {
@@ -871,23 +1100,55 @@ public abstract class AbstractPlanePyramidSource implements PlanePyramidSource {
     }
 
     private static class TileCache {
-        final int tileDim;
-        final long tileCachingMemory;
-        final TileCacheHashMap tileCacheHashMap;
+        private static final int NUMBER_OF_PRIORITIES = 3;
 
+        final int tileDim;
+        final Map<TileCacheIndex, CachedTile> tiles = new HashMap<>();
+        final List<LinkedHashSet<TileCacheIndex>> lruByPriority = new ArrayList<>();
+        // - every tile is contained in the set, corresponding to its eviction priority, calculated
+        // at the last access (it can become obsolete, see refreshPriorities); every set is ordered
+        // by the time of the last access, so, the eldest tile is the first one
+        final CachingMemoryGovernor.Account account;
+        long usedMemory = 0;
+
+        // Scanning state, detected by the sequence of requested areas:
+        TileDirection direction = null;
+        int lastLevel = -1;
+        IRectangularArea lastArea = null;
+        IRectangularArea seriesStart = null;
+        // - the first area in the current series (row or column)
+        int scanningAxis = -1;
+        // - 0 (along x, i.e. by rows), 1 (along y, i.e. by columns) or -1 (unknown)
+        int scanningSign = 0;
+        // - +1 or -1: direction of the motion along scanningAxis
+        boolean snake = false;
+        long generation = 0;
+        boolean readaheadInProgress = false;
+
+        // Note: all methods must be called while synchronization by the lock (tileCacheContainer)
         private TileCache(int tileDim, long tileCachingMemory) {
             this.tileDim = tileDim;
-            this.tileCachingMemory = tileCachingMemory;
-            this.tileCacheHashMap = new TileCacheHashMap();
+            for (int k = 0; k < NUMBER_OF_PRIORITIES; k++) {
+                lruByPriority.add(new LinkedHashSet<>());
+            }
+            this.account = CachingMemoryGovernor.getInstance().register(
+                    "tile cache " + tileDim + "x" + tileDim, tileCachingMemory, this::setMemoryLimit);
             LOG.log(System.Logger.Level.DEBUG, () -> String.format(Locale.US,
                     AbstractPlanePyramidSource.class.getSimpleName()
-                            + " is creating tile cache for tiles %dx%d, memory limit %.2f MB",
-                    tileDim, tileDim, tileCachingMemory / 1048576.0
+                            + " is creating tile cache for tiles %dx%d, memory limit %.2f MB (requested %.2f MB)",
+                    tileDim, tileDim, account.memoryLimit() / 1048576.0, tileCachingMemory / 1048576.0
             ));
         }
 
         Matrix<? extends PArray> getTile(int resolutionLevel, IRectangularArea tile) {
-            Matrix<? extends PArray> result = tileCacheHashMap.get(new TileCacheIndex(resolutionLevel, tile));
+            final TileCacheIndex index = new TileCacheIndex(resolutionLevel, tile);
+            final CachedTile cached = tiles.get(index);
+            if (cached != null) {
+                setPriority(index, cached, evictionPriority(index));
+                // - moves the tile to the end of the LRU order
+            }
+            final Matrix<? extends PArray> result = cached == null ? null : cached.matrix;
+            account.access(result != null);
             LOG.log(System.Logger.Level.DEBUG, () -> String.format(
                     "  " + AbstractPlanePyramidSource.class.getSimpleName()
                             + " has " + (result != null ? "loaded data from the cache" : "NOT FOUND data in the cache")
@@ -898,39 +1159,201 @@ public abstract class AbstractPlanePyramidSource implements PlanePyramidSource {
         }
 
         void putTile(int resolutionLevel, IRectangularArea tile, Matrix<? extends PArray> matrix) {
-            Matrix<? extends PArray> prev = tileCacheHashMap.put(new TileCacheIndex(resolutionLevel, tile), matrix);
-            if (prev == null) {
+            final TileCacheIndex index = new TileCacheIndex(resolutionLevel, tile);
+            final CachedTile cached = new CachedTile(matrix, evictionPriority(index));
+            usedMemory += tileMemory(matrix);
+            final CachedTile prev = tiles.put(index, cached);
+            if (prev != null) {
+                usedMemory -= tileMemory(prev.matrix);
+                lruByPriority.get(prev.priority).remove(index);
+            } else {
                 LOG.log(System.Logger.Level.TRACE, () -> String.format(
                         "  " + AbstractPlanePyramidSource.class.getSimpleName()
                                 + " has stored data in the cache (level %d): %s",
                         resolutionLevel, tile
                 ));
             }
+            lruByPriority.get(cached.priority).add(index);
+            removeEldestEntries(index);
+        }
+
+        boolean containsTile(int resolutionLevel, IRectangularArea tile) {
+            return tiles.containsKey(new TileCacheIndex(resolutionLevel, tile));
+            // - unlike get(), does not change the order of access
+        }
+
+        void unregister() {
+            CachingMemoryGovernor.getInstance().unregister(account);
+        }
+
+        void noteRequest(int resolutionLevel, IRectangularArea area, TileDirection direction) {
+            generation++;
+            if (resolutionLevel != lastLevel || direction != this.direction) {
+                scanningAxis = -1;
+                snake = false;
+                seriesStart = area;
+            } else if (!area.equals(lastArea)) {
+                final long dx = area.minX() - lastArea.minX();
+                final long dy = area.minY() - lastArea.minY();
+                if (dy == 0 || dx == 0) {
+                    final int axis = dy == 0 ? 0 : 1;
+                    final int sign = Long.signum(dy == 0 ? dx : dy);
+                    final int directionSign = axis == 0 ? direction.directionX() : direction.directionY();
+                    if (scanningAxis == 1 - axis && sign == directionSign) {
+                        // - step to the next series in the same place: scanning by snake
+                        scanningSign = -scanningSign;
+                        snake = true;
+                        seriesStart = area;
+                    } else {
+                        scanningAxis = axis;
+                        scanningSign = sign;
+                    }
+                } else {
+                    // - jump to the beginning of the next series (or random access)
+                    snake = false;
+                    seriesStart = area;
+                }
+            }
+            this.direction = direction;
+            this.lastLevel = resolutionLevel;
+            this.lastArea = area;
         }
 
-        private class TileCacheHashMap extends LinkedHashMap<TileCacheIndex, Matrix<? extends PArray>> {
-            private TileCacheHashMap() {
-                super(16, 0.75f, true);
+        // Reading ahead must not evict tiles, which will be probably requested again
+        boolean hasSpaceForReadahead() {
+            if (usedMemory < account.memoryLimit()) {
+                return true;
             }
+            refreshPriorities();
+            return !lruByPriority.get(0).isEmpty() || !lruByPriority.get(1).isEmpty();
+        }
 
-            @Override
-            protected boolean removeEldestEntry(Map.Entry<TileCacheIndex, Matrix<? extends PArray>> eldest) {
-                boolean result = usedMemory() > tileCachingMemory;
-                if (result) {
-                    LOG.log(System.Logger.Level.DEBUG, () -> AbstractPlanePyramidSource.class.getSimpleName()
-                            + " will remove the eldest entry from the cache");
+        // Returns the area, which will be probably requested next, or null if it cannot be predicted
+        IRectangularArea predictNextArea(long dimX, long dimY) {
+            if (scanningAxis < 0) {
+                return null;
+            }
+            final int a = scanningAxis;
+            final int b = 1 - a;
+            final long[] dims = {dimX, dimY};
+            final int secondarySign = b == 0 ? direction.directionX() : direction.directionY();
+            IRectangularArea result = shift(lastArea, a, scanningSign * lastArea.size(a));
+            if (result.max(a) < 0 || result.min(a) >= dims[a]) {
+                // - end of the series
+                result = shift(snake ? lastArea : seriesStart, b, secondarySign * lastArea.size(b));
+            }
+            return result.intersection(IRectangularArea.of(0, 0, dimX - 1, dimY - 1));
+        }
+
+        // Eviction priority: 0 - tiles, which were already passed by the scanning; 1 - tiles, passed in
+        // the current series and not needed for the next one, or unknown case; 2 - tiles, which will be probably
+        // requested again (the current area, the tiles ahead and the band, shared with the next series)
+        private int evictionPriority(TileCacheIndex index) {
+            if (scanningAxis < 0 || index.resolutionLevel != lastLevel) {
+                return 1;
+            }
+            final IRectangularArea tile = index.tile;
+            final IRectangularArea area = lastArea;
+            final int a = scanningAxis;
+            final int b = 1 - a;
+            final int secondarySign = b == 0 ? direction.directionX() : direction.directionY();
+            if (secondarySign > 0 ? tile.max(b) < area.min(b) : tile.min(b) > area.max(b)) {
+                return 0;
+            }
+            final boolean behind = scanningSign > 0 ? tile.max(a) < area.min(a) : tile.min(a) > area.max(a);
+            final boolean neededForNextSeries = secondarySign > 0 ?
+                    tile.max(b) > area.max(b) :
+                    tile.min(b) < area.min(b);
+            return behind && !neededForNextSeries ? 1 : 2;
+        }
+
+        private static IRectangularArea shift(IRectangularArea area, int coordIndex, long shift) {
+            return coordIndex == 0 ?
+                    IRectangularArea.of(area.minX() + shift, area.minY(), area.maxX() + shift, area.maxY()) :
+                    IRectangularArea.of(area.minX(), area.minY() + shift, area.maxX(), area.maxY() + shift);
+        }
+
+        // Called by the governor; must not block (the governor may be called while locking another cache),
+        // so the new limit, stored in the account, is applied by the next putTile
+        private void setMemoryLimit(long memoryLimit) {
+            LOG.log(System.Logger.Level.DEBUG, () -> String.format(Locale.US,
+                    AbstractPlanePyramidSource.class.getSimpleName()
+                            + " has changed tile cache memory limit to %.2f MB", memoryLimit / 1048576.0));
+        }
+
+        // Removes tiles while the used memory exceeds the limit, but leaves the just added tile.
+        // Tiles with less eviction priority are removed first, in the order of the least recent usage.
+        private void removeEldestEntries(TileCacheIndex justAdded) {
+            final long memoryLimit = account.memoryLimit();
+            if (usedMemory > memoryLimit) {
+                refreshPriorities();
+            }
+            while (usedMemory > memoryLimit && tiles.size() > 1) {
+                TileCacheIndex victim = null;
+                int victimPriority = -1;
+                for (int p = 0; p < NUMBER_OF_PRIORITIES && victim == null; p++) {
+                    for (TileCacheIndex index : lruByPriority.get(p)) {
+                        if (!index.equals(justAdded)) {
+                            victim = index;
+                            victimPriority = p;
+                            break;
+                        }
+                        // - the just added tile is the last in its set: the loop is not continued
+                    }
                 }
-                return result;
+                assert victim != null;
+                final int actualPriority = evictionPriority(victim);
+                if (actualPriority > victimPriority) {
+                    // - the priority became greater after the last access: the tile will be probably requested
+                    setPriority(victim, tiles.get(victim), actualPriority);
+                    continue;
+                }
+                lruByPriority.get(victimPriority).remove(victim);
+                usedMemory -= tileMemory(tiles.remove(victim).matrix);
+                final int priority = victimPriority;
+                LOG.log(System.Logger.Level.DEBUG, () -> AbstractPlanePyramidSource.class.getSimpleName()
+                        + " has removed an entry with eviction priority " + priority + " from the cache");
             }
+            account.setUsedMemory(usedMemory);
+        }
 
-            private double usedMemory() {
-                double sum = 0.0;
-                for (Matrix<? extends PArray> m : values()) {
-                    sum += Matrices.sizeOf(m);
+        // While scanning, tiles are passed in the order of access, so the tiles, which were passed
+        // (and the priority of which became less), are the eldest in their sets: it is enough to check
+        // the beginning of every set. Every check either stops the loop or moves the tile to a lower set,
+        // so, the amortized time is O(1) per access.
+        private void refreshPriorities() {
+            for (int p = NUMBER_OF_PRIORITIES - 1; p > 0; p--) {
+                final LinkedHashSet<TileCacheIndex> set = lruByPriority.get(p);
+                while (!set.isEmpty()) {
+                    final TileCacheIndex eldest = set.iterator().next();
+                    final int actualPriority = evictionPriority(eldest);
+                    if (actualPriority >= p) {
+                        break;
+                    }
+                    setPriority(eldest, tiles.get(eldest), actualPriority);
                 }
-                return sum;
             }
         }
+
+        private void setPriority(TileCacheIndex index, CachedTile cached, int priority) {
+            lruByPriority.get(cached.priority).remove(index);
+            cached.priority = priority;
+            lruByPriority.get(priority).add(index);
+        }
+
+        private static final class CachedTile {
+            final Matrix<? extends PArray> matrix;
+            int priority;
+
+            private CachedTile(Matrix<? extends PArray> matrix, int priority) {
+                this.matrix = matrix;
+                this.priority = priority;
+            }
+        }
+
+        private static long tileMemory(Matrix<? extends PArray> m) {
+            return Arrays.isNCopies(m.array()) ? CONSTANT_TILE_CACHING_MEMORY : Matrices.sizeOf(m);
+        }
     }
 
     private static class SpeedInfo {
@@ -0,0 +1,379 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2017-2026 Daniel Alievsky, AlgART Laboratory (http://algart.net)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package net.algart.maps.pyramids.io.api;
+
+import net.algart.arrays.Arrays;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongConsumer;
+import java.util.stream.Collectors;
+
+/**
+ * Global budget of memory for all caches in this JVM: tile caches of {@link AbstractPlanePyramidSource},
+ * map buffers and so on.
+ *
+ * <p>Every cache registers an {@link Account} here. <i>Adjustable</i> accounts (like tile caches) receive
+ * a memory limit, which is periodically recalculated: the total budget minus the memory, used by
+ * non-adjustable accounts, is distributed among adjustable ones in proportion to their recency and hit rate,
+ * but never more than the memory, requested by the cache itself.
+ * <i>Non-adjustable</i> accounts (like map buffers, the size of which is determined by the algorithm)
+ * only report the used memory; this memory is subtracted from the budget.
+ *
+ * <p>The total budget is retrieved from the system property
+ * "<code>net.algart.maps.pyramids.io.totalCachingMemory</code>"; by default it is 0.
+ * Zero or negative value disables governing: every cache uses the memory, requested by it
+ * (as without the governor), but the usage is still available via {@link #usage()}.
+ *
+ * <p>This class is thread-safe.
+ */
+public final class CachingMemoryGovernor {
+    private static final long TOTAL_CACHING_MEMORY = Arrays.SystemSettings.getLongProperty(
+            "net.algart.maps.pyramids.io.totalCachingMemory", 0);
+    // - disabled by default: the limits of the caches are reduced only if the user requested it
+    private static final long MIN_MEMORY_LIMIT = 4 * 1048576;
+    // - every adjustable cache may use at least 4 MB (or less, if it requests less)
+    private static final long REBALANCING_INTERVAL = 200_000_000L;
+    // - 0.2 sec in nanoseconds
+    private static final double RECENCY_HALF_LIFE = 10e9;
+    // - the weight of a cache, not accessed during 10 sec, is reduced twice
+    private static final double MIN_HIT_RATE = 0.1;
+    // - new caches without statistics must not be ignored
+
+    private static final System.Logger LOG = System.getLogger(CachingMemoryGovernor.class.getName());
+
+    private static final CachingMemoryGovernor INSTANCE = new CachingMemoryGovernor(TOTAL_CACHING_MEMORY);
+
+    /**
+     * Memory account of some cache. All methods, except {@link #memoryLimit()}, should be called
+     * while synchronization of the cache itself.
+     */
+    public static final class Account {
+        private final String name;
+        private final LongConsumer limitSetter;
+        private volatile long requestedMemory;
+        private volatile long usedMemory = 0;
+        private volatile long memoryLimit;
+        private volatile long lastAccessTime = System.nanoTime();
+        private final AtomicLong hits = new AtomicLong();
+        private final AtomicLong misses = new AtomicLong();
+
+        private Account(String name, long requestedMemory, LongConsumer limitSetter) {
+            this.name = name;
+            this.requestedMemory = requestedMemory;
+            this.memoryLimit = requestedMemory;
+            this.limitSetter = limitSetter;
+        }
+
+        public String name() {
+            return name;
+        }
+
+        public boolean isAdjustable() {
+            return limitSetter != null;
+        }
+
+        public long memoryLimit() {
+            return memoryLimit;
+        }
+
+        public void setRequestedMemory(long requestedMemory) {
+            if (requestedMemory < 0) {
+                throw new IllegalArgumentException("Negative requested memory");
+            }
+            this.requestedMemory = requestedMemory;
+        }
+
+        public void setUsedMemory(long usedMemory) {
+            this.usedMemory = usedMemory;
+            this.lastAccessTime = System.nanoTime();
+        }
+
+        public void access(boolean hit) {
+            (hit ? hits : misses).incrementAndGet();
+            this.lastAccessTime = System.nanoTime();
+        }
+
+        public double hitRate() {
+            final long hits = this.hits.get();
+            final long total = hits + misses.get();
+            return total == 0 ? 0.0 : (double) hits / (double) total;
+        }
+
+        private double weight(long currentTime) {
+            final double age = Math.max(0, currentTime - lastAccessTime);
+            return Math.pow(0.5, age / RECENCY_HALF_LIFE) * Math.max(MIN_HIT_RATE, hitRate());
+        }
+
+        private void decayStatistics() {
+            hits.updateAndGet(v -> v >> 1);
+            misses.updateAndGet(v -> v >> 1);
+            // - so, the hit rate describes mostly the recent behaviour
+        }
+
+        @Override
+        public String toString() {
+            return new Usage(this).toString();
+        }
+    }
+
+    /**
+     * Snapshot of the memory usage of one account.
+     */
+    public static final class Usage {
+        private final String name;
+        private final boolean adjustable;
+        private final long usedMemory;
+        private final long memoryLimit;
+        private final double hitRate;
+
+        private Usage(Account account) {
+            this.name = account.name;
+            this.adjustable = account.isAdjustable();
+            this.usedMemory = account.usedMemory;
+            this.memoryLimit = adjustable ? account.memoryLimit : account.usedMemory;
+            this.hitRate = account.hitRate();
+        }
+
+        public String name() {
+            return name;
+        }
+
+        public boolean isAdjustable() {
+            return adjustable;
+        }
+
+        public long usedMemory() {
+            return usedMemory;
+        }
+
+        public long memoryLimit() {
+            return memoryLimit;
+        }
+
+        public double hitRate() {
+            return hitRate;
+        }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.US, "%s: %.2f/%.2f MB, hit rate %.3f",
+                    name, usedMemory / 1048576.0, memoryLimit / 1048576.0, hitRate);
+        }
+    }
+
+    private final long totalMemory;
+    private final List<WeakReference<Account>> accounts = new ArrayList<>();
+    private volatile long lastRebalancingTime = System.nanoTime();
+    private volatile boolean rebalancingRequested = false;
+
+    public CachingMemoryGovernor(long totalMemory) {
+        this.totalMemory = totalMemory;
+    }
+
+    public static CachingMemoryGovernor getInstance() {
+        return INSTANCE;
+    }
+
+    public long totalMemory() {
+        return totalMemory;
+    }
+
+    public boolean isEnabled() {
+        return totalMemory > 0;
+    }
+
+    /**
+     * Registers new cache.
+     * The governor stores only a weak reference to the result: the account is automatically unregistered,
+     * when it becomes unreachable, for example, together with the cache.
+     *
+     * @param name            name of the cache (for logging and {@link #usage()}).
+     * @param requestedMemory maximal memory, which the cache would like to use.
+     * @param limitSetter     the function, which should be called to change the memory limit of the cache;
+     *                        <code>null</code> for non-adjustable caches.
+     *                        It is called outside any synchronization of the governor and should not block:
+     *                        it is enough to remember the new limit (it is also available via
+     *                        {@link Account#memoryLimit()}) and to apply it at the next access to the cache.
+     * @return new account.
+     */
+    public Account register(String name, long requestedMemory, LongConsumer limitSetter) {
+        Objects.requireNonNull(name, "Null name");
+        if (requestedMemory < 0) {
+            throw new IllegalArgumentException("Negative requested memory");
+        }
+        final Account result = new Account(name, requestedMemory, limitSetter);
+        synchronized (accounts) {
+            if (isEnabled() && limitSetter != null) {
+                final long free = totalMemory - totalUsedMemory();
+                result.memoryLimit = Math.min(requestedMemory, Math.max(MIN_MEMORY_LIMIT, free));
+                // - until the next rebalancing
+            }
+            accounts.add(new WeakReference<>(result));
+        }
+        rebalancingRequested = true;
+        return result;
+    }
+
+    public void unregister(Account account) {
+        Objects.requireNonNull(account, "Null account");
+        synchronized (accounts) {
+            accounts.removeIf(reference -> {
+                final Account a = reference.get();
+                return a == null || a == account;
+            });
+        }
+        rebalancingRequested = true;
+    }
+
+    /**
+     * Rebalances the limits, if it was not performed for a long time or if the set of accounts was changed.
+     * This method should be called from time to time by the caches, but outside their synchronization,
+     * to avoid deadlocks. It works quickly if rebalancing is not necessary.
+     */
+    public void rebalanceIfNecessary() {
+        if (rebalancingRequested || System.nanoTime() - lastRebalancingTime >= REBALANCING_INTERVAL) {
+            rebalance();
+        }
+    }
+
+    public void rebalance() {
+        final List<Account> adjustable = new ArrayList<>();
+        final List<Account> changed = new ArrayList<>();
+        synchronized (accounts) {
+            rebalancingRequested = false;
+            final long currentTime = System.nanoTime();
+            lastRebalancingTime = currentTime;
+            if (!isEnabled()) {
+                return;
+            }
+            long available = totalMemory;
+            for (Account account : actualAccounts()) {
+                if (account.isAdjustable()) {
+                    adjustable.add(account);
+                } else {
+                    available -= account.usedMemory;
+                }
+            }
+            final long[] limits = distribute(adjustable, Math.max(0, available), currentTime);
+            adjustable.forEach(Account::decayStatistics);
+            for (int k = 0, n = adjustable.size(); k < n; k++) {
+                final Account account = adjustable.get(k);
+                if (limits[k] != account.memoryLimit) {
+                    account.memoryLimit = limits[k];
+                    changed.add(account);
+                }
+            }
+        }
+        for (Account account : changed) {
+            account.limitSetter.accept(account.memoryLimit);
+            // - outside synchronization (see register); if the limit was changed again by a parallel
+            // rebalancing, the setter receives the latest value
+        }
+        LOG.log(System.Logger.Level.DEBUG, () -> "Caching memory rebalanced: " + this);
+    }
+
+    public long totalUsedMemory() {
+        synchronized (accounts) {
+            return actualAccounts().stream().mapToLong(a -> a.usedMemory).sum();
+        }
+    }
+
+    public List<Usage> usage() {
+        synchronized (accounts) {
+            return actualAccounts().stream().map(Usage::new).collect(Collectors.toList());
+        }
+    }
+
+    @Override
+    public String toString() {
+        final List<Usage> usage = usage();
+        return String.format(Locale.US, "caching memory governor: %d caches use %.2f MB%s",
+                usage.size(), usage.stream().mapToLong(Usage::usedMemory).sum() / 1048576.0,
+                isEnabled() ? String.format(Locale.US, " from %.2f MB", totalMemory / 1048576.0) : " (disabled)");
+    }
+
+    // Water-filling: every account receives its part of the available memory in proportion to its weight,
+    // but not more than requested; the excess is distributed among other accounts.
+    static long[] distribute(List<Account> accounts, long available, long currentTime) {
+        final int n = accounts.size();
+        final long[] limits = new long[n];
+        final double[] weights = new double[n];
+        final boolean[] saturated = new boolean[n];
+        for (int k = 0; k < n; k++) {
+            final Account account = accounts.get(k);
+            limits[k] = Math.min(account.requestedMemory, MIN_MEMORY_LIMIT);
+            available -= limits[k];
+            weights[k] = account.weight(currentTime);
+            saturated[k] = limits[k] >= account.requestedMemory;
+        }
+        while (available > 0) {
+            double totalWeight = 0.0;
+            for (int k = 0; k < n; k++) {
+                if (!saturated[k]) {
+                    totalWeight += weights[k];
+                }
+            }
+            if (totalWeight == 0.0) {
+                break;
+            }
+            long distributed = 0;
+            for (int k = 0; k < n; k++) {
+                if (!saturated[k]) {
+                    final long requested = accounts.get(k).requestedMemory;
+                    final long part = Math.min((long) (available * (weights[k] / totalWeight)),
+                            requested - limits[k]);
+                    limits[k] += part;
+                    distributed += part;
+                    saturated[k] = limits[k] >= requested;
+                }
+            }
+            if (distributed == 0) {
+                break;
+            }
+            available -= distributed;
+        }
+        return limits;
+    }
+
+    private List<Account> actualAccounts() {
+        assert Thread.holdsLock(accounts);
+        final List<Account> result = new ArrayList<>();
+        for (Iterator<WeakReference<Account>> iterator = accounts.iterator(); iterator.hasNext(); ) {
+            final Account account = iterator.next().get();
+            if (account == null) {
+                iterator.remove();
+            } else {
+                result.add(account);
+            }
+        }
+        return result;
+    }
+}
@@ -435,6 +435,24 @@ public interface PlanePyramidSource {
         return null;
     }
 
+    /**
+     * Reads the specified rectangle <code>fromX..toX-1 x fromY..toY-1</code> at the given resolution level.
+     *
+     * <p>The result must be considered <b>read-only</b>. It is not necessarily a fresh matrix:
+     * it may be a view of data, shared with this source or its tile cache (like in
+     * {@link DefaultPlanePyramidSource}), and {@link AbstractPlanePyramidSource} returns
+     * a constant matrix, created by {@link Matrices#constantMatrix}, for uniform areas,
+     * for example, for background and missing tiles.
+     * If you need to modify the data, clone it, for example, by
+     * <code>Matrices.clone(result)</code>.</p>
+     *
+     * @param resolutionLevel the index of the resolution level.
+     * @param fromX           starting x-coordinate (inclusive).
+     * @param fromY           starting y-coordinate (inclusive).
+     * @param toX             ending x-coordinate (exclusive).
+     * @param toY             ending y-coordinate (exclusive).
+     * @return 3-dimensional <code>bandCount x (toX-fromX) x (toY-fromY)</code> matrix; must not be modified.
+     */
     Matrix<? extends PArray> readSubMatrix(int resolutionLevel, long fromX, long fromY, long toX, long toY)
             throws NoSuchElementException, NotYetConnectedException;
     // throws if !isResolutionLevelAvailable(resolutionLevel), if !isDataReady()
@@ -444,7 +462,8 @@ public interface PlanePyramidSource {
     }
 
     // Works faster than equivalent readSubMatrix call if possible;
-    // but may work very slowly in compressed implementations
+    // but may work very slowly in compressed implementations;
+    // the result is read-only, like in readSubMatrix
     Matrix<? extends PArray> readFullMatrix(int resolutionLevel)
             throws NoSuchElementException, NotYetConnectedException, UnsupportedOperationException;
     // throws if !isResolutionLevelAvailable(resolutionLevel),
@@ -88,6 +88,19 @@ public interface PlanePyramidSourceFactory extends AutoCloseable {
             String renderingConfiguration)
             throws IOException;
 
+    /**
+     * Returns <code>true</code> if {@link #newPlanePyramidSource newPlanePyramidSource} method
+     * of this factory can be called from several threads simultaneously, for example, to open the next pyramids
+     * in background threads while processing the current one. Note that the created plane pyramid sources
+     * are not required to be thread-safe: every source is used by one thread at the same time.
+     *
+     * <p>Default implementation returns <code>false</code>.
+     *
+     * @return whether creating new sources by this factory is thread-safe.
+     */
+    default boolean isThreadSafe() {
+        return false;
+    }
 
     /**
      * Frees resources, possibly associated with this factory and probably necessary for plane pyramid sources,
@@ -26,6 +26,7 @@ package net.algart.maps.pyramids.io.api;
 
 import net.algart.arrays.Arrays;
 import net.algart.arrays.*;
+import net.algart.math.IRectangularArea;
 import net.algart.math.Range;
 import net.algart.math.functions.AbstractFunc;
 import net.algart.math.functions.ConstantFunc;
@@ -146,6 +147,55 @@ public class PlanePyramidTools {
         return compression == 0 ? PlanePyramidSource.DEFAULT_COMPRESSION : compression;
     }
 
+    /**
+     * Returns {@link PlanePyramidSource#zeroLevelActualRectangles()}, scaled to the given resolution level
+     * and cropped by its dimensions, or <code>null</code> if the source does not support actual rectangles.
+     * Scaled rectangles are expanded by 1 pixel to be on the safe side: every pixel of the level,
+     * which may contain actual data, is covered by some of the resulting rectangles.
+     *
+     * @param source          the source.
+     * @param resolutionLevel the resolution level.
+     * @return actual rectangles at this level or <code>null</code>.
+     */
+    public static List<IRectangularArea> actualRectanglesAtLevel(PlanePyramidSource source, int resolutionLevel) {
+        Objects.requireNonNull(source, "Null source");
+        final List<IRectangularArea> rectangles = source.zeroLevelActualRectangles();
+        if (rectangles == null) {
+            return null;
+        }
+        final long[] zeroLevelDimensions = source.dimensions(0);
+        final long[] dimensions = source.dimensions(resolutionLevel);
+        final long dimX = dimensions[PlanePyramidSource.DIM_WIDTH];
+        final long dimY = dimensions[PlanePyramidSource.DIM_HEIGHT];
+        final List<IRectangularArea> result = new ArrayList<>();
+        if (dimX == 0 || dimY == 0) {
+            return result;
+        }
+        final double scaleX = (double) zeroLevelDimensions[PlanePyramidSource.DIM_WIDTH] / (double) dimX;
+        final double scaleY = (double) zeroLevelDimensions[PlanePyramidSource.DIM_HEIGHT] / (double) dimY;
+        for (IRectangularArea r : rectangles) {
+            final long minX = Math.max(0, (long) Math.floor(r.minX() / scaleX) - 1);
+            final long minY = Math.max(0, (long) Math.floor(r.minY() / scaleY) - 1);
+            final long maxX = Math.min(dimX - 1, (long) Math.ceil((r.maxX() + 1) / scaleX));
+            final long maxY = Math.min(dimY - 1, (long) Math.ceil((r.maxY() + 1) / scaleY));
+            if (minX <= maxX && minY <= maxY) {
+                result.add(IRectangularArea.of(minX, minY, maxX, maxY));
+            }
+        }
+        return result;
+    }
+
+    public static boolean intersectsSomeRectangle(List<IRectangularArea> rectangles, IRectangularArea area) {
+        Objects.requireNonNull(rectangles, "Null rectangles");
+        Objects.requireNonNull(area, "Null area");
+        for (IRectangularArea r : rectangles) {
+            if (r.intersects(area)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     public static List<Matrix<? extends PArray>> equalizePrecisionToTheBest(
             List<? extends Matrix<? extends PArray>> matrices) {
         if (matrices == null) {
@@ -295,6 +345,28 @@ public class PlanePyramidTools {
         }
     }
 
+    /**
+     * Returns a constant matrix (based on <code>Arrays.nXxxCopies</code>), equal to the argument,
+     * if all its elements are equal, or the argument itself in other case.
+     * Typical usage: background tiles of whole-slide images, which require almost no memory in this form
+     * and are copied very quickly.
+     *
+     * <p>This method works quickly for non-constant matrices: it usually stops after checking
+     * several first elements.
+     *
+     * @param m some matrix.
+     * @return constant matrix, equal to <code>m</code>, if possible, or <code>m</code>.
+     */
+    public static Matrix<? extends PArray> asNCopiesIfConstant(Matrix<? extends PArray> m) {
+        Objects.requireNonNull(m, "Null matrix");
+        final PArray array = m.array();
+        if (Arrays.isNCopies(array) || array.length() == 0 || !isConstant(array)) {
+            return m;
+        }
+        return Matrices.constantMatrix(array.getDouble(0), Arrays.type(PArray.class, m.elementType()),
+                m.dimensions());
+    }
+
     public static List<Matrix<? extends PArray>> buildPyramid(Matrix<? extends PArray> matrix) {
         return buildPyramid(matrix, 2);
         // Default compression 2 is suitable for all real formats
@@ -340,6 +412,38 @@ public class PlanePyramidTools {
         return (runtime.totalMemory() - runtime.freeMemory()) / 1048576.0;
     }
 
+    private static boolean isConstant(PArray array) {
+        final long n = array.length();
+        if (array instanceof ByteArray a) {
+            // - the most typical case: quick loop with early exit
+            final byte first = a.getByte(0);
+            final byte[] buffer = new byte[(int) Math.min(n, 8192)];
+            for (long p = 0; p < n; p += buffer.length) {
+                final int len = (int) Math.min(buffer.length, n - p);
+                a.getData(p, buffer, 0, len);
+                for (int k = 0; k < len; k++) {
+                    if (buffer[k] != first) {
+                        return false;
+                    }
+                }
+            }
+            return true;
+        }
+        final double first = array.getDouble(0);
+        final long checkedLength = array instanceof PFixedArray ? Math.min(n, 256) : n;
+        // - for floating-point arrays, rangeOf is not suitable (NaN)
+        for (long k = 1; k < checkedLength; k++) {
+            if (array.getDouble(k) != first) {
+                return false;
+            }
+        }
+        if (checkedLength == n) {
+            return true;
+        }
+        final Range range = Arrays.rangeOf(array);
+        return range.min() == range.max();
+    }
+
     private static long precision(Class<?> elementType) {
         long bits = Arrays.bitsPerElement(elementType);
         return elementType == float.class || elementType == double.class ? bits + 1024 : bits;
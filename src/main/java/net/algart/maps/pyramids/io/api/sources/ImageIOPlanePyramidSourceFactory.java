@@ -45,4 +45,10 @@ public class ImageIOPlanePyramidSourceFactory implements PlanePyramidSourceFacto
                         .setAddAlphaWhenExist(true));
         // This plane pyramid source does not support coarse data (which can be set in renderingConfiguration)
     }
+
+    @Override
+    public boolean isThreadSafe() {
+        return true;
+        // - this factory has no state
+    }
 }
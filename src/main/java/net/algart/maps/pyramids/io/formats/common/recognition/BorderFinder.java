@@ -34,6 +34,8 @@ import net.algart.matrices.morphology.BasicRankMorphology;
 import net.algart.matrices.morphology.ContinuedRankMorphology;
 import net.algart.matrices.morphology.RankPrecision;
 
+import java.util.stream.IntStream;
+
 public class BorderFinder {
 
     private int checkedLengthAlongBorderX = 100;
@@ -52,6 +54,8 @@ public class BorderFinder {
     private long leftTopEstimationX = 0;
     private long leftTopEstimationY = 0;
 
+    private boolean multithreading = true;
+
     private final Matrix<UpdatableByteArray> slide;
     // - this matrix is a simple 2-dimensional grayscale matrix, unlike 3-dimensional matrices from PlanePyramidSource
     private final long dimX;
@@ -218,6 +222,14 @@ public class BorderFinder {
         this.sizeForSearchY = sizeForSearchY;
     }
 
+    public boolean isMultithreading() {
+        return multithreading;
+    }
+
+    public void setMultithreading(boolean multithreading) {
+        this.multithreading = multithreading;
+    }
+
     public void setAllConfigurationFromSystemProperties() {
         String s = System.getProperty(BorderFinder.class.getName() + ".checkedLengthAlongBorderX");
         if (s != null) {
@@ -263,6 +275,10 @@ public class BorderFinder {
         if (s != null) {
             setSizeForSearchY(Integer.parseInt(s));
         }
+        s = System.getProperty(BorderFinder.class.getName() + ".multithreading");
+        if (s != null) {
+            setMultithreading(Boolean.parseBoolean(s));
+        }
     }
 
     // Basic control:
@@ -330,22 +346,42 @@ public class BorderFinder {
         // Note that for an empty matrix we will have minX > maxX or minY > maxY.
         // Also note that we should not search last checkedLengthAtBorderX/Y pixels, in other case
         // the quality will increase to the bottom right corner, because the checked length will decrease.
-        double bestQuality = Double.NaN;
-        long bestX = -1;
-        long bestY = -1;
-        for (long y = minY; y <= maxY; y++) {
+        final int numberOfRows = (int) Math.max(0, maxY - minY + 1);
+        final double[] rowBestQualities = new double[numberOfRows];
+        final long[] rowBestXs = new long[numberOfRows];
+        rows(numberOfRows).forEach(i -> {
+            final long y = minY + i;
+            double rowBestQuality = Double.NaN;
+            long rowBestX = -1;
             for (long x = minX; x <= maxX; x++) {
                 final double q = leftTopQuality(x, y);
                 if (Double.isNaN(q)) {
                     continue;
                 }
-                if (Double.isNaN(bestQuality) || q > bestQuality) {
-                    bestQuality = q;
-                    bestX = x;
-                    bestY = y;
+                if (Double.isNaN(rowBestQuality) || q > rowBestQuality) {
+                    rowBestQuality = q;
+                    rowBestX = x;
                 }
             }
+            rowBestQualities[i] = rowBestQuality;
+            rowBestXs[i] = rowBestX;
+        });
+        double bestQuality = Double.NaN;
+        long bestX = -1;
+        long bestY = -1;
+        for (int i = 0; i < numberOfRows; i++) {
+            final double q = rowBestQualities[i];
+            if (Double.isNaN(q)) {
+                continue;
+            }
+            if (Double.isNaN(bestQuality) || q > bestQuality) {
+                bestQuality = q;
+                bestX = rowBestXs[i];
+                bestY = minY + i;
+            }
         }
+        // - combining rows in the same order as in a simple loop: the first from equal maximums is chosen,
+        // so the result does not depend on multithreading
         this.resultLeftTopQuality = bestQuality;
         this.resultLeftTopX = bestX;
         this.resultLeftTopY = bestY;
@@ -366,7 +402,8 @@ public class BorderFinder {
         final int maxY = (int) Math.min(dimY - 1 - checkedLengthAlongBorderY, leftTopEstimationY + sizeForSearchY / 2);
         byte[] result = new byte[(int) (dimX * dimY)];
         JArrays.fill(result, (byte) 128);
-        for (int y = minY; y <= maxY; y++) {
+        rows(Math.max(0, maxY - minY + 1)).forEach(i -> {
+            final int y = minY + i;
             for (int x = minX; x <= maxX; x++) {
                 final int ofs = y * (int) dimX + x;
                 final double q = leftTopQuality(x, y);
@@ -377,7 +414,7 @@ public class BorderFinder {
                     result[ofs] = (byte) Math.max(0.0, 255.0 + q * multiplier);
                 }
             }
-        }
+        });
         return SimpleMemoryModel.asUpdatableByteArray(result).matrix(dimX, dimY);
     }
 
@@ -413,6 +450,12 @@ public class BorderFinder {
         return averaged != null;
     }
 
+    private IntStream rows(int numberOfRows) {
+        final IntStream result = IntStream.range(0, numberOfRows);
+        return multithreading ? result.parallel() : result;
+        // - leftTopQuality only reads the slide and averaged matrices, so it may be called in parallel
+    }
+
     private double leftTopQuality(long checkedX, long checkedY) {
         assert checkedX >= 0 && checkedX < dimX;
         assert checkedY >= 0 && checkedY < dimY;
@@ -194,20 +194,93 @@ public class SquaresAtObject {
                 squareCount, (t3 - t1) * 1e-6, (t2 - t1) * 1e-6, (t3 - t2) * 1e-6);
     }
 
+    /**
+     * Finds squares with decreasing sizes: every next square is the largest square (with the center
+     * at the pixel, most distant from the background in terms of chessboard distance), that can be
+     * placed at the rest of the object after removing the previous squares (reduced by
+     * {@link #getOverlapOfSquares() overlap}).
+     *
+     * <p>The chessboard distance map is calculated only once; after removing every square, it is corrected
+     * only in the neighbourhood of this square, where the distances can become less.
+     * The results are identical to {@link #findSquaresWithDecreasingSizesByIterativeErosion()}.
+     */
     public void findSquaresWithDecreasingSizes() {
+        final long size = workMatrix.size();
+        final long lineLength = workMatrix.dim(0);
+        if (size > Integer.MAX_VALUE || lineLength == 0) {
+            findSquaresWithDecreasingSizesByIterativeErosion();
+            return;
+        }
         long t1 = System.nanoTime();
+        final int[] dimensions = new int[dimCount];
+        for (int k = 0; k < dimCount; k++) {
+            dimensions[k] = (int) workMatrix.dim(k);
+        }
+        final int[] distances = new int[(int) size];
+        iterativeErosion().result().array().getData(0, distances);
+        final int dimX = dimensions[0];
+        final int[] lineMax = new int[distances.length / dimX];
+        for (int line = 0; line < lineMax.length; line++) {
+            lineMax[line] = max(distances, line * dimX, dimX);
+        }
+        long t2 = System.nanoTime();
         int squareCount = 0;
         for (; squareCount < maxNumberOfSquares; squareCount++) {
             long tt1 = System.nanoTime();
-            final IterativeErosion iterativeErosion = IterativeErosion.getInstance(
-                    BasicMorphology.getInstance(null),
-                    UpdatableIntArray.class,
-                    // 31-bit precision guarangees correct work even for very large matrices;
-                    // in a very improbable case of overflow we just will not able to find the maximum exactly
-                    workMatrix,
-                    Patterns.newRectangularIntegerPattern(
-                            IPoint.ofEqualCoordinates(dimCount, -1),
-                            IPoint.ofEqualCoordinates(dimCount, 1)));
+            int maxLine = 0;
+            for (int line = 1; line < lineMax.length; line++) {
+                if (lineMax[line] > lineMax[maxLine]) {
+                    maxLine = line;
+                }
+            }
+            final int distanceToEdge = lineMax[maxLine];
+            int indexOfMax = maxLine * dimX;
+            while (distances[indexOfMax] != distanceToEdge) {
+                indexOfMax++;
+            }
+            // - the first maximal element, like in Arrays.rangeOf
+            final IPoint center = IPoint.of(workMatrix.coordinates(indexOfMax, null));
+            final IRectangularArea square = IRectangularArea.of(
+                    center.add(IPoint.ofEqualCoordinates(dimCount, -distanceToEdge)),
+                    center.add(IPoint.ofEqualCoordinates(dimCount, distanceToEdge)));
+            final long reducedSide = 2 * (long) distanceToEdge + 1 - overlapOfSquares;
+            long tt2 = System.nanoTime();
+            if (reducedSide <= 1) {
+                debug(System.Logger.Level.TRACE,
+                        "Square #%d/%d not found in %.3f ms", squareCount + 1, maxNumberOfSquares,
+                        (tt2 - tt1) * 1e-6);
+                debug(System.Logger.Level.DEBUG, "Finishing loop: all squares are already found");
+                break;
+            }
+            foundSquares.add(square);
+            final IRectangularArea reducedSquare = IRectangularArea.of(
+                    center.add(IPoint.ofEqualCoordinates(dimCount, -reducedSide / 2)),
+                    center.add(IPoint.ofEqualCoordinates(dimCount, -reducedSide / 2 + reducedSide - 1)));
+            workMatrix.subMatrix(reducedSquare, Matrix.ContinuationMode.NULL_CONSTANT).array().fill(false);
+            removeFromDistances(distances, lineMax, dimensions, reducedSquare, Math.max(distanceToEdge - 1, 0));
+            long tt3 = System.nanoTime();
+            debug(System.Logger.Level.TRACE,
+                    "Square #%d/%d found (%s) in %.3f ms (%.3f finding center + %.3f correcting distances)",
+                    squareCount + 1, maxNumberOfSquares, square,
+                    (tt3 - tt1) * 1e-6, (tt2 - tt1) * 1e-6, (tt3 - tt2) * 1e-6);
+        }
+        long t3 = System.nanoTime();
+        debug(System.Logger.Level.DEBUG,
+                "%d squares found in %.3f ms (%.3f distance map + %.3f search)",
+                squareCount, (t3 - t1) * 1e-6, (t2 - t1) * 1e-6, (t3 - t2) * 1e-6);
+    }
+
+    /**
+     * Reference algorithm for {@link #findSquaresWithDecreasingSizes()}: performs new iterative erosion
+     * of the whole work matrix for every found square. It is much slower, but does not require
+     * an additional <code>int[]</code> array with the size of the matrix.
+     */
+    public void findSquaresWithDecreasingSizesByIterativeErosion() {
+        long t1 = System.nanoTime();
+        int squareCount = 0;
+        for (; squareCount < maxNumberOfSquares; squareCount++) {
+            long tt1 = System.nanoTime();
+            final IterativeErosion iterativeErosion = iterativeErosion();
             long tt2 = System.nanoTime();
             iterativeErosion.process();
             long tt3 = System.nanoTime();
@@ -244,6 +317,88 @@ public class SquaresAtObject {
         debug(System.Logger.Level.DEBUG, "%d squares found in %.3f ms", squareCount, (t2 - t1) * 1e-6);
     }
 
+    private IterativeErosion iterativeErosion() {
+        return IterativeErosion.getInstance(
+                BasicMorphology.getInstance(null),
+                UpdatableIntArray.class,
+                // 31-bit precision guarangees correct work even for very large matrices;
+                // in a very improbable case of overflow we just will not able to find the maximum exactly
+                workMatrix,
+                Patterns.newRectangularIntegerPattern(
+                        IPoint.ofEqualCoordinates(dimCount, -1),
+                        IPoint.ofEqualCoordinates(dimCount, 1)));
+    }
+
+    // Clearing the area R in the work matrix can only decrease the chessboard distance to the background:
+    // new distance is min(old, distance to R). So, we need to correct only points not farther than
+    // maxDistanceToCorrect = (maximal distance)-1 from R.
+    private static void removeFromDistances(
+            int[] distances,
+            int[] lineMax,
+            int[] dimensions,
+            IRectangularArea removed,
+            int maxDistanceToCorrect) {
+        final int dimCount = dimensions.length;
+        final int[] min = new int[dimCount];
+        final int[] max = new int[dimCount];
+        final int[] from = new int[dimCount];
+        final int[] to = new int[dimCount];
+        for (int k = 0; k < dimCount; k++) {
+            min[k] = (int) Math.max(removed.min(k), 0);
+            max[k] = (int) Math.min(removed.max(k), dimensions[k] - 1);
+            if (min[k] > max[k]) {
+                return;
+            }
+            from[k] = Math.max(min[k] - maxDistanceToCorrect, 0);
+            to[k] = Math.min(max[k] + maxDistanceToCorrect, dimensions[k] - 1);
+        }
+        final int dimX = dimensions[0];
+        final int[] coordinates = from.clone();
+        for (; ; ) {
+            int line = 0;
+            int distanceInHigherDimensions = 0;
+            for (int k = dimCount - 1; k >= 1; k--) {
+                line = line * dimensions[k] + coordinates[k];
+                distanceInHigherDimensions = Math.max(distanceInHigherDimensions,
+                        distanceToSegment(coordinates[k], min[k], max[k]));
+            }
+            final int lineOffset = line * dimX;
+            boolean maxDecreased = false;
+            for (int x = from[0]; x <= to[0]; x++) {
+                final int distance = Math.max(distanceInHigherDimensions, distanceToSegment(x, min[0], max[0]));
+                final int index = lineOffset + x;
+                if (distance < distances[index]) {
+                    maxDecreased |= distances[index] == lineMax[line];
+                    distances[index] = distance;
+                }
+            }
+            if (maxDecreased) {
+                lineMax[line] = max(distances, lineOffset, dimX);
+            }
+            int k = 1;
+            while (k < dimCount && coordinates[k] == to[k]) {
+                coordinates[k] = from[k];
+                k++;
+            }
+            if (k >= dimCount) {
+                break;
+            }
+            coordinates[k]++;
+        }
+    }
+
+    private static int distanceToSegment(int coordinate, int min, int max) {
+        return coordinate < min ? min - coordinate : coordinate > max ? coordinate - max : 0;
+    }
+
+    private static int max(int[] values, int offset, int length) {
+        int result = 0;
+        for (int i = offset, to = offset + length; i < to; i++) {
+            result = Math.max(result, values[i]);
+        }
+        return result;
+    }
+
     private static void debug(System.Logger.Level level, String format, Object... args) {
         LOG.log(level, () -> String.format(Locale.US, format, args));
     }
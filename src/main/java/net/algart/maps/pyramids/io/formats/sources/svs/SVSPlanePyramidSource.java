@@ -24,11 +24,13 @@
 
 package net.algart.maps.pyramids.io.formats.sources.svs;
 
+import net.algart.arrays.Arrays;
 import net.algart.arrays.Matrices;
 import net.algart.arrays.Matrix;
 import net.algart.arrays.PArray;
 import net.algart.arrays.UpdatablePArray;
 import net.algart.maps.pyramids.io.api.AbstractPlanePyramidSource;
+import net.algart.maps.pyramids.io.api.CachingMemoryGovernor;
 import net.algart.maps.pyramids.io.api.PlanePyramidSource;
 import net.algart.maps.pyramids.io.api.PlanePyramidTools;
 import net.algart.maps.pyramids.io.api.sources.RotatingPlanePyramidSource;
@@ -45,6 +47,9 @@ import net.algart.matrices.tiff.tags.TagCompression;
 import net.algart.matrices.tiff.tags.TagDescription;
 import net.algart.matrices.tiff.tiles.TiffMap;
 import net.algart.matrices.tiff.tiles.TiffReadMap;
+import net.algart.matrices.tiff.tiles.TiffTile;
+import net.algart.matrices.tiff.tiles.TiffTileIndex;
+import net.algart.matrices.tiff.tiles.TiffWriteMap;
 
 import java.awt.*;
 import java.io.IOError;
@@ -80,6 +85,35 @@ public final class SVSPlanePyramidSource extends AbstractPlanePyramidSource impl
     public static final byte TIFF_FILLER = (byte) 0xF0;
     // - almost white; for SVS, usually it is better idea than black color
 
+    private static final int COPYING_TILE_SIZE = 256;
+    private static final int TAG_PLANAR_CONFIGURATION = 284;
+    private static final int[] COPIED_TAGS = {
+            258, // BitsPerSample
+            259, // Compression
+            262, // PhotometricInterpretation
+            277, // SamplesPerPixel
+            TAG_PLANAR_CONFIGURATION,
+            317, // Predictor
+            339, // SampleFormat
+            347, // JPEGTables
+            530, // YCbCrSubSampling
+            531, // YCbCrPositioning
+            532, // ReferenceBlackWhite
+    };
+    // - tags, necessary to decode the tiles, copied from SVS in the encoded form
+    private static final int[] REENCODED_COMPRESSIONS = {
+            1, // None
+            5, // LZW
+            8, // Deflate
+            32946, // Deflate (old-style code)
+    };
+    // - compressions, which the writer encodes consistently with the copied tags; for other compressions
+    // (JPEG with shared JPEGTables and YCbCr subsampling, Aperio JPEG-2000) all tiles must be copied
+
+    private static final long ENCODED_TILE_CACHING_MEMORY = Arrays.SystemSettings.getLongProperty(
+            "net.algart.maps.pyramids.io.svsEncodedTileCachingMemory", 0);
+    // - 0 disables caching encoded tiles
+
     private static final System.Logger LOG = System.getLogger(SVSPlanePyramidSource.class.getName());
 
     private final Path svsFile;
@@ -415,6 +449,35 @@ public final class SVSPlanePyramidSource extends AbstractPlanePyramidSource impl
         this.dataBorderWidth = dataBorderWidth;
     }
 
+    public long getEncodedTileCachingMemory() {
+        return largeData.encodedTileCachingMemory;
+    }
+
+    /**
+     * Sets the memory for caching tiles of the SVS file in the encoded form (usually JPEG),
+     * as they are stored in the file. This is the second cache tier after the cache of decoded tiles
+     * (see {@link #enableTileCaching(TileDirection)}): encoded tiles are usually 10&ndash;20 times smaller,
+     * so much larger part of the slide can be kept in memory; a hit in this cache avoids disk I/O,
+     * but the tile is decoded again. The actual limit can be reduced by {@link CachingMemoryGovernor}.
+     *
+     * <p>The setting is shared among all clones of this object. Zero value disables this cache;
+     * the default value is specified by the system property
+     * "net.algart.maps.pyramids.io.svsEncodedTileCachingMemory" (0 if not specified).
+     *
+     * @param encodedTileCachingMemory memory for encoded tiles in bytes.
+     */
+    public void setEncodedTileCachingMemory(long encodedTileCachingMemory) {
+        if (encodedTileCachingMemory < 0) {
+            throw new IllegalArgumentException("Negative encodedTileCachingMemory");
+        }
+        largeData.writeLock.lock();
+        try {
+            largeData.setEncodedTileCachingMemory(encodedTileCachingMemory);
+        } finally {
+            largeData.writeLock.unlock();
+        }
+    }
+
     public Path getSvsFile() {
         return svsFile;
     }
@@ -538,6 +601,15 @@ public final class SVSPlanePyramidSource extends AbstractPlanePyramidSource impl
                 null;
     }
 
+    @Override
+    protected boolean containsActualData(int resolutionLevel, IRectangularArea area) {
+        if (!combineWithWholeSlide || !isSkipCoarseData()) {
+            return true;
+        }
+        return expandByBorder(metricPyramidForCombiningAtLevel(resolutionLevel)).intersects(area);
+        // - the same check as in readLittleSubMatrix, but without initializing the reader and the whole slide
+    }
+
     @Override
     public boolean isSpecialMatrixSupported(SpecialImageKind kind) {
         return ifdClassifier.isSpecialMatrixSupported(kind);
@@ -603,6 +675,114 @@ public final class SVSPlanePyramidSource extends AbstractPlanePyramidSource impl
         }
     }
 
+    /**
+     * Writes the rectangle <code>fromX&le;x&lt;toX</code>, <code>fromY&le;y&lt;toY</code>
+     * of the given resolution level as a new tiled image (IFD) into the TIFF file.
+     *
+     * <p>If the rectangle is aligned to the native tile grid of this level (<code>fromX</code>
+     * and <code>fromY</code> are multiples of the tile sizes), the resulting image has the same tile sizes,
+     * compression and color space as the SVS level, and all tiles, lying completely inside
+     * the rectangle (or cropped by the boundary of the level), are copied as encoded bytes without decoding
+     * and re-encoding: it is much faster and does not lose quality. Other tiles (at the right and bottom
+     * boundaries of the rectangle, and tiles absent in the SVS file) are read by {@link #readSubMatrix}
+     * and encoded by the writer. If the rectangle is not aligned, or the level is virtual,
+     * or the source is combined with the whole slide image, all tiles are encoded by the writer
+     * with JPEG compression (and the current quality settings of the writer) into tiles 256x256.
+     *
+     * <p>The writer can re-encode tiles consistently with the copied tags only for uncompressed, LZW
+     * and Deflate levels without a predictor. For other compressions (JPEG with shared JPEG tables and
+     * YCbCr subsampling, Aperio JPEG-2000) copying in the encoded form is used only when <i>all</i> tiles
+     * can be copied: <code>toX</code>/<code>toY</code> must also lie on the tile grid (or be equal
+     * to the level sizes), and all tiles of the rectangle must be present in the file; in other case,
+     * the rectangle is encoded entirely as described above.
+     *
+     * @param writer          TIFF writer; must be already opened by {@link TiffWriter#create()}
+     *                        or {@link TiffWriter#create(boolean)}.
+     * @param resolutionLevel the level of this pyramid.
+     * @param fromX           minimal x-coordinate (inclusive).
+     * @param fromY           minimal y-coordinate (inclusive).
+     * @param toX             maximal x-coordinate (exclusive).
+     * @param toY             maximal y-coordinate (exclusive).
+     * @return the number of tiles, copied in the encoded form.
+     * @throws IOException in a case of I/O error.
+     */
+    public int copyToTiff(TiffWriter writer, int resolutionLevel, long fromX, long fromY, long toX, long toY)
+            throws IOException {
+        Objects.requireNonNull(writer, "Null writer");
+        checkResolutionLevel(resolutionLevel);
+        final long[] dim = dimensions(resolutionLevel);
+        final long dimX = dim[DIM_WIDTH];
+        final long dimY = dim[DIM_HEIGHT];
+        if (fromX < 0 || fromY < 0 || fromX >= toX || fromY >= toY || toX > dimX || toY > dimY) {
+            throw new IndexOutOfBoundsException("Illegal fromX/fromY/toX/toY: must be in ranges 0.."
+                    + dimX + ", 0.." + dimY + ", fromX<toX, fromY<toY");
+        }
+        final int sizeX = (int) (toX - fromX);
+        final int sizeY = (int) (toY - fromY);
+        long t1 = System.nanoTime();
+        int copiedCount = 0;
+        int encodedCount = 0;
+        final int ifdIndex = ifdIndex(resolutionLevelToActualResolutionLevel(resolutionLevel));
+        final TiffReadMap sourceMap = copiedSourceMap(ifdIndex, resolutionLevel, fromX, fromY, toX, toY);
+        // - largeData is not locked below while reading tiles via readSubMatrix: it locks the tile cache
+        // and then largeData (see readLittleSubMatrix), so holding largeData here would invert the lock order
+        final TiffIFD ifd = writer.newIFD(true);
+        if (sourceMap != null) {
+            for (int tag : COPIED_TAGS) {
+                final Object value = sourceMap.ifd().get(tag);
+                if (value != null) {
+                    ifd.put(tag, value);
+                }
+            }
+            ifd.putTileSizes(sourceMap.tileSizeX(), sourceMap.tileSizeY());
+        } else {
+            final Matrix<? extends PArray> sample = readSubMatrix(resolutionLevel, fromX, fromY, fromX, fromY);
+            ifd.putMatrixInformation(sample, false);
+            ifd.putCompression(TagCompression.JPEG);
+            ifd.putTileSizes(COPYING_TILE_SIZE, COPYING_TILE_SIZE);
+        }
+        ifd.putImageDimensions(sizeX, sizeY);
+        final TiffWriteMap writeMap = writer.newMap(ifd, false);
+        writer.writeForward(writeMap);
+        final int tileSizeX = writeMap.tileSizeX();
+        final int tileSizeY = writeMap.tileSizeY();
+        for (int yIndex = 0, y = 0; y < sizeY; yIndex++, y += tileSizeY) {
+            for (int xIndex = 0, x = 0; x < sizeX; xIndex++, x += tileSizeX) {
+                final int tileSizeXInRectangle = Math.min(tileSizeX, sizeX - x);
+                final int tileSizeYInRectangle = Math.min(tileSizeY, sizeY - y);
+                if (sourceMap != null
+                        && (tileSizeXInRectangle == tileSizeX || toX == dimX)
+                        && (tileSizeYInRectangle == tileSizeY || toY == dimY)) {
+                    // - in the last case, the source tile is cropped by the level boundary in the same way
+                    final TiffTile encoded = readEncodedTile(ifdIndex,
+                            (int) (fromX / tileSizeX) + xIndex, (int) (fromY / tileSizeY) + yIndex);
+                    if (!encoded.isEmpty()) {
+                        final TiffTile tile = writeMap.getOrNew(writeMap.multiPlaneIndex(0, xIndex, yIndex));
+                        tile.setEncodedData(encoded.getEncodedData());
+                        writer.writeTile(tile, true);
+                        copiedCount++;
+                        continue;
+                    }
+                }
+                assert sourceMap == null || isReencodingConsistent(sourceMap.ifd()) :
+                        "tile must be copied: the writer cannot encode it consistently with copied tags";
+                final Matrix<? extends PArray> m = readSubMatrix(resolutionLevel,
+                        fromX + x, fromY + y, fromX + x + tileSizeXInRectangle, fromY + y + tileSizeYInRectangle);
+                writeMap.writeCompletedTiles(writeMap.updateMatrix(m, x, y));
+                encodedCount++;
+            }
+        }
+        writeMap.completeWriting();
+        long t2 = System.nanoTime();
+        final int copied = copiedCount;
+        final int encoded = encodedCount;
+        LOG.log(System.Logger.Level.DEBUG, () -> String.format(Locale.US,
+                "SVS copying %dx%d (level %d) from %s to TIFF: %d tiles copied in encoded form, "
+                        + "%d tiles encoded again, %.3f ms",
+                sizeX, sizeY, resolutionLevel, svsFile, copied, encoded, (t2 - t1) * 1e-6));
+        return copiedCount;
+    }
+
     @Override
     public String toString() {
         return "SVS plane pyramid source for file " + svsFile;
@@ -790,8 +970,7 @@ public final class SVSPlanePyramidSource extends AbstractPlanePyramidSource impl
         final long requiredActualCompression = actualCompression(actualResolutionLevel);
         final long additionalCompression = requiredCompression / requiredActualCompression;
         assert additionalCompression == (int) additionalCompression;
-        final int ifdIndex = actualResolutionLevel < SVS_IFD_THUMBNAIL_INDEX ?
-                actualResolutionLevel : actualResolutionLevel + 1;
+        final int ifdIndex = ifdIndex(actualResolutionLevel);
         final int actualSizeX = sizeX * (int) additionalCompression;
         final int actualSizeY = sizeY * (int) additionalCompression;
         final int actualFromY = fromY * (int) additionalCompression;
@@ -801,6 +980,11 @@ public final class SVSPlanePyramidSource extends AbstractPlanePyramidSource impl
         if (additionalCompression == 1) {
             return actualMatrix;
         }
+        if (Arrays.isNCopies(actualMatrix.array())) {
+            // - background: no sense to average constant data
+            return Matrices.constantMatrix(actualMatrix.array().getDouble(0),
+                    Arrays.type(PArray.class, actualMatrix.elementType()), bandCount, sizeX, sizeY);
+        }
         final Matrix<? extends UpdatablePArray> result = newResultMatrix(sizeX, sizeY);
         Matrices.resize(null, Matrices.ResizingMethod.AVERAGING, result, actualMatrix);
         // null argument forces usage of all CPU kernels even if ArrayContext recommends only 1 thread
@@ -812,7 +996,110 @@ public final class SVSPlanePyramidSource extends AbstractPlanePyramidSource impl
         final var map = largeData.maps.get(ifdIndex);
         //TODO!! store sampleType, not elementType (can be signed)
         map.checkPixelCompatibility(bandCount, TiffSampleType.of(elementType, false));
-        return map.readInterleavedMatrix(fromX, fromY, sizeX, sizeY);
+        return PlanePyramidTools.asNCopiesIfConstant(map.readInterleavedMatrix(fromX, fromY, sizeX, sizeY));
+        // - missing tiles are filled by TIFF_FILLER: areas of the slide without data are usually constant
+    }
+
+    private static int ifdIndex(int actualResolutionLevel) {
+        return actualResolutionLevel < SVS_IFD_THUMBNAIL_INDEX ? actualResolutionLevel : actualResolutionLevel + 1;
+    }
+
+    // Returns null if copying in the encoded form is impossible
+    private TiffReadMap copiedSourceMap(int ifdIndex, int resolutionLevel, long fromX, long fromY, long toX, long toY)
+            throws IOException {
+        final Lock lock = lockInitializedLargeData();
+        try {
+            largeData.init();
+            return isEncodedTileCopyingPossible(resolutionLevel, fromX, fromY, toX, toY) ?
+                    largeData.maps.get(ifdIndex) :
+                    null;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private TiffTile readEncodedTile(int ifdIndex, int xIndex, int yIndex) throws IOException {
+        final Lock lock = lockInitializedLargeData();
+        try {
+            largeData.init();
+            // - the file could be closed by freeResources after the previous call
+            final TiffReadMap map = largeData.maps.get(ifdIndex);
+            return largeData.tiffReader.readEncodedTile(map.multiPlaneIndex(0, xIndex, yIndex));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // See readLittleSubMatrix
+    private Lock lockInitializedLargeData() {
+        Lock lock = largeData.readLock;
+        lock.lock();
+        if (!largeData.initialized()) {
+            lock.unlock();
+            lock = largeData.writeLock;
+            lock.lock();
+        }
+        return lock;
+    }
+
+    private boolean isEncodedTileCopyingPossible(
+            int resolutionLevel,
+            long fromX,
+            long fromY,
+            long toX,
+            long toY) throws IOException {
+        if (combineWithWholeSlide) {
+            return false;
+            // - coordinates of the levels differ from coordinates in the file
+        }
+        final int actualResolutionLevel = resolutionLevelToActualResolutionLevel(resolutionLevel);
+        if (compression(resolutionLevel) != actualCompression(actualResolutionLevel)) {
+            return false;
+            // - virtual level
+        }
+        final TiffReadMap map = largeData.maps.get(ifdIndex(actualResolutionLevel));
+        final TiffIFD ifd = map.ifd();
+        if (!(ifd.isTiled()
+                && ifd.getInt(TAG_PLANAR_CONFIGURATION, 1) == 1
+                && fromX % map.tileSizeX() == 0
+                && fromY % map.tileSizeY() == 0)) {
+            return false;
+        }
+        return isReencodingConsistent(ifd) || areAllTilesCopied(map, fromX, fromY, toX, toY);
+    }
+
+    private static boolean isReencodingConsistent(TiffIFD ifd) throws TiffException {
+        if (ifd.getInt(317, 1) != 1) {
+            return false;
+            // - the writer should not be required to apply a predictor
+        }
+        final int compression = ifd.getCompressionCode();
+        for (int code : REENCODED_COMPRESSIONS) {
+            if (code == compression) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean areAllTilesCopied(TiffReadMap map, long fromX, long fromY, long toX, long toY)
+            throws IOException {
+        final int tileSizeX = map.tileSizeX();
+        final int tileSizeY = map.tileSizeY();
+        if ((toX % tileSizeX != 0 && toX != map.dimX()) || (toY % tileSizeY != 0 && toY != map.dimY())) {
+            return false;
+        }
+        for (long y = fromY; y < toY; y += tileSizeY) {
+            for (long x = fromX; x < toX; x += tileSizeX) {
+                final TiffTile encoded = largeData.tiffReader.readEncodedTile(
+                        map.multiPlaneIndex(0, (int) (x / tileSizeX), (int) (y / tileSizeY)));
+                // - if the encoded tile cache is enabled, the tiles will not be loaded again while copying
+                if (encoded.isEmpty()) {
+                    return false;
+                }
+            }
+        }
+        return true;
     }
 
     private int resolutionLevelToActualResolutionLevel(int resolutionLevel) {
@@ -901,6 +1188,9 @@ public final class SVSPlanePyramidSource extends AbstractPlanePyramidSource impl
         private TiffReader tiffReader = null;
         private List<TiffReadMap> maps = null;
         private List<Matrix<? extends PArray>> wholeSlidePyramid = null;
+        private long encodedTileCachingMemory = ENCODED_TILE_CACHING_MEMORY;
+        private volatile EncodedTileCache encodedTileCache = null;
+        // - exists only while the file is open: TiffTileIndex keys refer to IFDs of the current reader
 
         private final Lock readLock, writeLock;
 
@@ -917,10 +1207,13 @@ public final class SVSPlanePyramidSource extends AbstractPlanePyramidSource impl
         private synchronized void init() throws IOException {
             if (tiffReader == null) {
                 long t1 = System.nanoTime();
-                tiffReader = new TiffReader(svsFile).setByteFiller(TIFF_FILLER).setCaching(true);
+                tiffReader = new EncodedTileCachingReader(svsFile).setByteFiller(TIFF_FILLER).setCaching(true);
 //                tiffReader.setInterleaveResults(true);
                 // - deprecated solution (replaced with readInterleavedMatrix)
                 maps = tiffReader.allMaps();
+                if (encodedTileCachingMemory > 0) {
+                    encodedTileCache = new EncodedTileCache(encodedTileCachingMemory);
+                }
                 long t2 = System.nanoTime();
                 LOG.log(System.Logger.Level.DEBUG, String.format(Locale.US,
                         "SVS parser opens file %s: %.3f ms", svsFile, (t2 - t1) * 1e-6));
@@ -937,12 +1230,32 @@ public final class SVSPlanePyramidSource extends AbstractPlanePyramidSource impl
                             "SVS parser closes file %s: %.3f ms", svsFile, (t2 - t1) * 1e-6));
                     tiffReader = null;
                     maps = null;
+                    freeEncodedTileCache();
                 }
             } catch (IOException e) {
                 throw new IOError(e);
             }
         }
 
+        private synchronized void setEncodedTileCachingMemory(long encodedTileCachingMemory) {
+            this.encodedTileCachingMemory = encodedTileCachingMemory;
+            if (encodedTileCachingMemory == 0) {
+                freeEncodedTileCache();
+            } else if (encodedTileCache != null) {
+                encodedTileCache.setRequestedMemory(encodedTileCachingMemory);
+            } else if (tiffReader != null) {
+                encodedTileCache = new EncodedTileCache(encodedTileCachingMemory);
+            }
+        }
+
+        private synchronized void freeEncodedTileCache() {
+            if (encodedTileCache != null) {
+                LOG.log(System.Logger.Level.DEBUG, () -> "SVS reader frees " + encodedTileCache);
+                encodedTileCache.unregister();
+                encodedTileCache = null;
+            }
+        }
+
         // finalizer/cleaner not necessary: all files are processed in Java and will be finalized automatically
 
         private synchronized void initWholeSlideSynchronously() {
@@ -954,4 +1267,100 @@ public final class SVSPlanePyramidSource extends AbstractPlanePyramidSource impl
             }
         }
     }
+
+    private class EncodedTileCachingReader extends TiffReader {
+        private EncodedTileCachingReader(Path file) throws IOException {
+            super(file);
+        }
+
+        @Override
+        public TiffTile readEncodedTile(TiffTileIndex tileIndex) throws IOException {
+            final EncodedTileCache cache = largeData.encodedTileCache;
+            if (cache == null) {
+                return super.readEncodedTile(tileIndex);
+            }
+            final byte[] encoded = cache.get(tileIndex);
+            if (encoded != null) {
+                final TiffTile result = new TiffTile(tileIndex);
+                result.setEncodedData(encoded.clone());
+                // - clone: the decoder may use the passed array as a work buffer
+                return result;
+            }
+            final TiffTile result = super.readEncodedTile(tileIndex);
+            if (!result.isEmpty()) {
+                // - empty (missing) tiles are filled by TIFF_FILLER without any I/O
+                cache.put(tileIndex, result.getEncodedData().clone());
+            }
+            return result;
+        }
+    }
+
+    // LRU cache of encoded tile data; thread-safe
+    private static class EncodedTileCache {
+        private final LinkedHashMap<TiffTileIndex, byte[]> tiles = new LinkedHashMap<>(16, 0.75f, true);
+        private final CachingMemoryGovernor.Account account;
+        private long usedMemory = 0;
+
+        private EncodedTileCache(long encodedTileCachingMemory) {
+            this.account = CachingMemoryGovernor.getInstance().register(
+                    "SVS encoded tiles", encodedTileCachingMemory, this::setMemoryLimit);
+        }
+
+        byte[] get(TiffTileIndex tileIndex) {
+            synchronized (tiles) {
+                final byte[] result = tiles.get(tileIndex);
+                account.access(result != null);
+                return result;
+            }
+        }
+
+        void put(TiffTileIndex tileIndex, byte[] encoded) {
+            synchronized (tiles) {
+                final byte[] previous = tiles.put(tileIndex, encoded);
+                usedMemory += encoded.length - (previous == null ? 0 : previous.length);
+                removeEldestEntries(1);
+            }
+            // - no rebalancing here: this method is called while locking the tile cache and largeData,
+            // and the governor would lock the caches of other sources
+        }
+
+        void setRequestedMemory(long encodedTileCachingMemory) {
+            synchronized (tiles) {
+                account.setRequestedMemory(encodedTileCachingMemory);
+            }
+            // - the governor will take it into account at the next rebalancing (see readSubMatrix)
+        }
+
+        void unregister() {
+            synchronized (tiles) {
+                tiles.clear();
+                usedMemory = 0;
+            }
+            CachingMemoryGovernor.getInstance().unregister(account);
+        }
+
+        @Override
+        public String toString() {
+            synchronized (tiles) {
+                return String.format(Locale.US, "cache of %d encoded tiles, %.2f MB (limit %.2f MB, hit rate %.3f)",
+                        tiles.size(), usedMemory / 1048576.0, account.memoryLimit() / 1048576.0,
+                        account.hitRate());
+            }
+        }
+
+        // Called by the governor; must not block, because the governor may be called by another source
+        // while locking its caches. The new limit is stored in the account: extra tiles are evicted by the next put.
+        private void setMemoryLimit(long memoryLimit) {
+        }
+
+        private void removeEldestEntries(int minimalNumberOfEntries) {
+            final long memoryLimit = account.memoryLimit();
+            final Iterator<byte[]> iterator = tiles.values().iterator();
+            while (usedMemory > memoryLimit && tiles.size() > minimalNumberOfEntries) {
+                usedMemory -= iterator.next().length;
+                iterator.remove();
+            }
+            account.setUsedMemory(usedMemory);
+        }
+    }
 }
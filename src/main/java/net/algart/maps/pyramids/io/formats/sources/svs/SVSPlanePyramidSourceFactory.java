@@ -131,6 +131,12 @@ public class SVSPlanePyramidSourceFactory implements PlanePyramidSourceFactory {
 //        }
 //    }
 
+    @Override
+    public boolean isThreadSafe() {
+        return true;
+        // - this factory has no state
+    }
+
     @Override
     public String toString() {
         return "SVS plane pyramid source factory";
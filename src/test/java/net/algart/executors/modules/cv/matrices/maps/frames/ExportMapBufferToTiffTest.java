@@ -0,0 +1,131 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2017-2026 Daniel Alievsky, AlgART Laboratory (http://algart.net)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package net.algart.executors.modules.cv.matrices.maps.frames;
+
+import net.algart.arrays.Matrices;
+import net.algart.arrays.Matrix;
+import net.algart.arrays.PArray;
+import net.algart.arrays.SimpleMemoryModel;
+import net.algart.executors.modules.maps.frames.ExportMapBufferToTiff;
+import net.algart.executors.modules.maps.frames.buffers.MapBuffer;
+import net.algart.executors.modules.maps.frames.buffers.MapBufferKey;
+import net.algart.math.IPoint;
+import net.algart.math.IRectangularArea;
+import net.algart.matrices.tiff.TiffReader;
+import net.algart.matrices.tiff.tags.TagCompression;
+import net.algart.multimatrix.MultiMatrix;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+public final class ExportMapBufferToTiffTest {
+    private static final int FRAME_SIZE = 100;
+    private static final int GRID_SIZE = 3;
+    private static final int TILE_SIZE = 64;
+    // - not a divisor of the map sizes: the last tiles are cropped
+
+    private static MultiMatrix blockLabels() {
+        final int[] labels = new int[FRAME_SIZE * FRAME_SIZE];
+        for (int y = 0, p = 0; y < FRAME_SIZE; y++) {
+            for (int x = 0; x < FRAME_SIZE; x++, p++) {
+                labels[p] = (x / 20 + y / 20) % 3 == 0 ? 0 : 1 + (x / 20) * 5 + y / 20;
+                // - blocks touching the frame boundaries, so some objects are stitched
+            }
+        }
+        return MultiMatrix.of2DMono(Matrices.matrix(
+                SimpleMemoryModel.asUpdatableIntArray(labels), FRAME_SIZE, FRAME_SIZE));
+    }
+
+    private static void checkExport(
+            Path file,
+            MapBufferKey key,
+            IRectangularArea area,
+            boolean reindexStitched,
+            MultiMatrix expected) throws IOException {
+        final ExportMapBufferToTiff export = new ExportMapBufferToTiff();
+        try {
+            export.setCompression(TagCompression.LZW);
+            export.setTileSizeX(TILE_SIZE).setTileSizeY(TILE_SIZE);
+            export.setReindexStitched(reindexStitched);
+            export.exportMapBuffer(file, key.mapBufferId(), area);
+        } finally {
+            export.close();
+        }
+        try (TiffReader reader = new TiffReader(file)) {
+            final Matrix<? extends PArray> m = reader.map(0).readInterleavedMatrix(
+                    0, 0, (int) area.sizeX(), (int) area.sizeY());
+            if (!m.equals(expected.channel(0))) {
+                throw new AssertionError("Exported " + file + " (" + area + ", reindexing " + reindexStitched
+                        + ") differs from the map buffer");
+            }
+        }
+        System.out.printf("%s (%s, reindexing %s) is correct%n", file, area, reindexStitched);
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.out.println("Usage:");
+            System.out.println("    " + ExportMapBufferToTiffTest.class.getName() + " result_folder");
+            return;
+        }
+        final Path folder = Paths.get(args[0]);
+        Files.createDirectories(folder);
+        final MapBufferKey key = MapBufferKey.getUniqueInstance();
+        final MapBuffer mapBuffer = key.getOrCreateMapBuffer()
+                .setMaximalNumberOfStoredFrames(GRID_SIZE * GRID_SIZE)
+                .setAutoReindexLabels(true)
+                .setStitchingLabels(true);
+        try {
+            for (int i = 0; i < GRID_SIZE; i++) {
+                for (int j = 0; j < GRID_SIZE; j++) {
+                    mapBuffer.addFrame(blockLabels(),
+                            IPoint.of((long) j * FRAME_SIZE, (long) i * FRAME_SIZE), null, true);
+                }
+            }
+            final IRectangularArea all = mapBuffer.containingRectangle();
+            final IRectangularArea part = IRectangularArea.of(
+                    IPoint.of(30, 50), IPoint.of(all.maxX() - 17, all.maxY() - 40));
+            checkExport(folder.resolve("map_buffer_raw.tiff"), key, all, false,
+                    mapBuffer.readMatrix(all));
+            checkExport(folder.resolve("map_buffer_stitched.tiff"), key, all, true,
+                    mapBuffer.readMatrixReindexedByObjectPairs(all, false));
+            checkExport(folder.resolve("map_buffer_part.tiff"), key, part, true,
+                    mapBuffer.readMatrixReindexedByObjectPairs(part, false));
+
+            final MapBuffer.Snapshot snapshot = mapBuffer.snapshot(true);
+            final MultiMatrix before = snapshot.readMatrix(all);
+            mapBuffer.clear();
+            // - the snapshot must not depend on the further changes of the map buffer
+            if (!snapshot.readMatrix(all).channel(0).equals(before.channel(0))) {
+                throw new AssertionError("Snapshot was changed by clearing the map buffer");
+            }
+            System.out.println("Snapshot does not depend on the map buffer changes");
+        } finally {
+            key.removeMapBuffer();
+        }
+    }
+}
@@ -0,0 +1,114 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2017-2026 Daniel Alievsky, AlgART Laboratory (http://algart.net)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package net.algart.executors.modules.cv.matrices.maps.frames.buffers;
+
+import net.algart.arrays.Matrices;
+import net.algart.arrays.SimpleMemoryModel;
+import net.algart.executors.modules.maps.frames.buffers.MapBuffer;
+import net.algart.math.IPoint;
+import net.algart.multimatrix.MultiMatrix;
+
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+public final class MapBufferConcurrencyTest {
+    private static MultiMatrix randomLabels(int frameSize, Random rnd) {
+        final int[] labels = new int[frameSize * frameSize];
+        for (int k = 0; k < labels.length; k++) {
+            labels[k] = (k / 7 + k / (7 * frameSize)) % 5 == 0 ? 0 : 1 + rnd.nextInt(100);
+        }
+        return MultiMatrix.of2DMono(Matrices.matrix(
+                SimpleMemoryModel.asUpdatableIntArray(labels), frameSize, frameSize));
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        if (args.length < 3) {
+            System.out.printf("Usage: %s frameSize gridSize numberOfReaders%n",
+                    MapBufferConcurrencyTest.class.getName());
+            return;
+        }
+        final int frameSize = Integer.parseInt(args[0]);
+        final int gridSize = Integer.parseInt(args[1]);
+        final int numberOfReaders = Integer.parseInt(args[2]);
+        final MapBuffer mapBuffer = MapBuffer.newInstance()
+                .setMaximalNumberOfStoredFrames(gridSize * gridSize)
+                .setAutoReindexLabels(true)
+                .setStitchingLabels(true);
+        final AtomicBoolean finished = new AtomicBoolean(false);
+        final AtomicLong numberOfReadings = new AtomicLong();
+        final Throwable[] readerErrors = new Throwable[numberOfReaders];
+        final Thread[] readers = new Thread[numberOfReaders];
+        for (int r = 0; r < numberOfReaders; r++) {
+            final int readerIndex = r;
+            readers[r] = new Thread(() -> {
+                try {
+                    while (!finished.get()) {
+                        final MapBuffer.Frame last = mapBuffer.getLastFrame();
+                        if (last == null) {
+                            continue;
+                        }
+                        final MultiMatrix m = mapBuffer.readMatrix(last.position());
+                        if (!m.channel(0).equals(last.matrix().channel(0))) {
+                            throw new AssertionError("Invalid frame " + last.position() + " read from " + mapBuffer);
+                        }
+                        mapBuffer.readLock().lock();
+                        try {
+                            mapBuffer.objectPairs().resolveAllBases();
+                            mapBuffer.readMatrixReindexedByObjectPairs(mapBuffer.containingRectangle(), true);
+                        } finally {
+                            mapBuffer.readLock().unlock();
+                        }
+                        numberOfReadings.incrementAndGet();
+                    }
+                } catch (Throwable e) {
+                    readerErrors[readerIndex] = e;
+                }
+            });
+            readers[r].start();
+        }
+        final Random rnd = new Random(157);
+        long t1 = System.nanoTime();
+        for (int y = 0; y < gridSize; y++) {
+            for (int x = 0; x < gridSize; x++) {
+                mapBuffer.addFrame(randomLabels(frameSize, rnd),
+                        IPoint.of((long) x * frameSize, (long) y * frameSize), null, true);
+            }
+        }
+        long t2 = System.nanoTime();
+        finished.set(true);
+        for (Thread reader : readers) {
+            reader.join();
+        }
+        for (Throwable e : readerErrors) {
+            if (e != null) {
+                throw new AssertionError("Error in reader thread", e);
+            }
+        }
+        System.out.printf(Locale.US, "%d frames added in %.3f ms, %d parallel readings; %s%n",
+                gridSize * gridSize, (t2 - t1) * 1e-6, numberOfReadings.get(), mapBuffer);
+    }
+}
@@ -0,0 +1,119 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2017-2026 Daniel Alievsky, AlgART Laboratory (http://algart.net)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package net.algart.executors.modules.cv.matrices.maps.frames.buffers;
+
+import net.algart.arrays.Matrices;
+import net.algart.arrays.SimpleMemoryModel;
+import net.algart.executors.modules.maps.frames.buffers.MapBuffer;
+import net.algart.math.IPoint;
+import net.algart.math.IRectangularArea;
+import net.algart.multimatrix.MultiMatrix;
+
+import java.util.Locale;
+import java.util.Random;
+
+public final class MapBufferRunLengthTest {
+    private static MultiMatrix blockLabels(int frameSize, int blockSize, Random rnd) {
+        final int[] labels = new int[frameSize * frameSize];
+        final int blocksPerLine = (frameSize + blockSize - 1) / blockSize;
+        final int[] blockLabels = new int[blocksPerLine * blocksPerLine];
+        for (int k = 0; k < blockLabels.length; k++) {
+            blockLabels[k] = rnd.nextInt(3) == 0 ? 0 : 1 + rnd.nextInt(1000);
+        }
+        for (int y = 0, p = 0; y < frameSize; y++) {
+            for (int x = 0; x < frameSize; x++, p++) {
+                labels[p] = blockLabels[(y / blockSize) * blocksPerLine + x / blockSize];
+            }
+        }
+        return MultiMatrix.of2DMono(Matrices.matrix(
+                SimpleMemoryModel.asUpdatableIntArray(labels), frameSize, frameSize));
+    }
+
+    private static MapBuffer newMapBuffer(int gridSize, boolean runLengthEncoded) {
+        return MapBuffer.newInstance()
+                .setMaximalNumberOfStoredFrames(gridSize * gridSize)
+                .setAutoReindexLabels(true)
+                .setStitchingLabels(true)
+                .setRunLengthEncodedLabels(runLengthEncoded);
+    }
+
+    private static void check(MultiMatrix plain, MultiMatrix encoded, String what, IRectangularArea area) {
+        if (!plain.channel(0).equals(encoded.channel(0))) {
+            throw new AssertionError("Different results of " + what + " at " + area);
+        }
+    }
+
+    public static void main(String[] args) {
+        if (args.length < 4) {
+            System.out.printf("Usage: %s frameSize blockSize gridSize numberOfTests%n",
+                    MapBufferRunLengthTest.class.getName());
+            return;
+        }
+        final int frameSize = Integer.parseInt(args[0]);
+        final int blockSize = Integer.parseInt(args[1]);
+        final int gridSize = Integer.parseInt(args[2]);
+        final int numberOfTests = Integer.parseInt(args[3]);
+        final Random rnd = new Random(157);
+        final MapBuffer plain = newMapBuffer(gridSize, false);
+        final MapBuffer encoded = newMapBuffer(gridSize, true);
+        for (int i = 0; i < gridSize; i++) {
+            for (int j = 0; j < gridSize; j++) {
+                final MultiMatrix frame = blockLabels(frameSize, blockSize, rnd);
+                final IPoint leftTop = IPoint.of((long) j * frameSize, (long) i * frameSize);
+                plain.addFrame(frame, leftTop, null, true);
+                final MapBuffer.Frame added = encoded.addFrame(frame, leftTop, null, true);
+                if (!added.isRunLengthEncoded()) {
+                    System.out.printf("Frame %s is not encoded: no memory saving%n", added.position());
+                }
+            }
+        }
+        System.out.printf(Locale.US, "%s%n%s%n", plain, encoded);
+        final IRectangularArea container = plain.containingRectangle();
+        long tPlain = 0, tEncoded = 0;
+        for (int test = 0; test < numberOfTests; test++) {
+            final long minX = container.minX() - 5 + rnd.nextInt((int) container.sizeX());
+            final long minY = container.minY() - 5 + rnd.nextInt((int) container.sizeY());
+            final long sizeX = 1 + rnd.nextInt(2 * frameSize);
+            final long sizeY = rnd.nextInt(5) == 0 ? 1 : 1 + rnd.nextInt(2 * frameSize);
+            final IRectangularArea area = IRectangularArea.of(
+                    IPoint.of(minX, minY), IPoint.of(minX + sizeX - 1, minY + sizeY - 1));
+            check(plain.readMatrix(area), encoded.readMatrix(area), "readMatrix", area);
+            plain.objectPairs().resolveAllBases();
+            encoded.objectPairs().resolveAllBases();
+            long t1 = System.nanoTime();
+            final MultiMatrix plainReindexed = plain.readMatrixReindexedByObjectPairs(area, true);
+            long t2 = System.nanoTime();
+            final MultiMatrix encodedReindexed = encoded.readMatrixReindexedByObjectPairs(area, true);
+            long t3 = System.nanoTime();
+            tPlain += t2 - t1;
+            tEncoded += t3 - t2;
+            check(plainReindexed, encodedReindexed, "quick reindexing", area);
+            check(plain.readMatrixReindexedByObjectPairs(area, false),
+                    encoded.readMatrixReindexedByObjectPairs(area, false), "reindexing", area);
+        }
+        System.out.printf(Locale.US, "%d tests passed; reindexed reading: %.3f ms plain, %.3f ms run-length%n",
+                numberOfTests, tPlain * 1e-6, tEncoded * 1e-6);
+    }
+}
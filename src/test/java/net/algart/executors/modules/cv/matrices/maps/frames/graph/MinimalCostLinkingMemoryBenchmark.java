@@ -0,0 +1,120 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2017-2026 Daniel Alievsky, AlgART Laboratory (http://algart.net)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package net.algart.executors.modules.cv.matrices.maps.frames.graph;
+
+import net.algart.executors.modules.maps.frames.graph.MinimalCostLinkingOnStraight;
+import net.algart.executors.modules.maps.frames.graph.ShortestPathFinder;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.util.Locale;
+import java.util.Random;
+
+public final class MinimalCostLinkingMemoryBenchmark {
+    private static double[] randomPoints(int n, Random rnd) {
+        final double[] result = new double[n];
+        double p = 0.0;
+        for (int k = 0; k < n; k++) {
+            p += rnd.nextInt(60);
+            result[k] = p;
+        }
+        return result;
+    }
+
+    private static void resetPeakHeapUsage() {
+        System.gc();
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) {
+                pool.resetPeakUsage();
+            }
+        }
+    }
+
+    private static long peakHeapUsage() {
+        long result = 0;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) {
+                result += pool.getPeakUsage().getUsed();
+            }
+        }
+        return result;
+    }
+
+    private static MinimalCostLinkingOnStraight measure(boolean linearMemory, double[] source, double[] target) {
+        resetPeakHeapUsage();
+        final long usedBefore = peakHeapUsage();
+        long t1 = System.nanoTime();
+        final MinimalCostLinkingOnStraight linking = linearMemory ?
+                MinimalCostLinkingOnStraight.newLinearMemoryInstance(source, target) :
+                MinimalCostLinkingOnStraight.newInstance(
+                        ShortestPathFinder.Algorithm.FOR_SORTED_ACYCLIC, source, target);
+        linking.findBestLinks();
+        long t2 = System.nanoTime();
+        final long peak = peakHeapUsage();
+        System.out.printf(Locale.US, "  %s: %.3f ms, %d links, summary cost %f, peak heap usage +%.2f MB%n",
+                linearMemory ? "linear-memory" : "graph (FOR_SORTED_ACYCLIC)",
+                (t2 - t1) * 1e-6, linking.getNumberOfLinks(), linking.getSummaryCost(),
+                (peak - usedBefore) / 1048576.0);
+        return linking;
+    }
+
+    public static void main(String[] args) {
+        int startArgIndex = 0;
+        boolean linearOnly = false;
+        if (args.length > startArgIndex && args[startArgIndex].equals("-linearOnly")) {
+            linearOnly = true;
+            startArgIndex++;
+        }
+        if (args.length < startArgIndex + 2) {
+            System.out.printf("Usage: %s [-linearOnly] n m%n",
+                    MinimalCostLinkingMemoryBenchmark.class.getName());
+            System.out.println("Note: without -linearOnly, the graph requires ~20*n*m bytes; "
+                    + "-linearOnly allows to test very large n, m");
+            return;
+        }
+        final int numberOfSource = Integer.parseInt(args[startArgIndex]);
+        final int numberOfTarget = Integer.parseInt(args[startArgIndex + 1]);
+        final Random rnd = new Random(157);
+        final double[] source = randomPoints(numberOfSource, rnd);
+        final double[] target = randomPoints(numberOfTarget, rnd);
+        System.out.printf("Linking %d and %d points%n", numberOfSource, numberOfTarget);
+        final MinimalCostLinkingOnStraight linear = measure(true, source, target);
+        if (!linearOnly) {
+            final MinimalCostLinkingOnStraight graph = measure(false, source, target);
+            if (graph.getSummaryCost() != linear.getSummaryCost()
+                    || graph.getNumberOfLinks() != linear.getNumberOfLinks()) {
+                throw new AssertionError("Different results");
+            }
+            for (int k = 0; k < graph.getNumberOfLinks(); k++) {
+                if (graph.getSourceIndex(k) != linear.getSourceIndex(k)
+                        || graph.getTargetIndex(k) != linear.getTargetIndex(k)) {
+                    throw new AssertionError("Different link #" + k);
+                }
+            }
+            System.out.println("Identical links");
+        }
+    }
+}
@@ -146,7 +146,7 @@ public final class MinimalCostLinkingOnStraightTest {
         final int numberOfSource = Integer.parseInt(args[startArgIndex]);
         final int numberOfTarget = Integer.parseInt(args[startArgIndex + 1]);
         final File resultFile = new File(args[startArgIndex + 2]);
-        MinimalCostLinkingOnStraight simple = null, fast = null;
+        MinimalCostLinkingOnStraight simple = null, fast = null, linear;
         for (int test = 1; test <= 32; test++) {
             final double[] source = randomPoints(numberOfSource, 1.0, rnd);
             final double[] target = randomPoints(numberOfTarget, numberOfSource / (double) numberOfTarget, rnd);
@@ -169,13 +169,19 @@ public final class MinimalCostLinkingOnStraightTest {
             long t4 = System.nanoTime();
             fast.findBestLinks();
             long t5 = System.nanoTime();
+            linear = MinimalCostLinkingOnStraight.newLinearMemoryInstance(source, target);
+            linear.findBestLinks();
+            long t6 = System.nanoTime();
             System.out.printf(Locale.US, "Test #%d: "
                             + "simple: %.3f ms creating, %.3f ms calculating; "
-                            + "fast: %.3f ms creating, %.3f ms calculating%n",
-                    test, (t2 - t1) * 1e-6, (t3 - t2) * 1e-6, (t4 - t3) * 1e-6, (t5 - t4) * 1e-6);
+                            + "fast: %.3f ms creating, %.3f ms calculating; "
+                            + "linear-memory: %.3f ms%n",
+                    test, (t2 - t1) * 1e-6, (t3 - t2) * 1e-6, (t4 - t3) * 1e-6, (t5 - t4) * 1e-6,
+                    (t6 - t5) * 1e-6);
             if (testSimple) {
                 checkEquality(simple, fast);
             }
+            checkEquality(fast, linear);
         }
         System.out.println();
         final String name = resultFile.getName();
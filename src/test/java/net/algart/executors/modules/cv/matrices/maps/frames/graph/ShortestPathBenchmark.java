@@ -0,0 +1,123 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2017-2026 Daniel Alievsky, AlgART Laboratory (http://algart.net)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package net.algart.executors.modules.cv.matrices.maps.frames.graph;
+
+import net.algart.executors.modules.maps.frames.graph.ShortestPathFinder;
+import net.algart.executors.modules.maps.frames.graph.SimpleWeightedDirectedGraph;
+import net.algart.executors.modules.maps.frames.graph.WeightedDirectedGraph;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+public final class ShortestPathBenchmark {
+    private static final int SIMPLE_DIJKSTRA_LIMIT = 50000;
+    // - O(n^2) algorithm is too slow for larger graphs
+
+    private static WeightedDirectedGraph randomSortedAcyclicGraph(
+            int numberOfVertices,
+            int edgesPerVertex,
+            int maxEdgeLength,
+            Random rnd) {
+        final List<SimpleWeightedDirectedGraph.Edge> edges = new ArrayList<>();
+        for (int v = 0; v < numberOfVertices - 1; v++) {
+            for (int k = 0; k < edgesPerVertex; k++) {
+                final int to = Math.min(numberOfVertices - 1, v + 1 + rnd.nextInt(maxEdgeLength));
+                edges.add(new SimpleWeightedDirectedGraph.Edge(v, to, rnd.nextInt(1000)));
+                // - integer weights: many equal distances check identical choice of paths
+            }
+        }
+        return new SimpleWeightedDirectedGraph(numberOfVertices, edges);
+    }
+
+    private static ShortestPathFinder measure(
+            ShortestPathFinder.Algorithm algorithm,
+            WeightedDirectedGraph graph,
+            String graphName) {
+        long t1 = System.nanoTime();
+        final ShortestPathFinder finder = ShortestPathFinder.newInstance(algorithm, graph);
+        long t2 = System.nanoTime();
+        finder.findShortestPaths(0);
+        long t3 = System.nanoTime();
+        System.out.printf(Locale.US, "  %s, %s: %.3f ms creating, %.3f ms calculating%n",
+                graphName, algorithm, (t2 - t1) * 1e-6, (t3 - t2) * 1e-6);
+        return finder;
+    }
+
+    private static void checkEquality(ShortestPathFinder finder1, ShortestPathFinder finder2) {
+        for (int v = 0, n = finder1.numberOfVertices(); v < n; v++) {
+            if (finder1.pathExists(v) != finder2.pathExists(v)) {
+                throw new AssertionError("Different existence of path to " + v);
+            }
+            if (finder1.pathExists(v)) {
+                if (finder1.getDistance(v) != finder2.getDistance(v)) {
+                    throw new AssertionError("Different distance to " + v + ": "
+                            + finder1.getDistance(v) + " and " + finder2.getDistance(v));
+                }
+            }
+        }
+    }
+
+    private static void checkIdenticalPaths(ShortestPathFinder finder1, ShortestPathFinder finder2) {
+        checkEquality(finder1, finder2);
+        for (int v = 0, n = finder1.numberOfVertices(); v < n; v++) {
+            if (finder1.pathExists(v) && finder1.getPreviousInPath(v) != finder2.getPreviousInPath(v)) {
+                throw new AssertionError("Different paths to " + v + ": previous vertex is "
+                        + finder1.getPreviousInPath(v) + " and " + finder2.getPreviousInPath(v));
+            }
+        }
+    }
+
+    public static void main(String[] args) {
+        if (args.length < 2) {
+            System.out.printf("Usage: %s numberOfVertices numberOfTests%n",
+                    ShortestPathBenchmark.class.getName());
+            return;
+        }
+        final int numberOfVertices = Integer.parseInt(args[0]);
+        final int numberOfTests = Integer.parseInt(args[1]);
+        final Random rnd = new Random(157);
+        for (int test = 1; test <= numberOfTests; test++) {
+            System.out.printf("Test #%d, %d vertices%n", test, numberOfVertices);
+            final WeightedDirectedGraph sparse = randomSortedAcyclicGraph(numberOfVertices, 3, 10, rnd);
+            final WeightedDirectedGraph dense = randomSortedAcyclicGraph(numberOfVertices, 50, 1000, rnd);
+            for (WeightedDirectedGraph graph : List.of(sparse, dense)) {
+                final String name = graph == sparse ? "sparse" : "dense";
+                final ShortestPathFinder acyclic = measure(
+                        ShortestPathFinder.Algorithm.FOR_SORTED_ACYCLIC, graph, name);
+                final ShortestPathFinder heap = measure(
+                        ShortestPathFinder.Algorithm.HEAP_DIJKSTRA, graph, name);
+                checkEquality(acyclic, heap);
+                if (numberOfVertices <= SIMPLE_DIJKSTRA_LIMIT) {
+                    final ShortestPathFinder simple = measure(
+                            ShortestPathFinder.Algorithm.SIMPLE_DIJKSTRA, graph, name);
+                    checkIdenticalPaths(simple, heap);
+                }
+            }
+        }
+        System.out.println("O'k");
+    }
+}
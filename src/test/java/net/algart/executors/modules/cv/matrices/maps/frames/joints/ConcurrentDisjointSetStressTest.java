@@ -0,0 +1,111 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2017-2026 Daniel Alievsky, AlgART Laboratory (http://algart.net)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package net.algart.executors.modules.cv.matrices.maps.frames.joints;
+
+import net.algart.executors.modules.maps.frames.joints.ConcurrentDisjointSet;
+import net.algart.executors.modules.maps.frames.joints.DynamicDisjointSet;
+
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+public final class ConcurrentDisjointSetStressTest {
+    private static final long SHIFT = 3L * Integer.MAX_VALUE;
+    // - checking indexes, that cannot be represented by int
+
+    public static void main(String[] args) {
+        if (args.length < 3) {
+            System.out.printf("Usage: %s numberOfObjects numberOfPairs numberOfTests [numberOfThreads]%n",
+                    ConcurrentDisjointSetStressTest.class.getName());
+            return;
+        }
+        final int numberOfObjects = Integer.parseInt(args[0]);
+        final int numberOfPairs = Integer.parseInt(args[1]);
+        final int numberOfTests = Integer.parseInt(args[2]);
+        final int numberOfThreads = args.length > 3 ?
+                Integer.parseInt(args[3]) :
+                Runtime.getRuntime().availableProcessors();
+        for (int test = 1; test <= numberOfTests; test++) {
+            final Random rnd = new Random(test);
+            final int[] pairs = new int[2 * numberOfPairs];
+            for (int k = 0; k < pairs.length; k++) {
+                pairs[k] = rnd.nextInt(numberOfObjects);
+            }
+
+            long t1 = System.nanoTime();
+            final DynamicDisjointSet reference = DynamicDisjointSet.newInstance();
+            for (int k = 0; k < pairs.length; k += 2) {
+                reference.jointObjects(pairs[k], pairs[k + 1]);
+            }
+            reference.expand(numberOfObjects - 1);
+            long t2 = System.nanoTime();
+
+            final ConcurrentDisjointSet set = ConcurrentDisjointSet.newInstance();
+            final int blockLength = (numberOfPairs + numberOfThreads - 1) / numberOfThreads;
+            IntStream.range(0, numberOfThreads).parallel().forEach(thread -> {
+                final long from = (long) thread * blockLength;
+                final long to = Math.min(from + blockLength, numberOfPairs);
+                for (long k = from; k < to; k++) {
+                    final int i = (int) (2 * k);
+                    set.jointObjects(pairs[i] + SHIFT, pairs[i + 1] + SHIFT);
+                    if ((k & 7) == 0) {
+                        // - concurrent reading while joining
+                        set.findBase(pairs[i] + SHIFT);
+                    }
+                }
+            });
+            long t3 = System.nanoTime();
+            set.resolveAllBases();
+            long t4 = System.nanoTime();
+
+            final int[] minimalInSet = new int[numberOfObjects];
+            Arrays.fill(minimalInSet, Integer.MAX_VALUE);
+            for (int k = 0; k < numberOfObjects; k++) {
+                final int base = reference.findBase(k);
+                minimalInSet[base] = Math.min(minimalInSet[base], k);
+            }
+            for (int k = 0; k < numberOfObjects; k++) {
+                final long expected = minimalInSet[reference.findBase(k)] + SHIFT;
+                final long base = set.findBase(k + SHIFT);
+                if (base != expected) {
+                    throw new AssertionError("Invalid base of " + (k + SHIFT) + ": " + base
+                            + " instead of " + expected);
+                }
+                final long parent = set.parentOrThis(k + SHIFT);
+                if (parent != expected) {
+                    throw new AssertionError("Base of " + (k + SHIFT) + " is not resolved: parent " + parent
+                            + " instead of " + expected);
+                }
+            }
+            System.out.printf(Locale.US, "Test #%d: %d pairs among %d objects, %d threads: "
+                            + "%.3f ms sequential %s, %.3f ms concurrent joining + %.3f ms resolving%n",
+                    test, numberOfPairs, numberOfObjects, numberOfThreads,
+                    (t2 - t1) * 1e-6, DynamicDisjointSet.class.getSimpleName(),
+                    (t3 - t2) * 1e-6, (t4 - t3) * 1e-6);
+        }
+        System.out.println("O'k");
+    }
+}
@@ -0,0 +1,108 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2017-2026 Daniel Alievsky, AlgART Laboratory (http://algart.net)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package net.algart.executors.modules.cv.matrices.maps.frames.joints;
+
+import net.algart.executors.modules.maps.frames.joints.ObjectPairs;
+
+import java.util.Arrays;
+import java.util.Random;
+
+public final class ObjectPairsDeltaTest {
+    private static int[] applyDelta(int[] table, int[] delta) {
+        for (int k = 0; k < delta.length; k += 2) {
+            final int object = delta[k];
+            if (object >= table.length) {
+                final int oldLength = table.length;
+                table = Arrays.copyOf(table, Math.max(object + 1, 2 * oldLength));
+                for (int i = oldLength; i < table.length; i++) {
+                    table[i] = i;
+                }
+                // - labels, never appeared in the delta, are their own bases
+            }
+            table[object] = delta[k + 1];
+        }
+        return table;
+    }
+
+    private static void checkTable(int[] table, ObjectPairs objectPairs, int batch) {
+        for (int k = 0; k < table.length; k++) {
+            final int expected = objectPairs.reindex(k);
+            final int actual = table[k];
+            if (actual != expected) {
+                throw new AssertionError("Batch #" + batch + ": object " + k + " has base " + actual
+                        + " in the table, built from deltas, instead of " + expected);
+            }
+        }
+    }
+
+    public static void main(String[] args) {
+        if (args.length < 3) {
+            System.out.printf("Usage: %s numberOfObjects pairsInBatch numberOfBatches%n",
+                    ObjectPairsDeltaTest.class.getName());
+            return;
+        }
+        final int numberOfObjects = Integer.parseInt(args[0]);
+        final int pairsInBatch = Integer.parseInt(args[1]);
+        final int numberOfBatches = Integer.parseInt(args[2]);
+        final Random rnd = new Random(157);
+        ObjectPairs objectPairs = ObjectPairs.newInstance();
+        int[] table = new int[0];
+        long version = objectPairs.version();
+        for (int batch = 1; batch <= numberOfBatches; batch++) {
+            for (int k = 0; k < pairsInBatch; k++) {
+                objectPairs.addPair(rnd.nextInt(numberOfObjects), rnd.nextInt(numberOfObjects));
+            }
+            final int[] delta = objectPairs.reindexDeltaSince(version);
+            version = objectPairs.version();
+            table = applyDelta(table, delta);
+            checkTable(table, objectPairs, batch);
+            System.out.printf("Batch #%d: %s; delta contains %d labels%n", batch, objectPairs, delta.length / 2);
+        }
+
+        objectPairs = ObjectPairs.newInstance();
+        // - one large object, growing by new labels: the delta must contain only the new labels
+        int label = 1;
+        for (int k = 0; k < 1000; k++, label++) {
+            objectPairs.addPair(0, label);
+        }
+        for (int frame = 0; frame < 10; frame++) {
+            version = objectPairs.version();
+            for (int k = 0; k < 10; k++, label++) {
+                objectPairs.addPair(label - 1, label);
+            }
+            final int[] delta = objectPairs.reindexDeltaSince(version);
+            if (delta.length != 2 * 10) {
+                throw new AssertionError("Frame #" + frame + ": delta contains " + delta.length / 2
+                        + " labels instead of 10 new labels");
+            }
+            for (int k = 0; k < delta.length; k += 2) {
+                if (delta[k + 1] != 0) {
+                    throw new AssertionError("Invalid base " + delta[k + 1] + " of " + delta[k]);
+                }
+            }
+        }
+        System.out.println("Growing object: delta contains only new labels");
+    }
+}
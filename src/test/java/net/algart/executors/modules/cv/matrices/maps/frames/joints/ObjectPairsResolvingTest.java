@@ -0,0 +1,73 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2017-2026 Daniel Alievsky, AlgART Laboratory (http://algart.net)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package net.algart.executors.modules.cv.matrices.maps.frames.joints;
+
+import net.algart.executors.modules.maps.frames.joints.ConcurrentDisjointSet;
+import net.algart.executors.modules.maps.frames.joints.ObjectPairs;
+
+import java.util.Locale;
+import java.util.Random;
+
+public final class ObjectPairsResolvingTest {
+    private static void checkResolved(ObjectPairs objectPairs) {
+        final ConcurrentDisjointSet disjointSet = objectPairs.disjointSet();
+        for (int k = 0, n = (int) disjointSet.count(); k < n; k++) {
+            final int parent = disjointSet.parentOrThis(k);
+            if (disjointSet.parentOrThis(parent) != parent) {
+                throw new AssertionError("Base of object " + k + " is not resolved: parent " + parent
+                        + " has another parent " + disjointSet.parentOrThis(parent));
+            }
+        }
+    }
+
+    public static void main(String[] args) {
+        if (args.length < 3) {
+            System.out.printf("Usage: %s numberOfObjects pairsInBatch numberOfBatches%n",
+                    ObjectPairsResolvingTest.class.getName());
+            return;
+        }
+        final int numberOfObjects = Integer.parseInt(args[0]);
+        final int pairsInBatch = Integer.parseInt(args[1]);
+        final int numberOfBatches = Integer.parseInt(args[2]);
+        final Random rnd = new Random(157);
+        final ObjectPairs objectPairs = ObjectPairs.newInstance();
+        for (int batch = 1; batch <= numberOfBatches; batch++) {
+            if (batch % 10 == 0) {
+                objectPairs.clear();
+            }
+            for (int k = 0; k < pairsInBatch; k++) {
+                objectPairs.addPair(rnd.nextInt(numberOfObjects), rnd.nextInt(numberOfObjects));
+            }
+            long t1 = System.nanoTime();
+            objectPairs.resolveAllBases();
+            long t2 = System.nanoTime();
+            objectPairs.resolveAllBases();
+            long t3 = System.nanoTime();
+            checkResolved(objectPairs);
+            System.out.printf(Locale.US, "Batch #%d: %s; resolving %.3f ms, repeated resolving %.3f ms%n",
+                    batch, objectPairs, (t2 - t1) * 1e-6, (t3 - t2) * 1e-6);
+        }
+    }
+}
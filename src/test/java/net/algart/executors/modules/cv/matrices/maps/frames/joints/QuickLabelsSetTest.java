@@ -0,0 +1,109 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2017-2026 Daniel Alievsky, AlgART Laboratory (http://algart.net)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package net.algart.executors.modules.cv.matrices.maps.frames.joints;
+
+import net.algart.executors.modules.maps.frames.joints.DynamicDisjointSet;
+import net.algart.executors.modules.maps.frames.joints.QuickLabelsSet;
+
+import java.util.BitSet;
+import java.util.Locale;
+import java.util.Random;
+
+public final class QuickLabelsSetTest {
+    private static void check(QuickLabelsSet set, BitSet reference, int from, int to) {
+        for (int label = from; label < to; label++) {
+            if (set.get(label) != reference.get(label)) {
+                throw new AssertionError("Bug in " + set + ": get(" + label + ") = " + set.get(label));
+            }
+        }
+        if (set.cardinality() != reference.cardinality()) {
+            throw new AssertionError("Bug in " + set + ": cardinality " + set.cardinality()
+                    + " instead of " + reference.cardinality());
+        }
+        final BitSet enumerated = new BitSet();
+        set.forEachLabel(enumerated::set);
+        if (!enumerated.equals(reference)) {
+            throw new AssertionError("Bug in " + set + ": forEachLabel enumerates " + enumerated.cardinality()
+                    + " labels instead of " + reference.cardinality());
+        }
+    }
+
+    public static void main(String[] args) {
+        if (args.length < 3) {
+            System.out.printf("Usage: %s maxLabel numberOfLabels numberOfTests%n",
+                    QuickLabelsSetTest.class.getName());
+            return;
+        }
+        final int maxLabel = Integer.parseInt(args[0]);
+        final int numberOfLabels = Integer.parseInt(args[1]);
+        final int numberOfTests = Integer.parseInt(args[2]);
+        for (int test = 1; test <= numberOfTests; test++) {
+            final Random rnd = new Random(test);
+            final int min = rnd.nextInt(maxLabel / 2 + 1);
+            final int[] labels = new int[numberOfLabels];
+            for (int k = 0; k < labels.length; k++) {
+                labels[k] = min + rnd.nextInt(maxLabel - min + 1);
+            }
+            long t1 = System.nanoTime();
+            final QuickLabelsSet set = QuickLabelsSet.newEmptyInstance();
+            for (int label : labels) {
+                set.expand(label);
+            }
+            set.prepareToUse();
+            for (int label : labels) {
+                set.set(label);
+            }
+            long t2 = System.nanoTime();
+            final BitSet reference = new BitSet();
+            for (int label : labels) {
+                reference.set(label);
+            }
+            final int checkedFrom = Math.max(0, set.min() - 10);
+            final int checkedTo = (int) Math.min(set.max() + 10L, checkedFrom + 10000000L);
+            check(set, reference, checkedFrom, checkedTo);
+            for (int k = 0; k < labels.length; k += 3) {
+                set.set(labels[k], false);
+                reference.clear(labels[k]);
+            }
+            check(set, reference, checkedFrom, checkedTo);
+
+            final DynamicDisjointSet disjointSet = DynamicDisjointSet.newInstance();
+            for (int k = 0; k + 1 < labels.length; k += 2) {
+                if (rnd.nextBoolean()) {
+                    disjointSet.jointObjects(labels[k], labels[k + 1]);
+                }
+            }
+            disjointSet.expand(set.max());
+            long t3 = System.nanoTime();
+            final QuickLabelsSet reindexed = set.reindex(disjointSet);
+            long t4 = System.nanoTime();
+            final BitSet reindexedReference = new BitSet();
+            reference.stream().forEach(label -> reindexedReference.set(disjointSet.findBase(label)));
+            check(reindexed, reindexedReference, checkedFrom, checkedTo);
+            System.out.printf(Locale.US, "Test #%d: %s, %d labels; %.3f ms building, %.3f ms reindexing to %s%n",
+                    test, set, set.cardinality(), (t2 - t1) * 1e-6, (t4 - t3) * 1e-6, reindexed);
+        }
+    }
+}
@@ -0,0 +1,217 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2017-2026 Daniel Alievsky, AlgART Laboratory (http://algart.net)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package net.algart.executors.modules.cv.matrices.maps.tiff;
+
+import net.algart.arrays.Matrices;
+import net.algart.arrays.Matrix;
+import net.algart.arrays.PArray;
+import net.algart.arrays.SimpleMemoryModel;
+import net.algart.executors.modules.maps.tiff.ReadTiff;
+import net.algart.math.IRectangularArea;
+import net.algart.matrices.tiff.TiffIFD;
+import net.algart.matrices.tiff.TiffWriter;
+import net.algart.matrices.tiff.tags.TagCompression;
+import net.algart.matrices.tiff.tiles.TiffWriteMap;
+import net.algart.multimatrix.MultiMatrix;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+public final class ReadTiffRegionsTest {
+    private static final int DIM_X = 1000;
+    private static final int DIM_Y = 700;
+    private static final int TILE_SIZE = 64;
+
+    private static void writeTestTiff(Path file, Random rnd) throws IOException {
+        final byte[] pixels = new byte[DIM_X * DIM_Y];
+        for (int y = 0, p = 0; y < DIM_Y; y++) {
+            for (int x = 0; x < DIM_X; x++, p++) {
+                pixels[p] = (byte) (x + 3 * y + rnd.nextInt(8));
+            }
+        }
+        final Matrix<? extends PArray> image = Matrices.matrix(
+                SimpleMemoryModel.asUpdatableByteArray(pixels), DIM_X, DIM_Y);
+        try (TiffWriter writer = new TiffWriter(file)) {
+            writer.create();
+            final TiffIFD ifd = writer.newIFD(true);
+            ifd.putTileSizes(TILE_SIZE, TILE_SIZE);
+            ifd.putCompression(TagCompression.LZW);
+            ifd.putMatrixInformation(image, false);
+            ifd.putImageDimensions(DIM_X, DIM_Y);
+            final TiffWriteMap map = writer.newMap(ifd, false);
+            writer.writeForward(map);
+            map.writeCompletedTiles(map.updateMatrix(image, 0, 0));
+            map.completeWriting();
+        }
+    }
+
+    private static List<IRectangularArea> randomRegions(Random rnd, int count) {
+        final List<IRectangularArea> result = new ArrayList<>();
+        for (int k = 0; k < count; k++) {
+            final long minX = rnd.nextInt(DIM_X + 100) - 50;
+            final long minY = rnd.nextInt(DIM_Y + 100) - 50;
+            // - some regions are partially or completely outside the image
+            result.add(IRectangularArea.of(minX, minY, minX + rnd.nextInt(200), minY + rnd.nextInt(150)));
+        }
+        return result;
+    }
+
+    private static long sizeX(IRectangularArea area) {
+        return area.maxX() - area.minX() + 1;
+    }
+
+    private static long sizeY(IRectangularArea area) {
+        return area.maxY() - area.minY() + 1;
+    }
+
+    private static List<IRectangularArea> overlappingRegions(Random rnd, int count) {
+        final List<IRectangularArea> result = new ArrayList<>();
+        final long centerX = TILE_SIZE * (1 + rnd.nextInt(DIM_X / TILE_SIZE - 2));
+        final long centerY = TILE_SIZE * (1 + rnd.nextInt(DIM_Y / TILE_SIZE - 2));
+        for (int k = 0; k < count; k++) {
+            final long minX = centerX - 1 - rnd.nextInt(TILE_SIZE);
+            final long minY = centerY - 1 - rnd.nextInt(TILE_SIZE);
+            final long maxX = centerX + rnd.nextInt(TILE_SIZE);
+            final long maxY = centerY + rnd.nextInt(TILE_SIZE);
+            result.add(IRectangularArea.of(minX, minY, maxX, maxY));
+            // - all regions contain the point (centerX, centerY) and lie inside 2x2 tiles around it
+        }
+        return result;
+    }
+
+    private static int numberOfCoveredTiles(List<IRectangularArea> regions, IRectangularArea image) {
+        final Set<Long> tiles = new HashSet<>();
+        for (IRectangularArea region : regions) {
+            final IRectangularArea cropped = region.intersection(image);
+            if (cropped == null) {
+                continue;
+            }
+            for (long y = cropped.minY() / TILE_SIZE; y <= cropped.maxY() / TILE_SIZE; y++) {
+                for (long x = cropped.minX() / TILE_SIZE; x <= cropped.maxX() / TILE_SIZE; x++) {
+                    tiles.add(y * DIM_X + x);
+                }
+            }
+        }
+        return tiles.size();
+    }
+
+    private static MultiMatrix readSingle(Path file, IRectangularArea region) {
+        final ReadTiff readTiff = ReadTiff.getInstance();
+        try {
+            readTiff.setWholeImage(false);
+            readTiff.setX((int) region.minX()).setY((int) region.minY());
+            readTiff.setSizeX((int) sizeX(region)).setSizeY((int) sizeY(region));
+            return readTiff.readTiff(file);
+        } finally {
+            readTiff.close();
+        }
+    }
+
+    private static void checkRegions(Path file, List<IRectangularArea> regions, int numberOfThreads) {
+        final MultiMatrix stacked;
+        final ReadTiff readTiff = ReadTiff.getInstance();
+        try {
+            readTiff.setNumberOfReadingThreads(numberOfThreads);
+            stacked = readTiff.readTiffRegions(file, regions);
+        } finally {
+            readTiff.close();
+            // - also shuts down the threads, used for reading
+        }
+        final IRectangularArea image = IRectangularArea.of(0, 0, DIM_X - 1, DIM_Y - 1);
+        final int coveredTiles = numberOfCoveredTiles(regions, image);
+        if (readTiff.numberOfReadTiles() != coveredTiles) {
+            throw new AssertionError(readTiff.numberOfReadTiles() + " tiles were read (" + numberOfThreads
+                    + " threads) instead of " + coveredTiles + ": some tiles were decoded several times");
+        }
+        if (stacked == null) {
+            if (regions.stream().anyMatch(region -> region.intersection(image) != null)) {
+                throw new AssertionError("Nothing was read, though some regions intersect the image");
+            }
+            return;
+        }
+        final Matrix<? extends PArray> result = stacked.channel(0);
+        long y = 0;
+        for (IRectangularArea region : regions) {
+            final IRectangularArea cropped = region.intersection(image);
+            if (cropped == null) {
+                continue;
+            }
+            final Matrix<? extends PArray> expected = readSingle(file, cropped).channel(0);
+            final long sizeX = sizeX(cropped);
+            final long sizeY = sizeY(cropped);
+            if (!result.subMatrix(0, y, sizeX, y + sizeY).equals(expected)) {
+                throw new AssertionError("Region " + cropped + " (" + numberOfThreads
+                        + " threads) differs from single-region reading");
+            }
+            if (sizeX < result.dimX()) {
+                final PArray padding = result.subMatrix(sizeX, y, result.dimX(), y + sizeY).array();
+                for (long k = 0, n = padding.length(); k < n; k++) {
+                    if (padding.getDouble(k) != 0.0) {
+                        throw new AssertionError("Non-zero padding to the right of region " + cropped);
+                    }
+                }
+            }
+            y += sizeY;
+        }
+        if (y != result.dimY()) {
+            throw new AssertionError("Invalid height of the result: " + result.dimY() + " instead of " + y);
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.out.println("Usage:");
+            System.out.println("    " + ReadTiffRegionsTest.class.getName() + " result_folder");
+            return;
+        }
+        final Path folder = Paths.get(args[0]);
+        Files.createDirectories(folder);
+        final Path file = folder.resolve("regions_test.tiff");
+        final Random rnd = new Random(157);
+        writeTestTiff(file, rnd);
+        for (int test = 0; test < 20; test++) {
+            final List<IRectangularArea> regions = randomRegions(rnd, 1 + rnd.nextInt(12));
+            for (int numberOfThreads : new int[]{1, 4}) {
+                checkRegions(file, regions, numberOfThreads);
+            }
+        }
+        for (int test = 0; test < 20; test++) {
+            final List<IRectangularArea> regions = overlappingRegions(rnd, 2 + rnd.nextInt(10));
+            // - all regions form one group and are read by one thread
+            for (int numberOfThreads : new int[]{1, 4}) {
+                checkRegions(file, regions, numberOfThreads);
+            }
+        }
+        System.out.println("Every tile is read and decoded once");
+        System.out.println("Multi-region reading is identical to sequential single-region reading");
+    }
+}
@@ -0,0 +1,122 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2017-2026 Daniel Alievsky, AlgART Laboratory (http://algart.net)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package net.algart.executors.modules.maps.pyramids.io;
+
+import net.algart.math.IRectangularArea;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+public class RoiIntersectionBenchmark {
+    private static int[] simpleFirstIntersectingPair(List<IRectangularArea> rectangles) {
+        for (int i = 0, n = rectangles.size(); i < n; i++) {
+            final IRectangularArea r = rectangles.get(i);
+            for (int j = i + 1; j < n; j++) {
+                final IRectangularArea other = rectangles.get(j);
+                if (other.max(0) >= r.min(0) && other.min(0) <= r.max(0)
+                        && other.max(1) >= r.min(1) && other.min(1) <= r.max(1)) {
+                    return new int[]{i, j};
+                }
+            }
+        }
+        return null;
+    }
+
+    private static List<IRectangularArea> nonIntersecting(int n, Random rnd) {
+        final int gridSize = (int) Math.ceil(Math.sqrt(n));
+        final List<IRectangularArea> result = new ArrayList<>();
+        for (int k = 0; k < n; k++) {
+            final long x = (long) (k % gridSize) * 100;
+            final long y = (long) (k / gridSize) * 100;
+            result.add(IRectangularArea.of(
+                    x + rnd.nextInt(20), y + rnd.nextInt(20),
+                    x + 50 + rnd.nextInt(50), y + 50 + rnd.nextInt(50)));
+        }
+        Collections.shuffle(result, rnd);
+        return result;
+    }
+
+    private static void check(List<IRectangularArea> rectangles, boolean compareWithSimple) {
+        long t1 = System.nanoTime();
+        final int[] pair = ImagePyramidLevelRois.firstIntersectingPair(rectangles);
+        long t2 = System.nanoTime();
+        System.out.printf(Locale.US, "%d rectangles: sweep line %.3f ms, result %s%n",
+                rectangles.size(), (t2 - t1) * 1e-6, Arrays.toString(pair));
+        if (compareWithSimple) {
+            t1 = System.nanoTime();
+            final int[] simplePair = simpleFirstIntersectingPair(rectangles);
+            t2 = System.nanoTime();
+            System.out.printf(Locale.US, "%d rectangles: simple loop %.3f ms, result %s%n",
+                    rectangles.size(), (t2 - t1) * 1e-6, Arrays.toString(simplePair));
+            if (!Arrays.equals(pair, simplePair)) {
+                throw new AssertionError("Bug: different results " + Arrays.toString(pair)
+                        + " and " + Arrays.toString(simplePair));
+            }
+        }
+    }
+
+    public static void main(String[] args) {
+        if (args.length < 1) {
+            System.out.println("Usage: " + RoiIntersectionBenchmark.class.getName()
+                    + " numberOfRectangles [numberOfTests]");
+            return;
+        }
+        final int n = Integer.parseInt(args[0]);
+        final int numberOfTests = args.length > 1 ? Integer.parseInt(args[1]) : 3;
+        final Random rnd = new Random(157);
+        for (int test = 1; test <= numberOfTests; test++) {
+            System.out.printf("%nTest #%d%n", test);
+            final List<IRectangularArea> rectangles = nonIntersecting(n, rnd);
+            check(rectangles, n <= 20000);
+            for (int m = 0; m < 5; m++) {
+                // - adding some intersections
+                final IRectangularArea r = rectangles.get(rnd.nextInt(n));
+                final long dx = rnd.nextInt(30) - 15;
+                final long dy = rnd.nextInt(30) - 15;
+                rectangles.set(rnd.nextInt(n), IRectangularArea.of(
+                        r.min(0) + dx, r.min(1) + dy, r.max(0) + dx, r.max(1) + dy));
+                check(rectangles, true);
+            }
+        }
+        // Small random cases with many intersections: compare all results
+        for (int test = 0; test < 10000; test++) {
+            final List<IRectangularArea> rectangles = new ArrayList<>();
+            for (int k = 0, count = 1 + rnd.nextInt(10); k < count; k++) {
+                final long x = rnd.nextInt(100);
+                final long y = rnd.nextInt(100);
+                rectangles.add(IRectangularArea.of(x, y, x + rnd.nextInt(20), y + rnd.nextInt(20)));
+            }
+            if (!Arrays.equals(ImagePyramidLevelRois.firstIntersectingPair(rectangles),
+                    simpleFirstIntersectingPair(rectangles))) {
+                throw new AssertionError("Bug in " + rectangles);
+            }
+        }
+        System.out.println("\nSmall random tests passed");
+    }
+}
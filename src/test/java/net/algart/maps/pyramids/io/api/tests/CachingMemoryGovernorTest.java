@@ -0,0 +1,114 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2017-2026 Daniel Alievsky, AlgART Laboratory (http://algart.net)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package net.algart.maps.pyramids.io.api.tests;
+
+import net.algart.maps.pyramids.io.api.CachingMemoryGovernor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class CachingMemoryGovernorTest {
+    private static final long MB = 1048576;
+
+    private static final class TestCache {
+        final CachingMemoryGovernor.Account account;
+        long limit;
+
+        TestCache(CachingMemoryGovernor governor, String name, long requested) {
+            this.limit = requested;
+            this.account = governor.register(name, requested, l -> this.limit = l);
+        }
+    }
+
+    private static void check(boolean condition, String message) {
+        if (!condition) {
+            throw new AssertionError(message);
+        }
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        final CachingMemoryGovernor governor = new CachingMemoryGovernor(200 * MB);
+        final List<TestCache> caches = new ArrayList<>();
+        for (int k = 0; k < 5; k++) {
+            caches.add(new TestCache(governor, "cache #" + k, 64 * MB));
+        }
+        final TestCache little = new TestCache(governor, "little cache", MB);
+        final CachingMemoryGovernor.Account buffer = governor.register("map buffer", 0, null);
+        buffer.setUsedMemory(50 * MB);
+        for (int k = 0; k < 1000; k++) {
+            caches.get(0).account.access(k % 10 != 0);
+            // - hot cache: 90% of hits
+            caches.get(1).account.access(k % 2 == 0);
+            caches.get(2).account.access(false);
+        }
+        governor.rebalance();
+        long sum = little.limit;
+        for (TestCache cache : caches) {
+            System.out.println(cache.account);
+            check(cache.limit <= 64 * MB, "Limit exceeds requested memory: " + cache.account);
+            check(cache.limit >= 4 * MB, "Limit is less than minimal: " + cache.account);
+            sum += cache.limit;
+        }
+        System.out.println(little.account);
+        System.out.println(buffer);
+        System.out.println(governor);
+        check(little.limit == MB, "Little cache must receive all requested memory");
+        check(sum <= 150 * MB, "Total limit " + sum + " exceeds the budget, available for adjustable caches");
+        check(sum >= 150 * MB - caches.size() - 1, "Total limit " + sum + " is too less");
+        check(caches.get(0).limit > caches.get(1).limit, "Hot cache received less than the warm one");
+        check(caches.get(1).limit > caches.get(2).limit, "Warm cache received less than the cold one");
+
+        buffer.setUsedMemory(500 * MB);
+        governor.rebalance();
+        for (TestCache cache : caches) {
+            check(cache.limit == 4 * MB, "Minimal limit expected when the budget is exhausted: " + cache.account);
+        }
+        buffer.setUsedMemory(0);
+        governor.unregister(caches.remove(4).account);
+        governor.unregister(caches.remove(3).account);
+        // - now 3 * 64 + 1 MB < 200 MB
+        governor.rebalance();
+        System.out.println(governor.usage());
+        for (TestCache cache : caches) {
+            check(cache.limit == 64 * MB, "Full limit expected for enough budget: " + cache.account);
+        }
+        final CachingMemoryGovernor.Account shared = governor.register("shared cache", MB, limit -> {
+        });
+        final Thread[] threads = new Thread[8];
+        for (int k = 0; k < threads.length; k++) {
+            threads[k] = new Thread(() -> {
+                for (int i = 0; i < 100000; i++) {
+                    shared.access(i % 4 != 0);
+                }
+            });
+            threads[k].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        check(shared.hitRate() == 0.75, "Statistics are lost while concurrent access: " + shared);
+        System.out.println("O'k");
+    }
+}
@@ -0,0 +1,207 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2017-2026 Daniel Alievsky, AlgART Laboratory (http://algart.net)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package net.algart.maps.pyramids.io.api.tests;
+
+import net.algart.arrays.Arrays;
+import net.algart.arrays.Matrices;
+import net.algart.arrays.Matrix;
+import net.algart.arrays.PArray;
+import net.algart.arrays.SimpleMemoryModel;
+import net.algart.maps.pyramids.io.api.AbstractPlanePyramidSource;
+import net.algart.math.IRectangularArea;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+public class ConstantTilesTest {
+    private static final int TILE_DIM = 1024;
+    private static final int BAND_COUNT = 3;
+
+    static final class SparseSource extends AbstractPlanePyramidSource {
+        private final long dimX;
+        private final long dimY;
+        long readCount = 0;
+        List<IRectangularArea> actualRectangles = null;
+
+        SparseSource(long dimX, long dimY) {
+            this.dimX = dimX;
+            this.dimY = dimY;
+        }
+
+        @Override
+        public int numberOfResolutions() {
+            return 1;
+        }
+
+        @Override
+        public int bandCount() {
+            return BAND_COUNT;
+        }
+
+        @Override
+        public long[] dimensions(int resolutionLevel) {
+            return new long[]{BAND_COUNT, dimX, dimY};
+        }
+
+        @Override
+        public long dim(int resolutionLevel, int index) {
+            return dimensions(resolutionLevel)[index];
+        }
+
+        @Override
+        public boolean isElementTypeSupported() {
+            return true;
+        }
+
+        @Override
+        public Class<?> elementType() {
+            return byte.class;
+        }
+
+        @Override
+        public List<IRectangularArea> zeroLevelActualRectangles() {
+            return actualRectangles;
+        }
+
+        @Override
+        protected int readingTileDim() {
+            return TILE_DIM;
+        }
+
+        @Override
+        protected Matrix<? extends PArray> readLittleSubMatrix(
+                int resolutionLevel, long fromX, long fromY, long toX, long toY) {
+            readCount++;
+            final int sizeX = (int) (toX - fromX);
+            final int sizeY = (int) (toY - fromY);
+            final byte[] data = new byte[BAND_COUNT * sizeX * sizeY];
+            for (int y = 0, disp = 0; y < sizeY; y++) {
+                for (int x = 0; x < sizeX; x++) {
+                    for (int band = 0; band < BAND_COUNT; band++, disp++) {
+                        data[disp] = (byte) expected(fromX + x, fromY + y, band);
+                    }
+                }
+            }
+            return Matrices.matrix(SimpleMemoryModel.asUpdatableByteArray(data), BAND_COUNT, sizeX, sizeY);
+        }
+    }
+
+    static int expected(long x, long y, int band) {
+        final long tileX = x / TILE_DIM;
+        final long tileY = y / TILE_DIM;
+        if ((tileX + tileY) % 5 == 0) {
+            return (int) ((x ^ y) + band * 50) & 0xFF;
+            // - "tissue"
+        }
+        return tileX % 7 == 3 ? 0x10 : 0xF0;
+        // - two kinds of background
+    }
+
+    private static void check(Matrix<? extends PArray> m, long fromX, long fromY) {
+        final PArray array = m.array();
+        long index = 0;
+        for (long y = fromY, toY = fromY + m.dim(2); y < toY; y++) {
+            for (long x = fromX, toX = fromX + m.dim(1); x < toX; x++) {
+                for (int band = 0; band < BAND_COUNT; band++, index++) {
+                    final int actual = (int) array.getDouble(index);
+                    if (actual != expected(x, y, band)) {
+                        throw new AssertionError("Bug at (" + x + ", " + y + "), band " + band + ": "
+                                + actual + " instead of " + expected(x, y, band));
+                    }
+                }
+            }
+        }
+    }
+
+    private static void test(boolean caching, Random rnd) {
+        final SparseSource source = new SparseSource(32 * TILE_DIM, 20 * TILE_DIM);
+        if (caching) {
+            source.enableTileCaching(AbstractPlanePyramidSource.TileDirection.RIGHT_DOWN);
+        }
+        long constantCount = 0;
+        long t1 = System.nanoTime();
+        for (int test = 0; test < 200; test++) {
+            final long sizeX = 1 + rnd.nextInt(3 * TILE_DIM);
+            final long sizeY = 1 + rnd.nextInt(3 * TILE_DIM);
+            final long fromX = rnd.nextInt((int) (source.dimX - sizeX));
+            final long fromY = rnd.nextInt((int) (source.dimY - sizeY));
+            final Matrix<? extends PArray> m = source.readSubMatrix(0, fromX, fromY, fromX + sizeX, fromY + sizeY);
+            check(m, fromX, fromY);
+            if (Arrays.isNCopies(m.array())) {
+                constantCount++;
+            }
+        }
+        long t2 = System.nanoTime();
+        // Background-only area: tiles (1,0), (2,0), (1,1)... are not "tissue" and have the same constant
+        final Matrix<? extends PArray> background = source.readSubMatrix(0,
+                TILE_DIM + 10, 10, 2 * TILE_DIM + 1000, TILE_DIM + 500);
+        check(background, TILE_DIM + 10, 10);
+        if (!Arrays.isNCopies(background.array())) {
+            throw new AssertionError("Background area is not recognized as constant");
+        }
+        System.out.printf(Locale.US, "Caching %s: 200 random areas checked in %.3f ms, "
+                        + "%d constant results, %d tiles decoded%n",
+                caching, (t2 - t1) * 1e-6, constantCount, source.readCount);
+    }
+
+    private static void testActualRectangles(boolean caching) {
+        final SparseSource source = new SparseSource(32 * TILE_DIM, 20 * TILE_DIM);
+        source.actualRectangles = List.of(IRectangularArea.of(0, 0, 4 * TILE_DIM - 1, 3 * TILE_DIM - 1));
+        source.setSkipCoarseData(true);
+        source.setSkippingFiller(1.0);
+        if (caching) {
+            source.enableTileCaching(AbstractPlanePyramidSource.TileDirection.RIGHT_DOWN);
+        }
+        final Matrix<? extends PArray> actual = source.readSubMatrix(0, 100, 200, 3000, 2500);
+        check(actual, 100, 200);
+        final long count = source.readCount;
+        final Matrix<? extends PArray> outside = source.readSubMatrix(0,
+                4 * TILE_DIM + 100, 100, 9 * TILE_DIM, 5 * TILE_DIM);
+        final Matrix<? extends PArray> outsideFrame = source.readSubMatrix(0,
+                100, 3 * TILE_DIM + 100, 900, 3 * TILE_DIM + 900);
+        if (source.readCount != count) {
+            throw new AssertionError("Tiles outside actual rectangles were read: "
+                    + (source.readCount - count) + " tiles");
+        }
+        for (Matrix<? extends PArray> m : List.of(outside, outsideFrame)) {
+            if (!Arrays.isNCopies(m.array()) || m.array().getDouble(0) != 0xFF) {
+                throw new AssertionError("Area outside actual rectangles is not filled by the skipping filler");
+            }
+        }
+        System.out.printf(Locale.US, "Caching %s: areas outside actual rectangles are not read "
+                + "(%d tiles decoded)%n", caching, source.readCount);
+    }
+
+    public static void main(String[] args) {
+        final Random rnd = new Random(157);
+        for (int k = 0; k < 3; k++) {
+            test(false, rnd);
+            test(true, rnd);
+        }
+        testActualRectangles(false);
+        testActualRectangles(true);
+    }
+}
@@ -0,0 +1,166 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2017-2026 Daniel Alievsky, AlgART Laboratory (http://algart.net)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package net.algart.maps.pyramids.io.api.tests;
+
+import net.algart.arrays.Matrices;
+import net.algart.arrays.Matrix;
+import net.algart.arrays.PArray;
+import net.algart.arrays.SimpleMemoryModel;
+import net.algart.maps.pyramids.io.api.AbstractPlanePyramidSource;
+import net.algart.maps.pyramids.io.api.PlanePyramidSource;
+
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class TileScanningCacheTest {
+    private static final int TILE_DIM = 256;
+    private static final int FRAME_DIM = 250;
+    private static final int BAND_COUNT = 3;
+    private static final long DIM_X = 16 * TILE_DIM;
+    private static final long DIM_Y = 10 * TILE_DIM;
+    private static final long NUMBER_OF_TILES = 16 * 10;
+
+    enum Scanning {
+        ROWS(false, false),
+        ROWS_BY_SNAKE(false, true),
+        COLUMNS(true, false),
+        COLUMNS_BY_SNAKE(true, true);
+
+        final boolean columns;
+        final boolean snake;
+
+        Scanning(boolean columns, boolean snake) {
+            this.columns = columns;
+            this.snake = snake;
+        }
+    }
+
+    static final class CountingSource extends AbstractPlanePyramidSource {
+        final AtomicLong readCount = new AtomicLong();
+
+        @Override
+        public int numberOfResolutions() {
+            return 1;
+        }
+
+        @Override
+        public int bandCount() {
+            return BAND_COUNT;
+        }
+
+        @Override
+        public long[] dimensions(int resolutionLevel) {
+            return new long[]{BAND_COUNT, DIM_X, DIM_Y};
+        }
+
+        @Override
+        public long dim(int resolutionLevel, int index) {
+            return dimensions(resolutionLevel)[index];
+        }
+
+        @Override
+        protected int readingTileDim() {
+            return TILE_DIM;
+        }
+
+        @Override
+        protected Matrix<? extends PArray> readLittleSubMatrix(
+                int resolutionLevel, long fromX, long fromY, long toX, long toY) {
+            readCount.incrementAndGet();
+            final int sizeX = (int) (toX - fromX);
+            final int sizeY = (int) (toY - fromY);
+            final byte[] data = new byte[BAND_COUNT * sizeX * sizeY];
+            for (int y = 0, disp = 0; y < sizeY; y++) {
+                for (int x = 0; x < sizeX; x++) {
+                    for (int band = 0; band < BAND_COUNT; band++, disp++) {
+                        data[disp] = (byte) expected(fromX + x, fromY + y, band);
+                    }
+                }
+            }
+            return Matrices.matrix(SimpleMemoryModel.asUpdatableByteArray(data), BAND_COUNT, sizeX, sizeY);
+        }
+    }
+
+    static int expected(long x, long y, int band) {
+        return (int) (x * 7 + y * 13 + band * 50) & 0xFF;
+    }
+
+    private static void check(Matrix<? extends PArray> m, long fromX, long fromY) {
+        final PArray array = m.array();
+        long index = 0;
+        for (long y = fromY, toY = fromY + m.dim(2); y < toY; y++) {
+            for (long x = fromX, toX = fromX + m.dim(1); x < toX; x++) {
+                for (int band = 0; band < BAND_COUNT; band++, index++) {
+                    final int actual = (int) array.getDouble(index);
+                    if (actual != expected(x, y, band)) {
+                        throw new AssertionError("Bug at (" + x + ", " + y + "), band " + band + ": "
+                                + actual + " instead of " + expected(x, y, band));
+                    }
+                }
+            }
+        }
+    }
+
+    private static void test(Scanning scanning, boolean readahead) throws InterruptedException {
+        final CountingSource source = new CountingSource();
+        source.setTileCachingMemory(40L * TILE_DIM * TILE_DIM * BAND_COUNT);
+        // - enough for 2 rows of tiles, but not for the whole map
+        source.enableTileCaching(AbstractPlanePyramidSource.TileDirection.RIGHT_DOWN);
+        source.setTileReadahead(readahead);
+        final long nx = (DIM_X + FRAME_DIM - 1) / FRAME_DIM;
+        final long ny = (DIM_Y + FRAME_DIM - 1) / FRAME_DIM;
+        final long highCount = scanning.columns ? nx : ny;
+        final long lowCount = scanning.columns ? ny : nx;
+        long t1 = System.nanoTime();
+        for (long high = 0; high < highCount; high++) {
+            for (long k = 0; k < lowCount; k++) {
+                final long low = scanning.snake && high % 2 == 1 ? lowCount - 1 - k : k;
+                final long fromX = (scanning.columns ? high : low) * FRAME_DIM;
+                final long fromY = (scanning.columns ? low : high) * FRAME_DIM;
+                final long toX = Math.min(fromX + FRAME_DIM, DIM_X);
+                final long toY = Math.min(fromY + FRAME_DIM, DIM_Y);
+                final Matrix<? extends PArray> m = source.readSubMatrix(0, fromX, fromY, toX, toY);
+                check(m, fromX, fromY);
+                Thread.sleep(1);
+                // - "processing" of the frame: gives a chance to read ahead
+            }
+        }
+        long t2 = System.nanoTime();
+        System.out.printf(Locale.US, "%-16s, readahead %-5s: %d frames checked in %.3f ms, %d tiles decoded%n",
+                scanning, readahead, nx * ny, (t2 - t1) * 1e-6, source.readCount.get());
+        if (source.readCount.get() != NUMBER_OF_TILES) {
+            throw new AssertionError("Every tile must be decoded once, but " + source.readCount.get()
+                    + " decodings performed for " + NUMBER_OF_TILES + " tiles");
+        }
+        source.freeResources(PlanePyramidSource.FlushMode.STANDARD);
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        for (Scanning scanning : Scanning.values()) {
+            test(scanning, false);
+            test(scanning, true);
+        }
+    }
+}
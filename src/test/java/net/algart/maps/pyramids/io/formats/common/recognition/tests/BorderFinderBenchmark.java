@@ -0,0 +1,99 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2017-2026 Daniel Alievsky, AlgART Laboratory (http://algart.net)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package net.algart.maps.pyramids.io.formats.common.recognition.tests;
+
+import net.algart.arrays.Matrix;
+import net.algart.arrays.UpdatablePArray;
+import net.algart.io.awt.ImageToMatrix;
+import net.algart.maps.pyramids.io.formats.common.recognition.BorderFinder;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.util.Locale;
+
+public class BorderFinderBenchmark {
+    private static BorderFinder find(
+            Matrix<? extends UpdatablePArray> macro,
+            long leftTopX,
+            long leftTopY,
+            Integer sizeForSearch,
+            boolean multithreading) {
+        final BorderFinder finder = new BorderFinder(macro);
+        if (sizeForSearch != null) {
+            finder.setSizeForSearchX(sizeForSearch);
+            finder.setSizeForSearchY(sizeForSearch);
+        }
+        finder.setLeftTopEstimation(leftTopX, leftTopY);
+        finder.setMultithreading(multithreading);
+        long t1 = System.nanoTime();
+        finder.preprocess();
+        long t2 = System.nanoTime();
+        finder.findLeftTop();
+        long t3 = System.nanoTime();
+        finder.findAllLeftTopQualities(1.0);
+        long t4 = System.nanoTime();
+        System.out.printf(Locale.US, "  %s: (%d,%d), quality %.5f; "
+                        + "%.3f ms preprocess + %.3f ms search + %.3f ms all qualities%n",
+                multithreading ? "multithreading" : "single thread",
+                finder.getResultLeftTopX(), finder.getResultLeftTopY(), finder.getResultLeftTopQuality(),
+                (t2 - t1) * 1e-6, (t3 - t2) * 1e-6, (t4 - t3) * 1e-6);
+        return finder;
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 3) {
+            System.out.println("Usage:");
+            System.out.println("    " + BorderFinderBenchmark.class.getName() + " image-file x y "
+                    + "[sizeForSearch [numberOfTests]]");
+            System.out.println("Arguments are the same as in " + BorderFinderTest.class.getName());
+            return;
+        }
+        final File file = new File(args[0]);
+        final BufferedImage bufferedImage = ImageIO.read(file);
+        if (bufferedImage == null) {
+            throw new IOException("Cannot read " + file);
+        }
+        final Matrix<? extends UpdatablePArray> macro = new ImageToMatrix.ToInterleavedRGB()
+                .toMatrix(bufferedImage);
+        final long leftTopX = Integer.parseInt(args[1]);
+        final long leftTopY = Integer.parseInt(args[2]);
+        final Integer sizeForSearch = args.length >= 4 ? Integer.valueOf(args[3]) : null;
+        final int numberOfTests = args.length >= 5 ? Integer.parseInt(args[4]) : 5;
+        System.out.printf("Processing %s...%n", file);
+        for (int test = 1; test <= numberOfTests; test++) {
+            System.out.printf("Test #%d%n", test);
+            final BorderFinder single = find(macro, leftTopX, leftTopY, sizeForSearch, false);
+            final BorderFinder multithreading = find(macro, leftTopX, leftTopY, sizeForSearch, true);
+            if (single.getResultLeftTopX() != multithreading.getResultLeftTopX()
+                    || single.getResultLeftTopY() != multithreading.getResultLeftTopY()
+                    || Double.compare(single.getResultLeftTopQuality(),
+                    multithreading.getResultLeftTopQuality()) != 0) {
+                throw new AssertionError("Different results in single-thread and multithreading modes");
+            }
+        }
+    }
+}
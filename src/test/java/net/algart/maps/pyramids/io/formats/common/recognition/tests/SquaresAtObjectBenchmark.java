@@ -0,0 +1,104 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2017-2026 Daniel Alievsky, AlgART Laboratory (http://algart.net)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package net.algart.maps.pyramids.io.formats.common.recognition.tests;
+
+import net.algart.arrays.Arrays;
+import net.algart.arrays.Matrix;
+import net.algart.arrays.UpdatableBitArray;
+import net.algart.maps.pyramids.io.formats.common.recognition.SquaresAtObject;
+import net.algart.math.IRectangularArea;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+public class SquaresAtObjectBenchmark {
+    private static Matrix<UpdatableBitArray> randomMask(int dimX, int dimY, int numberOfDisks, Random rnd) {
+        final Matrix<UpdatableBitArray> result = Arrays.SMM.newBitMatrix(dimX, dimY);
+        final UpdatableBitArray array = result.array();
+        final int maxRadius = Math.max(2, Math.min(dimX, dimY) / 6);
+        for (int k = 0; k < numberOfDisks; k++) {
+            final int centerX = rnd.nextInt(dimX);
+            final int centerY = rnd.nextInt(dimY);
+            final int r = 1 + rnd.nextInt(maxRadius);
+            for (int y = Math.max(centerY - r, 0), toY = Math.min(centerY + r, dimY - 1); y <= toY; y++) {
+                for (int x = Math.max(centerX - r, 0), toX = Math.min(centerX + r, dimX - 1); x <= toX; x++) {
+                    final long dx = x - centerX;
+                    final long dy = y - centerY;
+                    if (dx * dx + dy * dy <= (long) r * r) {
+                        array.setBit((long) y * dimX + x);
+                    }
+                }
+            }
+        }
+        return result;
+    }
+
+    private static List<IRectangularArea> find(
+            Matrix<UpdatableBitArray> mask,
+            int maxNumberOfSquares,
+            long overlap,
+            boolean iterativeErosion) {
+        final SquaresAtObject squares = SquaresAtObject.getInstance(mask);
+        squares.setMaxNumberOfSquares(maxNumberOfSquares);
+        squares.setOverlapOfSquares(overlap);
+        long t1 = System.nanoTime();
+        if (iterativeErosion) {
+            squares.findSquaresWithDecreasingSizesByIterativeErosion();
+        } else {
+            squares.findSquaresWithDecreasingSizes();
+        }
+        long t2 = System.nanoTime();
+        System.out.printf(Locale.US, "  %s: %d squares found in %.3f ms%n",
+                iterativeErosion ? "iterative erosion for every square" : "incremental distance map  ",
+                squares.getFoundSquares().size(), (t2 - t1) * 1e-6);
+        return squares.getFoundSquares();
+    }
+
+    public static void main(String[] args) {
+        if (args.length < 2) {
+            System.out.println("Usage:");
+            System.out.println("    " + SquaresAtObjectBenchmark.class.getName()
+                    + " dimX dimY [maxNumberOfSquares [overlap [numberOfTests]]]");
+            return;
+        }
+        final int dimX = Integer.parseInt(args[0]);
+        final int dimY = Integer.parseInt(args[1]);
+        final int maxNumberOfSquares = args.length >= 3 ? Integer.parseInt(args[2]) : 100;
+        final long overlap = args.length >= 4 ? Long.parseLong(args[3]) : 0;
+        final int numberOfTests = args.length >= 5 ? Integer.parseInt(args[4]) : 5;
+        final Random rnd = new Random(157);
+        for (int test = 1; test <= numberOfTests; test++) {
+            final Matrix<UpdatableBitArray> mask = randomMask(dimX, dimY, 1 + rnd.nextInt(30), rnd);
+            System.out.printf("Test #%d, %dx%d mask, %d unit pixels%n",
+                    test, dimX, dimY, Arrays.cardinality(mask.array()));
+            final List<IRectangularArea> incremental = find(mask, maxNumberOfSquares, overlap, false);
+            final List<IRectangularArea> reference = find(mask, maxNumberOfSquares, overlap, true);
+            if (!incremental.equals(reference)) {
+                throw new AssertionError("Different squares found: " + incremental + " instead of " + reference);
+            }
+        }
+    }
+}
@@ -0,0 +1,507 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2017-2026 Daniel Alievsky, AlgART Laboratory (http://algart.net)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package net.algart.maps.pyramids.io.formats.sources.svs.tests;
+
+import net.algart.arrays.Matrices;
+import net.algart.arrays.Matrix;
+import net.algart.arrays.SimpleMemoryModel;
+import net.algart.arrays.UpdatablePArray;
+import net.algart.maps.pyramids.io.formats.sources.svs.SVSPlanePyramidSource;
+import net.algart.matrices.tiff.TiffIFD;
+import net.algart.matrices.tiff.TiffWriter;
+import net.algart.matrices.tiff.tags.TagCompression;
+import net.algart.matrices.tiff.tiles.TiffTile;
+import net.algart.matrices.tiff.tiles.TiffWriteMap;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.*;
+import java.util.stream.IntStream;
+
+/**
+ * Writer of synthetic SVS-compatible slides: tiled pyramid levels, stripped thumbnail, label and macro IFDs
+ * in the order used by Aperio scanners, and Aperio image descriptions with pixel size and slide geometry.
+ * The content depends only on the seed and on the sizes: the same settings always produce the same pixels,
+ * so the results can be used for tests and benchmarks without real slides.
+ *
+ * <p>The image is a white background ({@link #BACKGROUND}, exactly constant) with "tissue":
+ * random discs with noise, one or no disc in every grid cell {@link #CELL_SIZE}x{@link #CELL_SIZE}.
+ * Pixel values at all levels are calculated by {@link #pixel(long, long, int)}
+ * for the center of the corresponding zero-level area, so the levels are consistent.
+ */
+public final class SyntheticSVSGenerator {
+    public static final byte BACKGROUND = SVSPlanePyramidSource.TIFF_FILLER;
+    public static final int CELL_SIZE = 512;
+    public static final double SLIDE_WIDTH_IN_MICRONS = 75000.0;
+    public static final double SLIDE_HEIGHT_IN_MICRONS = 26000.0;
+
+    private static final int BAND_COUNT = 3;
+    private static final int MIN_LEVEL_SIDE = 256;
+    private static final int THUMBNAIL_SIDE = 1024;
+    private static final int LABEL_DIM_X = 480;
+    private static final int LABEL_DIM_Y = 460;
+    private static final int MACRO_DIM_X = 1500;
+    private static final int MACRO_DIM_Y = (int) Math.round(
+            MACRO_DIM_X * SLIDE_HEIGHT_IN_MICRONS / SLIDE_WIDTH_IN_MICRONS);
+    private static final byte MACRO_GLASS = (byte) 0xC0;
+
+    private long seed = 157;
+    private long dimX = 20000;
+    private long dimY = 15000;
+    private int tileSize = 256;
+    private int levelCompression = 4;
+    private int numberOfLevels = 0;
+    private final Set<Integer> omittedLevels = new TreeSet<>();
+    private TagCompression compression = TagCompression.JPEG;
+    private Double quality = null;
+    private boolean thumbnail = true;
+    private boolean label = true;
+    private boolean macro = true;
+    private double pixelSizeInMicrons = 0.5;
+    private double magnification = 20.0;
+    private double imageLeftInMicrons = 20000.0;
+    private double imageTopInMicronsAxisUpward = 22000.0;
+    private boolean bigTiff = false;
+
+    private SyntheticSVSGenerator() {
+    }
+
+    public static SyntheticSVSGenerator newInstance() {
+        return new SyntheticSVSGenerator();
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    public SyntheticSVSGenerator setSeed(long seed) {
+        this.seed = seed;
+        return this;
+    }
+
+    public long getDimX() {
+        return dimX;
+    }
+
+    public long getDimY() {
+        return dimY;
+    }
+
+    public SyntheticSVSGenerator setDimensions(long dimX, long dimY) {
+        if (dimX <= 0 || dimY <= 0) {
+            throw new IllegalArgumentException("Zero or negative dimensions " + dimX + "x" + dimY);
+        }
+        if (dimX > Integer.MAX_VALUE || dimY > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Too large dimensions " + dimX + "x" + dimY + " (>2^31-1)");
+        }
+        this.dimX = dimX;
+        this.dimY = dimY;
+        return this;
+    }
+
+    public int getTileSize() {
+        return tileSize;
+    }
+
+    public SyntheticSVSGenerator setTileSize(int tileSize) {
+        if (tileSize <= 0 || tileSize % 16 != 0) {
+            throw new IllegalArgumentException("Tile size " + tileSize + " is not a positive multiple of 16");
+        }
+        this.tileSize = tileSize;
+        return this;
+    }
+
+    public int getLevelCompression() {
+        return levelCompression;
+    }
+
+    public SyntheticSVSGenerator setLevelCompression(int levelCompression) {
+        if (levelCompression < 2) {
+            throw new IllegalArgumentException("Invalid level compression " + levelCompression + " (must be >=2)");
+        }
+        this.levelCompression = levelCompression;
+        return this;
+    }
+
+    public int getNumberOfLevels() {
+        return numberOfLevels;
+    }
+
+    /**
+     * Sets the number of pyramid levels; 0 (default) means all levels until the sides become
+     * less than 256. Little number of levels with {@link #setLevelCompression level compression} 4
+     * leads to virtual layers while reading with combining with the whole slide.
+     *
+     * @param numberOfLevels number of levels or 0 for automatic choice.
+     * @return a reference to this object.
+     */
+    public SyntheticSVSGenerator setNumberOfLevels(int numberOfLevels) {
+        if (numberOfLevels < 0) {
+            throw new IllegalArgumentException("Negative number of levels");
+        }
+        this.numberOfLevels = numberOfLevels;
+        return this;
+    }
+
+    public Set<Integer> getOmittedLevels() {
+        return Collections.unmodifiableSet(omittedLevels);
+    }
+
+    /**
+     * Sets indexes of levels, that will not be written into the file (level #0 cannot be omitted).
+     * Note that the SVS reader considers a gap in the sequence of levels as the end of the pyramid.
+     *
+     * @param omittedLevels indexes of levels to skip.
+     * @return a reference to this object.
+     */
+    public SyntheticSVSGenerator setOmittedLevels(Collection<Integer> omittedLevels) {
+        Objects.requireNonNull(omittedLevels, "Null omittedLevels");
+        for (Integer level : omittedLevels) {
+            if (level == null || level <= 0) {
+                throw new IllegalArgumentException("Illegal omitted level " + level + " (must be positive)");
+            }
+        }
+        this.omittedLevels.clear();
+        this.omittedLevels.addAll(omittedLevels);
+        return this;
+    }
+
+    public TagCompression getCompression() {
+        return compression;
+    }
+
+    public SyntheticSVSGenerator setCompression(TagCompression compression) {
+        this.compression = Objects.requireNonNull(compression, "Null compression");
+        return this;
+    }
+
+    public Double getQuality() {
+        return quality;
+    }
+
+    public SyntheticSVSGenerator setQuality(Double quality) {
+        this.quality = quality;
+        return this;
+    }
+
+    public boolean isThumbnail() {
+        return thumbnail;
+    }
+
+    public SyntheticSVSGenerator setThumbnail(boolean thumbnail) {
+        this.thumbnail = thumbnail;
+        return this;
+    }
+
+    public boolean isLabel() {
+        return label;
+    }
+
+    public SyntheticSVSGenerator setLabel(boolean label) {
+        this.label = label;
+        return this;
+    }
+
+    public boolean isMacro() {
+        return macro;
+    }
+
+    public SyntheticSVSGenerator setMacro(boolean macro) {
+        this.macro = macro;
+        return this;
+    }
+
+    public double getPixelSizeInMicrons() {
+        return pixelSizeInMicrons;
+    }
+
+    public SyntheticSVSGenerator setPixelSizeInMicrons(double pixelSizeInMicrons) {
+        if (!(pixelSizeInMicrons > 0.0)) {
+            throw new IllegalArgumentException("Pixel size must be positive");
+        }
+        this.pixelSizeInMicrons = pixelSizeInMicrons;
+        return this;
+    }
+
+    public double getMagnification() {
+        return magnification;
+    }
+
+    public SyntheticSVSGenerator setMagnification(double magnification) {
+        this.magnification = magnification;
+        return this;
+    }
+
+    public double getImageLeftInMicrons() {
+        return imageLeftInMicrons;
+    }
+
+    public double getImageTopInMicronsAxisUpward() {
+        return imageTopInMicronsAxisUpward;
+    }
+
+    public SyntheticSVSGenerator setImagePositionOnSlide(double leftInMicrons, double topInMicronsAxisUpward) {
+        this.imageLeftInMicrons = leftInMicrons;
+        this.imageTopInMicronsAxisUpward = topInMicronsAxisUpward;
+        return this;
+    }
+
+    public boolean isBigTiff() {
+        return bigTiff;
+    }
+
+    public SyntheticSVSGenerator setBigTiff(boolean bigTiff) {
+        this.bigTiff = bigTiff;
+        return this;
+    }
+
+    public List<long[]> levelDimensions() {
+        final List<long[]> result = new ArrayList<>();
+        long levelDimX = dimX;
+        long levelDimY = dimY;
+        for (int level = 0; ; level++) {
+            if (numberOfLevels > 0 ? level >= numberOfLevels :
+                    level > 0 && (levelDimX < MIN_LEVEL_SIDE || levelDimY < MIN_LEVEL_SIDE)) {
+                break;
+            }
+            result.add(new long[]{BAND_COUNT, levelDimX, levelDimY});
+            levelDimX = Math.max(1, levelDimX / levelCompression);
+            levelDimY = Math.max(1, levelDimY / levelCompression);
+        }
+        return result;
+    }
+
+    public void write(Path file) throws IOException {
+        Objects.requireNonNull(file, "Null file");
+        final List<long[]> levels = levelDimensions();
+        try (TiffWriter writer = new TiffWriter(file)) {
+            writer.setBigTiff(bigTiff);
+            writer.setLittleEndian(true);
+            writer.create(false);
+            writeLevel(writer, 0, levels.get(0));
+            if (thumbnail) {
+                final double scale = Math.max(1.0, (double) Math.max(dimX, dimY) / THUMBNAIL_SIDE);
+                final int thumbnailDimX = (int) Math.max(1, Math.round(dimX / scale));
+                final int thumbnailDimY = (int) Math.max(1, Math.round(dimY / scale));
+                writeStripped(writer, compression, quality,
+                        levelImage(0, 0, thumbnailDimX, thumbnailDimY, (double) dimX / thumbnailDimX),
+                        mainDescription(thumbnailDimX, thumbnailDimY) + " -> " + thumbnailDimX + "x" + thumbnailDimY);
+            }
+            for (int level = 1; level < levels.size(); level++) {
+                if (!omittedLevels.contains(level)) {
+                    writeLevel(writer, level, levels.get(level));
+                }
+            }
+            if (label) {
+                writeStripped(writer, TagCompression.LZW, null, labelImage(),
+                        "Aperio Image Library (synthetic)\nlabel " + LABEL_DIM_X + "x" + LABEL_DIM_Y);
+            }
+            if (macro) {
+                writeStripped(writer, TagCompression.JPEG, null, macroImage(),
+                        "Aperio Image Library (synthetic)\nmacro " + MACRO_DIM_X + "x" + MACRO_DIM_Y);
+            }
+        }
+    }
+
+    /**
+     * Returns the value of the given band of the synthetic image at the given zero-level pixel.
+     *
+     * @param x    x-coordinate at zero level.
+     * @param y    y-coordinate at zero level.
+     * @param band index of the band (0..2 for RGB).
+     * @return pixel value (unsigned byte).
+     */
+    public int pixel(long x, long y, int band) {
+        if (x < 0 || y < 0 || x >= dimX || y >= dimY) {
+            return BACKGROUND & 0xFF;
+        }
+        final long cellX = x / CELL_SIZE;
+        final long cellY = y / CELL_SIZE;
+        final long cellHash = mix(seed ^ (cellX * 0x9E3779B97F4A7C15L) ^ (cellY * 0xC2B2AE3D27D4EB4FL));
+        if ((cellHash & 0xFF) < 0x60) {
+            return BACKGROUND & 0xFF;
+            // - empty cell (~37% of cells)
+        }
+        final int radius = CELL_SIZE / 8 + (int) ((cellHash >>> 8) & 0x7F);
+        // - from CELL_SIZE/8 to CELL_SIZE/8+127 <= CELL_SIZE/2 - 1
+        final int freeSpace = CELL_SIZE - 2 * radius;
+        final long centerX = cellX * CELL_SIZE + radius + (int) (((cellHash >>> 16) & 0xFFFF) % (freeSpace + 1));
+        final long centerY = cellY * CELL_SIZE + radius + (int) (((cellHash >>> 32) & 0xFFFF) % (freeSpace + 1));
+        final long dx = x - centerX;
+        final long dy = y - centerY;
+        if (dx * dx + dy * dy > (long) radius * (long) radius) {
+            return BACKGROUND & 0xFF;
+        }
+        final int base = switch (band) {
+            case 0 -> 0xC0 + (int) ((cellHash >>> 48) & 0x1F);
+            case 1 -> 0x60 + (int) ((cellHash >>> 53) & 0x3F);
+            default -> 0xA0 + (int) ((cellHash >>> 59) & 0x1F);
+        };
+        // - pink/violet, like hematoxylin-eosin staining
+        final int noise = (int) (mix(cellHash ^ (x * 0x632BE59BD9B4E019L) ^ (y * 0x85157AF5L) ^ band) & 0x1F) - 16;
+        return Math.max(0, Math.min(255, base + noise));
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 3) {
+            System.out.println("Usage:");
+            System.out.println("    " + SyntheticSVSGenerator.class.getName()
+                    + " result.svs dimX dimY [tileSize [compression [numberOfLevels [seed]]]]");
+            System.out.println("compression is JPEG (default), LZW, DEFLATE or NONE; "
+                    + "numberOfLevels 0 means all levels");
+            return;
+        }
+        final SyntheticSVSGenerator generator = newInstance()
+                .setDimensions(Long.parseLong(args[1]), Long.parseLong(args[2]));
+        if (args.length > 3) {
+            generator.setTileSize(Integer.parseInt(args[3]));
+        }
+        if (args.length > 4) {
+            generator.setCompression(TagCompression.valueOf(args[4]));
+        }
+        if (args.length > 5) {
+            generator.setNumberOfLevels(Integer.parseInt(args[5]));
+        }
+        if (args.length > 6) {
+            generator.setSeed(Long.parseLong(args[6]));
+        }
+        final Path file = Paths.get(args[0]);
+        long t1 = System.nanoTime();
+        generator.write(file);
+        long t2 = System.nanoTime();
+        System.out.printf(Locale.US, "Synthetic slide %dx%d, %d levels, written into %s in %.3f seconds%n",
+                generator.dimX, generator.dimY, generator.levelDimensions().size(), file, (t2 - t1) * 1e-9);
+    }
+
+    private void writeLevel(TiffWriter writer, int level, long[] dimensions) throws IOException {
+        final int levelDimX = (int) dimensions[1];
+        final int levelDimY = (int) dimensions[2];
+        final double scale = (double) dimX / levelDimX;
+        final TiffIFD ifd = writer.newIFD(true);
+        ifd.putTileSizes(tileSize, tileSize);
+        ifd.putCompression(compression);
+        ifd.putMatrixInformation(levelImage(0, 0, 1, 1, scale), false);
+        ifd.putImageDimensions(levelDimX, levelDimY);
+        ifd.putDescription(mainDescription(levelDimX, levelDimY));
+        writer.setCompressionQuality(quality);
+        final TiffWriteMap map = writer.newMap(ifd, false);
+        writer.writeForward(map);
+        final int tilesPerRow = (levelDimX + tileSize - 1) / tileSize;
+        @SuppressWarnings("unchecked") final Matrix<? extends UpdatablePArray>[] row = new Matrix[tilesPerRow];
+        for (int y = 0; y < levelDimY; y += tileSize) {
+            final int tileY = y;
+            final int sizeY = Math.min(tileSize, levelDimY - y);
+            IntStream.range(0, tilesPerRow).parallel().forEach(k -> {
+                final int tileX = k * tileSize;
+                row[k] = levelImage(tileX, tileY, Math.min(tileSize, levelDimX - tileX), sizeY, scale);
+            });
+            for (int k = 0; k < tilesPerRow; k++) {
+                final List<TiffTile> updated = map.updateMatrix(row[k], k * tileSize, tileY);
+                map.writeCompletedTiles(updated);
+                row[k] = null;
+            }
+        }
+        map.completeWriting();
+    }
+
+    private static void writeStripped(
+            TiffWriter writer,
+            TagCompression compression,
+            Double quality,
+            Matrix<? extends UpdatablePArray> image,
+            String description) throws IOException {
+        final TiffIFD ifd = writer.newIFD(false);
+        ifd.putCompression(compression);
+        ifd.putMatrixInformation(image, false);
+        ifd.putDescription(description);
+        writer.setCompressionQuality(quality);
+        final TiffWriteMap map = writer.newMap(ifd, false);
+        writer.writeForward(map);
+        map.updateMatrix(image, 0, 0);
+        map.completeWriting();
+    }
+
+    // Returns the packed (interleaved) matrix bandCount x sizeX x sizeY
+    private Matrix<? extends UpdatablePArray> levelImage(long fromX, long fromY, int sizeX, int sizeY, double scale) {
+        final byte[] data = new byte[BAND_COUNT * sizeX * sizeY];
+        for (int y = 0, disp = 0; y < sizeY; y++) {
+            final long zeroY = (long) ((fromY + y + 0.5) * scale);
+            for (int x = 0; x < sizeX; x++) {
+                final long zeroX = (long) ((fromX + x + 0.5) * scale);
+                for (int band = 0; band < BAND_COUNT; band++, disp++) {
+                    data[disp] = (byte) pixel(zeroX, zeroY, band);
+                }
+            }
+        }
+        return Matrices.matrix(SimpleMemoryModel.asUpdatableByteArray(data), BAND_COUNT, sizeX, sizeY);
+    }
+
+    private Matrix<? extends UpdatablePArray> labelImage() {
+        final byte[] data = new byte[BAND_COUNT * LABEL_DIM_X * LABEL_DIM_Y];
+        for (int y = 0, disp = 0; y < LABEL_DIM_Y; y++) {
+            for (int x = 0; x < LABEL_DIM_X; x++) {
+                final boolean bar = Math.floorMod((x / 12) * 7 + seed, 3) == 0 && y > LABEL_DIM_Y / 4 && y < LABEL_DIM_Y / 2;
+                // - something like a barcode
+                for (int band = 0; band < BAND_COUNT; band++, disp++) {
+                    data[disp] = bar ? 0 : (byte) 0xFF;
+                }
+            }
+        }
+        return Matrices.matrix(SimpleMemoryModel.asUpdatableByteArray(data), BAND_COUNT, LABEL_DIM_X, LABEL_DIM_Y);
+    }
+
+    private Matrix<? extends UpdatablePArray> macroImage() {
+        final double micronsPerMacroPixel = SLIDE_WIDTH_IN_MICRONS / MACRO_DIM_X;
+        final double imageTop = SLIDE_HEIGHT_IN_MICRONS - imageTopInMicronsAxisUpward;
+        final byte[] data = new byte[BAND_COUNT * MACRO_DIM_X * MACRO_DIM_Y];
+        for (int y = 0, disp = 0; y < MACRO_DIM_Y; y++) {
+            final double zeroY = ((y + 0.5) * micronsPerMacroPixel - imageTop) / pixelSizeInMicrons;
+            for (int x = 0; x < MACRO_DIM_X; x++) {
+                final double zeroX = ((x + 0.5) * micronsPerMacroPixel - imageLeftInMicrons) / pixelSizeInMicrons;
+                final boolean inside = zeroX >= 0 && zeroY >= 0 && zeroX < dimX && zeroY < dimY;
+                for (int band = 0; band < BAND_COUNT; band++, disp++) {
+                    data[disp] = inside ? (byte) pixel((long) zeroX, (long) zeroY, band) : MACRO_GLASS;
+                }
+            }
+        }
+        return Matrices.matrix(SimpleMemoryModel.asUpdatableByteArray(data), BAND_COUNT, MACRO_DIM_X, MACRO_DIM_Y);
+    }
+
+    private String mainDescription(long levelDimX, long levelDimY) {
+        return String.format(Locale.US, "Aperio Image Library (synthetic, seed %d)\n"
+                        + "%dx%d [0,0 %dx%d] (%dx%d) %s/RGB|AppMag = %s|MPP = %s|Left = %.6f|Top = %.6f",
+                seed, dimX, dimY, levelDimX, levelDimY, tileSize, tileSize, compression.name(),
+                magnification, pixelSizeInMicrons,
+                imageLeftInMicrons / 1000.0, imageTopInMicronsAxisUpward / 1000.0);
+        // - Left and Top are in millimeters in Aperio format
+    }
+
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
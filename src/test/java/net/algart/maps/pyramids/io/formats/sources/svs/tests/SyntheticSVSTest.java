@@ -0,0 +1,288 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2017-2026 Daniel Alievsky, AlgART Laboratory (http://algart.net)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package net.algart.maps.pyramids.io.formats.sources.svs.tests;
+
+import net.algart.arrays.Matrix;
+import net.algart.arrays.PArray;
+import net.algart.maps.pyramids.io.api.CachingMemoryGovernor;
+import net.algart.maps.pyramids.io.api.PlanePyramidSource;
+import net.algart.maps.pyramids.io.formats.sources.svs.SVSPlanePyramidSource;
+import net.algart.maps.pyramids.io.formats.sources.svs.metadata.SVSAdditionalCombiningInfo;
+import net.algart.matrices.tiff.TiffReader;
+import net.algart.matrices.tiff.TiffWriter;
+import net.algart.matrices.tiff.tags.TagCompression;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.Set;
+
+public class SyntheticSVSTest {
+    private static final int AREA_SIZE = 300;
+
+    private static void checkArea(
+            SyntheticSVSGenerator generator,
+            PlanePyramidSource source,
+            int level,
+            long fromX,
+            long fromY,
+            boolean lossless) {
+        final long dimX = source.dim(level, PlanePyramidSource.DIM_WIDTH);
+        final long dimY = source.dim(level, PlanePyramidSource.DIM_HEIGHT);
+        final long toX = Math.min(dimX, fromX + AREA_SIZE);
+        final long toY = Math.min(dimY, fromY + AREA_SIZE);
+        final Matrix<? extends PArray> m = source.readSubMatrix(level, fromX, fromY, toX, toY);
+        final double scale = (double) generator.getDimX() / dimX;
+        final int bandCount = source.bandCount();
+        final PArray array = m.array();
+        double sumDifference = 0.0;
+        long index = 0;
+        for (long y = fromY; y < toY; y++) {
+            final long zeroY = (long) ((y + 0.5) * scale);
+            for (long x = fromX; x < toX; x++) {
+                final long zeroX = (long) ((x + 0.5) * scale);
+                for (int band = 0; band < bandCount; band++, index++) {
+                    final int expected = generator.pixel(zeroX, zeroY, band);
+                    final int actual = (int) array.getDouble(index);
+                    if (lossless && expected != actual) {
+                        throw new AssertionError("Level " + level + ", pixel (" + x + ", " + y + "), band "
+                                + band + ": " + actual + " instead of " + expected);
+                    }
+                    sumDifference += Math.abs(expected - actual);
+                }
+            }
+        }
+        final double meanDifference = sumDifference / Math.max(1, index);
+        if (meanDifference > 8.0) {
+            throw new AssertionError("Level " + level + ", area from (" + fromX + ", " + fromY
+                    + "): too large mean difference " + meanDifference);
+        }
+    }
+
+    private static void checkCopyToTiff(
+            Path svsFile,
+            Path copy,
+            long fromX,
+            long fromY,
+            long toX,
+            long toY,
+            boolean lossless,
+            boolean copyingExpected) throws IOException {
+        final SVSPlanePyramidSource source = new SVSPlanePyramidSource(svsFile);
+        try {
+            final int copiedCount;
+            try (TiffWriter writer = new TiffWriter(copy)) {
+                writer.create();
+                copiedCount = source.copyToTiff(writer, 0, fromX, fromY, toX, toY);
+            }
+            if (copyingExpected != (copiedCount > 0)) {
+                throw new AssertionError(copyingExpected ?
+                        "No tiles were copied in the encoded form to " + copy :
+                        copiedCount + " tiles were copied in the encoded form to " + copy
+                                + ", though the writer cannot encode other tiles in the same way");
+            }
+            try (TiffReader reader = new TiffReader(copy)) {
+                final Matrix<? extends PArray> copied = reader.map(0).readInterleavedMatrix(
+                        0, 0, (int) (toX - fromX), (int) (toY - fromY));
+                final Matrix<? extends PArray> expected = source.readSubMatrix(0, fromX, fromY, toX, toY);
+                final boolean exact = lossless || copyingExpected;
+                if (exact && !copied.equals(expected)) {
+                    throw new AssertionError("Copied TIFF " + copy + " differs from the source");
+                }
+                final double meanDifference = meanDifference(copied.array(), expected.array());
+                if (meanDifference > 8.0) {
+                    throw new AssertionError("Copied TIFF " + copy + ": too large mean difference "
+                            + meanDifference);
+                }
+            }
+            System.out.printf("%s: %d tiles copied in encoded form%n", copy, copiedCount);
+        } finally {
+            source.freeResources(PlanePyramidSource.FlushMode.STANDARD);
+        }
+    }
+
+    private static double meanDifference(PArray a, PArray b) {
+        if (a.length() != b.length()) {
+            throw new AssertionError("Different lengths " + a.length() + " and " + b.length());
+        }
+        double sum = 0.0;
+        for (long k = 0, n = a.length(); k < n; k++) {
+            sum += Math.abs(a.getDouble(k) - b.getDouble(k));
+        }
+        return sum / Math.max(1, a.length());
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.out.println("Usage:");
+            System.out.println("    " + SyntheticSVSTest.class.getName()
+                    + " result_folder [compression [dimX dimY]]");
+            return;
+        }
+        final Path folder = Paths.get(args[0]);
+        final TagCompression compression = args.length > 1 ? TagCompression.valueOf(args[1]) : TagCompression.LZW;
+        final long dimX = args.length > 3 ? Long.parseLong(args[2]) : 6000;
+        final long dimY = args.length > 3 ? Long.parseLong(args[3]) : 4000;
+        final boolean lossless = compression != TagCompression.JPEG;
+        Files.createDirectories(folder);
+
+        final SyntheticSVSGenerator generator = SyntheticSVSGenerator.newInstance()
+                .setDimensions(dimX, dimY)
+                .setCompression(compression);
+        final Path file1 = folder.resolve("synthetic1.svs");
+        final Path file2 = folder.resolve("synthetic2.svs");
+        long t1 = System.nanoTime();
+        generator.write(file1);
+        long t2 = System.nanoTime();
+        generator.write(file2);
+        System.out.printf(Locale.US, "%s written in %.3f ms%n", file1, (t2 - t1) * 1e-6);
+        if (Files.mismatch(file1, file2) != -1) {
+            throw new AssertionError("Generator is not deterministic: " + file1 + " != " + file2);
+        }
+        System.out.println("Repeated generation produced identical file");
+
+        final List<long[]> levels = generator.levelDimensions();
+        SVSPlanePyramidSource source = new SVSPlanePyramidSource(file1);
+        try {
+            if (source.numberOfResolutions() != levels.size()) {
+                throw new AssertionError("Invalid number of levels " + source.numberOfResolutions()
+                        + " instead of " + levels.size());
+            }
+            for (PlanePyramidSource.SpecialImageKind kind : new PlanePyramidSource.SpecialImageKind[]{
+                    PlanePyramidSource.SpecialImageKind.THUMBNAIL_IMAGE,
+                    PlanePyramidSource.SpecialImageKind.LABEL_ONLY_IMAGE,
+                    PlanePyramidSource.SpecialImageKind.WHOLE_SLIDE}) {
+                if (!source.isSpecialMatrixSupported(kind)) {
+                    throw new AssertionError("Special image " + kind + " is not recognized");
+                }
+            }
+            final Random rnd = new Random(157);
+            for (int level = 0; level < levels.size(); level++) {
+                final long levelDimX = levels.get(level)[1];
+                final long levelDimY = levels.get(level)[2];
+                for (int test = 0; test < 10; test++) {
+                    checkArea(generator, source, level,
+                            (long) (rnd.nextDouble() * levelDimX), (long) (rnd.nextDouble() * levelDimY), lossless);
+                }
+            }
+            System.out.printf("%d levels, special images and pixels are correct%n", levels.size());
+        } finally {
+            source.freeResources(PlanePyramidSource.FlushMode.STANDARD);
+        }
+
+        source = new SVSPlanePyramidSource(file1);
+        final SVSPlanePyramidSource cachingSource = new SVSPlanePyramidSource(file1);
+        cachingSource.setEncodedTileCachingMemory(64 * 1048576);
+        try {
+            final Random rnd = new Random(157);
+            for (int test = 0; test < 20; test++) {
+                final long fromX = (long) (rnd.nextDouble() * (dimX - AREA_SIZE));
+                final long fromY = (long) (rnd.nextDouble() * (dimY - AREA_SIZE));
+                final Matrix<? extends PArray> expected = source.readSubMatrix(0,
+                        fromX, fromY, fromX + AREA_SIZE, fromY + AREA_SIZE);
+                for (int repeat = 0; repeat < 2; repeat++) {
+                    // - the 2nd reading does not access the file, if tiles were not cached by TiffReader itself
+                    final Matrix<? extends PArray> m = cachingSource.readSubMatrix(0,
+                            fromX, fromY, fromX + AREA_SIZE, fromY + AREA_SIZE);
+                    if (!m.equals(expected)) {
+                        throw new AssertionError("Different data read with encoded tile cache from ("
+                                + fromX + ", " + fromY + "), attempt " + repeat);
+                    }
+                }
+            }
+            System.out.printf("Reading with encoded tile cache is correct: %s%n",
+                    CachingMemoryGovernor.getInstance());
+        } finally {
+            source.freeResources(PlanePyramidSource.FlushMode.STANDARD);
+            cachingSource.freeResources(PlanePyramidSource.FlushMode.STANDARD);
+        }
+
+        final long copyFromX = 2 * 256;
+        final long copyFromY = 256;
+        // - aligned to the tile grid of the generator (256x256)
+        checkCopyToTiff(file1, folder.resolve("synthetic_copy.tiff"), copyFromX, copyFromY,
+                Math.min(dimX, copyFromX + 5 * 256 + 100), dimY, lossless, lossless);
+        // - right boundary requires re-encoding (possible only for lossless compressions), bottom boundary does not
+
+        final Path jpegFile = folder.resolve("synthetic_jpeg.svs");
+        SyntheticSVSGenerator.newInstance()
+                .setDimensions(dimX, dimY)
+                .setCompression(TagCompression.JPEG)
+                .write(jpegFile);
+        checkCopyToTiff(jpegFile, folder.resolve("synthetic_jpeg_copy.tiff"), copyFromX, copyFromY,
+                Math.min(dimX, copyFromX + 5 * 256), dimY, false, true);
+        // - all tiles are copied: the result must be identical to the source even for lossy compression
+        checkCopyToTiff(jpegFile, folder.resolve("synthetic_jpeg_reencoded.tiff"), copyFromX, copyFromY,
+                Math.min(dimX, copyFromX + 5 * 256 + 100), dimY, false, false);
+        // - the writer cannot encode JPEG tiles consistently with the copied JPEG tables: no tiles are copied
+
+        if (levels.size() >= 3) {
+            final Path omittedFile = folder.resolve("synthetic_omitted_level.svs");
+            final SyntheticSVSGenerator omittingGenerator = SyntheticSVSGenerator.newInstance()
+                    .setDimensions(dimX, dimY)
+                    .setCompression(compression)
+                    .setOmittedLevels(List.of(2));
+            if (!omittingGenerator.getOmittedLevels().equals(Set.of(2))) {
+                throw new AssertionError("Invalid omitted levels " + omittingGenerator.getOmittedLevels());
+            }
+            omittingGenerator.write(omittedFile);
+            source = new SVSPlanePyramidSource(omittedFile);
+            try {
+                if (source.numberOfResolutions() != 2) {
+                    throw new AssertionError("Gap in the levels was not recognized as the end of the pyramid: "
+                            + source.numberOfResolutions() + " levels instead of 2");
+                }
+                if (!source.isSpecialMatrixSupported(PlanePyramidSource.SpecialImageKind.LABEL_ONLY_IMAGE)) {
+                    throw new AssertionError("Label is not recognized after the omitted level");
+                }
+                checkArea(omittingGenerator, source, 1, 0, 0, lossless);
+                System.out.printf("Level #2 omitted: %d levels are read%n", source.numberOfResolutions());
+            } finally {
+                source.freeResources(PlanePyramidSource.FlushMode.STANDARD);
+            }
+        }
+
+        final Path file3 = folder.resolve("synthetic_2_levels.svs");
+        generator.setNumberOfLevels(2).write(file3);
+        final SVSAdditionalCombiningInfo combiningInfo = SVSAdditionalCombiningInfo.getInstanceFromJson(null);
+        combiningInfo.setSlideWidthInMicrons(SyntheticSVSGenerator.SLIDE_WIDTH_IN_MICRONS);
+        combiningInfo.setSlideHeightInMicrons(SyntheticSVSGenerator.SLIDE_HEIGHT_IN_MICRONS);
+        source = new SVSPlanePyramidSource(file3, true, combiningInfo);
+        try {
+            if (source.numberOfResolutions() <= 2) {
+                throw new AssertionError("Virtual layers were not created: " + source.numberOfResolutions()
+                        + " levels");
+            }
+            System.out.printf("2 actual levels combined with whole slide: %d levels (with virtual)%n",
+                    source.numberOfResolutions());
+        } finally {
+            source.freeResources(PlanePyramidSource.FlushMode.STANDARD);
+        }
+    }
+}